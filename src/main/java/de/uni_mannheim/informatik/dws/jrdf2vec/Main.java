@@ -7,7 +7,16 @@ import de.uni_mannheim.informatik.dws.jrdf2vec.training.Word2VecType;
 import de.uni_mannheim.informatik.dws.jrdf2vec.util.*;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.WalkGenerationMode;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.WalkGenerationManager;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.EdgeWeightStrategy;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.GraphSnapshot;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.HdtHandle;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TripleDataSetMemory;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.light.WalkGenerationManagerLight;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.IWalkGenerator;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.MemoryWalkGenerator;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.Node2VecParameters;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.NtMemoryWalkGenerator;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.WalkGeneratorManager;
 
 import java.io.File;
 import java.time.Instant;
@@ -139,11 +148,42 @@ public class Main {
      */
     private static boolean isEmbedText = false;
 
+    /**
+     * If true, a single N-Triples file is parsed in parallel (with {@link Main#numberOfThreads} threads) instead of
+     * with the NxParser.
+     */
+    private static boolean isParallelParsing = false;
+
+    /**
+     * The number of threads that encode and compress the walks.
+     */
+    private static int numberOfWriterThreads = 1;
+
+    /**
+     * If true, each writer thread writes to its own gzipped walk file.
+     */
+    private static boolean isShardedOutput = false;
+
     /**
      * The port that is to be used
      */
     private static int port = Gensim.DEFAULT_PORT;
 
+    /**
+     * Edge weight strategy of the biased walks. If null, the default of the walk generator is used.
+     */
+    private static EdgeWeightStrategy edgeWeightStrategy = null;
+
+    /**
+     * Parameters of the node2vec walks. If null, the default of the walk generator is used.
+     */
+    private static Node2VecParameters node2VecParameters = null;
+
+    /**
+     * The mode in which HDT files are opened.
+     */
+    private static HdtHandle.LoadingMode hdtLoadingMode = HdtHandle.DEFAULT_LOADING_MODE;
+
     /**
      * The default merge file.
      */
@@ -250,6 +290,16 @@ public class Main {
             return;
         }
 
+        if(containsIgnoreCase("-createSnapshot", args)){
+            createSnapshot(args);
+            return;
+        }
+
+        if(containsIgnoreCase("-generateHdtIndex", args)){
+            generateHdtIndex(args);
+            return;
+        }
+
         // check for analysis request
         if (args[0].equalsIgnoreCase("-analyzevocab") || args[0].equalsIgnoreCase("-analyzevocabulary") ||
                 args[0].equalsIgnoreCase("--analyzevocabulary") || args[0].equalsIgnoreCase("--analyzevocab")) {
@@ -374,6 +424,20 @@ public class Main {
         } else numberOfThreads = Runtime.getRuntime().availableProcessors() / 2;
         System.out.println("Using " + numberOfThreads + " threads for walk generation and training.");
 
+        isParallelParsing = containsIgnoreCase("-parallelParsing", args);
+
+        String writerThreadsText = getValue("-writerThreads", args);
+        if (writerThreadsText != null) {
+            try {
+                numberOfWriterThreads = Integer.parseInt(writerThreadsText);
+            } catch (NumberFormatException nfe) {
+                System.out.println("Could not parse the number of writer threads. Using default.");
+                numberOfWriterThreads = 1;
+            }
+        } else numberOfWriterThreads = 1;
+
+        isShardedOutput = containsIgnoreCase("-shardedOutput", args);
+
         String dimensionText = getValue("-dimension", args);
         dimensionText = (dimensionText == null) ? getValue("-dimensions", args) : dimensionText;
         if (dimensionText != null) {
@@ -495,6 +559,34 @@ public class Main {
             walkGenerationMode = WalkGenerationMode.getModeFromString(walkGenerationModeText);
         }
 
+        String hdtModeText = getValue("-hdtMode", args);
+        if (hdtModeText != null) {
+            hdtLoadingMode = HdtHandle.LoadingMode.fromString(hdtModeText);
+            if (hdtLoadingMode == null) {
+                System.out.println("Could not parse the HDT mode. Using default (" +
+                        HdtHandle.DEFAULT_LOADING_MODE.name().toLowerCase() + ").");
+                hdtLoadingMode = HdtHandle.DEFAULT_LOADING_MODE;
+            }
+        }
+
+        String edgeWeightStrategyText = getValue("-edgeWeightStrategy", args);
+        if (edgeWeightStrategyText != null) {
+            edgeWeightStrategy = EdgeWeightStrategy.fromString(edgeWeightStrategyText);
+            if (edgeWeightStrategy == null) {
+                System.out.println("Could not parse the edge weight strategy. Using default (" +
+                        EdgeWeightStrategy.DEFAULT_STRATEGY.name().toLowerCase() + ").");
+                edgeWeightStrategy = EdgeWeightStrategy.DEFAULT_STRATEGY;
+            }
+        }
+
+        String returnParameterText = getValue("-returnParameter", args);
+        String inOutParameterText = getValue("-inOutParameter", args);
+        if (returnParameterText != null || inOutParameterText != null) {
+            node2VecParameters = new Node2VecParameters(
+                    parseNode2VecParameter(returnParameterText, "return parameter"),
+                    parseNode2VecParameter(inOutParameterText, "in-out parameter"));
+        }
+
         // setting the default walk generation mode
         if (lightEntityFile != null) {
             walkGenerationMode = (walkGenerationMode == null) ? WalkGenerationMode.MID_WALKS : walkGenerationMode;
@@ -543,13 +635,23 @@ public class Main {
                         lightEntityFile,
                         isEmbedText,
                         existingWalkDirectory,
-                        walkDirectory);
+                        walkDirectory,
+                        hdtLoadingMode);
+                if (edgeWeightStrategy != null) generatorLight.setEdgeWeightStrategy(edgeWeightStrategy);
+                if (node2VecParameters != null) generatorLight.setNode2VecParameters(node2VecParameters);
+                generatorLight.setNumberOfWriterThreads(numberOfWriterThreads);
+                generatorLight.setShardedOutput(isShardedOutput);
                 generatorLight.generateWalks(walkGenerationMode, numberOfThreads, numberOfWalks, depth, window, walkDirectory);
                 generatorLight.close();
             } else {
                 // classic walk generation
                 WalkGenerationManager classicGenerator = new WalkGenerationManager(knowledgeGraphFile.toURI(),
-                        isEmbedText, true, existingWalkDirectory, walkDirectory);
+                        isEmbedText, true, existingWalkDirectory, walkDirectory,
+                        isParallelParsing ? numberOfThreads : 1, hdtLoadingMode);
+                if (edgeWeightStrategy != null) classicGenerator.setEdgeWeightStrategy(edgeWeightStrategy);
+                if (node2VecParameters != null) classicGenerator.setNode2VecParameters(node2VecParameters);
+                classicGenerator.setNumberOfWriterThreads(numberOfWriterThreads);
+                classicGenerator.setShardedOutput(isShardedOutput);
                 classicGenerator.generateWalks(walkGenerationMode, numberOfThreads, numberOfWalks, depth, window, walkDirectory);
                 classicGenerator.close();
             }
@@ -576,6 +678,10 @@ public class Main {
             // setting threads
             if (numberOfThreads > 0) rdf2vec.setNumberOfThreads(numberOfThreads);
 
+            // setting the walk output
+            rdf2vec.setNumberOfWriterThreads(numberOfWriterThreads);
+            rdf2vec.setShardedOutput(isShardedOutput);
+
             // setting depth
             if (depth > 0) rdf2vec.setDepth(depth);
 
@@ -588,6 +694,9 @@ public class Main {
             // setting the text embedding option
             rdf2vec.setEmbedText(isEmbedText);
 
+            // setting the parser of single N-Triples files
+            rdf2vec.setParallelParsing(isParallelParsing);
+
             // setting the continuation walk directory
             if (existingWalkDirectory != null) rdf2vec.setExistingWalkDirectory(existingWalkDirectory);
 
@@ -597,6 +706,15 @@ public class Main {
             // set vector text file
             rdf2vec.setVectorTextFileGeneration(isVectorTextFileGeneration);
 
+            // set the edge weight strategy of the biased walks
+            rdf2vec.setEdgeWeightStrategy(edgeWeightStrategy);
+
+            // set the parameters of the node2vec walks
+            rdf2vec.setNode2VecParameters(node2VecParameters);
+
+            // set the mode in which HDT files are opened
+            rdf2vec.setHdtLoadingMode(hdtLoadingMode);
+
             rdf2vec.setConfiguration(configuration);
             before = Instant.now();
             rdf2vec.train();
@@ -614,6 +732,10 @@ public class Main {
             // setting threads
             if (numberOfThreads > 0) rdf2VecLight.setNumberOfThreads(numberOfThreads);
 
+            // setting the walk output
+            rdf2VecLight.setNumberOfWriterThreads(numberOfWriterThreads);
+            rdf2VecLight.setShardedOutput(isShardedOutput);
+
             // setting depth
             if (depth > 0) rdf2VecLight.setDepth(depth);
 
@@ -632,6 +754,15 @@ public class Main {
             // setting the text embedding option
             rdf2VecLight.setEmbedText(isEmbedText);
 
+            // set the edge weight strategy of the biased walks
+            rdf2VecLight.setEdgeWeightStrategy(edgeWeightStrategy);
+
+            // set the parameters of the node2vec walks
+            rdf2VecLight.setNode2VecParameters(node2VecParameters);
+
+            // set the mode in which HDT files are opened
+            rdf2VecLight.setHdtLoadingMode(hdtLoadingMode);
+
             // set vector text file
             rdf2VecLight.setVectorTextFileGeneration(isVectorTextFileGeneration);
 
@@ -693,6 +824,66 @@ public class Main {
         Rdf2Pajek.convert(new File(parameters[0]), new File(parameters[1]));
     }
 
+    /**
+     * Reads the given graph into memory and writes a graph snapshot which can be used as {@code -graph} later on.
+     * The graph can be a single triple file or a directory of NT files.
+     *
+     * @param args The args.
+     */
+    private static void createSnapshot(String[] args) {
+        String[] parameters = getValues("-createSnapshot", 2, args);
+        if (parameters == null) {
+            System.out.println("Your input is not correct.\n" +
+                    "The syntax is: -createSnapshot <graph> <file_to_write" + GraphSnapshot.FILE_ENDING + ">");
+            return;
+        }
+        File graphFile = new File(parameters[0]);
+        TripleDataSetMemory data;
+        if (graphFile.isDirectory()) {
+            if (Util.isTdbDirectory(graphFile) || Util.isTdb2Directory(graphFile)) {
+                System.out.println("Snapshots cannot be created for TDB directories. Please provide the triple " +
+                        "files (or a directory of NT files).");
+                return;
+            }
+            NtMemoryWalkGenerator directoryGenerator = new NtMemoryWalkGenerator();
+            directoryGenerator.readNtTriplesFromDirectoryMultiThreaded(graphFile, false);
+            data = directoryGenerator.getData();
+        } else {
+            IWalkGenerator generator = WalkGeneratorManager.parseSingleFile(parameters[0]).getValue0();
+            if (!(generator instanceof MemoryWalkGenerator)) {
+                System.out.println("The graph could not be read into memory. Snapshots can only be created for " +
+                        "triple files (e.g. NT or TTL files) and directories of NT files.");
+                return;
+            }
+            data = ((MemoryWalkGenerator) generator).getData();
+        }
+        File snapshotFile = new File(parameters[1]);
+        if (GraphSnapshot.write(data, snapshotFile)) {
+            System.out.println("The snapshot was written to " + snapshotFile.getAbsolutePath() + ".");
+        } else {
+            System.out.println("The snapshot could not be written. Please check the log.");
+        }
+    }
+
+    /**
+     * Generates the index file of an HDT file so that it does not have to be generated when walks are generated.
+     *
+     * @param args The args.
+     */
+    private static void generateHdtIndex(String[] args) {
+        String hdtFilePath = getValue("-generateHdtIndex", args);
+        if (hdtFilePath == null) {
+            System.out.println("Your input is not correct.\n" +
+                    "The syntax is: -generateHdtIndex <hdt_file>");
+            return;
+        }
+        if (HdtHandle.generateIndex(new File(hdtFilePath))) {
+            System.out.println("The index is available.");
+        } else {
+            System.out.println("The index could not be generated. Please check the log.");
+        }
+    }
+
     private static void convertToKv(String[] args) {
         String[] parameters = getValues("-convertToKv", 2, args);
         if (parameters == null) {
@@ -840,6 +1031,23 @@ public class Main {
         }
     }
 
+    /**
+     * Parses a node2vec parameter given on the command line.
+     *
+     * @param parameterText The value of the argument. May be null.
+     * @param name          Name of the parameter for the console output.
+     * @return The parsed parameter or 1.0 if the value is missing or cannot be parsed.
+     */
+    private static double parseNode2VecParameter(String parameterText, String name) {
+        if (parameterText == null) return 1.0;
+        try {
+            return Double.parseDouble(parameterText);
+        } catch (NumberFormatException nfe) {
+            System.out.println("Could not parse the " + name + ". Using default (1.0).");
+            return 1.0;
+        }
+    }
+
     /**
      * Helper method.
      *
@@ -1069,6 +1277,17 @@ public class Main {
                 "    This parameter allows you to set the number of threads that shall be used for the walk generation\n" +
                 "    as well as for the training.\n\n" +
 
+                "    -writerThreads <number_of_writer_threads> (default: 1)\n" +
+                "    This parameter allows you to set the number of threads that encode and compress the walks.\n\n" +
+
+                "    -shardedOutput\n" +
+                "    If added to the call, each writer thread writes its own walk files (walk_file_<thread>_<n>.txt.gz)\n" +
+                "    so that the compression scales with -writerThreads.\n\n" +
+
+                "    -parallelParsing\n" +
+                "    If added to the call, a single NT file is parsed in parallel with the number of threads given\n" +
+                "    by -threads. By default, NT files are parsed by the NxParser.\n\n" +
+
                 "    -walkDirectory <directory where walk files shall be generated/reside>\n" +
                 "    The directory where the walks shall be generated into. In case of -onlyTraining, the directory\n" +
                 "    where the walks reside.\n\n" +
@@ -1108,6 +1327,22 @@ public class Main {
                 "    -port <port_number> (default: 1808)\n" +
                 "    The port that shall be used for the server.\n\n" +
 
+                "    -edgeWeightStrategy <" + EdgeWeightStrategy.getOptions() + "> (default: uniform)\n" +
+                "    Only relevant for the biased walk generation modes (EXPERIMENTAL_BIASED_MID_WALKS and\n" +
+                "    EXPERIMENTAL_BIASED_RANDOM_WALKS). Determines the probability with which an edge is followed.\n\n" +
+
+                "    -returnParameter <number> (default: 1.0)\n" +
+                "    Only relevant for EXPERIMENTAL_NODE2VEC_WALKS. The return parameter p of node2vec: the lower p,\n" +
+                "    the more likely the walk returns to the previous node.\n\n" +
+
+                "    -inOutParameter <number> (default: 1.0)\n" +
+                "    Only relevant for EXPERIMENTAL_NODE2VEC_WALKS. The in-out parameter q of node2vec: with q < 1,\n" +
+                "    the walk tends to move away from the previous node; with q > 1, it stays close to it.\n\n" +
+
+                "    -hdtMode <mapped|loaded> (default: mapped)\n" +
+                "    Only relevant for HDT files. By default, the HDT file and its index are memory-mapped so that the\n" +
+                "    operating system can share them among processes. With 'loaded', they are read into the heap.\n\n" +
+
                 "    -continue <existing_walk_directory>\n" +
                 "    In some cases, old walks shall be re-used (e.g. if the program was interrupted after 48h).\n" +
                 "    With the -continue option, the old walks will be re-used and only missing walks are\n" +
@@ -1184,7 +1419,22 @@ public class Main {
                 "           is the file you want to convert. Make sure you use the correct file endings to indicate\n" +
                 "           the format (.txt/.w2v).\n" +
                 "       where <new_file.kv>\n" +
-                "           is the new file that is to be written. It is recommend to use file suffix '.kv'.\n";
+                "           is the new file that is to be written. It is recommend to use file suffix '.kv'.\n\n" +
+                "H) Creating a Graph Snapshot\n" +
+                "   Parsing large graphs takes time. You can parse the graph once and write a binary snapshot which\n" +
+                "   is memory-mapped when it is used as `-graph` later on. Use the following command:\n\n" +
+                "       -createSnapshot <graph_file> <snapshot_file" + GraphSnapshot.FILE_ENDING + ">\n" +
+                "       where <graph_file>\n" +
+                "           is a triple file or a directory of NT files.\n" +
+                "       where <snapshot_file" + GraphSnapshot.FILE_ENDING + ">\n" +
+                "           is the snapshot file that is to be written. The file ending must be '" +
+                GraphSnapshot.FILE_ENDING + "'.\n" +
+                "           Datatype triples are not part of the snapshot.\n\n" +
+                "I) Generating an HDT Index\n" +
+                "   Walks on HDT files require the HDT index file (" + HdtHandle.INDEX_FILE_ENDING + "). If it does\n" +
+                "   not exist, it is generated when the walk generation starts. You can generate it upfront with the\n" +
+                "   following command:\n\n" +
+                "       -generateHdtIndex <hdt_file>\n";
     }
 
     /**
@@ -1204,6 +1454,12 @@ public class Main {
         isVectorTextFileGeneration = true;
         isOnlyTraining = false;
         isEmbedText = false;
+        isParallelParsing = false;
+        numberOfWriterThreads = 1;
+        isShardedOutput = false;
+        hdtLoadingMode = HdtHandle.DEFAULT_LOADING_MODE;
+        edgeWeightStrategy = null;
+        node2VecParameters = null;
         Gensim.shutDown();
     }
 }
@@ -9,6 +9,9 @@ import de.uni_mannheim.informatik.dws.jrdf2vec.training.Gensim;
 import de.uni_mannheim.informatik.dws.jrdf2vec.training.Word2VecConfiguration;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.WalkGenerationMode;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.WalkGenerationManager;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.HdtHandle;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IEdgeWeightStrategyFactory;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.Node2VecParameters;
 
 import java.io.File;
 import java.net.URI;
@@ -36,6 +39,16 @@ public class RDF2Vec implements IRDF2Vec {
      */
     int numberOfThreads = Runtime.getRuntime().availableProcessors() / 2;
 
+    /**
+     * The number of threads that encode and compress the walks.
+     */
+    int numberOfWriterThreads = 1;
+
+    /**
+     * True if each writer thread shall write to its own gzipped walk file.
+     */
+    boolean isShardedOutput = false;
+
     /**
      * Walks to be performed per entity.
      */
@@ -66,6 +79,12 @@ public class RDF2Vec implements IRDF2Vec {
      */
     boolean isEmbedText = false;
 
+    /**
+     * True if a single N-Triples file shall be parsed in parallel (using {@link RDF2Vec#numberOfThreads} threads)
+     * instead of with the NxParser.
+     */
+    boolean isParallelParsing = false;
+
     /**
      * Logger
      */
@@ -94,6 +113,21 @@ public class RDF2Vec implements IRDF2Vec {
      */
     boolean isVectorTextFileGeneration = true;
 
+    /**
+     * Edge weight strategy of the biased walks. If null, the default of the walk generator is used.
+     */
+    private IEdgeWeightStrategyFactory edgeWeightStrategy = null;
+
+    /**
+     * Parameters of the node2vec walks. If null, the default of the walk generator is used.
+     */
+    private Node2VecParameters node2VecParameters = null;
+
+    /**
+     * The mode in which HDT files are opened.
+     */
+    private HdtHandle.LoadingMode hdtLoadingMode = HdtHandle.DEFAULT_LOADING_MODE;
+
     /**
      * Main constructor
      * @param knowledgeGraphUri The URI to the knowledge graph.
@@ -192,10 +226,15 @@ public class RDF2Vec implements IRDF2Vec {
         WalkGenerationManager walkGenerationManager;
         if (useFile) {
             walkGenerationManager = new WalkGenerationManager(getFile(this.knowledgeGraphUri).toURI(), isEmbedText(),
-                    true, existingWalkDirectory, this.walkDirectory);
+                    true, existingWalkDirectory, this.walkDirectory, isParallelParsing ? numberOfThreads : 1,
+                    hdtLoadingMode);
         } else {
             walkGenerationManager = new WalkGenerationManager(this.ontModel, isEmbedText());
         }
+        if (edgeWeightStrategy != null) walkGenerationManager.setEdgeWeightStrategy(edgeWeightStrategy);
+        if (node2VecParameters != null) walkGenerationManager.setNode2VecParameters(node2VecParameters);
+        walkGenerationManager.setNumberOfWriterThreads(numberOfWriterThreads);
+        walkGenerationManager.setShardedOutput(isShardedOutput);
 
         walkGenerationManager.generateWalks(walkGenerationMode, numberOfThreads, numberOfWalksPerEntity, depth,
                 configuration.getWindowSize(), getWalkDirectory());
@@ -248,6 +287,48 @@ public class RDF2Vec implements IRDF2Vec {
         this.numberOfThreads = numberOfThreads;
     }
 
+    public boolean isParallelParsing() {
+        return isParallelParsing;
+    }
+
+    /**
+     * Parse a single N-Triples file in parallel with the tokenizer of the
+     * {@link de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.NtMemoryWalkGenerator} instead
+     * of with the NxParser (default: false).
+     *
+     * @param parallelParsing True if the file shall be parsed in parallel.
+     */
+    public void setParallelParsing(boolean parallelParsing) {
+        isParallelParsing = parallelParsing;
+    }
+
+    public int getNumberOfWriterThreads() {
+        return numberOfWriterThreads;
+    }
+
+    /**
+     * Set the number of threads which encode and compress the walks (default: 1).
+     *
+     * @param numberOfWriterThreads The number of writer threads.
+     */
+    public void setNumberOfWriterThreads(int numberOfWriterThreads) {
+        this.numberOfWriterThreads = numberOfWriterThreads;
+    }
+
+    public boolean isShardedOutput() {
+        return isShardedOutput;
+    }
+
+    /**
+     * If true, each writer thread writes to its own walk files ({@code walk_file_<thread>_<n>.txt.gz}) so that the
+     * compression is not serialized (default: false).
+     *
+     * @param shardedOutput True for sharded output.
+     */
+    public void setShardedOutput(boolean shardedOutput) {
+        isShardedOutput = shardedOutput;
+    }
+
     public int getNumberOfWalksPerEntity() {
         return numberOfWalksPerEntity;
     }
@@ -355,6 +436,45 @@ public class RDF2Vec implements IRDF2Vec {
         isEmbedText = embedText;
     }
 
+    public IEdgeWeightStrategyFactory getEdgeWeightStrategy() {
+        return edgeWeightStrategy;
+    }
+
+    /**
+     * Set the edge weight strategy of the biased walks.
+     *
+     * @param edgeWeightStrategy The strategy. If null, the default of the walk generator is used.
+     */
+    public void setEdgeWeightStrategy(IEdgeWeightStrategyFactory edgeWeightStrategy) {
+        this.edgeWeightStrategy = edgeWeightStrategy;
+    }
+
+    public Node2VecParameters getNode2VecParameters() {
+        return node2VecParameters;
+    }
+
+    /**
+     * Set the return and in-out parameters of the node2vec walks.
+     *
+     * @param node2VecParameters The parameters. If null, the default of the walk generator is used.
+     */
+    public void setNode2VecParameters(Node2VecParameters node2VecParameters) {
+        this.node2VecParameters = node2VecParameters;
+    }
+
+    public HdtHandle.LoadingMode getHdtLoadingMode() {
+        return hdtLoadingMode;
+    }
+
+    /**
+     * Set the mode in which HDT files are opened. The mode is ignored for other knowledge graph files.
+     *
+     * @param hdtLoadingMode The mode.
+     */
+    public void setHdtLoadingMode(HdtHandle.LoadingMode hdtLoadingMode) {
+        this.hdtLoadingMode = hdtLoadingMode;
+    }
+
     public File getExistingWalkDirectory() {
         return existingWalkDirectory;
     }
@@ -2,6 +2,9 @@ package de.uni_mannheim.informatik.dws.jrdf2vec;
 
 import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.WalkGenerationManager;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.HdtHandle;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IEdgeWeightStrategyFactory;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.Node2VecParameters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import de.uni_mannheim.informatik.dws.jrdf2vec.training.Gensim;
@@ -35,6 +38,16 @@ public class RDF2VecLight implements IRDF2Vec {
      */
     int numberOfThreads = Runtime.getRuntime().availableProcessors() / 2;
 
+    /**
+     * The number of threads that encode and compress the walks.
+     */
+    int numberOfWriterThreads = 1;
+
+    /**
+     * True if each writer thread shall write to its own gzipped walk file.
+     */
+    boolean isShardedOutput = false;
+
     /**
      * Walks to be performed per entity
      */
@@ -71,6 +84,21 @@ public class RDF2VecLight implements IRDF2Vec {
      */
     private String requiredTimeForLastTrainingString = null;
 
+    /**
+     * Edge weight strategy of the biased walks. If null, the default of the walk generator is used.
+     */
+    private IEdgeWeightStrategyFactory edgeWeightStrategy = null;
+
+    /**
+     * Parameters of the node2vec walks. If null, the default of the walk generator is used.
+     */
+    private Node2VecParameters node2VecParameters = null;
+
+    /**
+     * The mode in which HDT files are opened.
+     */
+    private HdtHandle.LoadingMode hdtLoadingMode = HdtHandle.DEFAULT_LOADING_MODE;
+
     /**
      * Default walk generation mode.
      */
@@ -138,7 +166,12 @@ public class RDF2VecLight implements IRDF2Vec {
         }
 
         Instant before = Instant.now();
-        WalkGenerationManagerLight generatorLight = new WalkGenerationManagerLight(knowledgeGraphFile, entitiesFile, isEmbedText());
+        WalkGenerationManagerLight generatorLight = new WalkGenerationManagerLight(knowledgeGraphFile.toURI(),
+                entitiesFile, isEmbedText(), null, null, hdtLoadingMode);
+        if (edgeWeightStrategy != null) generatorLight.setEdgeWeightStrategy(edgeWeightStrategy);
+        if (node2VecParameters != null) generatorLight.setNode2VecParameters(node2VecParameters);
+        generatorLight.setNumberOfWriterThreads(numberOfWriterThreads);
+        generatorLight.setShardedOutput(isShardedOutput);
         generatorLight.generateWalks(walkGenerationMode, numberOfThreads, numberOfWalksPerEntity, depth,
                 configuration.getWindowSize(), this.walkDirectory);
         generatorLight.close();
@@ -188,6 +221,33 @@ public class RDF2VecLight implements IRDF2Vec {
         this.numberOfThreads = numberOfThreads;
     }
 
+    public int getNumberOfWriterThreads() {
+        return numberOfWriterThreads;
+    }
+
+    /**
+     * Set the number of threads which encode and compress the walks (default: 1).
+     *
+     * @param numberOfWriterThreads The number of writer threads.
+     */
+    public void setNumberOfWriterThreads(int numberOfWriterThreads) {
+        this.numberOfWriterThreads = numberOfWriterThreads;
+    }
+
+    public boolean isShardedOutput() {
+        return isShardedOutput;
+    }
+
+    /**
+     * If true, each writer thread writes to its own walk files ({@code walk_file_<thread>_<n>.txt.gz}) so that the
+     * compression is not serialized (default: false).
+     *
+     * @param shardedOutput True for sharded output.
+     */
+    public void setShardedOutput(boolean shardedOutput) {
+        isShardedOutput = shardedOutput;
+    }
+
     public int getNumberOfWalksPerEntity() {
         return numberOfWalksPerEntity;
     }
@@ -283,6 +343,45 @@ public class RDF2VecLight implements IRDF2Vec {
         return this.walkGenerationMode;
     }
 
+    public IEdgeWeightStrategyFactory getEdgeWeightStrategy() {
+        return edgeWeightStrategy;
+    }
+
+    /**
+     * Set the edge weight strategy of the biased walks.
+     *
+     * @param edgeWeightStrategy The strategy. If null, the default of the walk generator is used.
+     */
+    public void setEdgeWeightStrategy(IEdgeWeightStrategyFactory edgeWeightStrategy) {
+        this.edgeWeightStrategy = edgeWeightStrategy;
+    }
+
+    public Node2VecParameters getNode2VecParameters() {
+        return node2VecParameters;
+    }
+
+    /**
+     * Set the return and in-out parameters of the node2vec walks.
+     *
+     * @param node2VecParameters The parameters. If null, the default of the walk generator is used.
+     */
+    public void setNode2VecParameters(Node2VecParameters node2VecParameters) {
+        this.node2VecParameters = node2VecParameters;
+    }
+
+    public HdtHandle.LoadingMode getHdtLoadingMode() {
+        return hdtLoadingMode;
+    }
+
+    /**
+     * Set the mode in which HDT files are opened. The mode is ignored for other knowledge graph files.
+     *
+     * @param hdtLoadingMode The mode.
+     */
+    public void setHdtLoadingMode(HdtHandle.LoadingMode hdtLoadingMode) {
+        this.hdtLoadingMode = hdtLoadingMode;
+    }
+
     @Override
     public boolean isVectorTextFileGeneration() {
         return isVectorTextFileGeneration;
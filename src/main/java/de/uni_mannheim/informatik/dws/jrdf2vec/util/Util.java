@@ -1,6 +1,8 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.util;
 
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.RandomAccessSet;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.WalkHashSet;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.jena.ontology.OntModel;
@@ -38,6 +40,11 @@ public class Util {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Util.class);
 
+    /**
+     * One reusable set for the deduplication of walks per thread.
+     */
+    private static final ThreadLocal<WalkHashSet> WALK_HASH_SETS = ThreadLocal.withInitial(WalkHashSet::new);
+
     /**
      * Helper method. Formats the time delta between {@code before} and {@code after} to a string with human readable
      * time difference in days, hours, minutes, and seconds.
@@ -337,30 +344,47 @@ public class Util {
         return isDatFileAvailable;
     }
 
+    /**
+     * Returns true if the provided directory is a TDB2 directory, else false. A TDB2 directory contains the data in
+     * generation directories named {@code Data-0001}, {@code Data-0002}, etc.
+     *
+     * @param directoryToCheck The directory that shall be checked.
+     * @return True if TDB2 directory, else false.
+     */
+    public static boolean isTdb2Directory(File directoryToCheck) {
+        if (directoryToCheck == null || !directoryToCheck.exists() || !directoryToCheck.isDirectory()) {
+            return false;
+        }
+        for (File file : directoryToCheck.listFiles()) {
+            if (file.isDirectory() && file.getName().matches("Data-\\d+") && isTdbDirectory(file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Given a list of walks where a walk is represented as a List of strings, this method will convert that
      * into a list of strings where a walk is one string (and the elements are separated by spaces).
-     * The lists are duplicate free.
+     * The lists are duplicate free: duplicates are detected on the walk components (see {@link WalkHashSet}), only the
+     * remaining walks are concatenated.
      *
      * @param dataStructureToConvert The data structure that shall be converted.
      * @return Data structure converted to string list.
      */
     public static List<String> convertToStringWalksDuplicateFree(List<List<String>> dataStructureToConvert) {
-        Set<String> uniqueSet = new HashSet<>();
-        for (List<String> individualWalk : dataStructureToConvert) {
-            StringBuilder walk = new StringBuilder();
-            boolean isFirst = true;
-            for (String walkComponent : individualWalk) {
-                if (isFirst) {
-                    isFirst = false;
-                    walk.append(walkComponent);
-                } else {
-                    walk.append(" ").append(walkComponent);
-                }
+        WalkHashSet uniqueWalks = WALK_HASH_SETS.get();
+        uniqueWalks.clear(dataStructureToConvert.size());
+        List<String> result = new ArrayList<>();
+        for (int walkNumber = 0; walkNumber < dataStructureToConvert.size(); walkNumber++) {
+            List<String> individualWalk = dataStructureToConvert.get(walkNumber);
+            if (!uniqueWalks.add(WalkHashSet.hash(individualWalk), walkNumber,
+                    other -> individualWalk.equals(dataStructureToConvert.get(other)))) {
+                continue;
             }
-            uniqueSet.add(walk.toString());
+            result.add(String.join(" ", individualWalk));
         }
-        return new ArrayList<>(uniqueSet);
+        return result;
     }
 
     public static List<String> convertToStringWalks(List<List<Triple>> walks,
@@ -430,13 +454,18 @@ public class Util {
     }
 
     /**
-     * Draw a random value from a HashSet. This method is thread-safe.
+     * Draw a random value from a set. This method is thread-safe. For a {@link RandomAccessSet}, the value is drawn
+     * in O(1); for all other sets, the set is iterated up to the drawn position.
      *
      * @param setToDrawFrom The set from which shall be drawn.
      * @param <T>           Type
      * @return Drawn value of type T.
      */
     public static <T> T randomDrawFromSet(Set<T> setToDrawFrom) {
+        if (setToDrawFrom instanceof RandomAccessSet) {
+            RandomAccessSet<T> randomAccessSet = (RandomAccessSet<T>) setToDrawFrom;
+            return randomAccessSet.get(ThreadLocalRandom.current().nextInt(randomAccessSet.size()));
+        }
         int randomNumber = ThreadLocalRandom.current().nextInt(setToDrawFrom.size());
         Iterator<T> iterator = setToDrawFrom.iterator();
         for (int i = 0; i < randomNumber; i++) {
@@ -0,0 +1,433 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.runnables.DatatypeEntityWalkRunnable;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.runnables.DefaultEntityWalkRunnable;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.INodeDegreeCapability;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Schedules the walk generation for a (potentially very large) collection of entities on a work-stealing
+ * {@link ForkJoinPool}.
+ * <p>
+ * The entities are streamed: they are grouped into chunks while the collection is iterated and only a bounded number
+ * of chunks is in flight at any time. Hence, no task object per entity is allocated up front. The chunk size adapts to
+ * the node degree: a chunk is closed once the summed degree of its entities exceeds
+ * {@link EntityWalkScheduler#getTargetChunkCost()}. Hub entities (degree of at least
+ * {@link EntityWalkScheduler#getHubDegreeThreshold()}) are split: their walks are distributed over several tasks so
+ * that a few hubs do not stall the tail of the walk generation. Splitting is only applied to walk generation modes in
+ * which the walks of an entity are drawn independently of each other. For mid walks, which also expand backwards, the
+ * degree is the sum of the out-degree and the in-degree.
+ * <p>
+ * If the walk generator does not implement {@link INodeDegreeCapability}, every entity is assumed to have degree 1.
+ * If the degree is not a constant-time lookup (see {@link INodeDegreeCapability#isConstantTimeOutDegree()}), e.g. for
+ * disk-based stores, the entities are chunked by count and the degree is only requested within the worker tasks so
+ * that the reads are not serialized on the thread which streams the entities; hubs are then split from within the
+ * task.
+ */
+public class EntityWalkScheduler {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EntityWalkScheduler.class);
+
+    /**
+     * Default summed degree (plus one per entity) after which a chunk is closed.
+     */
+    public static final int DEFAULT_TARGET_CHUNK_COST = 4096;
+
+    /**
+     * Default maximal number of entities in one chunk.
+     */
+    public static final int DEFAULT_MAXIMAL_CHUNK_SIZE = 1024;
+
+    /**
+     * Default degree from which on an entity is considered to be a hub.
+     */
+    public static final int DEFAULT_HUB_DEGREE_THRESHOLD = 10000;
+
+    /**
+     * Number of chunks that may be in flight per thread.
+     */
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 4;
+
+    private final WalkGenerationManager walkGenerationManager;
+
+    private final int numberOfThreads;
+
+    private int targetChunkCost = DEFAULT_TARGET_CHUNK_COST;
+
+    private int maximalChunkSize = DEFAULT_MAXIMAL_CHUNK_SIZE;
+
+    private int hubDegreeThreshold = DEFAULT_HUB_DEGREE_THRESHOLD;
+
+    private final AtomicLong numberOfChunks = new AtomicLong();
+
+    private final AtomicLong numberOfSplitEntities = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param walkGenerationManager The manager whose walk generator and writer shall be used.
+     * @param numberOfThreads       The number of worker threads.
+     */
+    public EntityWalkScheduler(WalkGenerationManager walkGenerationManager, int numberOfThreads) {
+        this.walkGenerationManager = walkGenerationManager;
+        if (numberOfThreads < 1) {
+            LOGGER.error("The number of threads must be > 0. Using one thread.");
+            numberOfThreads = 1;
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Generate the walks for the given entities. This method blocks until all walks were handed over to the writer.
+     *
+     * @param entities      The entities for which walks shall be generated.
+     * @param numberOfWalks The number of walks per entity.
+     * @param depth         The depth of each walk.
+     * @param mode          The walk generation mode.
+     * @throws RuntimeException If the entities cannot be iterated. The tasks submitted before are completed first.
+     */
+    public void generateWalks(Iterable<String> entities, int numberOfWalks, int depth, WalkGenerationMode mode) {
+        generateWalks(entities.spliterator(), numberOfWalks, depth, mode);
+    }
+
+    /**
+     * Generate the walks for the given entities. The entities are consumed lazily. This method blocks until all walks
+     * were handed over to the writer.
+     *
+     * @param entities      The entities for which walks shall be generated.
+     * @param numberOfWalks The number of walks per entity.
+     * @param depth         The depth of each walk.
+     * @param mode          The walk generation mode.
+     * @throws RuntimeException If the entities cannot be iterated. The tasks submitted before are completed first.
+     */
+    public void generateWalks(Spliterator<String> entities, int numberOfWalks, int depth, WalkGenerationMode mode) {
+        schedule(entities, isSplittable(mode) && numberOfWalks > 1, isMidWalkMode(mode), numberOfWalks,
+                (entity, walks) -> new DefaultEntityWalkRunnable(walkGenerationManager, entity, walks, depth, mode)
+                        .run());
+    }
+
+    /**
+     * Generate the text walks (see {@link DatatypeEntityWalkRunnable}) for the given entities. The entities are
+     * consumed lazily and chunked like in {@link EntityWalkScheduler#generateWalks(Spliterator, int, int,
+     * WalkGenerationMode)}; the text walks of an entity are never split. This method blocks until all walks were
+     * handed over to the writer.
+     *
+     * @param entities   The entities for which text walks shall be generated.
+     * @param walkLength The length of each text walk.
+     * @throws RuntimeException If the entities cannot be iterated. The tasks submitted before are completed first.
+     */
+    public void generateTextWalks(Spliterator<String> entities, int walkLength) {
+        schedule(entities, false, false, 1, (entity, walks) ->
+                new DatatypeEntityWalkRunnable(walkGenerationManager, entity, walkLength).run());
+    }
+
+    /**
+     * Runs the given task for all entities.
+     *
+     * @param entities      The entities.
+     * @param isSplittable  True if the walks of hub entities may be split over several tasks.
+     * @param isInDegree    True if the in-degree is added to the out-degree of an entity (mid walks).
+     * @param numberOfWalks The number of walks per entity.
+     * @param task          Generates the given number of walks for the given entity.
+     */
+    private void schedule(Spliterator<String> entities, boolean isSplittable, boolean isInDegree, int numberOfWalks,
+                          ObjIntConsumer<String> task) {
+        if (entities.estimateSize() != Long.MAX_VALUE) {
+            LOGGER.info("Generating walks for approximately " + entities.estimateSize() + " entities.");
+        }
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        Semaphore chunksInFlight = new Semaphore(numberOfThreads * CHUNKS_IN_FLIGHT_PER_THREAD);
+        INodeDegreeCapability degrees = walkGenerationManager.getWalkGenerator() instanceof INodeDegreeCapability ?
+                (INodeDegreeCapability) walkGenerationManager.getWalkGenerator() : null;
+        // expensive degrees are only requested within the worker tasks (and only for splitting)
+        INodeDegreeCapability producerDegrees = degrees != null && degrees.isConstantTimeOutDegree() ? degrees : null;
+        INodeDegreeCapability workerDegrees = degrees != null && producerDegrees == null && isSplittable ?
+                degrees : null;
+
+        try {
+            List<String> chunk = new ArrayList<>();
+            long chunkCost = 0;
+            Iterator<String> iterator = Spliterators.iterator(entities);
+            while (iterator.hasNext()) {
+                String entity = iterator.next();
+                int degree = producerDegrees == null ? 1 : getDegree(producerDegrees, entity, isInDegree);
+                if (isSplittable && degree >= hubDegreeThreshold) {
+                    submitHub(pool, chunksInFlight, entity, numberOfWalks, task);
+                    continue;
+                }
+                chunk.add(entity);
+                chunkCost += 1 + degree;
+                if (chunkCost >= targetChunkCost || chunk.size() >= maximalChunkSize) {
+                    submit(pool, chunksInFlight, chunk, numberOfWalks, task, workerDegrees, isInDegree);
+                    chunk = new ArrayList<>();
+                    chunkCost = 0;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(pool, chunksInFlight, chunk, numberOfWalks, task, workerDegrees, isInDegree);
+            }
+        } catch (InterruptedException ie) {
+            LOGGER.error("Interrupted while scheduling the walk generation. Not all walks will be generated.", ie);
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException re) {
+            // the finally block lets the submitted tasks complete before the failure is propagated
+            LOGGER.error("Error while scheduling the walk generation. Not all walks will be generated.", re);
+            throw re;
+        } finally {
+            closeIfCloseable(entities);
+            pool.shutdown();
+            try {
+                pool.awaitTermination(10, TimeUnit.DAYS);
+            } catch (InterruptedException ie) {
+                LOGGER.error("Interrupted Exception", ie);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Obtain the degree which determines the cost of the walk generation for the given entity.
+     *
+     * @param degrees    The degree capability of the walk generator.
+     * @param entity     The entity.
+     * @param isInDegree True if the in-degree is added to the out-degree.
+     * @return The degree (at most {@link Integer#MAX_VALUE}).
+     */
+    private int getDegree(INodeDegreeCapability degrees, String entity, boolean isInDegree) {
+        String node = walkGenerationManager.shortenUri(entity);
+        long degree = degrees.getOutDegree(node);
+        if (isInDegree) {
+            degree += degrees.getInDegree(node);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, degree);
+    }
+
+    /**
+     * Closes the given entities if they hold resources (e.g. the read transaction of a TDB entity spliterator). This
+     * matters if the scheduling stopped before the entities were exhausted.
+     */
+    private static void closeIfCloseable(Spliterator<String> entities) {
+        if (entities instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) entities).close();
+            } catch (Exception e) {
+                LOGGER.error("Could not close the entity spliterator.", e);
+            }
+        }
+    }
+
+    /**
+     * Submit the walks of a hub entity as several tasks.
+     */
+    private void submitHub(ForkJoinPool pool, Semaphore chunksInFlight, String entity, int numberOfWalks,
+                           ObjIntConsumer<String> task) throws InterruptedException {
+        numberOfSplitEntities.incrementAndGet();
+        int parts = Math.min(numberOfThreads, numberOfWalks);
+        for (int part = 0; part < parts; part++) {
+            int walksInPart = getWalksInPart(numberOfWalks, parts, part);
+            chunksInFlight.acquire();
+            numberOfChunks.incrementAndGet();
+            pool.execute(() -> {
+                try {
+                    task.accept(entity, walksInPart);
+                } catch (Exception e) {
+                    LOGGER.error("Could not generate walks for entity " + entity + ".", e);
+                } finally {
+                    chunksInFlight.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Submit a chunk of entities as one task.
+     *
+     * @param workerDegrees If not null, the degree of each entity is requested within the task and the walks of hubs
+     *                      are split into forked sub-tasks.
+     * @param isInDegree    True if the in-degree is added to the out-degree of an entity.
+     */
+    private void submit(ForkJoinPool pool, Semaphore chunksInFlight, List<String> chunk, int numberOfWalks,
+                        ObjIntConsumer<String> task, INodeDegreeCapability workerDegrees, boolean isInDegree)
+            throws InterruptedException {
+        chunksInFlight.acquire();
+        numberOfChunks.incrementAndGet();
+        pool.execute(() -> {
+            try {
+                for (String entity : chunk) {
+                    try {
+                        if (workerDegrees != null
+                                && getDegree(workerDegrees, entity, isInDegree) >= hubDegreeThreshold) {
+                            runHub(entity, numberOfWalks, task);
+                        } else {
+                            task.accept(entity, numberOfWalks);
+                        }
+                    } catch (Exception e) {
+                        LOGGER.error("Could not generate walks for entity " + entity + ".", e);
+                    }
+                }
+            } finally {
+                chunksInFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Splits the walks of a hub entity from within a worker task: all parts but the first one are forked (so that
+     * idle workers can steal them) and joined afterwards. The chunk task keeps its permit until the hub is done.
+     */
+    private void runHub(String entity, int numberOfWalks, ObjIntConsumer<String> task) {
+        numberOfSplitEntities.incrementAndGet();
+        int parts = Math.min(numberOfThreads, numberOfWalks);
+        List<ForkJoinTask<?>> forkedParts = new ArrayList<>();
+        for (int part = 1; part < parts; part++) {
+            int walksInPart = getWalksInPart(numberOfWalks, parts, part);
+            numberOfChunks.incrementAndGet();
+            forkedParts.add(ForkJoinTask.adapt(() -> {
+                try {
+                    task.accept(entity, walksInPart);
+                } catch (Exception e) {
+                    LOGGER.error("Could not generate walks for entity " + entity + ".", e);
+                }
+            }).fork());
+        }
+        try {
+            task.accept(entity, getWalksInPart(numberOfWalks, parts, 0));
+        } finally {
+            for (ForkJoinTask<?> forkedPart : forkedParts) {
+                forkedPart.join();
+            }
+        }
+    }
+
+    /**
+     * Distributes the remainder over the first parts.
+     */
+    private static int getWalksInPart(int numberOfWalks, int parts, int part) {
+        return numberOfWalks / parts + (part < numberOfWalks % parts ? 1 : 0);
+    }
+
+    /**
+     * Determines whether the walks of one entity may be generated by several independent tasks. This is the case if
+     * each walk is drawn independently, i.e., if the mode does not guarantee duplicate-free walks. Note that
+     * {@link WalkGenerationMode#MID_WALKS_WEIGHTED} is duplicate-free.
+     *
+     * @param mode The walk generation mode.
+     * @return True if the walks of an entity may be split.
+     */
+    static boolean isSplittable(WalkGenerationMode mode) {
+        switch (mode) {
+            case RANDOM_WALKS:
+            case MID_WALKS:
+            case EXPERIMENTAL_BIASED_MID_WALKS:
+            case EXPERIMENTAL_BIASED_RANDOM_WALKS:
+            case EXPERIMENTAL_NODE2VEC_WALKS:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Determines whether the walks of the given mode also expand backwards from the entity, i.e., whether their cost
+     * also depends on the in-degree of the entity.
+     *
+     * @param mode The walk generation mode.
+     * @return True for mid walk modes.
+     */
+    static boolean isMidWalkMode(WalkGenerationMode mode) {
+        switch (mode) {
+            case MID_WALKS:
+            case MID_WALKS_DUPLICATE_FREE:
+            case MID_WALKS_WEIGHTED:
+            case EXPERIMENTAL_MID_TYPE_WALKS_DUPLICATE_FREE:
+            case EXPERIMENTAL_MID_EDGE_WALKS_DUPLICATE_FREE:
+            case EXPERIMENTAL_BIASED_MID_WALKS:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the number of tasks submitted so far (chunks and hub parts).
+     *
+     * @return Number of tasks.
+     */
+    public long getNumberOfChunks() {
+        return numberOfChunks.get();
+    }
+
+    /**
+     * Returns the number of hub entities whose walks were split over several tasks.
+     *
+     * @return Number of split entities.
+     */
+    public long getNumberOfSplitEntities() {
+        return numberOfSplitEntities.get();
+    }
+
+    public int getTargetChunkCost() {
+        return targetChunkCost;
+    }
+
+    /**
+     * Set the summed degree (plus one per entity) after which a chunk is closed.
+     *
+     * @param targetChunkCost The target cost; must be greater than 0.
+     */
+    public void setTargetChunkCost(int targetChunkCost) {
+        if (targetChunkCost < 1) {
+            LOGGER.error("The target chunk cost must be > 0. Ignoring " + targetChunkCost + ".");
+            return;
+        }
+        this.targetChunkCost = targetChunkCost;
+    }
+
+    public int getMaximalChunkSize() {
+        return maximalChunkSize;
+    }
+
+    /**
+     * Set the maximal number of entities in one chunk.
+     *
+     * @param maximalChunkSize The maximal chunk size; must be greater than 0.
+     */
+    public void setMaximalChunkSize(int maximalChunkSize) {
+        if (maximalChunkSize < 1) {
+            LOGGER.error("The maximal chunk size must be > 0. Ignoring " + maximalChunkSize + ".");
+            return;
+        }
+        this.maximalChunkSize = maximalChunkSize;
+    }
+
+    public int getHubDegreeThreshold() {
+        return hubDegreeThreshold;
+    }
+
+    /**
+     * Set the degree from which on the walks of an entity are split over several tasks.
+     *
+     * @param hubDegreeThreshold The threshold.
+     */
+    public void setHubDegreeThreshold(int hubDegreeThreshold) {
+        this.hubDegreeThreshold = hubDegreeThreshold;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+}
@@ -1,6 +1,8 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base;
 
 import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.HdtHandle;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IEdgeWeightStrategyFactory;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.ContinuationEntitySelector;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.EntitySelector;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.MemoryEntitySelector;
@@ -14,13 +16,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.Spliterator;
 import java.util.function.UnaryOperator;
-import java.util.zip.GZIPOutputStream;
 
 
 /**
@@ -63,29 +62,37 @@ public class WalkGenerationManager {
     private boolean isGenerateTextWalks = false;
 
     /**
-     * For the statistical output.
+     * Parser.
      */
-    long processedEntities = 0;
+    public IWalkGenerator walkGenerator;
 
     /**
-     * For the statistical output.
+     * Asynchronous writer for all the paths.
      */
-    long processedWalks = 0;
+    WalkWriter walkWriter;
 
     /**
-     * For the statistical output.
+     * Character stream view on {@link WalkGenerationManager#walkWriter}: every line is written as one walk.
+     *
+     * @deprecated Use {@link WalkGenerationManager#writeToFile(List)} which hands over all walks of an entity at once.
      */
-    int fileProcessedLines = 0;
+    @Deprecated
+    public Writer writer;
 
     /**
-     * Parser.
+     * The number of threads that encode and compress the walks.
      */
-    public IWalkGenerator walkGenerator;
+    private int numberOfWriterThreads = 1;
 
     /**
-     * File writer for all the paths.
+     * The maximal number of walk batches (one batch per entity) that may wait to be written.
      */
-    public Writer writer;
+    private int walkQueueCapacity = WalkWriter.DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * If true, each writer thread writes to its own gzipped walk file.
+     */
+    private boolean isShardedOutput = false;
 
     /**
      * File path to the walk file to be written.
@@ -149,6 +156,46 @@ public class WalkGenerationManager {
      */
     public WalkGenerationManager(URI knowledgeGraphResource, boolean isGenerateTextWalks,
                                  boolean isSetEntitySelector, File existingWalks, File newWalkDirectory) {
+        this(knowledgeGraphResource, isGenerateTextWalks, isSetEntitySelector, existingWalks, newWalkDirectory, 1);
+    }
+
+    /**
+     * Main Constructor
+     *
+     * @param knowledgeGraphResource A URI representing the graph for which an embedding shall be trained.
+     * @param isGenerateTextWalks    True if text shall also appear in the embedding space.
+     * @param isSetEntitySelector    If true, an entity selector will be chosen automatically.
+     * @param existingWalks          If existing walks shall be parsed, the existing walk directory can be specified here.
+     * @param newWalkDirectory       The new walk directory that is to be written. If there are existing walks, those will
+     *                               be copied if the file is not corrupted.
+     * @param numberOfParserThreads  The number of threads that may be used to parse a single N-Triples file. With one
+     *                               thread, the NxParser is used (see
+     *                               {@link WalkGeneratorManager#parseSingleFile(File, boolean, int)}).
+     */
+    public WalkGenerationManager(URI knowledgeGraphResource, boolean isGenerateTextWalks,
+                                 boolean isSetEntitySelector, File existingWalks, File newWalkDirectory,
+                                 int numberOfParserThreads) {
+        this(knowledgeGraphResource, isGenerateTextWalks, isSetEntitySelector, existingWalks, newWalkDirectory,
+                numberOfParserThreads, HdtHandle.DEFAULT_LOADING_MODE);
+    }
+
+    /**
+     * Main Constructor
+     *
+     * @param knowledgeGraphResource A URI representing the graph for which an embedding shall be trained.
+     * @param isGenerateTextWalks    True if text shall also appear in the embedding space.
+     * @param isSetEntitySelector    If true, an entity selector will be chosen automatically.
+     * @param existingWalks          If existing walks shall be parsed, the existing walk directory can be specified here.
+     * @param newWalkDirectory       The new walk directory that is to be written. If there are existing walks, those will
+     *                               be copied if the file is not corrupted.
+     * @param numberOfParserThreads  The number of threads that may be used to parse a single N-Triples file. With one
+     *                               thread, the NxParser is used (see
+     *                               {@link WalkGeneratorManager#parseSingleFile(File, boolean, int)}).
+     * @param hdtLoadingMode         The mode in which an HDT file is opened. Ignored for other resources.
+     */
+    public WalkGenerationManager(URI knowledgeGraphResource, boolean isGenerateTextWalks,
+                                 boolean isSetEntitySelector, File existingWalks, File newWalkDirectory,
+                                 int numberOfParserThreads, HdtHandle.LoadingMode hdtLoadingMode) {
         if (Util.uriIsFile(knowledgeGraphResource)) {
             File knowledgeGraphFile = new File(knowledgeGraphResource);
             if (!knowledgeGraphFile.exists()) {
@@ -159,14 +206,14 @@ public class WalkGenerationManager {
                 // DIRECTORY OPTIONS
                 // (1) TDB
                 // (2) Directory with multiple NT files
-                if (Util.isTdbDirectory(knowledgeGraphFile)) {
+                if (Util.isTdbDirectory(knowledgeGraphFile) || Util.isTdb2Directory(knowledgeGraphFile)) {
                     // (1) TDB
                     LOGGER.info("TDB directory recognized. Using disk-based TDB walk generator.");
                     this.walkGenerator = new TdbWalkGenerator(knowledgeGraphResource);
                     if (isSetEntitySelector) {
                         LOGGER.info("Setting TDB entity selector...");
                         EntitySelector entitySelector =
-                                new TdbEntitySelector(((TdbWalkGenerator) walkGenerator).getTdbModel());
+                                new TdbEntitySelector(((TdbWalkGenerator) walkGenerator).getTdbDataset());
                         if (existingWalks == null) {
                             this.entitySelector = entitySelector;
                         } else {
@@ -194,7 +241,8 @@ public class WalkGenerationManager {
             } else {
                 // knowledge graph resource is a file
                 // decide on parser depending on file ending
-                Pair<IWalkGenerator, EntitySelector> parserSelectorPair = WalkGeneratorManager.parseSingleFile(knowledgeGraphFile, isGenerateTextWalks);
+                Pair<IWalkGenerator, EntitySelector> parserSelectorPair = WalkGeneratorManager.parseSingleFile(knowledgeGraphFile, isGenerateTextWalks,
+                        numberOfParserThreads, hdtLoadingMode);
                 this.walkGenerator = parserSelectorPair.getValue0();
                 if (isSetEntitySelector) {
                     this.entitySelector = parserSelectorPair.getValue1();
@@ -242,7 +290,7 @@ public class WalkGenerationManager {
     public void generateWalks(WalkGenerationMode mode, int numberOfThreads, int numberOfWalksPerEntity, int depth,
                               File walkDirectory) {
         this.walkDirectory = walkDirectory;
-        generateWalksForEntities(entitySelector.getEntities(), numberOfThreads, numberOfWalksPerEntity, depth,
+        generateWalksForEntities(entitySelector.getEntitySpliterator(), numberOfThreads, numberOfWalksPerEntity, depth,
                 mode);
     }
 
@@ -257,26 +305,26 @@ public class WalkGenerationManager {
      */
     public void generateWalksForEntities(Set<String> entities, int numberOfThreads, int numberOfWalks, int walkLength,
                                          WalkGenerationMode mode) {
-        setOutputFileWriter();
-
-        // thread pool
-        ThreadPoolExecutor pool = new ThreadPoolExecutor(numberOfThreads, numberOfThreads,
-                0, TimeUnit.SECONDS,
-                new java.util.concurrent.ArrayBlockingQueue<>(entities.size()));
-
-        for (String entity : entities) {
-            DefaultEntityWalkRunnable th = new DefaultEntityWalkRunnable(this, entity, numberOfWalks, walkLength, mode);
-            pool.execute(th);
-        }
+        generateWalksForEntities(entities.spliterator(), numberOfThreads, numberOfWalks, walkLength, mode);
+    }
 
-        pool.shutdown();
+    /**
+     * Generate walks for the entities. The entities are consumed lazily.
+     *
+     * @param entities        The entities for which walks shall be generated.
+     * @param numberOfThreads The number of threads involved in generating the walks.
+     * @param numberOfWalks   The number of walks to be generated per entity.
+     * @param walkLength      The length of each walk.
+     * @param mode            The walk generation mode.
+     */
+    public void generateWalksForEntities(Spliterator<String> entities, int numberOfThreads, int numberOfWalks,
+                                         int walkLength, WalkGenerationMode mode) {
+        setOutputFileWriter();
         try {
-            pool.awaitTermination(10, TimeUnit.DAYS);
-        } catch (InterruptedException e) {
-            LOGGER.error("Interrupted Exception");
-            e.printStackTrace();
+            new EntityWalkScheduler(this, numberOfThreads).generateWalks(entities, numberOfWalks, walkLength, mode);
+        } finally {
+            flushWriter();
         }
-        flushWriter();
     }
 
     public void generateTextWalks(int numberOfThreads, int walkLength) {
@@ -286,7 +334,7 @@ public class WalkGenerationManager {
     public void generateTextWalks(int numberOfThreads, int walkLength, File walkDirectory) {
         if (!isWalkGeneratorOk()) return;
         this.walkDirectory = walkDirectory;
-        generateTextWalksForEntities(entitySelector.getEntities(), numberOfThreads, walkLength);
+        generateTextWalksForEntities(entitySelector.getEntitySpliterator(), numberOfThreads, walkLength);
     }
 
     public IWalkGenerator getWalkGenerator() {
@@ -337,9 +385,6 @@ public class WalkGenerationManager {
         isGenerateTextWalks = generateTextWalks;
     }
 
-    private final int timeout = 10;
-    private final TimeUnit timeoutUnit = TimeUnit.DAYS;
-
     /**
      * Generates text walks for the given entities.
      *
@@ -348,28 +393,28 @@ public class WalkGenerationManager {
      * @param walkLength      The length of each walks
      */
     public void generateTextWalksForEntities(Set<String> entities, int numberOfThreads, int walkLength) {
+        generateTextWalksForEntities(entities.spliterator(), numberOfThreads, walkLength);
+    }
+
+    /**
+     * Generates text walks for the given entities. The entities are consumed lazily.
+     *
+     * @param entities        The entities for which text walks (datatype property based walks) shall be generated.
+     * @param numberOfThreads The number of threads to be used.
+     * @param walkLength      The length of each walks
+     */
+    public void generateTextWalksForEntities(Spliterator<String> entities, int numberOfThreads, int walkLength) {
         setOutputFileWriter();
-        ThreadPoolExecutor pool = new ThreadPoolExecutor(numberOfThreads, numberOfThreads,
-                0, TimeUnit.SECONDS,
-                new java.util.concurrent.ArrayBlockingQueue<>(entities.size()));
-        for (String entity : entities) {
-            DatatypeEntityWalkRunnable runnable = new DatatypeEntityWalkRunnable(this, entity,
-                    walkLength);
-            pool.execute(runnable);
-        }
-        pool.shutdown();
         try {
-            pool.awaitTermination(timeout, timeoutUnit);
-        } catch (InterruptedException e) {
-            LOGGER.error("Interrupted Exception");
-            e.printStackTrace();
+            new EntityWalkScheduler(this, numberOfThreads).generateTextWalks(entities, walkLength);
+        } finally {
+            flushWriter();
         }
-        flushWriter();
     }
 
 
     /**
-     * Flushes the walk writer.
+     * Flushes the walk writer, i.e., waits until all walks handed over so far are written.
      */
     void flushWriter() {
         if (this.writer != null) {
@@ -379,23 +424,21 @@ public class WalkGenerationManager {
                 LOGGER.error("Could not flush writer.", e);
             }
         }
+        if (this.walkWriter != null) {
+            this.walkWriter.flush();
+        }
     }
 
     /**
-     * Initialize {@link WalkGenerationManager#writer}.
+     * Initialize {@link WalkGenerationManager#walkWriter}.
      */
     void setOutputFileWriter() {
         // only act if the writer has not yet been initialized.
-        if (this.writer == null) {
-            File outputFile = new File(this.walkDirectory, "walk_file_0.txt.gz");
-            if (outputFile.getParentFile().mkdirs()) {
-                LOGGER.info("Directory created.");
-            }
-
-            // initialize the writer
+        if (this.walkWriter == null) {
             try {
-                this.writer = new OutputStreamWriter(new GZIPOutputStream(
-                        new FileOutputStream(outputFile, false)), StandardCharsets.UTF_8);
+                this.walkWriter = new WalkWriter(this.walkDirectory, numberOfWriterThreads, walkQueueCapacity,
+                        isShardedOutput);
+                this.writer = walkWriter.asWriter();
             } catch (Exception e1) {
                 LOGGER.error("Could not initialize writer. Aborting process.", e1);
             }
@@ -403,46 +446,120 @@ public class WalkGenerationManager {
     }
 
     /**
-     * Adds new walks to the list; If the list is filled, it is written to the
-     * file.
+     * Hands the given walks over to the asynchronous walk writer. This method only blocks if the writer cannot keep
+     * up with the walk generation.
      *
      * @param walksToWrite Entries that shall be written.
      */
-    public synchronized void writeToFile(List<String> walksToWrite) {
+    public void writeToFile(List<String> walksToWrite) {
         if(walksToWrite == null){
             LOGGER.error("walksToWrite null. No walk will be written.");
             return;
         }
-        processedEntities++;
-        processedWalks += walksToWrite.size();
-        fileProcessedLines += walksToWrite.size();
-        for (String str : walksToWrite)
-            try {
-                writer.write(str + "\n");
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        if (processedEntities % 1000 == 0) {
-            LOGGER.info("TOTAL PROCESSED ENTITIES: " + processedEntities);
-            LOGGER.info("TOTAL NUMBER OF PATHS : " + processedWalks);
+        if (walkWriter == null) {
+            LOGGER.error("The walk writer is not initialized. No walk will be written.");
+            return;
         }
-        // flush the file
-        if (fileProcessedLines > 3000000) {
-            fileProcessedLines = 0;
-            try {
-                writer.flush();
-                writer.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            long tmpNM = (processedWalks / 3000000);
-            File newFile = new File(this.walkDirectory, "walk_file_" + tmpNM + ".txt.gz");
-            try {
-                writer = new OutputStreamWriter(new GZIPOutputStream(
-                        new FileOutputStream(newFile, false)), StandardCharsets.UTF_8);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        walkWriter.write(walksToWrite);
+    }
+
+    /**
+     * Obtain the walk writer (e.g. to monitor the throughput).
+     *
+     * @return The walk writer. Null if no walks were generated so far.
+     */
+    public WalkWriter getWalkWriter() {
+        return walkWriter;
+    }
+
+    /**
+     * Obtain the number of entities whose walks were written so far.
+     *
+     * @return The number of processed entities.
+     * @deprecated Use {@link WalkWriter#getNumberOfWrittenBatches()} of {@link WalkGenerationManager#getWalkWriter()}.
+     */
+    @Deprecated
+    public long getProcessedEntities() {
+        return walkWriter == null ? 0 : walkWriter.getNumberOfWrittenBatches();
+    }
+
+    /**
+     * Obtain the number of walks written so far.
+     *
+     * @return The number of processed walks.
+     * @deprecated Use {@link WalkWriter#getNumberOfWrittenWalks()} of {@link WalkGenerationManager#getWalkWriter()}.
+     */
+    @Deprecated
+    public long getProcessedWalks() {
+        return walkWriter == null ? 0 : walkWriter.getNumberOfWrittenWalks();
+    }
+
+    public int getNumberOfWriterThreads() {
+        return numberOfWriterThreads;
+    }
+
+    /**
+     * Set the number of threads which encode and compress walks. Must be set before walks are generated.
+     *
+     * @param numberOfWriterThreads The number of writer threads.
+     */
+    public void setNumberOfWriterThreads(int numberOfWriterThreads) {
+        this.numberOfWriterThreads = numberOfWriterThreads;
+    }
+
+    public int getWalkQueueCapacity() {
+        return walkQueueCapacity;
+    }
+
+    /**
+     * Set the maximal number of walk batches (one batch per entity) that may wait to be written. If the queue is
+     * full, the walk generation threads wait. Must be set before walks are generated.
+     *
+     * @param walkQueueCapacity The capacity.
+     */
+    public void setWalkQueueCapacity(int walkQueueCapacity) {
+        this.walkQueueCapacity = walkQueueCapacity;
+    }
+
+    public boolean isShardedOutput() {
+        return isShardedOutput;
+    }
+
+    /**
+     * If true, each writer thread compresses into its own walk file ({@code walk_file_<thread>_<n>.txt.gz}) so that
+     * the compression is not serialized. Must be set before walks are generated.
+     *
+     * @param shardedOutput True for sharded output.
+     */
+    public void setShardedOutput(boolean shardedOutput) {
+        isShardedOutput = shardedOutput;
+    }
+
+    /**
+     * Set the edge weight strategy of the biased walks. The strategy is passed to the walk generator; it is ignored
+     * if the walk generator cannot generate biased walks.
+     *
+     * @param edgeWeightStrategy The strategy.
+     */
+    public void setEdgeWeightStrategy(IEdgeWeightStrategyFactory edgeWeightStrategy) {
+        if (walkGenerator instanceof IBiasedWalkCapability) {
+            ((IBiasedWalkCapability) walkGenerator).setEdgeWeightStrategy(edgeWeightStrategy);
+        } else {
+            LOGGER.warn("The walk generator does not support biased walks. The edge weight strategy is ignored.");
+        }
+    }
+
+    /**
+     * Set the return and in-out parameters of the node2vec walks. The parameters are passed to the walk generator;
+     * they are ignored if the walk generator cannot generate node2vec walks.
+     *
+     * @param node2VecParameters The parameters.
+     */
+    public void setNode2VecParameters(Node2VecParameters node2VecParameters) {
+        if (walkGenerator instanceof INode2VecWalkCapability) {
+            ((INode2VecWalkCapability) walkGenerator).setNode2VecParameters(node2VecParameters);
+        } else {
+            LOGGER.warn("The walk generator does not support node2vec walks. The node2vec parameters are ignored.");
         }
     }
 
@@ -450,12 +567,17 @@ public class WalkGenerationManager {
      * Close resources.
      */
     public void close() {
-        if (writer == null) return;
-        try {
-            writer.close();
-        } catch (IOException ioe) {
-            LOGGER.error("There was an error when closing the writer.", ioe);
+        if (walkWriter == null) return;
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ioe) {
+                LOGGER.error("There was an error when closing the writer.", ioe);
+            }
         }
+        walkWriter.close();
+        LOGGER.info("Walks written: " + walkWriter.getNumberOfWrittenWalks() + " ("
+                + (long) walkWriter.getWalksPerSecond() + " walks per second).");
         if (getWalkGenerator() instanceof ICloseableWalkGenerator) {
             ((ICloseableWalkGenerator) this.walkGenerator).close();
         }
@@ -65,7 +65,28 @@ public enum WalkGenerationMode {
     /**
      * Generates forward walks with only nodes.
      */
-    EXPERIMENTAL_NODE_WALKS_DUPLICATE_FREE;
+    EXPERIMENTAL_NODE_WALKS_DUPLICATE_FREE,
+
+    /**
+     * Biased mid walks: the direction and the edge of each step are drawn proportionally to the edge weights of the
+     * configured edge weight strategy (see
+     * {@link de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.EdgeWeightStrategy}).
+     */
+    EXPERIMENTAL_BIASED_MID_WALKS,
+
+    /**
+     * Biased random walks generated in a forward-fashion: the edge of each step is drawn proportionally to the edge
+     * weights of the configured edge weight strategy (see
+     * {@link de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.EdgeWeightStrategy}).
+     */
+    EXPERIMENTAL_BIASED_RANDOM_WALKS,
+
+    /**
+     * Second-order (node2vec) random walks generated in a forward-fashion: the next edge depends on the previous node
+     * and on the return and in-out parameters (see
+     * {@link de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.Node2VecParameters}).
+     */
+    EXPERIMENTAL_NODE2VEC_WALKS;
 
     /**
      * String representation of mode.
@@ -95,6 +116,15 @@ public enum WalkGenerationMode {
             case "experimental_node_walks_duplicate_free":
             case "node_walks_duplicate_free":
                 return EXPERIMENTAL_NODE_WALKS_DUPLICATE_FREE;
+            case "experimental_biased_mid_walks":
+            case "biased_mid_walks":
+                return EXPERIMENTAL_BIASED_MID_WALKS;
+            case "experimental_biased_random_walks":
+            case "biased_random_walks":
+                return EXPERIMENTAL_BIASED_RANDOM_WALKS;
+            case "experimental_node2vec_walks":
+            case "node2vec_walks":
+                return EXPERIMENTAL_NODE2VEC_WALKS;
             default:
                 return null;
         }
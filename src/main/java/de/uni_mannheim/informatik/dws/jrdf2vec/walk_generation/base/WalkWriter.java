@@ -0,0 +1,455 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Asynchronous writer for walks. Walk generation threads hand over batches of walks (typically all walks of one
+ * entity) via {@link WalkWriter#write(List)}. The batches are placed in a bounded queue and drained by dedicated writer
+ * threads which encode and compress them. If the writer threads cannot keep up, {@link WalkWriter#write(List)} blocks
+ * (back-pressure) so that the memory consumption is bounded by the queue capacity.
+ * <p>
+ * The walks are written to gzipped files {@code walk_file_<n>.txt.gz} in the walk directory. A new file is started
+ * after {@link WalkWriter#MAX_LINES_PER_FILE} lines. The writer threads encode batches concurrently; the compression
+ * into the shared file is serialized.
+ * <p>
+ * In sharded mode, each writer thread owns its own gzip stream and rotation counter so that compression scales with
+ * the number of writer threads. Thread {@code i} writes files {@code walk_file_<i>_<n>.txt.gz}. All walk readers
+ * (e.g. {@link de.uni_mannheim.informatik.dws.jrdf2vec.util.WalkMerger}) consume any {@code .gz} file
+ * in the walk directory, hence both naming schemes are compatible.
+ */
+public class WalkWriter {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WalkWriter.class);
+
+    /**
+     * A new file is started once a file has more lines than this value.
+     */
+    public static final int MAX_LINES_PER_FILE = 3000000;
+
+    /**
+     * Default capacity of the batch queue.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Marks the end of the queue.
+     */
+    private static final List<String> END_OF_QUEUE = Collections.emptyList();
+
+    /**
+     * The directory to which the walks are written.
+     */
+    private final File walkDirectory;
+
+    /**
+     * The batches that are to be written.
+     */
+    private final BlockingQueue<List<String>> queue;
+
+    /**
+     * The writer threads.
+     */
+    private final List<Thread> writerThreads = new ArrayList<>();
+
+    /**
+     * The output files. In sharded mode, there is one file per writer thread, else there is one file that is shared
+     * among all writer threads.
+     */
+    private final List<RotatingGzipFile> files = new ArrayList<>();
+
+    /**
+     * True if each writer thread writes to its own file.
+     */
+    private final boolean isShardedOutput;
+
+    /**
+     * A new file is started once a file has more lines than this value (package-private for testing).
+     */
+    long maxLinesPerFile = MAX_LINES_PER_FILE;
+
+    /**
+     * Number of batches that were submitted but not yet written.
+     */
+    private long pendingBatches = 0;
+
+    /**
+     * Lock for {@link WalkWriter#pendingBatches}.
+     */
+    private final Object pendingLock = new Object();
+
+    private final AtomicLong numberOfWrittenBatches = new AtomicLong();
+
+    private final AtomicLong numberOfWrittenWalks = new AtomicLong();
+
+    private final AtomicLong numberOfWrittenBytes = new AtomicLong();
+
+    private final long startTime = System.currentTimeMillis();
+
+    /**
+     * True once {@link WalkWriter#close()} was called. Read by the walk generation threads.
+     */
+    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+
+    /**
+     * Constructor
+     *
+     * @param walkDirectory         The directory to which the walks shall be written. It is created if it does not
+     *                              exist.
+     * @param numberOfWriterThreads The number of writer threads.
+     * @param queueCapacity         The maximal number of batches that may be waiting to be written.
+     * @throws IOException If the walk file cannot be created.
+     */
+    public WalkWriter(File walkDirectory, int numberOfWriterThreads, int queueCapacity) throws IOException {
+        this(walkDirectory, numberOfWriterThreads, queueCapacity, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param walkDirectory         The directory to which the walks shall be written. It is created if it does not
+     *                              exist.
+     * @param numberOfWriterThreads The number of writer threads.
+     * @param queueCapacity         The maximal number of batches that may be waiting to be written.
+     * @param isShardedOutput       True if each writer thread shall write to its own gzipped file.
+     * @throws IOException If a walk file cannot be created.
+     */
+    public WalkWriter(File walkDirectory, int numberOfWriterThreads, int queueCapacity, boolean isShardedOutput)
+            throws IOException {
+        this.walkDirectory = walkDirectory;
+        this.isShardedOutput = isShardedOutput;
+        if (walkDirectory.mkdirs()) {
+            LOGGER.info("Directory created.");
+        }
+        if (numberOfWriterThreads < 1) {
+            LOGGER.error("The number of writer threads must be > 0. Using one thread.");
+            numberOfWriterThreads = 1;
+        }
+        if (queueCapacity < 1) {
+            LOGGER.error("The queue capacity must be > 0. Using default: " + DEFAULT_QUEUE_CAPACITY);
+            queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        if (isShardedOutput) {
+            for (int i = 0; i < numberOfWriterThreads; i++) {
+                files.add(new RotatingGzipFile("walk_file_" + i + "_"));
+            }
+        } else {
+            files.add(new RotatingGzipFile("walk_file_"));
+        }
+        for (int i = 0; i < numberOfWriterThreads; i++) {
+            RotatingGzipFile file = files.get(isShardedOutput ? i : 0);
+            Thread thread = new Thread(() -> drain(file), "walk-writer-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            writerThreads.add(thread);
+        }
+    }
+
+    /**
+     * Hand over a batch of walks. This method blocks if the queue is full.
+     *
+     * @param walks The walks to be written. The list must not be modified afterwards.
+     */
+    public void write(List<String> walks) {
+        if (walks == null || walks.isEmpty()) return;
+        if (isClosed.get()) {
+            LOGGER.error("The walk writer is already closed. The walks will not be written.");
+            return;
+        }
+        synchronized (pendingLock) {
+            pendingBatches++;
+        }
+        try {
+            queue.put(walks);
+        } catch (InterruptedException ie) {
+            LOGGER.error("Interrupted while waiting for the walk writer. The walks will not be written.", ie);
+            markWritten();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blocks until all batches that were handed over so far are written and flushes the output.
+     */
+    public void flush() {
+        synchronized (pendingLock) {
+            while (pendingBatches > 0) {
+                try {
+                    pendingLock.wait();
+                } catch (InterruptedException ie) {
+                    LOGGER.error("Interrupted while flushing the walk writer.", ie);
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        for (RotatingGzipFile file : files) {
+            file.flush();
+        }
+    }
+
+    /**
+     * Writes all pending batches, stops the writer threads, and closes the output.
+     */
+    public void close() {
+        if (isClosed.get()) return;
+        flush();
+        if (!isClosed.compareAndSet(false, true)) return;
+        try {
+            for (int i = 0; i < writerThreads.size(); i++) {
+                queue.put(END_OF_QUEUE);
+            }
+            for (Thread thread : writerThreads) {
+                thread.join();
+            }
+        } catch (InterruptedException ie) {
+            LOGGER.error("Interrupted while closing the walk writer.", ie);
+            Thread.currentThread().interrupt();
+        }
+        for (RotatingGzipFile file : files) {
+            file.close();
+        }
+    }
+
+    /**
+     * Obtain a character stream view on this writer (for code that used to write walks to a {@link Writer}). Each
+     * line is one walk. Complete lines are handed over in batches; {@link Writer#flush()} hands over the pending lines
+     * and waits until they are written. Closing the view does not close this writer.
+     *
+     * @return A new writer which forwards lines to this walk writer.
+     */
+    public Writer asWriter() {
+        return new LineWriter();
+    }
+
+    /**
+     * Main loop of the writer threads.
+     *
+     * @param file The file to which the thread writes.
+     */
+    private void drain(RotatingGzipFile file) {
+        StringBuilder builder = new StringBuilder(1 << 16);
+        while (true) {
+            List<String> batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException ie) {
+                return;
+            }
+            if (batch == END_OF_QUEUE) return;
+            try {
+                builder.setLength(0);
+                for (String walk : batch) {
+                    builder.append(walk).append('\n');
+                }
+                byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+                file.write(bytes, batch.size());
+                numberOfWrittenWalks.addAndGet(batch.size());
+                numberOfWrittenBytes.addAndGet(bytes.length);
+                long batches = numberOfWrittenBatches.incrementAndGet();
+                if (batches % 1000 == 0) {
+                    LOGGER.info("TOTAL PROCESSED ENTITIES: " + batches);
+                    LOGGER.info("TOTAL NUMBER OF PATHS : " + numberOfWrittenWalks.get());
+                }
+            } catch (Exception e) {
+                LOGGER.error("Could not write walks.", e);
+            } finally {
+                markWritten();
+            }
+        }
+    }
+
+    private void markWritten() {
+        synchronized (pendingLock) {
+            pendingBatches--;
+            if (pendingBatches == 0) pendingLock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the number of batches (typically: entities) written so far.
+     *
+     * @return Number of batches.
+     */
+    public long getNumberOfWrittenBatches() {
+        return numberOfWrittenBatches.get();
+    }
+
+    /**
+     * Returns the number of walks written so far.
+     *
+     * @return Number of walks.
+     */
+    public long getNumberOfWrittenWalks() {
+        return numberOfWrittenWalks.get();
+    }
+
+    /**
+     * Returns the number of (uncompressed) bytes written so far.
+     *
+     * @return Number of bytes.
+     */
+    public long getNumberOfWrittenBytes() {
+        return numberOfWrittenBytes.get();
+    }
+
+    /**
+     * Returns the number of batches that are currently waiting in the queue.
+     *
+     * @return Queue size.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the average number of walks written per second since the writer was created.
+     *
+     * @return Walks per second.
+     */
+    public double getWalksPerSecond() {
+        long duration = Math.max(1, System.currentTimeMillis() - startTime);
+        return numberOfWrittenWalks.get() * 1000.0 / duration;
+    }
+
+    public File getWalkDirectory() {
+        return walkDirectory;
+    }
+
+    public boolean isShardedOutput() {
+        return isShardedOutput;
+    }
+
+    /**
+     * Writer which splits the characters into lines and hands them over to the enclosing {@link WalkWriter}.
+     */
+    private class LineWriter extends Writer {
+
+
+        /**
+         * The number of lines that are handed over as one batch.
+         */
+        private static final int LINES_PER_BATCH = 1000;
+
+        private final StringBuilder line = new StringBuilder();
+
+        private List<String> lines = new ArrayList<>();
+
+        @Override
+        public synchronized void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                } else {
+                    line.append(buffer[i]);
+                }
+            }
+            if (lines.size() >= LINES_PER_BATCH) {
+                handOver();
+            }
+        }
+
+        private void handOver() {
+            if (lines.isEmpty()) return;
+            WalkWriter.this.write(lines);
+            lines = new ArrayList<>();
+        }
+
+        @Override
+        public synchronized void flush() {
+            handOver();
+            WalkWriter.this.flush();
+        }
+
+        @Override
+        public synchronized void close() {
+            if (line.length() > 0) {
+                lines.add(line.toString());
+                line.setLength(0);
+            }
+            flush();
+        }
+    }
+
+    /**
+     * A gzipped walk file which is replaced by a new file once it contains more than
+     * {@link WalkWriter#MAX_LINES_PER_FILE} lines.
+     */
+    private class RotatingGzipFile {
+
+
+        private OutputStream outputStream;
+
+        /**
+         * The file name prefix; the file number and the extension are appended.
+         */
+        private final String fileNamePrefix;
+
+        /**
+         * Number of lines in the current file.
+         */
+        private long linesInFile = 0;
+
+        /**
+         * Number of lines in all files.
+         */
+        private long totalLines = 0;
+
+        RotatingGzipFile(String fileNamePrefix) throws IOException {
+            this.fileNamePrefix = fileNamePrefix;
+            outputStream = open(0);
+        }
+
+        private OutputStream open(long fileNumber) throws IOException {
+            File newFile = new File(walkDirectory, fileNamePrefix + fileNumber + ".txt.gz");
+            return new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(newFile, false), 1 << 16),
+                    1 << 16);
+        }
+
+        synchronized void write(byte[] bytes, int lines) throws IOException {
+            outputStream.write(bytes);
+            linesInFile += lines;
+            totalLines += lines;
+            if (linesInFile > maxLinesPerFile) {
+                linesInFile = 0;
+                outputStream.close();
+                outputStream = open(totalLines / maxLinesPerFile);
+            }
+        }
+
+        synchronized void flush() {
+            try {
+                outputStream.flush();
+            } catch (IOException ioe) {
+                LOGGER.error("Could not flush writer.", ioe);
+            }
+        }
+
+        synchronized void close() {
+            try {
+                outputStream.close();
+            } catch (IOException ioe) {
+                LOGGER.error("There was an error when closing the writer.", ioe);
+            }
+        }
+    }
+}
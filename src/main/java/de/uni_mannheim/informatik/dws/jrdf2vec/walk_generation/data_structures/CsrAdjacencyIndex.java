@@ -0,0 +1,270 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * A frozen, read-only adjacency index in compressed sparse row (CSR) format for forward (subject to object) and
+ * backward (object to subject) walk expansion.
+ * <p>
+ * For each direction, there is an offset array of size {@code numberOfNodes + 1} and one packed edge array which
+ * holds a (predicate ID, neighbour ID) pair per edge. The edges of node {@code n} are located at positions
+ * {@code offsets[n]} (inclusive) to {@code offsets[n + 1]} (exclusive). Drawing a random neighbour is therefore one
+ * random number and two array reads; no objects are allocated. The edges of each node are sorted by neighbour ID
+ * (and predicate ID), so that {@link CsrAdjacencyIndex#hasEdge(int, int)} is a binary search.
+ * <p>
+ * The IDs refer to the dictionaries of the {@link IEncodedGraph} to which the index belongs.
+ * The arrays are held in {@link IntBuffer}s which either wrap heap arrays (see
+ * {@link CsrAdjacencyIndex#build(IntTripleDataSetMemory)}) or memory-mapped regions of a {@link GraphSnapshot}. The
+ * packed edge arrays are {@link SegmentedIntBuffer}s so that a snapshot can map them in several regions.
+ * Instances are immutable and can be shared among threads.
+ * <p>
+ * Each packed edge array holds two ints per edge, so that an index holds at most
+ * {@code UriDictionary.MAX_ARRAY_SIZE / 2} (about 1.07 billion) edges per direction.
+ */
+public class CsrAdjacencyIndex {
+
+
+    /**
+     * Number of indexed nodes.
+     */
+    private final int numberOfNodes;
+
+    /**
+     * Form: {@code node ID -> position of first out-edge (divided by 2) in outEdges}.
+     */
+    private final IntBuffer outOffsets;
+
+    /**
+     * Packed out-edges: {@code [predicate, object, predicate, object, ...]}.
+     */
+    private final SegmentedIntBuffer outEdges;
+
+    /**
+     * Form: {@code node ID -> position of first in-edge (divided by 2) in inEdges}.
+     */
+    private final IntBuffer inOffsets;
+
+    /**
+     * Packed in-edges: {@code [predicate, subject, predicate, subject, ...]}.
+     */
+    private final SegmentedIntBuffer inEdges;
+
+    /**
+     * Constructor
+     *
+     * @param numberOfNodes The number of nodes.
+     * @param outOffsets    Out-edge offsets (length: {@code numberOfNodes + 1}).
+     * @param outEdges      Packed out-edges.
+     * @param inOffsets     In-edge offsets (length: {@code numberOfNodes + 1}).
+     * @param inEdges       Packed in-edges.
+     */
+    CsrAdjacencyIndex(int numberOfNodes, IntBuffer outOffsets, SegmentedIntBuffer outEdges, IntBuffer inOffsets,
+                      SegmentedIntBuffer inEdges) {
+        this.numberOfNodes = numberOfNodes;
+        this.outOffsets = outOffsets;
+        this.outEdges = outEdges;
+        this.inOffsets = inOffsets;
+        this.inEdges = inEdges;
+    }
+
+    /**
+     * Builds the index for the object triples of the given data set.
+     *
+     * @param data The data set. It must not be modified while the index is built.
+     * @return The CSR index.
+     * @throws IllegalStateException if the edges do not fit into int arrays.
+     */
+    static CsrAdjacencyIndex build(IntTripleDataSetMemory data) {
+        int numberOfNodes = data.nodes.size();
+        int[] outOffsets = buildOffsets(data.subjectDegrees, numberOfNodes);
+        int[] inOffsets = buildOffsets(data.objectDegrees, numberOfNodes);
+        int[] outEdges = new int[UriDictionary.checkArrayLength(outOffsets[numberOfNodes] * 2L)];
+        int[] inEdges = new int[UriDictionary.checkArrayLength(inOffsets[numberOfNodes] * 2L)];
+        long[] sortKeys = new long[0];
+        for (int node = 0; node < numberOfNodes; node++) {
+            int degree = data.subjectDegrees[node];
+            if (sortKeys.length < degree) sortKeys = new long[degree];
+            for (int i = 0; i < degree; i++) {
+                int tripleId = data.subjectToTriples[node][i];
+                sortKeys[i] = sortKey(data.tripleObjects[tripleId], data.triplePredicates[tripleId]);
+            }
+            writeSortedEdges(sortKeys, degree, outEdges, outOffsets[node] * 2);
+
+            degree = data.objectDegrees[node];
+            if (sortKeys.length < degree) sortKeys = new long[degree];
+            for (int i = 0; i < degree; i++) {
+                int tripleId = data.objectToTriples[node][i];
+                sortKeys[i] = sortKey(data.tripleSubjects[tripleId], data.triplePredicates[tripleId]);
+            }
+            writeSortedEdges(sortKeys, degree, inEdges, inOffsets[node] * 2);
+        }
+        return new CsrAdjacencyIndex(numberOfNodes, IntBuffer.wrap(outOffsets),
+                SegmentedIntBuffer.wrap(IntBuffer.wrap(outEdges)), IntBuffer.wrap(inOffsets),
+                SegmentedIntBuffer.wrap(IntBuffer.wrap(inEdges)));
+    }
+
+    /**
+     * Edges are sorted by neighbour and then by predicate. Both IDs are non-negative.
+     */
+    private static long sortKey(int neighbour, int predicate) {
+        return ((long) neighbour << 32) | predicate;
+    }
+
+    /**
+     * Sorts the first {@code length} keys and writes them as packed (predicate, neighbour) pairs to {@code edges},
+     * starting at {@code position}.
+     */
+    private static void writeSortedEdges(long[] sortKeys, int length, int[] edges, int position) {
+        Arrays.sort(sortKeys, 0, length);
+        for (int i = 0; i < length; i++) {
+            edges[position++] = (int) sortKeys[i];
+            edges[position++] = (int) (sortKeys[i] >>> 32);
+        }
+    }
+
+    private static int[] buildOffsets(int[] degrees, int numberOfNodes) {
+        int[] offsets = new int[numberOfNodes + 1];
+        for (int node = 0; node < numberOfNodes; node++) {
+            offsets[node + 1] = offsets[node] + degrees[node];
+        }
+        return offsets;
+    }
+
+    /**
+     * Returns the number of object triples where the given node is the subject.
+     *
+     * @param node Node ID.
+     * @return Out-degree. 0 for unknown nodes.
+     */
+    public int getOutDegree(int node) {
+        if (node < 0 || node >= numberOfNodes) return 0;
+        return outOffsets.get(node + 1) - outOffsets.get(node);
+    }
+
+    /**
+     * Returns the predicate of the i-th out-edge of the given node.
+     *
+     * @param node Node ID.
+     * @param i    Edge position, must be smaller than {@link CsrAdjacencyIndex#getOutDegree(int)}.
+     * @return Predicate ID.
+     */
+    public int getOutPredicate(int node, int i) {
+        return outEdges.get((outOffsets.get(node) + i) * 2L);
+    }
+
+    /**
+     * Returns the object of the i-th out-edge of the given node.
+     *
+     * @param node Node ID.
+     * @param i    Edge position, must be smaller than {@link CsrAdjacencyIndex#getOutDegree(int)}.
+     * @return Object node ID.
+     */
+    public int getOutNeighbour(int node, int i) {
+        return outEdges.get((outOffsets.get(node) + i) * 2L + 1);
+    }
+
+    /**
+     * Returns the number of object triples where the given node is the object.
+     *
+     * @param node Node ID.
+     * @return In-degree. 0 for unknown nodes.
+     */
+    public int getInDegree(int node) {
+        if (node < 0 || node >= numberOfNodes) return 0;
+        return inOffsets.get(node + 1) - inOffsets.get(node);
+    }
+
+    /**
+     * Returns the predicate of the i-th in-edge of the given node.
+     *
+     * @param node Node ID.
+     * @param i    Edge position, must be smaller than {@link CsrAdjacencyIndex#getInDegree(int)}.
+     * @return Predicate ID.
+     */
+    public int getInPredicate(int node, int i) {
+        return inEdges.get((inOffsets.get(node) + i) * 2L);
+    }
+
+    /**
+     * Returns the subject of the i-th in-edge of the given node.
+     *
+     * @param node Node ID.
+     * @param i    Edge position, must be smaller than {@link CsrAdjacencyIndex#getInDegree(int)}.
+     * @return Subject node ID.
+     */
+    public int getInNeighbour(int node, int i) {
+        return inEdges.get((inOffsets.get(node) + i) * 2L + 1);
+    }
+
+    /**
+     * Checks whether there is an edge from {@code subject} to {@code object}. The smaller of the out-edges of the
+     * subject and the in-edges of the object is searched (binary search, the edges are sorted by neighbour).
+     *
+     * @param subject Subject node ID.
+     * @param object  Object node ID.
+     * @return True if there is at least one edge (with any predicate).
+     */
+    public boolean hasEdge(int subject, int object) {
+        int outDegree = getOutDegree(subject);
+        int inDegree = getInDegree(object);
+        if (outDegree == 0 || inDegree == 0) return false;
+        if (outDegree <= inDegree) {
+            return containsNeighbour(outEdges, outOffsets.get(subject), outDegree, object);
+        } else {
+            return containsNeighbour(inEdges, inOffsets.get(object), inDegree, subject);
+        }
+    }
+
+    /**
+     * Binary search for a neighbour within the sorted edges {@code [offset, offset + degree)}.
+     */
+    private static boolean containsNeighbour(SegmentedIntBuffer edges, int offset, int degree, int neighbour) {
+        int low = offset;
+        int high = offset + degree - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int value = edges.get(middle * 2L + 1);
+            if (value < neighbour) low = middle + 1;
+            else if (value > neighbour) high = middle - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of indexed nodes.
+     *
+     * @return Number of nodes.
+     */
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    /**
+     * Returns the number of indexed edges (object triples).
+     *
+     * @return Number of edges.
+     */
+    public int getNumberOfEdges() {
+        return outOffsets.get(numberOfNodes);
+    }
+
+    // views on the raw arrays (used to write snapshots)
+
+    IntBuffer getOutOffsets() {
+        return outOffsets.duplicate();
+    }
+
+    SegmentedIntBuffer getOutEdges() {
+        return outEdges;
+    }
+
+    IntBuffer getInOffsets() {
+        return inOffsets.duplicate();
+    }
+
+    SegmentedIntBuffer getInEdges() {
+        return inEdges;
+    }
+}
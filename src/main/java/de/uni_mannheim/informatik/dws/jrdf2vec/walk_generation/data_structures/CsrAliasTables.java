@@ -0,0 +1,231 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Alias tables (Vose's alias method) for the out-edges and in-edges of all nodes of a {@link CsrAdjacencyIndex}.
+ * They allow drawing an edge proportionally to its weight (see {@link IEdgeWeightStrategy}) in O(1): one random
+ * position within the edges of the node and one biased coin flip decide between the edge at that position and its
+ * alias.
+ * <p>
+ * The tables are aligned with the packed edge arrays of the index: the entry of the i-th out-edge of node {@code n} is
+ * located at position {@code outOffset(n) + i}. Per edge and direction, a float probability and an int alias are
+ * stored; per node and direction, the total weight is stored so that the direction of a mid walk can be drawn
+ * proportionally to the weights as well. Instances are immutable and can be shared among threads.
+ */
+public class CsrAliasTables {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CsrAliasTables.class);
+
+    private final CsrAdjacencyIndex index;
+
+    private final IntBuffer outOffsets;
+
+    private final IntBuffer inOffsets;
+
+    private final float[] outProbabilities;
+
+    private final int[] outAliases;
+
+    private final double[] outWeights;
+
+    private final float[] inProbabilities;
+
+    private final int[] inAliases;
+
+    private final double[] inWeights;
+
+    private CsrAliasTables(CsrAdjacencyIndex index, float[] outProbabilities, int[] outAliases, double[] outWeights,
+                           float[] inProbabilities, int[] inAliases, double[] inWeights) {
+        this.index = index;
+        this.outOffsets = index.getOutOffsets();
+        this.inOffsets = index.getInOffsets();
+        this.outProbabilities = outProbabilities;
+        this.outAliases = outAliases;
+        this.outWeights = outWeights;
+        this.inProbabilities = inProbabilities;
+        this.inAliases = inAliases;
+        this.inWeights = inWeights;
+    }
+
+    /**
+     * Builds the alias tables of the given index.
+     *
+     * @param index    The adjacency index.
+     * @param strategy The edge weight strategy (see {@link IEdgeWeightStrategyFactory#create(CsrAdjacencyIndex)}).
+     * @return The alias tables.
+     */
+    public static CsrAliasTables build(CsrAdjacencyIndex index, IEdgeWeightStrategy strategy) {
+        LOGGER.info("Building alias tables for " + index.getNumberOfEdges() + " edges.");
+        int numberOfNodes = index.getNumberOfNodes();
+        int numberOfEdges = index.getNumberOfEdges();
+
+        float[] outProbabilities = new float[numberOfEdges];
+        int[] outAliases = new int[numberOfEdges];
+        double[] outWeights = new double[numberOfNodes];
+        float[] inProbabilities = new float[numberOfEdges];
+        int[] inAliases = new int[numberOfEdges];
+        double[] inWeights = new double[numberOfNodes];
+
+        AliasBuilder builder = new AliasBuilder();
+        IntBuffer outOffsets = index.getOutOffsets();
+        IntBuffer inOffsets = index.getInOffsets();
+        for (int node = 0; node < numberOfNodes; node++) {
+            int outDegree = index.getOutDegree(node);
+            builder.reset(outDegree);
+            for (int i = 0; i < outDegree; i++) {
+                builder.weights[i] = strategy.getWeight(index, node, index.getOutPredicate(node, i),
+                        index.getOutNeighbour(node, i));
+            }
+            outWeights[node] = builder.build(outProbabilities, outAliases, outOffsets.get(node));
+
+            int inDegree = index.getInDegree(node);
+            builder.reset(inDegree);
+            for (int i = 0; i < inDegree; i++) {
+                builder.weights[i] = strategy.getWeight(index, node, index.getInPredicate(node, i),
+                        index.getInNeighbour(node, i));
+            }
+            inWeights[node] = builder.build(inProbabilities, inAliases, inOffsets.get(node));
+        }
+        return new CsrAliasTables(index, outProbabilities, outAliases, outWeights, inProbabilities, inAliases,
+                inWeights);
+    }
+
+    /**
+     * Draw an out-edge of the given node proportionally to its weight.
+     *
+     * @param node   Node ID.
+     * @param random The random number generator.
+     * @return Edge position (see {@link CsrAdjacencyIndex#getOutNeighbour(int, int)}). -1 if the node has no out-edge
+     * with a positive weight.
+     */
+    public int drawOutEdge(int node, ThreadLocalRandom random) {
+        if (getOutWeight(node) <= 0) return -1;
+        return draw(outProbabilities, outAliases, outOffsets.get(node), index.getOutDegree(node), random);
+    }
+
+    /**
+     * Draw an in-edge of the given node proportionally to its weight.
+     *
+     * @param node   Node ID.
+     * @param random The random number generator.
+     * @return Edge position (see {@link CsrAdjacencyIndex#getInNeighbour(int, int)}). -1 if the node has no in-edge
+     * with a positive weight.
+     */
+    public int drawInEdge(int node, ThreadLocalRandom random) {
+        if (getInWeight(node) <= 0) return -1;
+        return draw(inProbabilities, inAliases, inOffsets.get(node), index.getInDegree(node), random);
+    }
+
+    private static int draw(float[] probabilities, int[] aliases, int offset, int degree,
+                            ThreadLocalRandom random) {
+        int i = random.nextInt(degree);
+        return random.nextFloat() < probabilities[offset + i] ? i : aliases[offset + i];
+    }
+
+    /**
+     * Returns the sum of the weights of the out-edges of the given node.
+     *
+     * @param node Node ID.
+     * @return Total weight. 0 for unknown nodes.
+     */
+    public double getOutWeight(int node) {
+        if (node < 0 || node >= outWeights.length) return 0;
+        return outWeights[node];
+    }
+
+    /**
+     * Returns the sum of the weights of the in-edges of the given node.
+     *
+     * @param node Node ID.
+     * @return Total weight. 0 for unknown nodes.
+     */
+    public double getInWeight(int node) {
+        if (node < 0 || node >= inWeights.length) return 0;
+        return inWeights[node];
+    }
+
+    public CsrAdjacencyIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Reusable work space for Vose's alias method.
+     */
+    private static class AliasBuilder {
+
+
+        private double[] weights = new double[16];
+
+        private int[] small = new int[16];
+
+        private int[] large = new int[16];
+
+        private int size;
+
+        void reset(int size) {
+            if (weights.length < size) {
+                weights = new double[size];
+                small = new int[size];
+                large = new int[size];
+            }
+            this.size = size;
+        }
+
+        /**
+         * Writes the alias table of the current weights to the given arrays.
+         *
+         * @return The total weight.
+         */
+        double build(float[] probabilities, int[] aliases, int offset) {
+            double total = 0.0;
+            for (int i = 0; i < size; i++) {
+                // negative weights and NaN are treated as 0
+                if (!(weights[i] > 0)) weights[i] = 0;
+                total += weights[i];
+            }
+            if (total <= 0 || Double.isInfinite(total)) {
+                if (Double.isInfinite(total)) LOGGER.warn("Infinite edge weight. Edges are drawn uniformly.");
+                for (int i = 0; i < size; i++) {
+                    probabilities[offset + i] = 1.0f;
+                    aliases[offset + i] = i;
+                }
+                return Double.isInfinite(total) ? size : 0.0;
+            }
+            int numberOfSmall = 0;
+            int numberOfLarge = 0;
+            for (int i = 0; i < size; i++) {
+                // scale such that the average is 1
+                weights[i] = weights[i] * size / total;
+                if (weights[i] < 1.0) small[numberOfSmall++] = i;
+                else large[numberOfLarge++] = i;
+            }
+            while (numberOfSmall > 0 && numberOfLarge > 0) {
+                int less = small[--numberOfSmall];
+                int more = large[--numberOfLarge];
+                probabilities[offset + less] = (float) weights[less];
+                aliases[offset + less] = more;
+                weights[more] = (weights[more] + weights[less]) - 1.0;
+                if (weights[more] < 1.0) small[numberOfSmall++] = more;
+                else large[numberOfLarge++] = more;
+            }
+            // remaining entries (up to rounding errors) have probability 1
+            while (numberOfLarge > 0) {
+                int i = large[--numberOfLarge];
+                probabilities[offset + i] = 1.0f;
+                aliases[offset + i] = i;
+            }
+            while (numberOfSmall > 0) {
+                int i = small[--numberOfSmall];
+                probabilities[offset + i] = 1.0f;
+                aliases[offset + i] = i;
+            }
+            return total;
+        }
+    }
+}
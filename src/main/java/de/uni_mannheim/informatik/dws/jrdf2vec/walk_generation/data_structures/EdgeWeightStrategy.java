@@ -0,0 +1,169 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * Predefined edge weight strategies for biased walks (see Cochez et al.: Biased Graph Walks for RDF Graph Embeddings,
+ * WIMS 2017). Each constant is a factory: strategies that depend on global statistics compute them once in
+ * {@link EdgeWeightStrategy#create(CsrAdjacencyIndex)}.
+ */
+public enum EdgeWeightStrategy implements IEdgeWeightStrategyFactory {
+
+
+    /**
+     * All edges are equally likely.
+     */
+    UNIFORM {
+        @Override
+        public IEdgeWeightStrategy create(CsrAdjacencyIndex index) {
+            return (csrIndex, node, predicate, neighbour) -> 1.0;
+        }
+    },
+
+    /**
+     * Edges with frequent predicates are more likely.
+     */
+    PREDICATE_FREQUENCY {
+        @Override
+        public IEdgeWeightStrategy create(CsrAdjacencyIndex index) {
+            int[] frequencies = getPredicateFrequencies(index);
+            return (csrIndex, node, predicate, neighbour) -> frequencies[predicate];
+        }
+    },
+
+    /**
+     * Edges with rare predicates are more likely.
+     */
+    INVERSE_PREDICATE_FREQUENCY {
+        @Override
+        public IEdgeWeightStrategy create(CsrAdjacencyIndex index) {
+            int[] frequencies = getPredicateFrequencies(index);
+            return (csrIndex, node, predicate, neighbour) -> 1.0 / frequencies[predicate];
+        }
+    },
+
+    /**
+     * Neighbours with a low degree (in-degree plus out-degree) are more likely.
+     */
+    INVERSE_DEGREE {
+        @Override
+        public IEdgeWeightStrategy create(CsrAdjacencyIndex index) {
+            return (csrIndex, node, predicate, neighbour) ->
+                    1.0 / (csrIndex.getOutDegree(neighbour) + csrIndex.getInDegree(neighbour));
+        }
+    },
+
+    /**
+     * Neighbours with a high PageRank are more likely.
+     */
+    PAGERANK {
+        @Override
+        public IEdgeWeightStrategy create(CsrAdjacencyIndex index) {
+            double[] pageRank = getPageRank(index);
+            return (csrIndex, node, predicate, neighbour) -> pageRank[neighbour];
+        }
+    };
+
+    /**
+     * Damping factor of the PageRank computation.
+     */
+    private static final double DAMPING_FACTOR = 0.85;
+
+    /**
+     * Number of power iterations of the PageRank computation.
+     */
+    private static final int PAGERANK_ITERATIONS = 30;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EdgeWeightStrategy.class);
+
+    /**
+     * The strategy that is used if no strategy is specified.
+     */
+    public static final EdgeWeightStrategy DEFAULT_STRATEGY = UNIFORM;
+
+    /**
+     * Parse the strategy from a string (case insensitive).
+     *
+     * @param strategy The strategy as string.
+     * @return The strategy or null if it cannot be parsed.
+     */
+    public static EdgeWeightStrategy fromString(String strategy) {
+        if (strategy == null) return null;
+        for (EdgeWeightStrategy edgeWeightStrategy : values()) {
+            if (edgeWeightStrategy.name().equalsIgnoreCase(strategy.trim())) return edgeWeightStrategy;
+        }
+        return null;
+    }
+
+    /**
+     * Get a string representation of all available strategies.
+     *
+     * @return String representation of all strategies.
+     */
+    public static String getOptions() {
+        StringBuilder result = new StringBuilder();
+        for (EdgeWeightStrategy strategy : values()) {
+            if (result.length() > 0) result.append(" | ");
+            result.append(strategy.name().toLowerCase());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Counts the number of edges per predicate ID.
+     */
+    static int[] getPredicateFrequencies(CsrAdjacencyIndex index) {
+        int maxPredicate = -1;
+        for (int node = 0; node < index.getNumberOfNodes(); node++) {
+            for (int i = 0; i < index.getOutDegree(node); i++) {
+                maxPredicate = Math.max(maxPredicate, index.getOutPredicate(node, i));
+            }
+        }
+        int[] frequencies = new int[maxPredicate + 1];
+        for (int node = 0; node < index.getNumberOfNodes(); node++) {
+            for (int i = 0; i < index.getOutDegree(node); i++) {
+                frequencies[index.getOutPredicate(node, i)]++;
+            }
+        }
+        return frequencies;
+    }
+
+    /**
+     * Computes the PageRank of all nodes via power iteration. The rank of nodes without out-edges is distributed
+     * uniformly.
+     */
+    static double[] getPageRank(CsrAdjacencyIndex index) {
+        int numberOfNodes = index.getNumberOfNodes();
+        double[] rank = new double[numberOfNodes];
+        if (numberOfNodes == 0) return rank;
+        LOGGER.info("Computing the PageRank of " + numberOfNodes + " nodes.");
+        Arrays.fill(rank, 1.0 / numberOfNodes);
+        double[] next = new double[numberOfNodes];
+        for (int iteration = 0; iteration < PAGERANK_ITERATIONS; iteration++) {
+            double danglingRank = 0.0;
+            Arrays.fill(next, 0.0);
+            for (int node = 0; node < numberOfNodes; node++) {
+                int outDegree = index.getOutDegree(node);
+                if (outDegree == 0) {
+                    danglingRank += rank[node];
+                    continue;
+                }
+                double share = rank[node] / outDegree;
+                for (int i = 0; i < outDegree; i++) {
+                    next[index.getOutNeighbour(node, i)] += share;
+                }
+            }
+            double base = (1.0 - DAMPING_FACTOR) / numberOfNodes + DAMPING_FACTOR * danglingRank / numberOfNodes;
+            for (int node = 0; node < numberOfNodes; node++) {
+                next[node] = base + DAMPING_FACTOR * next[node];
+            }
+            double[] swap = rank;
+            rank = next;
+            next = swap;
+        }
+        return rank;
+    }
+}
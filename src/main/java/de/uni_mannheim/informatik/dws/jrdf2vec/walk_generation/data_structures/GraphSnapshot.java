@@ -0,0 +1,399 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Binary on-disk snapshot of the object triples of a {@link TripleDataSetMemory}: the node and predicate dictionaries
+ * together with the {@link CsrAdjacencyIndex}. A snapshot is written once (see
+ * {@link GraphSnapshot#write(TripleDataSetMemory, File)}) and can then be loaded in constant time via
+ * {@link FileChannel#map(FileChannel.MapMode, long, long)} (see {@link GraphSnapshot#load(File)}). Since the file is
+ * mapped read-only, the operating system can share its page cache among concurrent processes.
+ * <p>
+ * File layout (all numbers are big-endian ints):
+ * <pre>
+ * header:      magic, version, number of nodes, number of predicates, number of edges,
+ *              node string bytes, predicate string bytes, node table size, predicate table size
+ * nodes:       offsets (nodes + 1), UTF-8 bytes (padded to 4 bytes), hash table
+ * predicates:  offsets (predicates + 1), UTF-8 bytes (padded to 4 bytes), hash table
+ * adjacency:   out-offsets (nodes + 1), out-edges (2 * edges), in-offsets (nodes + 1), in-edges (2 * edges)
+ * </pre>
+ * The edge arrays are mapped in windows of at most 1 GB (see {@link SegmentedIntBuffer}). Every other section is mapped
+ * as one region and must therefore be smaller than 2 GB; this is checked when the snapshot is written. Datatype
+ * triples are not part of the snapshot.
+ */
+public class GraphSnapshot {
+
+
+    /**
+     * File ending of snapshot files.
+     */
+    public static final String FILE_ENDING = ".kgsnap";
+
+    /**
+     * "JR2V"
+     */
+    private static final int MAGIC_NUMBER = 0x4A523256;
+
+    /**
+     * Version 2: the edges of each node are sorted by neighbour (see {@link CsrAdjacencyIndex}).
+     */
+    private static final int VERSION = 2;
+
+    private static final int HEADER_INTS = 9;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GraphSnapshot.class);
+
+    /**
+     * Writes the object triples of the given data set as snapshot. The snapshot is written to a temporary file in the
+     * target directory which is renamed once it is complete; hence, a failed write never leaves a truncated snapshot
+     * behind.
+     *
+     * @param data        The data set. If it is not dictionary-encoded, it is encoded first.
+     * @param fileToWrite The snapshot file that shall be written.
+     * @return True if the snapshot was written, else false.
+     */
+    public static boolean write(TripleDataSetMemory data, File fileToWrite) {
+        if (data == null || fileToWrite == null) {
+            LOGGER.error("Data or file is null. Cannot write snapshot.");
+            return false;
+        }
+        if (data.getDatatypeTripleSize() > 0) {
+            LOGGER.warn("The data contains datatype triples. They will not be part of the snapshot.");
+        }
+        IEncodedGraph graph;
+        if (data instanceof IEncodedGraph) {
+            graph = (IEncodedGraph) data;
+        } else {
+            IntTripleDataSetMemory encoded = new IntTripleDataSetMemory();
+            encoded.addAllPartitions(Collections.singletonList(data));
+            graph = encoded;
+        }
+        CsrAdjacencyIndex index = graph.getAdjacencyIndex();
+        byte[][] nodeStrings = encode(graph.getNodeDictionary());
+        byte[][] predicateStrings = encode(graph.getPredicateDictionary());
+        int numberOfNodes = nodeStrings.length;
+        int numberOfPredicates = predicateStrings.length;
+        int numberOfEdges = index.getNumberOfEdges();
+        int nodeTableSize = UriDictionary.tableSizeFor(numberOfNodes * 2 + 2);
+        int predicateTableSize = UriDictionary.tableSizeFor(numberOfPredicates * 2 + 2);
+
+        Path target = fileToWrite.getAbsoluteFile().toPath();
+        Path temporaryFile = null;
+        boolean isWritten = false;
+        try {
+            checkSectionSize("node offsets", (numberOfNodes + 1) * 4L);
+            checkSectionSize("node table", nodeTableSize * 4L);
+            checkSectionSize("predicate offsets", (numberOfPredicates + 1) * 4L);
+            checkSectionSize("predicate table", predicateTableSize * 4L);
+            Files.createDirectories(target.getParent());
+            temporaryFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ChannelWriter out = new ChannelWriter(channel);
+                out.writeInt(MAGIC_NUMBER);
+                out.writeInt(VERSION);
+                out.writeInt(numberOfNodes);
+                out.writeInt(numberOfPredicates);
+                out.writeInt(numberOfEdges);
+                out.writeInt(totalLength(nodeStrings));
+                out.writeInt(totalLength(predicateStrings));
+                out.writeInt(nodeTableSize);
+                out.writeInt(predicateTableSize);
+                writeDictionary(out, nodeStrings, graph.getNodeDictionary());
+                writeDictionary(out, predicateStrings, graph.getPredicateDictionary());
+
+                // the index of an in-memory graph may contain more nodes than a dictionary snapshot (or vice versa)
+                writeOffsets(out, index.getOutOffsets(), index.getNumberOfNodes(), numberOfNodes);
+                out.writeInts(index.getOutEdges(), numberOfEdges * 2L);
+                writeOffsets(out, index.getInOffsets(), index.getNumberOfNodes(), numberOfNodes);
+                out.writeInts(index.getInEdges(), numberOfEdges * 2L);
+                out.flush();
+                channel.force(false);
+            }
+            try {
+                Files.move(temporaryFile, target, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException amnse) {
+                Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            isWritten = true;
+        } catch (IOException ioe) {
+            LOGGER.error("Could not write snapshot file " + fileToWrite.getAbsolutePath(), ioe);
+        } finally {
+            if (!isWritten && temporaryFile != null) {
+                try {
+                    Files.deleteIfExists(temporaryFile);
+                } catch (IOException ioe) {
+                    LOGGER.error("Could not delete the temporary snapshot file " + temporaryFile, ioe);
+                }
+            }
+        }
+        if (isWritten) {
+            LOGGER.info("Snapshot written to " + fileToWrite.getAbsolutePath() + " (" + numberOfNodes + " nodes, "
+                    + numberOfEdges + " edges).");
+        }
+        return isWritten;
+    }
+
+    /**
+     * Loads the given snapshot by mapping it into memory.
+     *
+     * @param snapshotFile The snapshot file.
+     * @return Read-only data set. Null in case of an error.
+     */
+    public static SnapshotTripleDataSet load(File snapshotFile) {
+        return load(snapshotFile, SegmentedIntBuffer.DEFAULT_SEGMENT_BITS);
+    }
+
+    /**
+     * Loads the given snapshot by mapping it into memory.
+     *
+     * @param snapshotFile The snapshot file.
+     * @param segmentBits  The edge arrays are mapped in windows of {@code 2^segmentBits} ints.
+     * @return Read-only data set. Null in case of an error.
+     */
+    static SnapshotTripleDataSet load(File snapshotFile, int segmentBits) {
+        if (snapshotFile == null || !snapshotFile.isFile()) {
+            LOGGER.error("The snapshot file does not exist. Cannot load snapshot.");
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            IntBuffer header = map(channel, 0, HEADER_INTS * 4L).asIntBuffer();
+            if (header.get(0) != MAGIC_NUMBER) {
+                LOGGER.error("The file " + snapshotFile.getName() + " is not a snapshot file.");
+                return null;
+            }
+            if (header.get(1) != VERSION) {
+                LOGGER.error("Unsupported snapshot version: " + header.get(1));
+                return null;
+            }
+            int numberOfNodes = header.get(2);
+            int numberOfPredicates = header.get(3);
+            int numberOfEdges = header.get(4);
+            int nodeBytes = header.get(5);
+            int predicateBytes = header.get(6);
+            int nodeTableSize = header.get(7);
+            int predicateTableSize = header.get(8);
+
+            long position = HEADER_INTS * 4L;
+            IntBuffer nodeOffsets = mapInts(channel, position, numberOfNodes + 1);
+            position += (numberOfNodes + 1) * 4L;
+            ByteBuffer nodeStrings = map(channel, position, nodeBytes);
+            position += padded(nodeBytes);
+            IntBuffer nodeSlots = mapInts(channel, position, nodeTableSize);
+            position += nodeTableSize * 4L;
+
+            IntBuffer predicateOffsets = mapInts(channel, position, numberOfPredicates + 1);
+            position += (numberOfPredicates + 1) * 4L;
+            ByteBuffer predicateStrings = map(channel, position, predicateBytes);
+            position += padded(predicateBytes);
+            IntBuffer predicateSlots = mapInts(channel, position, predicateTableSize);
+            position += predicateTableSize * 4L;
+
+            IntBuffer outOffsets = mapInts(channel, position, numberOfNodes + 1);
+            position += (numberOfNodes + 1) * 4L;
+            SegmentedIntBuffer outEdges = mapSegmentedInts(channel, position, numberOfEdges * 2L, segmentBits);
+            position += numberOfEdges * 8L;
+            IntBuffer inOffsets = mapInts(channel, position, numberOfNodes + 1);
+            position += (numberOfNodes + 1) * 4L;
+            SegmentedIntBuffer inEdges = mapSegmentedInts(channel, position, numberOfEdges * 2L, segmentBits);
+
+            LOGGER.info("Snapshot " + snapshotFile.getName() + " mapped (" + numberOfNodes + " nodes, "
+                    + numberOfEdges + " edges).");
+            return new SnapshotTripleDataSet(
+                    new MappedUriDictionary(nodeOffsets, nodeStrings, nodeSlots),
+                    new MappedUriDictionary(predicateOffsets, predicateStrings, predicateSlots),
+                    new CsrAdjacencyIndex(numberOfNodes, outOffsets, outEdges, inOffsets, inEdges));
+        } catch (IOException | IllegalArgumentException e) {
+            // a corrupt header leads to regions which are negative or exceed the file
+            LOGGER.error("Could not load snapshot file " + snapshotFile.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the given file is a snapshot file (by its file ending).
+     *
+     * @param file The file to check.
+     * @return True if snapshot file.
+     */
+    public static boolean isSnapshotFile(File file) {
+        return file != null && file.getName().toLowerCase().endsWith(FILE_ENDING);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, long position, int numberOfInts) throws IOException {
+        return map(channel, position, numberOfInts * 4L).asIntBuffer();
+    }
+
+    /**
+     * Maps the given number of ints in windows of {@code 2^segmentBits} ints.
+     */
+    private static SegmentedIntBuffer mapSegmentedInts(FileChannel channel, long position, long numberOfInts,
+                                                       int segmentBits) throws IOException {
+        if (numberOfInts < 0) {
+            throw new IOException("Invalid number of ints: " + numberOfInts);
+        }
+        long segmentSize = 1L << segmentBits;
+        IntBuffer[] segments = new IntBuffer[(int) Math.max(1, (numberOfInts + segmentSize - 1) / segmentSize)];
+        for (int segment = 0; segment < segments.length; segment++) {
+            long offset = segment * segmentSize;
+            segments[segment] = mapInts(channel, position + offset * 4, (int) Math.min(segmentSize,
+                    numberOfInts - offset));
+        }
+        return new SegmentedIntBuffer(segments, segmentBits, numberOfInts);
+    }
+
+    private static void checkSectionSize(String section, long numberOfBytes) throws IOException {
+        if (numberOfBytes > Integer.MAX_VALUE) {
+            throw new IOException("The " + section + " section is too large for a snapshot (" + numberOfBytes
+                    + " bytes).");
+        }
+    }
+
+    private static byte[][] encode(IUriDictionary dictionary) {
+        byte[][] result = new byte[dictionary.size()][];
+        for (int id = 0; id < result.length; id++) {
+            result[id] = dictionary.getString(id).getBytes(StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    private static int totalLength(byte[][] strings) throws IOException {
+        long length = 0;
+        for (byte[] string : strings) {
+            length += string.length;
+        }
+        if (length > Integer.MAX_VALUE - 4) {
+            throw new IOException("The dictionary is too large for a snapshot (" + length + " bytes).");
+        }
+        return (int) length;
+    }
+
+    private static long padded(int numberOfBytes) {
+        return (numberOfBytes + 3L) & ~3L;
+    }
+
+    private static void writeDictionary(ChannelWriter out, byte[][] strings, IUriDictionary dictionary)
+            throws IOException {
+        int[] offsets = new int[strings.length + 1];
+        for (int id = 0; id < strings.length; id++) {
+            offsets[id + 1] = offsets[id] + strings[id].length;
+        }
+        int length = offsets[strings.length];
+        out.writeInts(IntBuffer.wrap(offsets), offsets.length);
+        for (byte[] string : strings) {
+            out.write(string);
+        }
+        out.write(new byte[(int) (padded(length) - length)]);
+        int[] slots = new int[UriDictionary.tableSizeFor(strings.length * 2 + 2)];
+        Arrays.fill(slots, MappedUriDictionary.EMPTY);
+        int mask = slots.length - 1;
+        for (int id = 0; id < strings.length; id++) {
+            int slot = UriDictionary.mix(dictionary.getString(id).hashCode()) & mask;
+            while (slots[slot] != MappedUriDictionary.EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+        out.writeInts(IntBuffer.wrap(slots), slots.length);
+    }
+
+    private static void writeOffsets(ChannelWriter out, IntBuffer offsets, int indexedNodes, int numberOfNodes)
+            throws IOException {
+        int copied = Math.min(indexedNodes, numberOfNodes) + 1;
+        out.writeInts(offsets, copied);
+        for (int node = copied; node <= numberOfNodes; node++) {
+            out.writeInt(offsets.get(indexedNodes));
+        }
+    }
+
+    /**
+     * Buffered writer which transfers big-endian ints to a {@link FileChannel}. Int arrays are copied in bulk.
+     * The buffers are cast to {@link Buffer} before position changes since the covariant overrides of
+     * {@code ByteBuffer}/{@code IntBuffer} do not exist on Java 8.
+     */
+    private static class ChannelWriter {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+        ChannelWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeInt(int value) throws IOException {
+            if (buffer.remaining() < 4) flush();
+            buffer.putInt(value);
+        }
+
+        /**
+         * Writes the first {@code numberOfInts} ints of the given segmented buffer.
+         */
+        void writeInts(SegmentedIntBuffer ints, long numberOfInts) throws IOException {
+            long written = 0;
+            for (int segment = 0; segment < ints.getNumberOfSegments() && written < numberOfInts; segment++) {
+                IntBuffer source = ints.getSegment(segment);
+                int length = (int) Math.min(source.capacity(), numberOfInts - written);
+                writeInts(source, length);
+                written += length;
+            }
+        }
+
+        /**
+         * Writes the first {@code numberOfInts} ints of the given buffer (independent of its position).
+         */
+        void writeInts(IntBuffer ints, int numberOfInts) throws IOException {
+            IntBuffer source = ints.duplicate();
+            ((Buffer) source).position(0);
+            int written = 0;
+            while (written < numberOfInts) {
+                if (buffer.remaining() < 4) flush();
+                int length = Math.min(numberOfInts - written, buffer.remaining() / 4);
+                ((Buffer) source).limit(written + length);
+                buffer.asIntBuffer().put(source);
+                ((Buffer) buffer).position(buffer.position() + length * 4);
+                written += length;
+            }
+        }
+
+        void write(byte[] bytes) throws IOException {
+            int written = 0;
+            while (written < bytes.length) {
+                if (!buffer.hasRemaining()) flush();
+                int length = Math.min(bytes.length - written, buffer.remaining());
+                buffer.put(bytes, written, length);
+                written += length;
+            }
+        }
+
+        void flush() throws IOException {
+            ((Buffer) buffer).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            ((Buffer) buffer).clear();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import org.rdfhdt.hdt.hdt.HDT;
+import org.rdfhdt.hdt.hdt.HDTManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared, reference-counted handle on an {@link HDT} file. All components that open the same file (e.g. the walk
+ * generator and the entity selector) obtain the same {@link HDT} instance so that the file is read only once. The
+ * {@link HDT} is closed when the last handle is closed.
+ * <p>
+ * The HDT is always opened together with its object index (file ending {@link HdtHandle#INDEX_FILE_ENDING}) which is
+ * required to draw predecessors efficiently. If the index file does not exist, it is generated and written next to
+ * the HDT file. For large files, the index should be generated once upfront using
+ * {@link HdtHandle#generateIndex(File)}.
+ */
+public class HdtHandle implements Closeable {
+
+
+    /**
+     * Determines how the HDT file is opened.
+     */
+    public enum LoadingMode {
+        /**
+         * The file is memory-mapped. The heap only holds small directory structures; the operating system can share
+         * the page cache among concurrent processes.
+         */
+        MAPPED,
+
+        /**
+         * The file is fully loaded into the heap.
+         */
+        LOADED;
+
+        /**
+         * Parse the mode from a string (case insensitive).
+         *
+         * @param mode The mode as string.
+         * @return The mode or null if it cannot be parsed.
+         */
+        public static LoadingMode fromString(String mode) {
+            if (mode == null) return null;
+            for (LoadingMode loadingMode : values()) {
+                if (loadingMode.name().equalsIgnoreCase(mode.trim())) return loadingMode;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * File ending of the HDT index file (appended to the name of the HDT file).
+     */
+    public static final String INDEX_FILE_ENDING = ".index.v1-1";
+
+    /**
+     * The loading mode that is used if no mode is specified.
+     */
+    public static final LoadingMode DEFAULT_LOADING_MODE = LoadingMode.MAPPED;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HdtHandle.class);
+
+    /**
+     * Open HDTs by canonical file path.
+     */
+    private static final Map<String, SharedHdt> OPEN_HDTS = new HashMap<>();
+
+    private final SharedHdt sharedHdt;
+
+    private boolean isClosed = false;
+
+    private HdtHandle(SharedHdt sharedHdt) {
+        this.sharedHdt = sharedHdt;
+    }
+
+    /**
+     * Open the given HDT file using the {@link HdtHandle#DEFAULT_LOADING_MODE}. If the file is already open, the open instance is
+     * shared.
+     *
+     * @param hdtFilePath Path to the HDT file (or to its index file).
+     * @return Handle on the HDT.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static HdtHandle open(String hdtFilePath) throws IOException {
+        return open(hdtFilePath, DEFAULT_LOADING_MODE);
+    }
+
+    /**
+     * Open the given HDT file. If the file is already open, the open instance is shared. If it was opened in a
+     * different loading mode, a warning is logged and the handle keeps the mode of the open instance.
+     *
+     * @param hdtFilePath Path to the HDT file (or to its index file).
+     * @param loadingMode The loading mode.
+     * @return Handle on the HDT.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static HdtHandle open(String hdtFilePath, LoadingMode loadingMode) throws IOException {
+        if (loadingMode == null) {
+            LOGGER.warn("The loading mode is null. Using " + DEFAULT_LOADING_MODE + ".");
+            loadingMode = DEFAULT_LOADING_MODE;
+        }
+        String path = getHdtFile(new File(hdtFilePath)).getCanonicalPath();
+        synchronized (OPEN_HDTS) {
+            SharedHdt sharedHdt = OPEN_HDTS.get(path);
+            if (sharedHdt == null) {
+                LOGGER.info("Opening HDT file " + path + " (" + loadingMode + ").");
+                HDT hdt = loadingMode == LoadingMode.MAPPED ? HDTManager.mapIndexedHDT(path) :
+                        HDTManager.loadIndexedHDT(path);
+                sharedHdt = new SharedHdt(path, hdt, loadingMode);
+                OPEN_HDTS.put(path, sharedHdt);
+            } else if (sharedHdt.loadingMode != loadingMode) {
+                LOGGER.warn("HDT file " + path + " is already open (" + sharedHdt.loadingMode + "). The requested " +
+                        "loading mode " + loadingMode + " is ignored.");
+            }
+            sharedHdt.references++;
+            return new HdtHandle(sharedHdt);
+        }
+    }
+
+    /**
+     * Generates the index file of the given HDT file if it does not exist yet.
+     *
+     * @param hdtFile The HDT file.
+     * @return True if the index file exists after the call.
+     */
+    public static boolean generateIndex(File hdtFile) {
+        if (hdtFile == null || !hdtFile.isFile()) {
+            LOGGER.error("The HDT file does not exist: " + hdtFile);
+            return false;
+        }
+        File hdt = getHdtFile(hdtFile);
+        if (isIndexAvailable(hdt)) {
+            LOGGER.info("The index of " + hdt.getAbsolutePath() + " already exists.");
+            return true;
+        }
+        LOGGER.info("Generating the index of " + hdt.getAbsolutePath() + ".");
+        // mapping the indexed HDT writes the index file if it does not exist
+        try (HDT indexedHdt = HDTManager.mapIndexedHDT(hdt.getAbsolutePath())) {
+            LOGGER.info("Index generated (" + indexedHdt.getTriples().getNumberOfElements() + " triples).");
+        } catch (IOException e) {
+            LOGGER.error("Could not generate the index of " + hdt.getAbsolutePath() + ".", e);
+        }
+        return isIndexAvailable(hdt);
+    }
+
+    /**
+     * Checks whether the index file of the given HDT file exists.
+     *
+     * @param hdtFile The HDT file.
+     * @return True if the index file exists.
+     */
+    public static boolean isIndexAvailable(File hdtFile) {
+        File hdt = getHdtFile(hdtFile);
+        return new File(hdt.getParentFile(), hdt.getName() + INDEX_FILE_ENDING).isFile();
+    }
+
+    /**
+     * If the index file is given, the corresponding HDT file is returned.
+     */
+    private static File getHdtFile(File file) {
+        String path = file.getAbsolutePath();
+        if (path.toLowerCase().endsWith(INDEX_FILE_ENDING)) {
+            return new File(path.substring(0, path.length() - INDEX_FILE_ENDING.length()));
+        }
+        return file.getAbsoluteFile();
+    }
+
+    /**
+     * Returns the number of open handles on the given HDT file.
+     *
+     * @param hdtFile The HDT file.
+     * @return Number of handles (0 if the file is not open).
+     * @throws IOException If the canonical path cannot be determined.
+     */
+    static int getNumberOfHandles(File hdtFile) throws IOException {
+        synchronized (OPEN_HDTS) {
+            SharedHdt sharedHdt = OPEN_HDTS.get(getHdtFile(hdtFile).getCanonicalPath());
+            return sharedHdt == null ? 0 : sharedHdt.references;
+        }
+    }
+
+    public HDT getHdt() {
+        return sharedHdt.hdt;
+    }
+
+    /**
+     * Returns the mode in which the shared HDT was opened.
+     *
+     * @return The loading mode.
+     */
+    public LoadingMode getLoadingMode() {
+        return sharedHdt.loadingMode;
+    }
+
+    /**
+     * Release this handle. The HDT is closed once all handles on it are closed. Calling this method more than once has
+     * no effect.
+     */
+    @Override
+    public void close() {
+        synchronized (OPEN_HDTS) {
+            if (isClosed) return;
+            isClosed = true;
+            sharedHdt.references--;
+            if (sharedHdt.references == 0) {
+                OPEN_HDTS.remove(sharedHdt.path);
+                try {
+                    sharedHdt.hdt.close();
+                } catch (IOException e) {
+                    LOGGER.error("Could not close HDT file " + sharedHdt.path + ".", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * An open HDT together with its number of handles.
+     */
+    private static class SharedHdt {
+
+
+        private final String path;
+
+        private final HDT hdt;
+
+        private final LoadingMode loadingMode;
+
+        private int references = 0;
+
+        SharedHdt(String path, HDT hdt, LoadingMode loadingMode) {
+            this.path = path;
+            this.hdt = hdt;
+            this.loadingMode = loadingMode;
+        }
+    }
+}
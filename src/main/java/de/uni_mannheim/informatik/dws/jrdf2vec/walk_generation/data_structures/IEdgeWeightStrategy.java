@@ -0,0 +1,24 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+/**
+ * Determines the (unnormalized) probability with which an edge is followed in a biased walk. The weights are evaluated
+ * once when the {@link CsrAliasTables} of an index are built; during the walk generation, weighted edges are drawn in
+ * O(1). Strategies are created per index by an {@link IEdgeWeightStrategyFactory}; predefined factories are available
+ * in {@link EdgeWeightStrategy}.
+ */
+@FunctionalInterface
+public interface IEdgeWeightStrategy {
+
+
+    /**
+     * Obtain the weight of following the given edge from {@code node} to {@code neighbour}. The edge is an out-edge
+     * of {@code node} (forward direction) or an in-edge of {@code node} (backward direction).
+     *
+     * @param index     The adjacency index.
+     * @param node      The node ID of the current node.
+     * @param predicate The predicate ID of the edge.
+     * @param neighbour The node ID of the neighbour.
+     * @return Non-negative weight. Edges with weight 0 are never followed.
+     */
+    double getWeight(CsrAdjacencyIndex index, int node, int predicate, int neighbour);
+}
@@ -0,0 +1,30 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+/**
+ * Creates the {@link IEdgeWeightStrategy} for a {@link CsrAdjacencyIndex}. Strategies which depend on global
+ * statistics of the graph (e.g. predicate frequencies) compute them once in
+ * {@link IEdgeWeightStrategyFactory#create(CsrAdjacencyIndex)}. Predefined factories are available in
+ * {@link EdgeWeightStrategy}.
+ */
+@FunctionalInterface
+public interface IEdgeWeightStrategyFactory {
+
+
+    /**
+     * Create the strategy that is used to evaluate all edges of the given index.
+     *
+     * @param index The adjacency index.
+     * @return Strategy for the given index.
+     */
+    IEdgeWeightStrategy create(CsrAdjacencyIndex index);
+
+    /**
+     * Obtain a factory for a strategy which does not depend on global statistics of the graph.
+     *
+     * @param strategy The strategy.
+     * @return Factory which returns the given strategy for every index.
+     */
+    static IEdgeWeightStrategyFactory of(IEdgeWeightStrategy strategy) {
+        return index -> strategy;
+    }
+}
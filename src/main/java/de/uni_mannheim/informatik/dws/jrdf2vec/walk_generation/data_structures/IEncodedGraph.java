@@ -0,0 +1,30 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+/**
+ * A graph whose object triples are available as dictionary-encoded {@link CsrAdjacencyIndex}. Walk generators can
+ * use this interface to generate walks on the ID level.
+ */
+public interface IEncodedGraph {
+
+
+    /**
+     * Obtain the read-only adjacency index.
+     *
+     * @return The index.
+     */
+    CsrAdjacencyIndex getAdjacencyIndex();
+
+    /**
+     * Obtain the node dictionary.
+     *
+     * @return Dictionary for subjects and objects.
+     */
+    IUriDictionary getNodeDictionary();
+
+    /**
+     * Obtain the predicate dictionary.
+     *
+     * @return Dictionary for predicates.
+     */
+    IUriDictionary getPredicateDictionary();
+}
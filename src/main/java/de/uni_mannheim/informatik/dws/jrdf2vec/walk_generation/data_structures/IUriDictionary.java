@@ -0,0 +1,40 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import java.util.Set;
+
+/**
+ * Read access to a bidirectional mapping between strings (typically URIs) and consecutive int IDs starting at 0.
+ */
+public interface IUriDictionary {
+
+
+    /**
+     * Obtain the ID of the given string.
+     *
+     * @param string The string whose ID shall be obtained.
+     * @return ID. -1 if the string is not known (or null).
+     */
+    int getId(String string);
+
+    /**
+     * Obtain the string for the given ID.
+     *
+     * @param id The ID.
+     * @return String representation of the ID.
+     */
+    String getString(int id);
+
+    /**
+     * Returns the number of managed strings. The largest ID is {@code size() - 1}.
+     *
+     * @return Number of strings.
+     */
+    int size();
+
+    /**
+     * Obtain a read-only set view on all managed strings.
+     *
+     * @return Set view.
+     */
+    Set<String> asSet();
+}
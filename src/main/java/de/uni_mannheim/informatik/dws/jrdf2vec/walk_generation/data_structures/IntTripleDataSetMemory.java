@@ -0,0 +1,649 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A dictionary-encoded, in-memory storage option for triples.
+ * Every node and every predicate is mapped once to an int ID (see {@link UriDictionary}). Object triples are stored
+ * as three int columns and the subject, predicate, and object indices are kept in primitive {@code int[]} adjacency
+ * arrays which hold triple IDs. This requires a fraction of the memory of {@link TripleDataSetMemory} which stores
+ * each triple as {@link Triple} object in multiple nested maps.
+ * <p>
+ * The class offers the same query surface as {@link TripleDataSetMemory} so that it can be used as a drop-in
+ * replacement (e.g. for {@link de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.MemoryWalkGenerator}).
+ * Note that the query methods create new {@link Triple} instances on every call.
+ * Datatype triples are not dictionary-encoded.
+ * <p>
+ * All IDs and indices are ints. The triple hash table is limited to {@link UriDictionary#MAX_TABLE_SIZE} slots at a
+ * load factor of at most 0.5, hence an instance holds at most 2<sup>29</sup> (about 537 million) object triples and
+ * each dictionary at most 2<sup>29</sup> strings. Adding more fails with an {@link IllegalStateException}
+ * ("graph too large for the int store").
+ */
+public class IntTripleDataSetMemory extends TripleDataSetMemory implements IEncodedGraph {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IntTripleDataSetMemory.class);
+
+    /**
+     * Marker for an empty slot in {@link IntTripleDataSetMemory#tripleTable}.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * Marker for a slot of a removed triple in {@link IntTripleDataSetMemory#tripleTable}.
+     */
+    private static final int REMOVED = -2;
+
+    /**
+     * Node (subject and object) dictionary.
+     */
+    final UriDictionary nodes;
+
+    /**
+     * Predicate dictionary.
+     */
+    final UriDictionary predicates;
+
+    /**
+     * Triple ID to subject ID. Removed triples are marked with -1.
+     */
+    int[] tripleSubjects;
+
+    /**
+     * Triple ID to predicate ID.
+     */
+    int[] triplePredicates;
+
+    /**
+     * Triple ID to object ID.
+     */
+    int[] tripleObjects;
+
+    /**
+     * The number of assigned triple IDs (including removed triples).
+     */
+    int numberOfTripleIds = 0;
+
+    /**
+     * The number of managed object triples.
+     */
+    private int numberOfObjectTriples = 0;
+
+    /**
+     * The number of managed datatype triples.
+     */
+    private long numberOfDatatypeTriples = 0;
+
+    /**
+     * Open addressing hash table of triple IDs which is used to detect duplicate triples.
+     */
+    private int[] tripleTable;
+
+    /**
+     * Number of non-empty slots in {@link IntTripleDataSetMemory#tripleTable} (including removed markers).
+     */
+    private int usedTableSlots = 0;
+
+    /**
+     * Form: {@code subject ID -> triple IDs}. Only the first {@code subjectDegrees[subject]} entries are valid.
+     */
+    int[][] subjectToTriples;
+    int[] subjectDegrees;
+
+    /**
+     * Form: {@code object ID -> triple IDs}. Only the first {@code objectDegrees[object]} entries are valid.
+     */
+    int[][] objectToTriples;
+    int[] objectDegrees;
+
+    /**
+     * Form: {@code predicate ID -> triple IDs}. Only the first {@code predicateDegrees[predicate]} entries are valid.
+     */
+    int[][] predicateToTriples;
+    int[] predicateDegrees;
+
+    /**
+     * Read-only adjacency index for walk generation. Null if it has not been built yet or if the data changed
+     * afterwards.
+     */
+    private volatile CsrAdjacencyIndex adjacencyIndex;
+
+    /**
+     * Constructor
+     */
+    public IntTripleDataSetMemory() {
+        this(1024, 1024);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param expectedNumberOfNodes   The expected number of nodes.
+     * @param expectedNumberOfTriples The expected number of object triples.
+     */
+    public IntTripleDataSetMemory(int expectedNumberOfNodes, int expectedNumberOfTriples) {
+        super();
+        int nodeCapacity = Math.max(16, expectedNumberOfNodes);
+        int tripleCapacity = Math.max(16, expectedNumberOfTriples);
+        nodes = new UriDictionary(nodeCapacity);
+        predicates = new UriDictionary(64);
+        tripleSubjects = new int[tripleCapacity];
+        triplePredicates = new int[tripleCapacity];
+        tripleObjects = new int[tripleCapacity];
+        tripleTable = new int[UriDictionary.tableSizeFor((int) Math.min(tripleCapacity * 2L,
+                UriDictionary.MAX_TABLE_SIZE))];
+        Arrays.fill(tripleTable, EMPTY);
+        subjectToTriples = new int[nodeCapacity][];
+        subjectDegrees = new int[nodeCapacity];
+        objectToTriples = new int[nodeCapacity][];
+        objectDegrees = new int[nodeCapacity];
+        predicateToTriples = new int[64][];
+        predicateDegrees = new int[64];
+    }
+
+    @Override
+    public void addObjectTriple(Triple tripleToAdd) {
+        addObjectTriple(tripleToAdd.subject, tripleToAdd.predicate, tripleToAdd.object);
+    }
+
+    /**
+     * Add the given triple as specified by its components (thread-safe).
+     *
+     * @param subject   Subject
+     * @param predicate Predicate
+     * @param object    Object
+     */
+    @Override
+    public synchronized void addObjectTriple(String subject, String predicate, String object) {
+        int s = nodes.getOrAdd(subject);
+        int p = predicates.getOrAdd(predicate);
+        int o = nodes.getOrAdd(object);
+        addObjectTriple(s, p, o);
+    }
+
+    /**
+     * Add the given encoded triple. The IDs must have been obtained from the dictionaries of this instance.
+     *
+     * @param s Subject ID.
+     * @param p Predicate ID.
+     * @param o Object ID.
+     */
+    synchronized void addObjectTriple(int s, int p, int o) {
+        if (findTriple(s, p, o) >= 0) {
+            return;
+        }
+        int tripleId = numberOfTripleIds++;
+        if (tripleId == tripleSubjects.length) {
+            int newCapacity = UriDictionary.grow(tripleId + 1L, tripleSubjects.length * 2L);
+            tripleSubjects = Arrays.copyOf(tripleSubjects, newCapacity);
+            triplePredicates = Arrays.copyOf(triplePredicates, newCapacity);
+            tripleObjects = Arrays.copyOf(tripleObjects, newCapacity);
+        }
+        tripleSubjects[tripleId] = s;
+        triplePredicates[tripleId] = p;
+        tripleObjects[tripleId] = o;
+        insertIntoTripleTable(tripleId);
+        ensureNodeCapacity(nodes.size());
+        ensurePredicateCapacity(predicates.size());
+        subjectToTriples[s] = append(subjectToTriples[s], subjectDegrees[s]++, tripleId);
+        objectToTriples[o] = append(objectToTriples[o], objectDegrees[o]++, tripleId);
+        predicateToTriples[p] = append(predicateToTriples[p], predicateDegrees[p]++, tripleId);
+        numberOfObjectTriples++;
+        adjacencyIndex = null;
+    }
+
+    @Override
+    public TripleDataSetMemory createEmptyPartition() {
+        return new IntTripleDataSetMemory();
+    }
+
+    /**
+     * Merges the given partitions into this data set. For partitions of type {@link IntTripleDataSetMemory}, the
+     * dictionaries are translated once per distinct node and predicate; the triples themselves are merged on the ID
+     * level without any string hashing.
+     *
+     * @param partitions The partitions to be merged.
+     */
+    @Override
+    public synchronized void addAllPartitions(List<? extends TripleDataSetMemory> partitions) {
+        for (TripleDataSetMemory partition : partitions) {
+            if (partition instanceof IntTripleDataSetMemory) {
+                IntTripleDataSetMemory intPartition = (IntTripleDataSetMemory) partition;
+                int[] nodeMapping = translate(intPartition.nodes, nodes);
+                int[] predicateMapping = translate(intPartition.predicates, predicates);
+                ensureNodeCapacity(nodes.size());
+                ensurePredicateCapacity(predicates.size());
+                for (int tripleId = 0; tripleId < intPartition.numberOfTripleIds; tripleId++) {
+                    int s = intPartition.tripleSubjects[tripleId];
+                    if (s >= 0) {
+                        addObjectTriple(nodeMapping[s], predicateMapping[intPartition.triplePredicates[tripleId]],
+                                nodeMapping[intPartition.tripleObjects[tripleId]]);
+                    }
+                }
+            } else {
+                addAllObjectTriples(partition);
+            }
+            addAllDatatypeTriples(partition);
+        }
+    }
+
+    /**
+     * Adds all strings of {@code from} to {@code to}.
+     *
+     * @param from Source dictionary.
+     * @param to   Target dictionary.
+     * @return Mapping from the IDs of {@code from} to the IDs of {@code to}.
+     */
+    private static int[] translate(UriDictionary from, UriDictionary to) {
+        int[] mapping = new int[from.size()];
+        for (int id = 0; id < mapping.length; id++) {
+            mapping[id] = to.getOrAdd(from.getString(id));
+        }
+        return mapping;
+    }
+
+    /**
+     * Add a triple where the object is a string.
+     * The subject is encoded, the datatype values are kept as strings.
+     *
+     * @param tripleToAdd Triple where the object is a string.
+     */
+    @Override
+    public synchronized void addDatatypeTriple(Triple tripleToAdd) {
+        int s = nodes.getOrAdd(tripleToAdd.subject);
+        ensureNodeCapacity(s + 1);
+        if (addToDatatypeIndex(tripleToAdd)) {
+            numberOfDatatypeTriples++;
+        }
+    }
+
+    /**
+     * Remove the provided object triple from all indices.
+     * Note that the dictionary entries of the nodes are kept.
+     *
+     * @param tripleToBeRemoved The triple that shall be removed.
+     */
+    @Override
+    public synchronized void removeObjectTriple(Triple tripleToBeRemoved) {
+        if (tripleToBeRemoved == null) {
+            LOGGER.warn("tripleToBeRemoved is null.");
+            return;
+        }
+        int s = nodes.getId(tripleToBeRemoved.subject);
+        int p = predicates.getId(tripleToBeRemoved.predicate);
+        int o = nodes.getId(tripleToBeRemoved.object);
+        int slot = (s < 0 || p < 0 || o < 0) ? -1 : findTripleSlot(s, p, o);
+        if (slot < 0) {
+            LOGGER.warn("Object triple not found: (" + tripleToBeRemoved.subject + ", "
+                    + tripleToBeRemoved.predicate + ", " + tripleToBeRemoved.object + ")");
+            return;
+        }
+        int tripleId = tripleTable[slot];
+        tripleTable[slot] = REMOVED;
+        subjectDegrees[s] = removeValue(subjectToTriples[s], subjectDegrees[s], tripleId);
+        objectDegrees[o] = removeValue(objectToTriples[o], objectDegrees[o], tripleId);
+        predicateDegrees[p] = removeValue(predicateToTriples[p], predicateDegrees[p], tripleId);
+        tripleSubjects[tripleId] = -1;
+        triplePredicates[tripleId] = -1;
+        tripleObjects[tripleId] = -1;
+        numberOfObjectTriples--;
+        adjacencyIndex = null;
+    }
+
+    @Override
+    public Set<Triple> getAllObjectTriples() {
+        Set<Triple> result = new HashSet<>(numberOfObjectTriples * 2);
+        for (int tripleId = 0; tripleId < numberOfTripleIds; tripleId++) {
+            if (tripleSubjects[tripleId] >= 0) {
+                result.add(toTriple(tripleId));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Triple> getObjectTriplesInvolvingSubject(String subject) {
+        int s = nodes.getId(subject);
+        if (s < 0 || s >= subjectDegrees.length) return null;
+        return toTripleList(subjectToTriples[s], subjectDegrees[s]);
+    }
+
+    @Override
+    public List<Triple> getObjectTriplesInvolvingPredicate(String predicate) {
+        int p = predicates.getId(predicate);
+        if (p < 0 || p >= predicateDegrees.length) return null;
+        return toTripleList(predicateToTriples[p], predicateDegrees[p]);
+    }
+
+    @Override
+    public List<Triple> getObjectTriplesInvolvingObject(String object) {
+        int o = nodes.getId(object);
+        if (o < 0 || o >= objectDegrees.length) return null;
+        return toTripleList(objectToTriples[o], objectDegrees[o]);
+    }
+
+    @Override
+    public Set<Triple> getObjectTriplesWithSubjectPredicate(String subject, String predicate) {
+        int s = nodes.getId(subject);
+        int p = predicates.getId(predicate);
+        if (s < 0 || p < 0 || s >= subjectDegrees.length) return null;
+        return toTripleSet(subjectToTriples[s], subjectDegrees[s], p);
+    }
+
+    @Override
+    public Set<Triple> getObjectTriplesWithPredicateObject(String predicate, String object) {
+        int o = nodes.getId(object);
+        int p = predicates.getId(predicate);
+        if (o < 0 || p < 0 || o >= objectDegrees.length) return null;
+        return toTripleSet(objectToTriples[o], objectDegrees[o], p);
+    }
+
+    @Override
+    public int getOutDegree(String subject) {
+        int s = nodes.getId(subject);
+        if (s < 0 || s >= subjectDegrees.length) return 0;
+        return subjectDegrees[s];
+    }
+
+    @Override
+    public int getInDegree(String object) {
+        int o = nodes.getId(object);
+        if (o < 0 || o >= objectDegrees.length) return 0;
+        return objectDegrees[o];
+    }
+
+    @Override
+    public Triple drawObjectTripleInvolvingSubject(String subject) {
+        int s = nodes.getId(subject);
+        if (s < 0 || s >= subjectDegrees.length || subjectDegrees[s] == 0) return null;
+        return toTriple(subjectToTriples[s][ThreadLocalRandom.current().nextInt(subjectDegrees[s])]);
+    }
+
+    @Override
+    public Triple drawObjectTripleInvolvingObject(String object) {
+        int o = nodes.getId(object);
+        if (o < 0 || o >= objectDegrees.length || objectDegrees[o] == 0) return null;
+        return toTriple(objectToTriples[o][ThreadLocalRandom.current().nextInt(objectDegrees[o])]);
+    }
+
+    @Override
+    public long getObjectTripleSize() {
+        return numberOfObjectTriples;
+    }
+
+    @Override
+    public long getDatatypeTripleSize() {
+        return numberOfDatatypeTriples;
+    }
+
+    @Override
+    public Set<String> getUniqueObjectTripleSubjects() {
+        return nodesWithDegree(subjectDegrees, null);
+    }
+
+    @Override
+    public Set<String> getUniqueObjectTripleObjects() {
+        return nodesWithDegree(objectDegrees, null);
+    }
+
+    @Override
+    public Set<String> getUniqueObjectTripleSubjectsAndObjects() {
+        return nodesWithDegree(subjectDegrees, objectDegrees);
+    }
+
+    @Override
+    public Set<String> getUniqueObjectTriplePredicates() {
+        Set<String> result = new HashSet<>();
+        for (int p = 0; p < predicates.size(); p++) {
+            if (predicateDegrees[p] > 0) {
+                result.add(predicates.getString(p));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Obtain all node URIs (subjects and objects of object triples as well as subjects of datatype triples).
+     *
+     * @return Read-only view on the node dictionary.
+     */
+    @Override
+    public Set<String> getObjectNodes() {
+        return nodes.asSet();
+    }
+
+    @Override
+    public int getNumberOfObjectNodes() {
+        return nodes.size();
+    }
+
+    /**
+     * Builds the read-only {@link CsrAdjacencyIndex}. This method should be called once all triples are loaded.
+     * If triples are added or removed afterwards, the index is discarded and rebuilt on the next call of
+     * {@link IntTripleDataSetMemory#getAdjacencyIndex()}.
+     *
+     * @return The index.
+     */
+    public synchronized CsrAdjacencyIndex freeze() {
+        if (adjacencyIndex == null) {
+            LOGGER.info("Building CSR adjacency index for " + numberOfObjectTriples + " object triples.");
+            adjacencyIndex = CsrAdjacencyIndex.build(this);
+        }
+        return adjacencyIndex;
+    }
+
+    /**
+     * Obtain the read-only adjacency index. It is built if required.
+     *
+     * @return The index.
+     */
+    @Override
+    public CsrAdjacencyIndex getAdjacencyIndex() {
+        CsrAdjacencyIndex result = adjacencyIndex;
+        if (result == null) {
+            result = freeze();
+        }
+        return result;
+    }
+
+    /**
+     * Obtain the node dictionary.
+     *
+     * @return Dictionary for subjects and objects.
+     */
+    @Override
+    public UriDictionary getNodeDictionary() {
+        return nodes;
+    }
+
+    /**
+     * Obtain the predicate dictionary.
+     *
+     * @return Dictionary for predicates.
+     */
+    @Override
+    public UriDictionary getPredicateDictionary() {
+        return predicates;
+    }
+
+    /**
+     * Decodes the given triple ID.
+     *
+     * @param tripleId The ID of the triple.
+     * @return New triple instance.
+     */
+    Triple toTriple(int tripleId) {
+        return new Triple(nodes.getString(tripleSubjects[tripleId]),
+                predicates.getString(triplePredicates[tripleId]),
+                nodes.getString(tripleObjects[tripleId]));
+    }
+
+    private List<Triple> toTripleList(int[] tripleIds, int length) {
+        if (length == 0) return null;
+        List<Triple> result = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            result.add(toTriple(tripleIds[i]));
+        }
+        return result;
+    }
+
+    private Set<Triple> toTripleSet(int[] tripleIds, int length, int predicate) {
+        Set<Triple> result = null;
+        for (int i = 0; i < length; i++) {
+            int tripleId = tripleIds[i];
+            if (triplePredicates[tripleId] == predicate) {
+                if (result == null) result = new HashSet<>();
+                result.add(toTriple(tripleId));
+            }
+        }
+        return result;
+    }
+
+    private Set<String> nodesWithDegree(int[] degrees, int[] alternativeDegrees) {
+        Set<String> result = new HashSet<>();
+        int numberOfNodes = Math.min(nodes.size(), degrees.length);
+        for (int node = 0; node < numberOfNodes; node++) {
+            if (degrees[node] > 0 || (alternativeDegrees != null && alternativeDegrees[node] > 0)) {
+                result.add(nodes.getString(node));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ID of the given triple.
+     *
+     * @param s Subject ID.
+     * @param p Predicate ID.
+     * @param o Object ID.
+     * @return Triple ID or -1 if the triple does not exist.
+     */
+    int findTriple(int s, int p, int o) {
+        int slot = findTripleSlot(s, p, o);
+        return slot < 0 ? -1 : tripleTable[slot];
+    }
+
+    private int findTripleSlot(int s, int p, int o) {
+        int mask = tripleTable.length - 1;
+        int slot = hashTriple(s, p, o) & mask;
+        int tripleId;
+        while ((tripleId = tripleTable[slot]) != EMPTY) {
+            if (tripleId >= 0 && tripleSubjects[tripleId] == s && triplePredicates[tripleId] == p
+                    && tripleObjects[tripleId] == o) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insertIntoTripleTable(int tripleId) {
+        if ((usedTableSlots + 1L) * 2 > tripleTable.length) {
+            rehashTripleTable();
+        }
+        int mask = tripleTable.length - 1;
+        int slot = hashTriple(tripleSubjects[tripleId], triplePredicates[tripleId], tripleObjects[tripleId]) & mask;
+        while (tripleTable[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        tripleTable[slot] = tripleId;
+        usedTableSlots++;
+    }
+
+    /**
+     * Rebuilds the triple table. Removed markers are dropped; the table grows if required.
+     *
+     * @throws IllegalStateException if the table cannot grow any further.
+     */
+    private void rehashTripleTable() {
+        int newSize = tripleTable.length;
+        if ((numberOfObjectTriples + 1L) * 4 > newSize) {
+            if (newSize < UriDictionary.MAX_TABLE_SIZE) {
+                newSize = newSize << 1;
+            } else if ((numberOfObjectTriples + 1L) * 2 > newSize) {
+                throw new IllegalStateException("Graph too large for the int store: at most "
+                        + (UriDictionary.MAX_TABLE_SIZE / 2) + " object triples are supported.");
+            }
+        }
+        int[] newTable = new int[newSize];
+        Arrays.fill(newTable, EMPTY);
+        int mask = newSize - 1;
+        usedTableSlots = 0;
+        for (int tripleId = 0; tripleId < numberOfTripleIds; tripleId++) {
+            if (tripleSubjects[tripleId] < 0) continue;
+            int slot = hashTriple(tripleSubjects[tripleId], triplePredicates[tripleId], tripleObjects[tripleId]) & mask;
+            while (newTable[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = tripleId;
+            usedTableSlots++;
+        }
+        tripleTable = newTable;
+    }
+
+    static int hashTriple(int s, int p, int o) {
+        int h = s;
+        h = h * 0x01000193 ^ p;
+        h = h * 0x01000193 ^ o;
+        return UriDictionary.mix(h);
+    }
+
+    private void ensureNodeCapacity(int numberOfNodes) {
+        if (numberOfNodes > subjectDegrees.length) {
+            int newCapacity = UriDictionary.grow(numberOfNodes, subjectDegrees.length * 2L);
+            subjectToTriples = Arrays.copyOf(subjectToTriples, newCapacity);
+            subjectDegrees = Arrays.copyOf(subjectDegrees, newCapacity);
+            objectToTriples = Arrays.copyOf(objectToTriples, newCapacity);
+            objectDegrees = Arrays.copyOf(objectDegrees, newCapacity);
+        }
+    }
+
+    private void ensurePredicateCapacity(int numberOfPredicates) {
+        if (numberOfPredicates > predicateDegrees.length) {
+            int newCapacity = UriDictionary.grow(numberOfPredicates, predicateDegrees.length * 2L);
+            predicateToTriples = Arrays.copyOf(predicateToTriples, newCapacity);
+            predicateDegrees = Arrays.copyOf(predicateDegrees, newCapacity);
+        }
+    }
+
+    /**
+     * Writes {@code value} at {@code position} into {@code array}, growing the array if required.
+     *
+     * @param array    The array (may be null).
+     * @param position The position to write.
+     * @param value    The value to write.
+     * @return The array that contains the value (may be a new instance).
+     */
+    static int[] append(int[] array, int position, int value) {
+        if (array == null) {
+            array = new int[2];
+        } else if (position == array.length) {
+            array = Arrays.copyOf(array, UriDictionary.grow(position + 1L, array.length + (array.length >> 1) + 1L));
+        }
+        array[position] = value;
+        return array;
+    }
+
+    /**
+     * Removes the first occurrence of {@code value} from the first {@code length} elements of the array by moving
+     * the last element into its position.
+     *
+     * @param array  The array.
+     * @param length The number of valid elements.
+     * @param value  The value to remove.
+     * @return The new number of valid elements.
+     */
+    private static int removeValue(int[] array, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (array[i] == value) {
+                array[i] = array[length - 1];
+                return length - 1;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,143 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only {@link IUriDictionary} on memory-mapped regions of a {@link GraphSnapshot}.
+ * <p>
+ * The strings are stored UTF-8 encoded in one byte region, together with an offset array (string {@code i} is
+ * located at bytes {@code offsets[i]} to {@code offsets[i + 1]}) and an open addressing hash table which uses the
+ * same hash function as {@link UriDictionary}. Strings are only decoded when they are requested, so loading the
+ * dictionary does not require any work proportional to its size.
+ */
+public class MappedUriDictionary implements IUriDictionary {
+
+
+    /**
+     * Marker for an empty slot in {@link MappedUriDictionary#slots}.
+     */
+    static final int EMPTY = -1;
+
+    /**
+     * Byte offsets of the strings (length: {@code size + 1}).
+     */
+    private final IntBuffer offsets;
+
+    /**
+     * UTF-8 encoded strings.
+     */
+    private final ByteBuffer bytes;
+
+    /**
+     * Open addressing hash table (linear probing). The size is a power of two.
+     */
+    private final IntBuffer slots;
+
+    /**
+     * Number of managed strings.
+     */
+    private final int size;
+
+    /**
+     * Constructor
+     *
+     * @param offsets Byte offsets of the strings.
+     * @param bytes   UTF-8 encoded strings.
+     * @param slots   Hash table.
+     */
+    MappedUriDictionary(IntBuffer offsets, ByteBuffer bytes, IntBuffer slots) {
+        this.offsets = offsets;
+        this.bytes = bytes;
+        this.slots = slots;
+        this.size = offsets.limit() - 1;
+    }
+
+    @Override
+    public int getId(String string) {
+        if (string == null) {
+            return -1;
+        }
+        byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+        int mask = slots.limit() - 1;
+        int slot = UriDictionary.mix(string.hashCode()) & mask;
+        int id;
+        while ((id = slots.get(slot)) != EMPTY) {
+            if (isEqual(id, encoded)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean isEqual(int id, byte[] encoded) {
+        int start = offsets.get(id);
+        if (offsets.get(id + 1) - start != encoded.length) {
+            return false;
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            if (bytes.get(start + i) != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String getString(int id) {
+        int start = offsets.get(id);
+        byte[] encoded = new byte[offsets.get(id + 1) - start];
+        ByteBuffer view = bytes.duplicate();
+        // Buffer cast: the covariant override of position(int) does not exist on Java 8
+        ((Buffer) view).position(start);
+        view.get(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<String> asSet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    int position = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return position < size;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (position >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        return getString(position++);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && getId((String) o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
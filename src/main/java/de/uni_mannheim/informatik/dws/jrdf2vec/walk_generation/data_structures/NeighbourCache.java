@@ -0,0 +1,136 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe cache for the neighbours of nodes of a disk-based graph. The neighbours of a node are stored
+ * as one compact array {@code [edge_0, node_0, edge_1, node_1, ...]}.
+ * <p>
+ * The cache is bounded by weight: the weight of an entry is the length of its array plus one so that the bound
+ * corresponds to the number of cached references. If the bound is exceeded, the least recently used entries are
+ * evicted. Hence, frequently visited hub nodes stay in the cache while the long tail is evicted.
+ * <p>
+ * The cache is divided into segments (one per expected concurrent writer) which share the bound equally. An entry
+ * that is heavier than the bound of a segment is not kept. Caches for a few very large entries should, therefore,
+ * use a concurrency level of 1.
+ */
+public class NeighbourCache {
+
+
+    /**
+     * Default maximal weight, i.e., the maximal number of cached references.
+     */
+    public static final long DEFAULT_MAXIMAL_WEIGHT = 1L << 22;
+
+    /**
+     * Array for nodes without neighbours.
+     */
+    public static final String[] NO_NEIGHBOURS = new String[0];
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NeighbourCache.class);
+
+    private final Cache<String, String[]> cache;
+
+    private final long maximalWeight;
+
+    /**
+     * Constructor
+     */
+    public NeighbourCache() {
+        this(DEFAULT_MAXIMAL_WEIGHT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maximalWeight The maximal number of cached references. If 0, nothing is cached.
+     */
+    public NeighbourCache(long maximalWeight) {
+        this(maximalWeight, Math.max(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maximalWeight    The maximal number of cached references. If 0, nothing is cached.
+     * @param concurrencyLevel The expected number of threads that load entries concurrently (&gt; 0).
+     */
+    public NeighbourCache(long maximalWeight, int concurrencyLevel) {
+        if (maximalWeight < 0) {
+            LOGGER.error("The maximal weight must be >= 0. Using default (" + DEFAULT_MAXIMAL_WEIGHT + ").");
+            maximalWeight = DEFAULT_MAXIMAL_WEIGHT;
+        }
+        this.maximalWeight = maximalWeight;
+        this.cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(Math.max(1, concurrencyLevel))
+                .maximumWeight(maximalWeight)
+                .weigher((String node, String[] neighbours) -> neighbours.length + 1)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Obtain the neighbours of the given node. If they are not cached, they are loaded and cached.
+     *
+     * @param node   The node.
+     * @param loader Function which loads the neighbour array of a node (must not return null).
+     * @return The neighbour array. The array must not be modified.
+     */
+    public String[] get(String node, Function<String, String[]> loader) {
+        try {
+            return cache.get(node, () -> loader.apply(node));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            LOGGER.error("Could not load the neighbours of " + node + ".", e);
+            return NO_NEIGHBOURS;
+        }
+    }
+
+    /**
+     * Remove all entries. The statistics are kept.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the number of cached nodes.
+     *
+     * @return Number of cached nodes.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    public long getMaximalWeight() {
+        return maximalWeight;
+    }
+
+    public CacheStats getStatistics() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the share of requests that were answered from the cache.
+     *
+     * @return Hit rate in [0, 1] (1 if there were no requests).
+     */
+    public double getHitRate() {
+        return cache.stats().hitRate();
+    }
+
+    @Override
+    public String toString() {
+        CacheStats statistics = cache.stats();
+        return String.format("%d nodes cached, %d hits, %d misses (hit rate: %.2f%%), %d evictions", cache.size(),
+                statistics.hitCount(), statistics.missCount(), statistics.hitRate() * 100,
+                statistics.evictionCount());
+    }
+}
@@ -0,0 +1,142 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Set which additionally offers positional access. The elements are kept in an array and a map from each element to
+ * its position. Hence, {@link RandomAccessSet#get(int)} and {@link RandomAccessSet#drawRandom()} run in O(1) without
+ * allocating objects. Elements are removed by moving the last element into the gap, so removal is also O(1) but does
+ * not retain the insertion order.
+ * <p>
+ * Like {@link HashSet}, this implementation is not synchronized.
+ *
+ * @param <T> Type of the elements.
+ */
+public class RandomAccessSet<T> extends AbstractSet<T> {
+
+
+    private final ArrayList<T> elements;
+
+    private final Map<T, Integer> positions;
+
+    /**
+     * Constructor
+     */
+    public RandomAccessSet() {
+        this.elements = new ArrayList<>();
+        this.positions = new HashMap<>();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param initialCapacity The expected number of elements.
+     */
+    public RandomAccessSet(int initialCapacity) {
+        this.elements = new ArrayList<>(initialCapacity);
+        this.positions = new HashMap<>(Math.max(16, (int) (initialCapacity / 0.75f) + 1));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param collection The elements to be added.
+     */
+    public RandomAccessSet(Collection<? extends T> collection) {
+        this(collection.size());
+        addAll(collection);
+    }
+
+    @Override
+    public boolean add(T element) {
+        if (positions.putIfAbsent(element, elements.size()) != null) return false;
+        elements.add(element);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        Integer position = positions.remove(element);
+        if (position == null) return false;
+        removeAt(position);
+        return true;
+    }
+
+    /**
+     * Removes the element at the given position; the last element is moved to that position.
+     */
+    private void removeAt(int position) {
+        T last = elements.remove(elements.size() - 1);
+        if (position < elements.size()) {
+            elements.set(position, last);
+            positions.put(last, position);
+        }
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return positions.containsKey(element);
+    }
+
+    /**
+     * Returns the element at the given position.
+     *
+     * @param index Position in [0, size).
+     * @return The element.
+     */
+    public T get(int index) {
+        return elements.get(index);
+    }
+
+    /**
+     * Draw a random element. This method is thread-safe as long as the set is not modified concurrently.
+     *
+     * @return Randomly drawn element or null if the set is empty.
+     */
+    public T drawRandom() {
+        if (elements.isEmpty()) return null;
+        return elements.get(ThreadLocalRandom.current().nextInt(elements.size()));
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+        positions.clear();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next = 0;
+            private boolean isRemovable = false;
+
+            @Override
+            public boolean hasNext() {
+                return next < elements.size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                isRemovable = true;
+                return elements.get(next++);
+            }
+
+            @Override
+            public void remove() {
+                if (!isRemovable) throw new IllegalStateException();
+                isRemovable = false;
+                // the last element is moved to the current position which has to be visited again
+                next--;
+                positions.remove(elements.get(next));
+                removeAt(next);
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import java.nio.IntBuffer;
+
+/**
+ * Read-only int array which is split into segments of equal size (a power of two; only the last segment may be
+ * smaller). A single {@link IntBuffer} can hold at most {@link Integer#MAX_VALUE} ints and a single memory-mapped
+ * region at most {@link Integer#MAX_VALUE} bytes; segmenting lifts both limits for the packed edge arrays of the
+ * {@link CsrAdjacencyIndex}.
+ * <p>
+ * An element is addressed by a long index: the upper bits select the segment, the lower bits the position within the
+ * segment. Hence, a read is one shift, one mask, and two array reads.
+ */
+final class SegmentedIntBuffer {
+
+
+    /**
+     * Default number of bits of the position within a segment: 2^28 ints (1 GB) per segment, so that every segment
+     * can be mapped as one region.
+     */
+    static final int DEFAULT_SEGMENT_BITS = 28;
+
+    private final IntBuffer[] segments;
+
+    private final int segmentBits;
+
+    private final long segmentMask;
+
+    private final long length;
+
+    /**
+     * Constructor
+     *
+     * @param segments    The segments. All segments except for the last one must hold exactly
+     *                    {@code 2^segmentBits} ints.
+     * @param segmentBits The number of bits of the position within a segment.
+     * @param length      The total number of ints.
+     */
+    SegmentedIntBuffer(IntBuffer[] segments, int segmentBits, long length) {
+        this.segments = segments;
+        this.segmentBits = segmentBits;
+        this.segmentMask = (1L << segmentBits) - 1;
+        this.length = length;
+    }
+
+    /**
+     * Wraps a single buffer (e.g. a heap array) as one segment.
+     *
+     * @param buffer The buffer.
+     * @return Segmented view on the buffer.
+     */
+    static SegmentedIntBuffer wrap(IntBuffer buffer) {
+        return new SegmentedIntBuffer(new IntBuffer[]{buffer}, 31, buffer.capacity());
+    }
+
+    /**
+     * Returns the int at the given position.
+     *
+     * @param index The position.
+     * @return The value.
+     */
+    int get(long index) {
+        return segments[(int) (index >>> segmentBits)].get((int) (index & segmentMask));
+    }
+
+    /**
+     * Returns the total number of ints.
+     *
+     * @return The length.
+     */
+    long length() {
+        return length;
+    }
+
+    int getNumberOfSegments() {
+        return segments.length;
+    }
+
+    /**
+     * Returns a view on the given segment (with its own position and limit).
+     *
+     * @param segment The number of the segment.
+     * @return The segment.
+     */
+    IntBuffer getSegment(int segment) {
+        return segments[segment].duplicate();
+    }
+}
@@ -0,0 +1,271 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A read-only data set which is backed by a memory-mapped {@link GraphSnapshot}.
+ * <p>
+ * All queries are answered using the {@link CsrAdjacencyIndex}; new {@link Triple} instances are created on every
+ * call. Queries by predicate ({@link SnapshotTripleDataSet#getObjectTriplesInvolvingPredicate(String)}) require a
+ * scan over all edges. The data set cannot be modified and contains no datatype triples.
+ */
+public class SnapshotTripleDataSet extends TripleDataSetMemory implements IEncodedGraph {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotTripleDataSet.class);
+
+    private final MappedUriDictionary nodes;
+
+    private final MappedUriDictionary predicates;
+
+    private final CsrAdjacencyIndex index;
+
+    /**
+     * Constructor
+     *
+     * @param nodes      Node dictionary.
+     * @param predicates Predicate dictionary.
+     * @param index      Adjacency index.
+     */
+    SnapshotTripleDataSet(MappedUriDictionary nodes, MappedUriDictionary predicates, CsrAdjacencyIndex index) {
+        this.nodes = nodes;
+        this.predicates = predicates;
+        this.index = index;
+    }
+
+    @Override
+    public void addObjectTriple(Triple tripleToAdd) {
+        LOGGER.error("The snapshot data set is read-only. Triple not added.");
+    }
+
+    @Override
+    public void addDatatypeTriple(Triple tripleToAdd) {
+        LOGGER.error("The snapshot data set is read-only. Triple not added.");
+    }
+
+    @Override
+    public void addAllPartitions(List<? extends TripleDataSetMemory> partitions) {
+        LOGGER.error("The snapshot data set is read-only. Partitions not added.");
+    }
+
+    @Override
+    public void removeObjectTriple(Triple tripleToBeRemoved) {
+        LOGGER.error("The snapshot data set is read-only. Triple not removed.");
+    }
+
+    @Override
+    public TripleDataSetMemory createEmptyPartition() {
+        return new IntTripleDataSetMemory();
+    }
+
+    @Override
+    public Set<Triple> getAllObjectTriples() {
+        Set<Triple> result = new HashSet<>();
+        for (int node = 0; node < index.getNumberOfNodes(); node++) {
+            addOutTriples(node, -1, result);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Triple> getObjectTriplesInvolvingSubject(String subject) {
+        int s = nodes.getId(subject);
+        if (index.getOutDegree(s) == 0) return null;
+        List<Triple> result = new ArrayList<>(index.getOutDegree(s));
+        addOutTriples(s, -1, result);
+        return result;
+    }
+
+    @Override
+    public List<Triple> getObjectTriplesInvolvingPredicate(String predicate) {
+        int p = predicates.getId(predicate);
+        if (p < 0) return null;
+        List<Triple> result = new ArrayList<>();
+        for (int node = 0; node < index.getNumberOfNodes(); node++) {
+            addOutTriples(node, p, result);
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    @Override
+    public List<Triple> getObjectTriplesInvolvingObject(String object) {
+        int o = nodes.getId(object);
+        if (index.getInDegree(o) == 0) return null;
+        List<Triple> result = new ArrayList<>(index.getInDegree(o));
+        addInTriples(o, -1, result);
+        return result;
+    }
+
+    @Override
+    public Set<Triple> getObjectTriplesWithSubjectPredicate(String subject, String predicate) {
+        int s = nodes.getId(subject);
+        int p = predicates.getId(predicate);
+        if (s < 0 || p < 0) return null;
+        Set<Triple> result = new HashSet<>();
+        addOutTriples(s, p, result);
+        return result.isEmpty() ? null : result;
+    }
+
+    @Override
+    public Set<Triple> getObjectTriplesWithPredicateObject(String predicate, String object) {
+        int o = nodes.getId(object);
+        int p = predicates.getId(predicate);
+        if (o < 0 || p < 0) return null;
+        Set<Triple> result = new HashSet<>();
+        addInTriples(o, p, result);
+        return result.isEmpty() ? null : result;
+    }
+
+    @Override
+    public Map<String, Set<String>> getDatatypeTuplesForSubject(String subject) {
+        return null;
+    }
+
+    @Override
+    public int getOutDegree(String subject) {
+        int s = nodes.getId(subject);
+        if (s < 0) return 0;
+        return index.getOutDegree(s);
+    }
+
+    @Override
+    public int getInDegree(String object) {
+        int o = nodes.getId(object);
+        if (o < 0) return 0;
+        return index.getInDegree(o);
+    }
+
+    @Override
+    public Triple drawObjectTripleInvolvingSubject(String subject) {
+        int s = nodes.getId(subject);
+        int degree = index.getOutDegree(s);
+        if (degree == 0) return null;
+        int i = ThreadLocalRandom.current().nextInt(degree);
+        return new Triple(subject, predicates.getString(index.getOutPredicate(s, i)),
+                nodes.getString(index.getOutNeighbour(s, i)));
+    }
+
+    @Override
+    public Triple drawObjectTripleInvolvingObject(String object) {
+        int o = nodes.getId(object);
+        int degree = index.getInDegree(o);
+        if (degree == 0) return null;
+        int i = ThreadLocalRandom.current().nextInt(degree);
+        return new Triple(nodes.getString(index.getInNeighbour(o, i)), predicates.getString(index.getInPredicate(o, i)),
+                object);
+    }
+
+    @Override
+    public long getObjectTripleSize() {
+        return index.getNumberOfEdges();
+    }
+
+    @Override
+    public long getDatatypeTripleSize() {
+        return 0;
+    }
+
+    @Override
+    public Set<String> getUniqueDatatypeTripleSubjects() {
+        return new HashSet<>();
+    }
+
+    @Override
+    public Set<String> getUniqueObjectTripleSubjects() {
+        Set<String> result = new HashSet<>();
+        for (int node = 0; node < index.getNumberOfNodes(); node++) {
+            if (index.getOutDegree(node) > 0) result.add(nodes.getString(node));
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> getUniqueObjectTripleObjects() {
+        Set<String> result = new HashSet<>();
+        for (int node = 0; node < index.getNumberOfNodes(); node++) {
+            if (index.getInDegree(node) > 0) result.add(nodes.getString(node));
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> getUniqueObjectTripleSubjectsAndObjects() {
+        Set<String> result = new HashSet<>();
+        for (int node = 0; node < index.getNumberOfNodes(); node++) {
+            if (index.getOutDegree(node) > 0 || index.getInDegree(node) > 0) result.add(nodes.getString(node));
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> getUniqueObjectTriplePredicates() {
+        return new HashSet<>(predicates.asSet());
+    }
+
+    @Override
+    public Set<String> getObjectNodes() {
+        return nodes.asSet();
+    }
+
+    @Override
+    public int getNumberOfObjectNodes() {
+        return nodes.size();
+    }
+
+    @Override
+    public CsrAdjacencyIndex getAdjacencyIndex() {
+        return index;
+    }
+
+    @Override
+    public MappedUriDictionary getNodeDictionary() {
+        return nodes;
+    }
+
+    @Override
+    public MappedUriDictionary getPredicateDictionary() {
+        return predicates;
+    }
+
+    /**
+     * Adds the out-edges of the given node as triples to the result.
+     *
+     * @param node      The subject.
+     * @param predicate Only edges with this predicate are added. -1 for all predicates.
+     * @param result    Collection to be filled.
+     */
+    private void addOutTriples(int node, int predicate, Collection<Triple> result) {
+        String subject = null;
+        for (int i = 0; i < index.getOutDegree(node); i++) {
+            int p = index.getOutPredicate(node, i);
+            if (predicate < 0 || p == predicate) {
+                if (subject == null) subject = nodes.getString(node);
+                result.add(new Triple(subject, predicates.getString(p),
+                        nodes.getString(index.getOutNeighbour(node, i))));
+            }
+        }
+    }
+
+    /**
+     * Adds the in-edges of the given node as triples to the result.
+     *
+     * @param node      The object.
+     * @param predicate Only edges with this predicate are added. -1 for all predicates.
+     * @param result    Collection to be filled.
+     */
+    private void addInTriples(int node, int predicate, Collection<Triple> result) {
+        String object = null;
+        for (int i = 0; i < index.getInDegree(node); i++) {
+            int p = index.getInPredicate(node, i);
+            if (predicate < 0 || p == predicate) {
+                if (object == null) object = nodes.getString(node);
+                result.add(new Triple(nodes.getString(index.getInNeighbour(node, i)), predicates.getString(p),
+                        object));
+            }
+        }
+    }
+}
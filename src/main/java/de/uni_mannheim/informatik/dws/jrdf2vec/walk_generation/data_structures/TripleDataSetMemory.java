@@ -7,6 +7,8 @@ import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +37,7 @@ public class TripleDataSetMemory {
     /**
      * Form:
      * {@code subject -> (predicate -> triple) }
+     * The triple sets are {@link RandomAccessSet}s.
      */
     Map<String, Map<String, Set<Triple>>> subjectToObjectTriples;
 
@@ -47,6 +50,7 @@ public class TripleDataSetMemory {
     /**
      * Form:
      * {@code object -> (predicate -> triple) }
+     * The triple sets are {@link RandomAccessSet}s.
      */
     Map<String, Map<String, Set<Triple>>> objectToObjectTriples;
     Set<Triple> objectTriples;
@@ -67,6 +71,11 @@ public class TripleDataSetMemory {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TripleDataSetMemory.class);
 
+    /**
+     * Minimal number of new triples for which the indices are extended in parallel when partitions are merged.
+     */
+    private static final int PARALLEL_MERGE_THRESHOLD = 100_000;
+
     /**
      * Add the given triple as specified by its components.
      *
@@ -89,12 +98,24 @@ public class TripleDataSetMemory {
      */
     public synchronized void addDatatypeTriple(Triple tripleToAdd) {
         this.objectNodes.add(tripleToAdd.subject);
+        addToDatatypeIndex(tripleToAdd);
+        datatypeTriples.add(tripleToAdd);
+    }
+
+    /**
+     * Adds the given datatype triple to {@link TripleDataSetMemory#subjectToDatatypeTriples}.
+     * This method is not synchronized.
+     *
+     * @param tripleToAdd Triple where the object is a string.
+     * @return True if the index did not already contain the triple.
+     */
+    boolean addToDatatypeIndex(Triple tripleToAdd) {
         if (this.subjectToDatatypeTriples.containsKey(tripleToAdd.subject)) {
             Map<String, Set<String>> propertyMap = this.subjectToDatatypeTriples.get(tripleToAdd.subject);
 
             if (propertyMap.containsKey(tripleToAdd.predicate)) {
                 Set<String> propertyValues = propertyMap.get(tripleToAdd.predicate);
-                propertyValues.add(tripleToAdd.object);
+                return propertyValues.add(tripleToAdd.object);
             } else {
                 // there exists nothing for this datatype property (the predicate)
                 // let's quickly create it:
@@ -114,7 +135,7 @@ public class TripleDataSetMemory {
             // add to index:
             this.subjectToDatatypeTriples.put(tripleToAdd.subject, propertyMap);
         }
-        datatypeTriples.add(tripleToAdd);
+        return true;
     }
 
     /**
@@ -123,16 +144,28 @@ public class TripleDataSetMemory {
      * @param tripleToAdd Triple to be added.
      */
     public synchronized void addObjectTriple(Triple tripleToAdd) {
-        if (this.objectTriples.contains(tripleToAdd)) {
+        if (!this.objectTriples.add(tripleToAdd)) {
             return;
         }
         this.objectNodes.add(tripleToAdd.subject);
         this.objectNodes.add(tripleToAdd.object);
+        addToSubjectIndex(tripleToAdd);
+        addToPredicateIndex(tripleToAdd);
+        addToObjectIndex(tripleToAdd);
+    }
+
+    /**
+     * Adds the given object triple to {@link TripleDataSetMemory#subjectToObjectTriples}.
+     * This method is not synchronized.
+     *
+     * @param tripleToAdd Triple to be added.
+     */
+    void addToSubjectIndex(Triple tripleToAdd) {
         Map<String, Set<Triple>> subjectPredicateToTripleMap = subjectToObjectTriples.get(tripleToAdd.subject);
 
         if (subjectPredicateToTripleMap == null) {
             Map<String, Set<Triple>> predicateToObjectMap = new HashMap<>();
-            Set<Triple> triples = new HashSet<>();
+            Set<Triple> triples = new RandomAccessSet<>();
             triples.add(tripleToAdd);
             predicateToObjectMap.put(tripleToAdd.predicate, triples);
             subjectToObjectTriples.put(tripleToAdd.subject, predicateToObjectMap);
@@ -144,23 +177,39 @@ public class TripleDataSetMemory {
                 subjectPredicateToTripleMap.get(tripleToAdd.predicate).add(tripleToAdd);
             } else {
                 // predicate not contained, add predicate -> object
-                Set<Triple> triples = new HashSet<>();
+                Set<Triple> triples = new RandomAccessSet<>();
                 triples.add(tripleToAdd);
                 subjectPredicateToTripleMap.put(tripleToAdd.predicate, triples);
             }
         }
+    }
 
+    /**
+     * Adds the given object triple to {@link TripleDataSetMemory#predicateToObjectTriples}.
+     * This method is not synchronized.
+     *
+     * @param tripleToAdd Triple to be added.
+     */
+    void addToPredicateIndex(Triple tripleToAdd) {
         List<Triple> predicateToTripleList = predicateToObjectTriples.get(tripleToAdd.predicate);
         if (predicateToTripleList == null) {
             ArrayList<Triple> newList = new ArrayList<>();
             newList.add(tripleToAdd);
             predicateToObjectTriples.put(tripleToAdd.predicate, newList);
         } else predicateToTripleList.add(tripleToAdd);
+    }
 
+    /**
+     * Adds the given object triple to {@link TripleDataSetMemory#objectToObjectTriples}.
+     * This method is not synchronized.
+     *
+     * @param tripleToAdd Triple to be added.
+     */
+    void addToObjectIndex(Triple tripleToAdd) {
         Map<String, Set<Triple>> objectPredicateToTripleMap = objectToObjectTriples.get(tripleToAdd.object);
         if (objectPredicateToTripleMap == null) {
             Map<String, Set<Triple>> predicateToObjectMap = new HashMap<>();
-            Set<Triple> triples = new HashSet<>();
+            Set<Triple> triples = new RandomAccessSet<>();
             triples.add(tripleToAdd);
             predicateToObjectMap.put(tripleToAdd.predicate, triples);
             objectToObjectTriples.put(tripleToAdd.object, predicateToObjectMap);
@@ -172,13 +221,11 @@ public class TripleDataSetMemory {
                 objectPredicateToTripleMap.get(tripleToAdd.predicate).add(tripleToAdd);
             } else {
                 // predicate not contained, add predicate -> object
-                Set<Triple> triples = new HashSet<>();
+                Set<Triple> triples = new RandomAccessSet<>();
                 triples.add(tripleToAdd);
                 objectPredicateToTripleMap.put(tripleToAdd.predicate, triples);
             }
-
         }
-        objectTriples.add(tripleToAdd);
     }
 
     /**
@@ -187,11 +234,77 @@ public class TripleDataSetMemory {
      * @param dataToAdd The data that shall be added to this triple set
      */
     public synchronized void addAllObjectTriples(TripleDataSetMemory dataToAdd) {
-        for (Triple triple : dataToAdd.objectTriples) {
+        for (Triple triple : dataToAdd.getAllObjectTriples()) {
             this.addObjectTriple(triple);
         }
     }
 
+    /**
+     * Creates a new, empty data set of the same kind as this one. Partitions can be filled independently (for
+     * instance one per thread, without any lock contention) and are merged afterwards using
+     * {@link TripleDataSetMemory#addAllPartitions(List)}.
+     *
+     * @return New, empty instance.
+     */
+    public TripleDataSetMemory createEmptyPartition() {
+        return new TripleDataSetMemory();
+    }
+
+    /**
+     * Merges the object and datatype triples of the given partitions into this data set. The partitions must not be
+     * modified concurrently. Only the duplicate check is sequential: the subject, predicate, and object indices are
+     * extended in parallel since they are independent of each other.
+     *
+     * @param partitions The partitions to be merged, typically created via
+     *                   {@link TripleDataSetMemory#createEmptyPartition()}.
+     */
+    public synchronized void addAllPartitions(List<? extends TripleDataSetMemory> partitions) {
+        List<Triple> newTriples = new ArrayList<>();
+        for (TripleDataSetMemory partition : partitions) {
+            for (Triple triple : partition.getAllObjectTriples()) {
+                if (objectTriples.add(triple)) {
+                    newTriples.add(triple);
+                }
+            }
+            addAllDatatypeTriples(partition);
+        }
+        if (newTriples.size() < PARALLEL_MERGE_THRESHOLD) {
+            for (Triple triple : newTriples) {
+                objectNodes.add(triple.subject);
+                objectNodes.add(triple.object);
+                addToSubjectIndex(triple);
+                addToPredicateIndex(triple);
+                addToObjectIndex(triple);
+            }
+            return;
+        }
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> newTriples.forEach(this::addToSubjectIndex)),
+                CompletableFuture.runAsync(() -> newTriples.forEach(this::addToPredicateIndex)),
+                CompletableFuture.runAsync(() -> newTriples.forEach(this::addToObjectIndex)),
+                CompletableFuture.runAsync(() -> newTriples.forEach(triple -> {
+                    objectNodes.add(triple.subject);
+                    objectNodes.add(triple.object);
+                }))
+        ).join();
+    }
+
+    /**
+     * Adds all datatype triples of {@code dataToAdd} to this triple set.
+     *
+     * @param dataToAdd The data whose datatype triples shall be added to this triple set.
+     */
+    void addAllDatatypeTriples(TripleDataSetMemory dataToAdd) {
+        for (Map.Entry<String, Map<String, Set<String>>> subjectEntry :
+                dataToAdd.subjectToDatatypeTriples.entrySet()) {
+            for (Map.Entry<String, Set<String>> predicateEntry : subjectEntry.getValue().entrySet()) {
+                for (String value : predicateEntry.getValue()) {
+                    addDatatypeTriple(subjectEntry.getKey(), predicateEntry.getKey(), value);
+                }
+            }
+        }
+    }
+
     public Map<String, Set<String>> getDatatypeTuplesForSubject(String subject) {
         return subjectToDatatypeTriples.get(subject);
     }
@@ -262,6 +375,86 @@ public class TripleDataSetMemory {
         return objectTriples.size();
     }
 
+    /**
+     * Returns the number of object triples in which the given node is the subject.
+     *
+     * @param subject The subject.
+     * @return The out-degree of the subject (0 if the subject is unknown).
+     */
+    public int getOutDegree(String subject) {
+        Map<String, Set<Triple>> subjectObjects = subjectToObjectTriples.get(subject);
+        if (subjectObjects == null) return 0;
+        int result = 0;
+        for (Set<Triple> triples : subjectObjects.values()) {
+            result += triples.size();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of object triples in which the given node is the object.
+     *
+     * @param object The object.
+     * @return The in-degree of the object (0 if the object is unknown).
+     */
+    public int getInDegree(String object) {
+        Map<String, Set<Triple>> objectPredicates = objectToObjectTriples.get(object);
+        if (objectPredicates == null) return 0;
+        int result = 0;
+        for (Set<Triple> triples : objectPredicates.values()) {
+            result += triples.size();
+        }
+        return result;
+    }
+
+    /**
+     * Draw a random object triple in which the given node is the subject. In contrast to
+     * {@link TripleDataSetMemory#getObjectTriplesInvolvingSubject(String)}, no list of triples is created: the cost is
+     * linear in the number of distinct predicates of the subject, not in its degree.
+     *
+     * @param subject The subject.
+     * @return Randomly drawn triple. Null if there is no such triple.
+     */
+    public Triple drawObjectTripleInvolvingSubject(String subject) {
+        return drawTriple(subjectToObjectTriples.get(subject), getOutDegree(subject));
+    }
+
+    /**
+     * Draw a random object triple in which the given node is the object. In contrast to
+     * {@link TripleDataSetMemory#getObjectTriplesInvolvingObject(String)}, no list of triples is created: the cost is
+     * linear in the number of distinct predicates of the object, not in its degree.
+     *
+     * @param object The object.
+     * @return Randomly drawn triple. Null if there is no such triple.
+     */
+    public Triple drawObjectTripleInvolvingObject(String object) {
+        return drawTriple(objectToObjectTriples.get(object), getInDegree(object));
+    }
+
+    /**
+     * Draw a triple uniformly from the union of the given triple sets.
+     *
+     * @param predicateToTriples Map from predicates to triple sets (may be null).
+     * @param degree             Total number of triples in the map.
+     * @return Randomly drawn triple. Null if the map is empty.
+     */
+    private static Triple drawTriple(Map<String, Set<Triple>> predicateToTriples, int degree) {
+        if (predicateToTriples == null || degree == 0) return null;
+        int index = ThreadLocalRandom.current().nextInt(degree);
+        for (Set<Triple> triples : predicateToTriples.values()) {
+            if (index < triples.size()) {
+                if (triples instanceof RandomAccessSet) {
+                    return ((RandomAccessSet<Triple>) triples).get(index);
+                }
+                for (Triple triple : triples) {
+                    if (index-- == 0) return triple;
+                }
+            }
+            index -= triples.size();
+        }
+        return null;
+    }
+
     /**
      * Returns the number of managed datatype triples.
      *
@@ -0,0 +1,239 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable index from entities to their types. The index is built once for a set of type properties (such as
+ * {@code rdf:type}); afterwards, drawing a random type of an entity requires one lookup and one array access.
+ * <p>
+ * For an {@link IEncodedGraph}, the index is keyed by node ID: the distinct type node IDs of all entities are stored
+ * in CSR format (one offset array and one ID array), so that no per-entity objects are allocated. Otherwise, the
+ * types are stored once as strings and, per entity, the distinct type IDs are stored as int array in a map.
+ * Instances can be shared among threads.
+ */
+public class TypeIndex {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TypeIndex.class);
+
+    private static final int[] NO_TYPES = new int[0];
+
+    /**
+     * Type ID -&gt; type. Null for encoded graphs.
+     */
+    private final String[] types;
+
+    /**
+     * Entity -&gt; distinct type IDs. Null for encoded graphs.
+     */
+    private final Map<String, int[]> entityTypes;
+
+    /**
+     * Node dictionary of the encoded graph. Null if the index is not keyed by node ID.
+     */
+    private final IUriDictionary nodes;
+
+    /**
+     * Form: {@code node ID -> position of its first type in typeNodes}. Length: number of indexed nodes + 1.
+     */
+    private final int[] typeOffsets;
+
+    /**
+     * Distinct type node IDs of all entities (sorted per entity).
+     */
+    private final int[] typeNodes;
+
+    private final int numberOfTypedEntities;
+
+    private final int numberOfTypes;
+
+    private TypeIndex(String[] types, Map<String, int[]> entityTypes) {
+        this.types = types;
+        this.entityTypes = entityTypes;
+        this.nodes = null;
+        this.typeOffsets = null;
+        this.typeNodes = null;
+        this.numberOfTypedEntities = entityTypes.size();
+        this.numberOfTypes = types.length;
+    }
+
+    private TypeIndex(IUriDictionary nodes, int[] typeOffsets, int[] typeNodes, int numberOfTypedEntities,
+                      int numberOfTypes) {
+        this.types = null;
+        this.entityTypes = null;
+        this.nodes = nodes;
+        this.typeOffsets = typeOffsets;
+        this.typeNodes = typeNodes;
+        this.numberOfTypedEntities = numberOfTypedEntities;
+        this.numberOfTypes = numberOfTypes;
+    }
+
+    /**
+     * Builds the type index of the given data set. If the data set is an {@link IEncodedGraph}, the index is keyed by
+     * node ID (see {@link TypeIndex#build(IEncodedGraph, Collection)}).
+     *
+     * @param data           The data set.
+     * @param typeProperties The properties that link an entity to its type.
+     * @return The type index.
+     */
+    public static TypeIndex build(TripleDataSetMemory data, Collection<String> typeProperties) {
+        if (data instanceof IEncodedGraph) {
+            return build((IEncodedGraph) data, typeProperties);
+        }
+        Map<String, Integer> typeIds = new HashMap<>();
+        List<String> types = new ArrayList<>();
+        Map<String, Set<Integer>> entityTypeSets = new HashMap<>();
+        for (String property : typeProperties) {
+            List<Triple> triples = data.getObjectTriplesInvolvingPredicate(property);
+            if (triples == null) continue;
+            for (Triple triple : triples) {
+                Integer typeId = typeIds.get(triple.object);
+                if (typeId == null) {
+                    typeId = types.size();
+                    typeIds.put(triple.object, typeId);
+                    types.add(triple.object);
+                }
+                entityTypeSets.computeIfAbsent(triple.subject, key -> new HashSet<>(2)).add(typeId);
+            }
+        }
+
+        Map<String, int[]> entityTypes = new HashMap<>(entityTypeSets.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Set<Integer>> entry : entityTypeSets.entrySet()) {
+            int[] ids = new int[entry.getValue().size()];
+            int i = 0;
+            for (int id : entry.getValue()) ids[i++] = id;
+            Arrays.sort(ids);
+            entityTypes.put(entry.getKey(), ids);
+        }
+        LOGGER.info("Built type index for " + entityTypes.size() + " entities and " + types.size() + " types.");
+        return new TypeIndex(types.toArray(new String[0]), entityTypes);
+    }
+
+    /**
+     * Builds the type index of the given encoded graph. The out-edges in the adjacency index are sorted by neighbour,
+     * hence duplicate types (linked via multiple type properties) are adjacent.
+     *
+     * @param graph          The encoded graph.
+     * @param typeProperties The properties that link an entity to its type.
+     * @return The type index.
+     */
+    public static TypeIndex build(IEncodedGraph graph, Collection<String> typeProperties) {
+        CsrAdjacencyIndex index = graph.getAdjacencyIndex();
+        IUriDictionary predicates = graph.getPredicateDictionary();
+        boolean[] isTypePredicate = new boolean[predicates.size()];
+        boolean hasTypePredicate = false;
+        for (String property : typeProperties) {
+            int predicate = predicates.getId(property);
+            if (predicate >= 0) {
+                isTypePredicate[predicate] = true;
+                hasTypePredicate = true;
+            }
+        }
+        int numberOfNodes = index.getNumberOfNodes();
+
+        // first pass: count the distinct types per node
+        int[] typeOffsets = new int[numberOfNodes + 1];
+        int numberOfTypedEntities = 0;
+        for (int node = 0; node < numberOfNodes; node++) {
+            int count = hasTypePredicate ? countTypes(index, node, isTypePredicate, null, 0) : 0;
+            if (count > 0) numberOfTypedEntities++;
+            typeOffsets[node + 1] = typeOffsets[node] + count;
+        }
+
+        // second pass: write the type node IDs
+        int[] typeNodes = new int[typeOffsets[numberOfNodes]];
+        BitSet distinctTypes = new BitSet();
+        for (int node = 0; node < numberOfNodes; node++) {
+            if (typeOffsets[node + 1] == typeOffsets[node]) continue;
+            countTypes(index, node, isTypePredicate, typeNodes, typeOffsets[node]);
+            for (int i = typeOffsets[node]; i < typeOffsets[node + 1]; i++) distinctTypes.set(typeNodes[i]);
+        }
+        LOGGER.info("Built type index for " + numberOfTypedEntities + " entities and " + distinctTypes.cardinality()
+                + " types.");
+        return new TypeIndex(graph.getNodeDictionary(), typeOffsets, typeNodes, numberOfTypedEntities,
+                distinctTypes.cardinality());
+    }
+
+    /**
+     * Counts the distinct type node IDs of the given node and writes them to {@code target} (if not null).
+     */
+    private static int countTypes(CsrAdjacencyIndex index, int node, boolean[] isTypePredicate, int[] target,
+                                  int position) {
+        int count = 0;
+        int lastType = -1;
+        for (int i = 0; i < index.getOutDegree(node); i++) {
+            int predicate = index.getOutPredicate(node, i);
+            if (!isTypePredicate[predicate]) continue;
+            int type = index.getOutNeighbour(node, i);
+            if (type == lastType) continue;
+            lastType = type;
+            if (target != null) target[position + count] = type;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Draw a random type of the given entity.
+     *
+     * @param entity The entity.
+     * @return Type. Null if the entity has no type.
+     */
+    public String drawRandomType(String entity) {
+        if (entity == null) return null;
+        if (nodes != null) {
+            int node = nodes.getId(entity);
+            if (node < 0 || node >= typeOffsets.length - 1) return null;
+            int from = typeOffsets[node];
+            int length = typeOffsets[node + 1] - from;
+            if (length == 0) return null;
+            return nodes.getString(typeNodes[length == 1 ? from : from + ThreadLocalRandom.current().nextInt(length)]);
+        }
+        int[] ids = entityTypes.getOrDefault(entity, NO_TYPES);
+        switch (ids.length) {
+            case 0:
+                return null;
+            case 1:
+                return types[ids[0]];
+            default:
+                return types[ids[ThreadLocalRandom.current().nextInt(ids.length)]];
+        }
+    }
+
+    /**
+     * Obtain the types of the given entity.
+     *
+     * @param entity The entity.
+     * @return Distinct types. Empty if the entity has no type.
+     */
+    public Set<String> getTypes(String entity) {
+        Set<String> result = new HashSet<>();
+        if (entity == null) return result;
+        if (nodes != null) {
+            int node = nodes.getId(entity);
+            if (node < 0 || node >= typeOffsets.length - 1) return result;
+            for (int i = typeOffsets[node]; i < typeOffsets[node + 1]; i++) result.add(nodes.getString(typeNodes[i]));
+            return result;
+        }
+        for (int id : entityTypes.getOrDefault(entity, NO_TYPES)) result.add(types[id]);
+        return result;
+    }
+
+    /**
+     * @return Number of entities with at least one type.
+     */
+    public int getNumberOfTypedEntities() {
+        return numberOfTypedEntities;
+    }
+
+    /**
+     * @return Number of distinct types.
+     */
+    public int getNumberOfTypes() {
+        return numberOfTypes;
+    }
+}
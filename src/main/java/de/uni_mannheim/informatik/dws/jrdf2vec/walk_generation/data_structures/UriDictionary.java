@@ -0,0 +1,262 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact, bidirectional mapping between strings (typically URIs) and consecutive int IDs starting at 0.
+ * The mapping is stored in an open addressing hash table of int IDs and a plain array of strings, so that no
+ * boxed integers or map entries are allocated per string.
+ * <p>
+ * Write operations are not thread-safe; the owning data structure is responsible for synchronization.
+ * <p>
+ * The hash table is limited to {@link UriDictionary#MAX_TABLE_SIZE} slots at a load factor of at most 0.5, hence a
+ * dictionary holds at most 2<sup>29</sup> strings. Growing beyond this limit fails with an
+ * {@link IllegalStateException}.
+ */
+public class UriDictionary implements IUriDictionary {
+
+
+    /**
+     * Marker for an empty slot in {@link UriDictionary#slots}.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * The largest array length that can be allocated safely on common JVMs.
+     */
+    static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * The largest power of two that is a valid array length (used for open addressing hash tables).
+     */
+    static final int MAX_TABLE_SIZE = 1 << 30;
+
+    /**
+     * ID to string.
+     */
+    private String[] idToString;
+
+    /**
+     * Open addressing hash table (linear probing). Each slot contains an ID or {@link UriDictionary#EMPTY}.
+     */
+    private int[] slots;
+
+    /**
+     * Number of managed strings.
+     */
+    private int size = 0;
+
+    /**
+     * Constructor
+     */
+    public UriDictionary() {
+        this(1024);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param expectedSize The expected number of strings.
+     */
+    public UriDictionary(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        idToString = new String[capacity];
+        slots = new int[tableSizeFor((int) Math.min(capacity * 2L, MAX_TABLE_SIZE))];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    /**
+     * Obtain the ID of the given string. If the string is not yet known, a new ID is assigned.
+     *
+     * @param string The string to be encoded.
+     * @return ID of the string.
+     */
+    public int getOrAdd(String string) {
+        int mask = slots.length - 1;
+        int slot = mix(string.hashCode()) & mask;
+        int id;
+        while ((id = slots[slot]) != EMPTY) {
+            if (idToString[id].equals(string)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        id = size;
+        if (id == idToString.length) {
+            idToString = Arrays.copyOf(idToString, grow(id + 1L, idToString.length * 2L));
+        }
+        idToString[id] = string;
+        slots[slot] = id;
+        size++;
+        if (size * 2L > slots.length) {
+            if (slots.length >= MAX_TABLE_SIZE) {
+                throw new IllegalStateException("Graph too large for the int store: the dictionary is limited to "
+                        + (MAX_TABLE_SIZE / 2) + " strings.");
+            }
+            rehash(slots.length << 1);
+        }
+        return id;
+    }
+
+    /**
+     * Obtain the ID of the given string.
+     *
+     * @param string The string whose ID shall be obtained.
+     * @return ID. -1 if the string is not known (or null).
+     */
+    @Override
+    public int getId(String string) {
+        if (string == null) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        int slot = mix(string.hashCode()) & mask;
+        int id;
+        while ((id = slots[slot]) != EMPTY) {
+            if (idToString[id].equals(string)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Obtain the string for the given ID.
+     *
+     * @param id The ID.
+     * @return String representation of the ID.
+     */
+    @Override
+    public String getString(int id) {
+        return idToString[id];
+    }
+
+    /**
+     * Returns the number of managed strings. The largest ID is {@code size() - 1}.
+     *
+     * @return Number of strings.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Obtain a read-only set view on all managed strings. Lookups in the view use the dictionary itself, no copy is
+     * made.
+     *
+     * @return Set view.
+     */
+    @Override
+    public Set<String> asSet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                final int currentSize = size;
+                return new Iterator<String>() {
+                    int position = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return position < currentSize;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (position >= currentSize) {
+                            throw new NoSuchElementException();
+                        }
+                        return idToString[position++];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && getId((String) o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void rehash(int newTableSize) {
+        int[] newSlots = new int[newTableSize];
+        Arrays.fill(newSlots, EMPTY);
+        int mask = newTableSize - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(idToString[id].hashCode()) & mask;
+            while (newSlots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id;
+        }
+        slots = newSlots;
+    }
+
+    /**
+     * Spread the bits of a hash code (string hash codes of URIs with a common prefix are poorly distributed in the
+     * lower bits).
+     *
+     * @param hash Hash code.
+     * @return Mixed hash code.
+     */
+    static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the smallest power of two that is larger or equal to the given number.
+     *
+     * @param n Number.
+     * @return Power of two.
+     */
+    static int tableSizeFor(int n) {
+        if (n > MAX_TABLE_SIZE) {
+            throw new IllegalStateException("Graph too large for the int store: a hash table of " + n
+                    + " slots exceeds the maximum of " + MAX_TABLE_SIZE + " slots.");
+        }
+        int result = 1;
+        while (result < n) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the new length of an array that has to hold at least {@code requiredLength} elements. The computation
+     * is done on longs so that doubling a large array does not overflow.
+     *
+     * @param requiredLength  The minimal length.
+     * @param preferredLength The preferred length (e.g. twice the current length).
+     * @return The new array length, at most {@link UriDictionary#MAX_ARRAY_SIZE}.
+     * @throws IllegalStateException if {@code requiredLength} exceeds {@link UriDictionary#MAX_ARRAY_SIZE}.
+     */
+    static int grow(long requiredLength, long preferredLength) {
+        return (int) Math.min(Math.max(checkArrayLength(requiredLength), preferredLength), MAX_ARRAY_SIZE);
+    }
+
+    /**
+     * Checks that an int array of the given length can be allocated.
+     *
+     * @param length The array length.
+     * @return The length as int.
+     * @throws IllegalStateException if {@code length} exceeds {@link UriDictionary#MAX_ARRAY_SIZE}.
+     */
+    static int checkArrayLength(long length) {
+        if (length > MAX_ARRAY_SIZE) {
+            throw new IllegalStateException("Graph too large for the int store: an array of " + length
+                    + " elements exceeds the maximum of " + MAX_ARRAY_SIZE + " elements.");
+        }
+        return (int) length;
+    }
+}
@@ -0,0 +1,151 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Reusable open-addressing hash set for the deduplication of walks before they are materialized as strings.
+ * <p>
+ * Walks are identified by a 64 bit hash of their token sequence (see {@link WalkHashSet#hash(int[], int, int)} and
+ * {@link WalkHashSet#hash(List)}) and by a walk number that refers to the caller's storage of the walk. Only walks
+ * with an equal hash are compared token by token (via a callback), hence, the deduplication is exact while no walk
+ * needs to be serialized for it.
+ * <p>
+ * Instances are not thread-safe; they are meant to be reused by one thread (call
+ * {@link WalkHashSet#clear(int)} before the walks of the next entity are added).
+ */
+public class WalkHashSet {
+
+
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Hashes of the occupied slots.
+     */
+    private long[] hashes = new long[0];
+
+    /**
+     * Walk number + 1 of the occupied slots; 0 marks an empty slot.
+     */
+    private int[] walkNumbers = new int[0];
+
+    private int mask;
+
+    private int size;
+
+    /**
+     * Constructor
+     */
+    public WalkHashSet() {
+        clear(16);
+    }
+
+    /**
+     * Removes all walks. The table is (re-)allocated if it is too small or far too large for the expected number of
+     * walks; otherwise, it is reused.
+     *
+     * @param expectedSize The expected number of walks.
+     */
+    public void clear(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) << 1;
+        if (walkNumbers.length < capacity || walkNumbers.length > capacity * 8) {
+            hashes = new long[capacity];
+            walkNumbers = new int[capacity];
+        } else {
+            Arrays.fill(walkNumbers, 0);
+        }
+        mask = walkNumbers.length - 1;
+        size = 0;
+    }
+
+    /**
+     * Adds a walk if no equal walk was added before.
+     *
+     * @param hash       The hash of the walk.
+     * @param walkNumber The number of the walk (&gt;= 0) in the caller's storage.
+     * @param isSameWalk Callback which receives the number of a previously added walk with the same hash and returns
+     *                   true if that walk equals the walk to be added.
+     * @return True if the walk was added, false if it is a duplicate.
+     */
+    public boolean add(long hash, int walkNumber, IntPredicate isSameWalk) {
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (walkNumbers[slot] != 0) {
+            if (hashes[slot] == hash && isSameWalk.test(walkNumbers[slot] - 1)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        walkNumbers[slot] = walkNumber + 1;
+        if (++size * 2 > walkNumbers.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of added walks.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldHashes = hashes;
+        int[] oldWalkNumbers = walkNumbers;
+        hashes = new long[oldHashes.length * 2];
+        walkNumbers = new int[oldWalkNumbers.length * 2];
+        mask = walkNumbers.length - 1;
+        for (int i = 0; i < oldWalkNumbers.length; i++) {
+            if (oldWalkNumbers[i] == 0) continue;
+            int slot = (int) (oldHashes[i] ^ (oldHashes[i] >>> 32)) & mask;
+            while (walkNumbers[slot] != 0) slot = (slot + 1) & mask;
+            hashes[slot] = oldHashes[i];
+            walkNumbers[slot] = oldWalkNumbers[i];
+        }
+    }
+
+    /**
+     * 64 bit hash of a token sequence.
+     *
+     * @param tokens Token array.
+     * @param from   First position (inclusive).
+     * @param to     Last position (exclusive).
+     * @return Hash.
+     */
+    public static long hash(int[] tokens, int from, int to) {
+        long hash = to - from;
+        for (int i = from; i < to; i++) {
+            hash = hash * MULTIPLIER + tokens[i];
+        }
+        return mix(hash);
+    }
+
+    /**
+     * 64 bit hash of a walk given as list of walk components.
+     *
+     * @param walk The walk.
+     * @return Hash.
+     */
+    public static long hash(List<String> walk) {
+        long hash = walk.size();
+        for (String component : walk) {
+            hash = hash * MULTIPLIER + Objects.hashCode(component);
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalization step of MurmurHash3 (fmix64).
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53a87d5L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
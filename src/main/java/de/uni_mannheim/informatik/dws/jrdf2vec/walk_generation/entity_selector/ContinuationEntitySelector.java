@@ -10,6 +10,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -43,20 +46,49 @@ public class ContinuationEntitySelector implements EntitySelector {
     @Override
     public Set<String> getEntities() {
         Set<String> entities = actualEntitySelector.getEntities();
+        Set<String> existingEntities = readExistingEntities();
+        if(existingEntities == null) return entities;
+        LOGGER.info("Entities before: " + entities.size());
+        entities.removeAll(existingEntities);
+        LOGGER.info("Entities after removing existing ones: " + entities.size());
+        return entities;
+    }
+
+    /**
+     * Streams the entities of the actual entity selector and skips those for which walks already exist. If the
+     * spliterator of the actual entity selector is {@link AutoCloseable}, so is the returned one.
+     *
+     * @return The entities for which walks have not yet been generated.
+     */
+    @Override
+    public Spliterator<String> getEntitySpliterator() {
+        Spliterator<String> entities = actualEntitySelector.getEntitySpliterator();
+        Set<String> existingEntities = readExistingEntities();
+        if(existingEntities == null) return entities;
+        return new SkippingSpliterator(entities, existingEntities);
+    }
+
+    /**
+     * Reads the entities for which walks exist in the existing walk directory and copies the existing walk files
+     * to the new walk directory.
+     *
+     * @return The entities for which walks exist. Null if the continuation cannot be applied.
+     */
+    private Set<String> readExistingEntities() {
         if(existingWalkDirectory == null){
             LOGGER.error("The provided walk directory does not contain any walks. Continuation will not be applied " +
                     "(new walks will be generated for all entities).");
-            return entities;
+            return null;
         }
         if(!existingWalkDirectory.exists()){
             LOGGER.error("The provided walk directory does not exist. Continuation will not be applied "+
                     "(new walks will be generated for all entities).");
-            return entities;
+            return null;
         }
         if(!existingWalkDirectory.isDirectory()){
             LOGGER.error("The provided walk directory is not a directory. Continuation will not be applied "+
                     "(new walks will be generated for all entities).");
-            return entities;
+            return null;
         }
         if(!newWalkDirectory.exists()){
             if(newWalkDirectory.mkdirs()){
@@ -102,10 +134,47 @@ public class ContinuationEntitySelector implements EntitySelector {
         }
 
         LOGGER.info("Walks already generated for " + existingEntities.size() + " entities.");
-        LOGGER.info("Entities before: " + entities.size());
-        entities.removeAll(existingEntities);
-        LOGGER.info("Entities after removing existing ones: " + entities.size());
-        return entities;
+        return existingEntities;
+    }
+
+    /**
+     * Spliterator that skips the existing entities of its delegate. Closing it closes the delegate (if the delegate
+     * is {@link AutoCloseable}).
+     */
+    private static class SkippingSpliterator extends Spliterators.AbstractSpliterator<String>
+            implements AutoCloseable {
+
+
+        private final Spliterator<String> delegate;
+
+        private final Set<String> existingEntities;
+
+        private String current;
+
+        SkippingSpliterator(Spliterator<String> delegate, Set<String> existingEntities) {
+            super(delegate.estimateSize(), delegate.characteristics()
+                    & (Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL));
+            this.delegate = delegate;
+            this.existingEntities = existingEntities;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (delegate.tryAdvance(entity -> current = entity)) {
+                if (!existingEntities.contains(current)) {
+                    action.accept(current);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (delegate instanceof AutoCloseable) {
+                ((AutoCloseable) delegate).close();
+            }
+        }
     }
 
     /**
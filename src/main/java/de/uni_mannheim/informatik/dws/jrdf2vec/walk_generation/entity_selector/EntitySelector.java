@@ -1,6 +1,8 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector;
 
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
  * An EntitySelector determines the entities for which walks shall be generated.
@@ -13,4 +15,22 @@ public interface EntitySelector {
      * @return The entities to be returned.
      */
     Set<String> getEntities();
+
+    /**
+     * Obtain all entities for which walks shall be generated as a lazily evaluated {@link Spliterator}. The walk
+     * generation consumes the entities from this method, so selectors backed by large data sets should override it
+     * in order to avoid materializing all entities in memory. Each entity must be returned only once. The
+     * {@link Spliterator#estimateSize()} of the returned spliterator is an estimate of the number of entities
+     * ({@link Long#MAX_VALUE} if unknown).
+     * <p>
+     * The default implementation adapts set-based selectors: it returns the spliterator of
+     * {@link EntitySelector#getEntities()}.
+     *
+     * @return The entities to be returned.
+     */
+    default Spliterator<String> getEntitySpliterator() {
+        Set<String> entities = getEntities();
+        if (entities == null) return Spliterators.emptySpliterator();
+        return entities.spliterator();
+    }
 }
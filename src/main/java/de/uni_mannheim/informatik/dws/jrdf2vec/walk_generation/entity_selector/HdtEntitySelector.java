@@ -1,21 +1,23 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector;
 
-import org.rdfhdt.hdt.exceptions.NotFoundException;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.HdtHandle;
+import org.rdfhdt.hdt.dictionary.Dictionary;
+import org.rdfhdt.hdt.enums.TripleComponentRole;
 import org.rdfhdt.hdt.hdt.HDT;
-import org.rdfhdt.hdt.hdt.HDTManager;
-import org.rdfhdt.hdt.triples.IteratorTripleString;
-import org.rdfhdt.hdt.triples.TripleString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
 
 /**
  * Selects HDT entities.
  */
-public class HdtEntitySelector implements EntitySelector {
+public class HdtEntitySelector implements EntitySelector, Closeable {
 
 
     /**
@@ -29,37 +31,68 @@ public class HdtEntitySelector implements EntitySelector {
     HDT hdtDataSet;
 
     /**
-     * Constructor
+     * The handle through which {@link HdtEntitySelector#hdtDataSet} was opened (null if the data set was passed
+     * directly).
+     */
+    private HdtHandle hdtHandle;
+
+    /**
+     * Constructor. The file is opened via {@link HdtHandle}, i.e., an HDT that is already open (e.g. by the walk
+     * generator) is shared. The handle is released in {@link HdtEntitySelector#close()}.
      *
      * @param hdtFilePath Path to the HDT file.
      * @throws IOException IOException
      */
     public HdtEntitySelector(String hdtFilePath) throws IOException {
         try {
-            hdtDataSet = HDTManager.loadHDT(hdtFilePath);
+            hdtHandle = HdtHandle.open(hdtFilePath);
         } catch (IOException e) {
             LOGGER.error("Failed to load HDT file: " + hdtFilePath + "\nProgramm will fail.", e);
             throw e;
         }
+        hdtDataSet = hdtHandle.getHdt();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param hdtDataSet The HDT data set to be used. It is not closed by the entity selector.
+     */
+    public HdtEntitySelector(HDT hdtDataSet) {
+        this.hdtDataSet = hdtDataSet;
     }
 
     @Override
     public Set<String> getEntities() {
         HashSet<String> result = new HashSet<>();
-        IteratorTripleString iterator;
-        try {
-            iterator = hdtDataSet.search("", "", "");
-            TripleString ts;
-            // TODO: We currently miss objects in this selector (can lead to vocab loss in some cases)
-            while (iterator.hasNext()) {
-                ts = iterator.next();
-                result.add(ts.getSubject().toString());
-            }
-            return result;
-        } catch (NotFoundException e) {
-            LOGGER.error("Could not get HDT subjects. Returning null.");
-            e.printStackTrace();
-            return null;
+        getEntitySpliterator().forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Streams the subjects from the HDT dictionary. In HDT, the subject IDs are {@code 1} to
+     * {@link Dictionary#getNsubjects()} (the shared subject-object section followed by the subject-only section).
+     * Hence, every subject is returned once and no triples need to be scanned.
+     *
+     * @return The subjects of the HDT data set.
+     */
+    @Override
+    public Spliterator<String> getEntitySpliterator() {
+        // TODO: We currently miss objects in this selector (can lead to vocab loss in some cases)
+        Dictionary dictionary = hdtDataSet.getDictionary();
+        return LongStream.rangeClosed(1, dictionary.getNsubjects())
+                .mapToObj(id -> dictionary.idToString(id, TripleComponentRole.SUBJECT).toString())
+                .spliterator();
+    }
+
+    /**
+     * Releases the {@link HdtHandle} (if the data set was opened through one). A data set that was passed directly is
+     * not closed.
+     */
+    @Override
+    public void close() {
+        if (hdtHandle != null) {
+            hdtHandle.close();
         }
     }
 }
@@ -1,9 +1,16 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector;
 
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.CsrAdjacencyIndex;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IEncodedGraph;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IUriDictionary;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TripleDataSetMemory;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * This entity selector selects all unique nodes.
@@ -28,4 +35,54 @@ public class MemoryEntitySelector implements EntitySelector {
         result.addAll(data.getUniqueObjectTripleObjects());
         return result;
     }
+
+    /**
+     * Streams the subjects, followed by the datatype triple subjects and the objects that are not subjects of any
+     * object triple. No set of all entities is created: for dictionary-encoded data ({@link IEncodedGraph}), the node
+     * IDs are iterated and only the URIs of the returned nodes are decoded; otherwise, the key sets of the indices are
+     * streamed without copying them.
+     *
+     * @return The entities.
+     */
+    @Override
+    public Spliterator<String> getEntitySpliterator() {
+        if (data instanceof IEncodedGraph) {
+            return getEncodedEntitySpliterator((IEncodedGraph) data);
+        }
+        Set<String> objectTripleSubjects = data.getUniqueObjectTripleSubjects();
+        Set<String> datatypeTripleSubjects = data.getUniqueDatatypeTripleSubjects();
+        return Stream.concat(
+                Stream.concat(
+                        objectTripleSubjects.stream(),
+                        datatypeTripleSubjects.stream().filter(s -> !objectTripleSubjects.contains(s))
+                ),
+                data.getUniqueObjectTripleObjects().stream()
+                        .filter(o -> !objectTripleSubjects.contains(o) && !datatypeTripleSubjects.contains(o))
+        ).spliterator();
+    }
+
+    /**
+     * Streams the nodes with an object triple (in either direction) or a datatype triple in the order of their IDs.
+     *
+     * @param graph The dictionary-encoded data.
+     * @return The entities.
+     */
+    private Spliterator<String> getEncodedEntitySpliterator(IEncodedGraph graph) {
+        CsrAdjacencyIndex index = graph.getAdjacencyIndex();
+        IUriDictionary dictionary = graph.getNodeDictionary();
+        int indexedNodes = index.getNumberOfNodes();
+        boolean hasDatatypeTriples = data.getDatatypeTripleSize() > 0;
+        return IntStream.range(0, dictionary.size())
+                .mapToObj(node -> {
+                    if (node < indexedNodes && (index.getOutDegree(node) > 0 || index.getInDegree(node) > 0)) {
+                        return dictionary.getString(node);
+                    }
+                    if (!hasDatatypeTriples) return null;
+                    // datatype triples are not part of the index
+                    String uri = dictionary.getString(node);
+                    return data.getDatatypeTuplesForSubject(uri) != null ? uri : null;
+                })
+                .filter(Objects::nonNull)
+                .spliterator();
+    }
 }
@@ -1,23 +1,60 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector;
 
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb.store.GraphTDB;
+import org.apache.jena.tdb2.DatabaseMgr;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TdbEntitySelector implements EntitySelector {
 
 
     private Model tdbModel;
 
+    /**
+     * The transactional dataset of {@link TdbEntitySelector#tdbModel} (null if the model is read without
+     * transactions).
+     */
+    private Dataset tdbDataset;
+
     public TdbEntitySelector(Model tdbModel){
         this.tdbModel = tdbModel;
     }
 
+    /**
+     * Constructor. The default model of the dataset is read within read transactions.
+     *
+     * @param tdbDataset The dataset (e.g. TDB or TDB2).
+     */
+    public TdbEntitySelector(Dataset tdbDataset) {
+        this.tdbDataset = tdbDataset.supportsTransactions() ? tdbDataset : null;
+        this.tdbModel = tdbDataset.getDefaultModel();
+    }
+
     @Override
     public Set<String> getEntities() {
+        if (tdbDataset != null) {
+            return Txn.calculateRead(tdbDataset, this::getEntitiesInTransaction);
+        }
+        return getEntitiesInTransaction();
+    }
+
+    private Set<String> getEntitiesInTransaction() {
         Set<String> result = new HashSet<>();
         result.addAll(
                 tdbModel.listSubjects()
@@ -37,4 +74,134 @@ public class TdbEntitySelector implements EntitySelector {
         );
         return result;
     }
+
+    /**
+     * Streams the URI subjects and the URI objects of the TDB model via {@link Graph#find(Node, Node, Node)}. TDB and
+     * TDB2 return the triples in the order of their SPO index, so that the triples of one subject are consecutive and
+     * duplicate subjects can be skipped without keeping them in memory. For other graphs, the returned subjects are
+     * remembered. Objects are returned if they are not the subject of any triple; only these object-only nodes are
+     * kept in memory.
+     * <p>
+     * If the selector was created for a dataset, the entities are streamed within one read transaction which is
+     * started with the first element and ended once the spliterator is exhausted (or closed, the spliterator is
+     * {@link AutoCloseable}). Hence, the spliterator must be consumed by a single thread.
+     *
+     * @return The entities.
+     */
+    @Override
+    public Spliterator<String> getEntitySpliterator() {
+        Graph graph = tdbModel.getGraph();
+        boolean isSubjectOrdered = graph instanceof GraphTDB || (tdbDataset != null && isTdb2(tdbDataset));
+        if (tdbDataset != null) {
+            return new ReadTransactionSpliterator(tdbDataset, () ->
+                    streamEntities(graph, isSubjectOrdered).spliterator());
+        }
+        return streamEntities(graph, isSubjectOrdered).spliterator();
+    }
+
+    /**
+     * Checks whether the given dataset is a TDB2 dataset. TDB2 is an optional dependency: if it is not on the
+     * classpath, the dataset cannot be a TDB2 dataset.
+     *
+     * @param dataset The dataset.
+     * @return True if the dataset is backed by TDB2.
+     */
+    private static boolean isTdb2(Dataset dataset) {
+        try {
+            return DatabaseMgr.isTDB2(dataset.asDatasetGraph());
+        } catch (NoClassDefFoundError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Streams the entities of the given graph.
+     *
+     * @param graph            The graph.
+     * @param isSubjectOrdered True if the triples of one subject are returned consecutively by the graph.
+     * @return The entities.
+     */
+    private static Stream<String> streamEntities(Graph graph, boolean isSubjectOrdered) {
+        Node[] lastSubject = new Node[1];
+        Set<Node> returnedSubjects = isSubjectOrdered ? null : new HashSet<>();
+        Stream<Node> subjects = Iter.asStream(graph.find(Node.ANY, Node.ANY, Node.ANY)
+                .mapWith(Triple::getSubject)
+                .filterKeep(subject -> {
+                    if (!subject.isURI()) return false;
+                    if (returnedSubjects != null) return returnedSubjects.add(subject);
+                    boolean isNewSubject = !subject.equals(lastSubject[0]);
+                    lastSubject[0] = subject;
+                    return isNewSubject;
+                }));
+
+        // flatMap defers the second scan until all subjects are consumed
+        Set<Node> objectOnlyNodes = new HashSet<>();
+        Stream<Node> objects = Stream.of(graph).flatMap(g -> Iter.asStream(g.find(Node.ANY, Node.ANY, Node.ANY)
+                .mapWith(Triple::getObject)
+                .filterKeep(object -> object.isURI()
+                        && !objectOnlyNodes.contains(object)
+                        && !g.contains(object, Node.ANY, Node.ANY)
+                        && objectOnlyNodes.add(object))));
+
+        return Stream.concat(subjects, objects).map(Node::getURI);
+    }
+
+    /**
+     * Spliterator that creates its delegate and reads it within a read transaction of the current thread. Consumers
+     * which stop early must close it so that the transaction is ended.
+     */
+    private static class ReadTransactionSpliterator extends Spliterators.AbstractSpliterator<String>
+            implements AutoCloseable {
+
+
+        private final Dataset dataset;
+
+        private final Supplier<Spliterator<String>> delegateSupplier;
+
+        private Spliterator<String> delegate;
+
+        private boolean isOwnTransaction = false;
+
+        private boolean isDone = false;
+
+        ReadTransactionSpliterator(Dataset dataset, Supplier<Spliterator<String>> delegateSupplier) {
+            super(Long.MAX_VALUE, Spliterator.NONNULL);
+            this.dataset = dataset;
+            this.delegateSupplier = delegateSupplier;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (isDone) return false;
+            if (delegate == null) {
+                if (!dataset.isInTransaction()) {
+                    dataset.begin(ReadWrite.READ);
+                    isOwnTransaction = true;
+                }
+                delegate = delegateSupplier.get();
+            }
+            boolean isAdvanced;
+            try {
+                isAdvanced = delegate.tryAdvance(action);
+            } catch (RuntimeException e) {
+                endTransaction();
+                throw e;
+            }
+            if (!isAdvanced) endTransaction();
+            return isAdvanced;
+        }
+
+        @Override
+        public void close() {
+            endTransaction();
+        }
+
+        private void endTransaction() {
+            isDone = true;
+            if (isOwnTransaction) {
+                dataset.end();
+                isOwnTransaction = false;
+            }
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.light;
 
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.HdtHandle;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.ContinuationEntitySelector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,7 +32,24 @@ public class WalkGenerationManagerLight extends WalkGenerationManager {
      */
     public WalkGenerationManagerLight(URI knowledgeGraph, File entitiesFile, boolean isGenerateTextWalks,
                                       File existingWalks, File newWalkDirectory){
-        super(knowledgeGraph, isGenerateTextWalks, false, existingWalks, newWalkDirectory);
+        this(knowledgeGraph, entitiesFile, isGenerateTextWalks, existingWalks, newWalkDirectory,
+                HdtHandle.DEFAULT_LOADING_MODE);
+    }
+
+    /**
+     * Main Constructor
+     * @param knowledgeGraph Knowledge graph URI.
+     * @param entitiesFile Entities file.
+     * @param isGenerateTextWalks True if text walks shall be generated.
+     * @param existingWalks Directory where existing walks reside.
+     * @param newWalkDirectory The directory where the new walks shall be written to. Must be different from
+     *                         {@code existingWalks}.
+     * @param hdtLoadingMode The mode in which an HDT file is opened. Ignored for other resources.
+     */
+    public WalkGenerationManagerLight(URI knowledgeGraph, File entitiesFile, boolean isGenerateTextWalks,
+                                      File existingWalks, File newWalkDirectory,
+                                      HdtHandle.LoadingMode hdtLoadingMode){
+        super(knowledgeGraph, isGenerateTextWalks, false, existingWalks, newWalkDirectory, 1, hdtLoadingMode);
         if(!entitiesFile.exists()){
             LOGGER.error("The entities file does not exist: " + entitiesFile.getName() + "\nProgram will fail.");
         }
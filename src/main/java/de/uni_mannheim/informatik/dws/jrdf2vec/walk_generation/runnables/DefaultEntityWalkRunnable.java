@@ -137,6 +137,36 @@ public class DefaultEntityWalkRunnable implements Runnable {
                 } else {
                     printNotImplementedWarning();
                 }
+                break;
+            case EXPERIMENTAL_BIASED_MID_WALKS:
+                if (walkGenerationManager.getWalkGenerator() instanceof IBiasedWalkCapability) {
+                    walkGenerationManager.writeToFile(
+                            ((IBiasedWalkCapability) walkGenerationManager.getWalkGenerator())
+                                    .generateBiasedMidWalksForEntity(walkGenerationManager.shortenUri(entity),
+                                            this.numberOfWalks, this.depth));
+                } else {
+                    printNotImplementedWarning();
+                }
+                break;
+            case EXPERIMENTAL_BIASED_RANDOM_WALKS:
+                if (walkGenerationManager.getWalkGenerator() instanceof IBiasedWalkCapability) {
+                    walkGenerationManager.writeToFile(
+                            ((IBiasedWalkCapability) walkGenerationManager.getWalkGenerator())
+                                    .generateBiasedRandomWalksForEntity(walkGenerationManager.shortenUri(entity),
+                                            this.numberOfWalks, this.depth));
+                } else {
+                    printNotImplementedWarning();
+                }
+                break;
+            case EXPERIMENTAL_NODE2VEC_WALKS:
+                if (walkGenerationManager.getWalkGenerator() instanceof INode2VecWalkCapability) {
+                    walkGenerationManager.writeToFile(
+                            ((INode2VecWalkCapability) walkGenerationManager.getWalkGenerator())
+                                    .generateNode2VecWalksForEntity(walkGenerationManager.shortenUri(entity),
+                                            this.numberOfWalks, this.depth));
+                } else {
+                    printNotImplementedWarning();
+                }
         }
     }
 
@@ -0,0 +1,244 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Duplicate free random walks in breadth-first manner with a bounded frontier: In each iteration, every walk is
+ * extended by all out-edges of its last node; afterwards, {@code numberOfWalks} walks are kept at random.
+ * <p>
+ * The expansion is never materialized. The number of candidates per walk is obtained from its successors, the
+ * surviving candidates are sampled by index (uniformly and without replacement, i.e., with the same distribution as
+ * trimming the full expansion at random), and only the sampled candidates are created. Walks share their prefixes,
+ * hence, extending a walk by one step is O(1) regardless of its length. At any time, at most {@code numberOfWalks}
+ * walks are held.
+ * <p>
+ * The sampler is generic over the edge type, e.g., {@link Triple}s for the string-based data structures and
+ * dictionary IDs for HDT and the
+ * {@link de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.CsrAdjacencyIndex}.
+ */
+public class DuplicateFreeWalkSampler {
+
+
+    /**
+     * Helper class; not to be instantiated.
+     */
+    private DuplicateFreeWalkSampler() {
+    }
+
+    /**
+     * Generate duplicate free random walks for the given entity.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks The maximal number of walks.
+     * @param depth         The depth of each walk.
+     * @param successors    Function which returns the object triples of a subject. If null is returned, a walk that
+     *                      ends in the subject cannot be extended and is kept as it is. If an empty collection is
+     *                      returned, such a walk is discarded.
+     * @return Walks as lists of triples (the entity is the subject of the first triple). Empty if the entity has no
+     * successors.
+     */
+    public static List<List<Triple>> generateWalks(String entity, int numberOfWalks, int depth,
+                                                   Function<String, ? extends Collection<Triple>> successors) {
+        return generateWalks(toCandidates(successors.apply(entity)), numberOfWalks, depth,
+                triple -> toCandidates(successors.apply(triple.object)));
+    }
+
+    /**
+     * Generate duplicate free random walks on an arbitrary edge type, for instance on dictionary IDs.
+     *
+     * @param first         The out-edges of the entity for which walks shall be generated.
+     * @param numberOfWalks The maximal number of walks.
+     * @param depth         The depth of each walk.
+     * @param successors    Function which returns the out-edges of the node reached by the given edge. If null is
+     *                      returned, a walk that ends with the edge cannot be extended and is kept as it is. If no
+     *                      candidates are returned, such a walk is discarded.
+     * @param <E>           The edge type.
+     * @return Walks as lists of edges. Empty if there are no first edges.
+     */
+    public static <E> List<List<E>> generateWalks(Candidates<E> first, int numberOfWalks, int depth,
+                                                  Function<? super E, ? extends Candidates<E>> successors) {
+        List<List<E>> result = new ArrayList<>();
+        if (numberOfWalks < 1 || depth < 1) return result;
+        if (first == null || first.size() == 0) return result;
+
+        List<Path<E>> walks = new ArrayList<>();
+        List<Candidates<E>> nextSteps = new ArrayList<>();
+        walks.add(null);
+        nextSteps.add(first);
+
+        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
+            if (currentDepth > 0) {
+                nextSteps.clear();
+                for (Path<E> walk : walks) nextSteps.add(successors.apply(walk.edge));
+            }
+            long totalCandidates = 0;
+            for (Candidates<E> nextStep : nextSteps) {
+                // a walk that cannot be extended is one candidate on its own
+                totalCandidates += nextStep == null ? 1 : nextStep.size();
+            }
+
+            long[] selected = drawDistinctSortedIndices(totalCandidates, numberOfWalks);
+            List<Path<E>> nextWalks = new ArrayList<>(selected.length);
+            int selectedPosition = 0;
+            long offset = 0;
+            for (int i = 0; i < walks.size() && selectedPosition < selected.length; i++) {
+                Path<E> walk = walks.get(i);
+                Candidates<E> nextStep = nextSteps.get(i);
+                if (nextStep == null) {
+                    if (selected[selectedPosition] == offset) {
+                        nextWalks.add(walk);
+                        selectedPosition++;
+                    }
+                    offset++;
+                    continue;
+                }
+                long end = offset + nextStep.size();
+                int to = selectedPosition;
+                while (to < selected.length && selected[to] < end) to++;
+                if (to > selectedPosition) {
+                    nextStep.forEach(selected, selectedPosition, to, offset,
+                            edge -> nextWalks.add(new Path<>(walk, edge)));
+                    selectedPosition = to;
+                }
+                offset = end;
+            }
+            walks = nextWalks;
+        }
+
+        for (Path<E> walk : walks) {
+            result.add(walk.toList());
+        }
+        return result;
+    }
+
+    private static Candidates<Triple> toCandidates(Collection<Triple> triples) {
+        return triples == null ? null : new CollectionCandidates<>(triples);
+    }
+
+    /**
+     * Draw {@code k} distinct random numbers from {@code [0, n)} (Floyd's algorithm). If {@code n <= k}, all numbers
+     * are returned.
+     *
+     * @param n Upper bound (exclusive).
+     * @param k Number of draws.
+     * @return Sorted array of distinct numbers.
+     */
+    static long[] drawDistinctSortedIndices(long n, int k) {
+        long[] result;
+        if (n <= k) {
+            result = new long[(int) n];
+            for (int i = 0; i < n; i++) result[i] = i;
+            return result;
+        }
+        Set<Long> drawn = new HashSet<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long j = n - k; j < n; j++) {
+            long t = random.nextLong(j + 1);
+            if (!drawn.add(t)) drawn.add(j);
+        }
+        result = new long[k];
+        int i = 0;
+        for (long number : drawn) result[i++] = number;
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * The out-edges of a node from which walks are extended.
+     *
+     * @param <E> The edge type.
+     */
+    public interface Candidates<E> {
+
+
+        /**
+         * @return The number of out-edges.
+         */
+        long size();
+
+        /**
+         * Passes the selected out-edges to the consumer in ascending order of their positions.
+         *
+         * @param selected Sorted array of selected candidates.
+         * @param from     First entry of {@code selected} (inclusive) that refers to these edges.
+         * @param to       Last entry of {@code selected} (exclusive) that refers to these edges.
+         * @param offset   The position of the first edge is {@code offset}, i.e., {@code selected[k] - offset} is
+         *                 the position of a selected edge.
+         * @param consumer Receives the selected edges.
+         */
+        void forEach(long[] selected, int from, int to, long offset, Consumer<? super E> consumer);
+    }
+
+    /**
+     * Candidates backed by a collection.
+     */
+    private static class CollectionCandidates<E> implements Candidates<E> {
+
+
+        private final Collection<E> edges;
+
+        CollectionCandidates(Collection<E> edges) {
+            this.edges = edges;
+        }
+
+        @Override
+        public long size() {
+            return edges.size();
+        }
+
+        @Override
+        public void forEach(long[] selected, int from, int to, long offset, Consumer<? super E> consumer) {
+            if (edges instanceof List && edges instanceof RandomAccess) {
+                List<E> edgeList = (List<E>) edges;
+                for (int k = from; k < to; k++) {
+                    consumer.accept(edgeList.get((int) (selected[k] - offset)));
+                }
+                return;
+            }
+            long position = offset;
+            int k = from;
+            for (E edge : edges) {
+                if (k == to) break;
+                if (selected[k] == position) {
+                    consumer.accept(edge);
+                    k++;
+                }
+                position++;
+            }
+        }
+    }
+
+    /**
+     * A walk as persistent list: each step refers to the walk it extends.
+     */
+    private static class Path<E> {
+
+
+        private final Path<E> parent;
+
+        private final E edge;
+
+        private final int length;
+
+        Path(Path<E> parent, E edge) {
+            this.parent = parent;
+            this.edge = edge;
+            this.length = parent == null ? 1 : parent.length + 1;
+        }
+
+        List<E> toList() {
+            List<E> edges = new ArrayList<>(Collections.nCopies(length, null));
+            Path<E> current = this;
+            for (int i = length - 1; i >= 0; i--) {
+                edges.set(i, current.edge);
+                current = current.parent;
+            }
+            return edges;
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import org.rdfhdt.hdt.compact.bitmap.AdjacencyList;
+import org.rdfhdt.hdt.dictionary.Dictionary;
+import org.rdfhdt.hdt.enums.TripleComponentOrder;
+import org.rdfhdt.hdt.enums.TripleComponentRole;
+import org.rdfhdt.hdt.hdt.HDT;
+import org.rdfhdt.hdt.triples.IteratorTripleID;
+import org.rdfhdt.hdt.triples.TripleID;
+import org.rdfhdt.hdt.triples.Triples;
+import org.rdfhdt.hdt.triples.impl.BitmapTriples;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Read-only view on the triples of an {@link HDT} data set on the level of dictionary IDs. Neighbours are drawn by
+ * position so that no neighbour set needs to be materialized and strings only need to be decoded for the drawn
+ * triples.
+ * <p>
+ * If the triples are {@link BitmapTriples} in SPO order (the default of HDT), the out-edges of a subject form a
+ * consecutive range in the Z sequence which is found in O(1) using the bitmaps. The in-edges of an object are found in
+ * the same way if the object index of the HDT file is loaded (e.g. via {@link org.rdfhdt.hdt.hdt.HDTManager#loadIndexedHDT(String)}).
+ * Otherwise, the neighbours are drawn from the HDT search iterator via reservoir sampling (linear in the degree, but
+ * still without decoding strings).
+ * <p>
+ * The objects of one (subject, predicate) list are sorted by ID and all literals form one consecutive ID range. Hence,
+ * the out-edges to literals are excluded via binary search per predicate of the subject: counting or accessing the
+ * literal-free out-edges is in O(p log d) for p predicates and degree d.
+ * <p>
+ * In HDT, IDs {@code 1} to {@link HdtAdjacencyIndex#getNumberOfShared()} denote nodes that appear as subject and as
+ * object; they have the same ID in both roles. All other subject (object) IDs do not appear as object (subject).
+ */
+public class HdtAdjacencyIndex {
+
+
+    /**
+     * Number of random positions that are tested before the literal-free out-edges are scanned.
+     */
+    private static final int MAX_REJECTIONS = 16;
+
+    private final Triples triples;
+
+    private final Dictionary dictionary;
+
+    private final long numberOfShared;
+
+    /**
+     * The object IDs in {@code (firstLiteralId, lastLiteralId]} are literals.
+     */
+    private long firstLiteralId;
+
+    private long lastLiteralId;
+
+    /**
+     * Adjacency lists of the bitmap triples (null if not available).
+     */
+    private AdjacencyList adjY;
+
+    private AdjacencyList adjZ;
+
+    /**
+     * Object index: for each object, the positions in Y of its (subject, predicate) pairs (null if not available).
+     */
+    private AdjacencyList adjIndex;
+
+    /**
+     * Constructor
+     *
+     * @param hdt The HDT data set.
+     */
+    public HdtAdjacencyIndex(HDT hdt) {
+        this.triples = hdt.getTriples();
+        this.dictionary = hdt.getDictionary();
+        this.numberOfShared = dictionary.getNshared();
+        if (triples instanceof BitmapTriples && ((BitmapTriples) triples).getOrder() == TripleComponentOrder.SPO) {
+            BitmapTriples bitmapTriples = (BitmapTriples) triples;
+            adjY = new AdjacencyList(bitmapTriples.getSeqY(), bitmapTriples.getBitmapY());
+            adjZ = new AdjacencyList(bitmapTriples.getSeqZ(), bitmapTriples.getBitmapZ());
+            if (bitmapTriples.getIndexZ() != null && bitmapTriples.getBitmapIndex() != null) {
+                adjIndex = new AdjacencyList(bitmapTriples.getIndexZ(), bitmapTriples.getBitmapIndex());
+            }
+        }
+        initializeLiteralRange();
+    }
+
+    /**
+     * The object-only section of the dictionary is sorted lexicographically. Hence, all literals (which start with a
+     * quotation mark) form one consecutive ID range which is determined via binary search.
+     */
+    private void initializeLiteralRange() {
+        long firstObjectOnlyId = numberOfShared + 1;
+        long lastObjectOnlyId = dictionary.getNobjects();
+        firstLiteralId = findFirstObjectIdWithFirstCharAbove(firstObjectOnlyId, lastObjectOnlyId, '"' - 1) - 1;
+        lastLiteralId = findFirstObjectIdWithFirstCharAbove(firstObjectOnlyId, lastObjectOnlyId, '"') - 1;
+    }
+
+    /**
+     * Binary search for the smallest object ID in {@code [from, to]} whose string starts with a character greater
+     * than the given one.
+     *
+     * @return The ID or {@code to + 1} if there is no such ID.
+     */
+    private long findFirstObjectIdWithFirstCharAbove(long from, long to, int character) {
+        long low = from;
+        long high = to + 1;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            CharSequence object = dictionary.idToString(middle, TripleComponentRole.OBJECT);
+            if (object == null || object.length() == 0 || object.charAt(0) <= character) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns true if the out-edges (and, with object index, the in-edges) are accessed by position.
+     *
+     * @return True if positional access is available.
+     */
+    public boolean isPositionalAccess() {
+        return adjZ != null;
+    }
+
+    /**
+     * Returns true if the object index is available so that in-edges are drawn by position.
+     *
+     * @return True if the object index is available.
+     */
+    public boolean isObjectIndexAvailable() {
+        return adjIndex != null;
+    }
+
+    public long getNumberOfShared() {
+        return numberOfShared;
+    }
+
+    /**
+     * Obtain the subject ID of the given string.
+     *
+     * @param node The node.
+     * @return ID or 0 if the node does not appear as subject.
+     */
+    public long getSubjectId(String node) {
+        return Math.max(0, dictionary.stringToId(node, TripleComponentRole.SUBJECT));
+    }
+
+    /**
+     * Obtain the object ID of the given string.
+     *
+     * @param node The node.
+     * @return ID or 0 if the node does not appear as object.
+     */
+    public long getObjectId(String node) {
+        return Math.max(0, dictionary.stringToId(node, TripleComponentRole.OBJECT));
+    }
+
+    /**
+     * Obtain the predicate ID of the given string.
+     *
+     * @param predicate The predicate.
+     * @return ID or 0 if the predicate does not appear in the data set.
+     */
+    public long getPredicateId(String predicate) {
+        return Math.max(0, dictionary.stringToId(predicate, TripleComponentRole.PREDICATE));
+    }
+
+    /**
+     * Converts an object ID into the subject ID of the same node.
+     *
+     * @param objectId The object ID.
+     * @return The subject ID or 0 if the node does not appear as subject.
+     */
+    public long objectToSubjectId(long objectId) {
+        return objectId <= numberOfShared ? objectId : 0;
+    }
+
+    /**
+     * Converts a subject ID into the object ID of the same node.
+     *
+     * @param subjectId The subject ID.
+     * @return The object ID or 0 if the node does not appear as object.
+     */
+    public long subjectToObjectId(long subjectId) {
+        return subjectId <= numberOfShared ? subjectId : 0;
+    }
+
+    /**
+     * Returns true if the given object ID denotes a literal.
+     *
+     * @param objectId The object ID.
+     * @return True for literals.
+     */
+    public boolean isLiteral(long objectId) {
+        return objectId > firstLiteralId && objectId <= lastLiteralId;
+    }
+
+    public String getSubject(long subjectId) {
+        return dictionary.idToString(subjectId, TripleComponentRole.SUBJECT).toString();
+    }
+
+    public String getPredicate(long predicateId) {
+        return dictionary.idToString(predicateId, TripleComponentRole.PREDICATE).toString();
+    }
+
+    public String getObject(long objectId) {
+        return dictionary.idToString(objectId, TripleComponentRole.OBJECT).toString();
+    }
+
+    /**
+     * Obtain the number of out-edges of the given subject.
+     *
+     * @param subjectId The subject ID.
+     * @param isExcludeLiterals True if edges to literals shall not be counted. With positional access, this requires
+     *                          a binary search per predicate of the subject.
+     * @return The number of out-edges.
+     */
+    public long getOutDegree(long subjectId, boolean isExcludeLiterals) {
+        if (subjectId <= 0) return 0;
+        if (adjZ != null) {
+            if (subjectId > adjY.countListsX()) return 0;
+            if (!isExcludeLiterals) return getOutEdgeEnd(subjectId) - getOutEdgeStart(subjectId) + 1;
+            long result = 0;
+            long lastY = adjY.last(subjectId - 1);
+            for (long y = adjY.find(subjectId - 1); y <= lastY; y++) {
+                long start = adjZ.find(y);
+                long end = adjZ.last(y) + 1;
+                long literalStart = findFirstObjectPosition(start, end, firstLiteralId + 1);
+                long literalEnd = findFirstObjectPosition(literalStart, end, lastLiteralId + 1);
+                result += (end - start) - (literalEnd - literalStart);
+            }
+            return result;
+        }
+        return count(new TripleID(subjectId, 0, 0), isExcludeLiterals);
+    }
+
+    /**
+     * Obtain the number of in-edges of the given object.
+     *
+     * @param objectId The object ID.
+     * @return The number of in-edges.
+     */
+    public long getInDegree(long objectId) {
+        if (objectId <= 0) return 0;
+        if (adjIndex != null) {
+            if (objectId > adjIndex.countListsX()) return 0;
+            return adjIndex.last(objectId - 1) - adjIndex.find(objectId - 1) + 1;
+        }
+        return count(new TripleID(0, 0, objectId), false);
+    }
+
+    /**
+     * Draw a random out-edge of the given subject.
+     *
+     * @param subjectId         The subject ID.
+     * @param isExcludeLiterals True if edges to literals shall not be drawn.
+     * @param result            Array of length 2 which receives the predicate ID and the object ID.
+     * @return True if an edge was drawn, false if there is no (matching) out-edge.
+     */
+    public boolean drawOutEdge(long subjectId, boolean isExcludeLiterals, long[] result) {
+        if (subjectId <= 0) return false;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (adjZ != null) {
+            if (subjectId > adjY.countListsX()) return false;
+            long start = getOutEdgeStart(subjectId);
+            long degree = getOutEdgeEnd(subjectId) - start + 1;
+            for (int attempt = 0; attempt < MAX_REJECTIONS; attempt++) {
+                long z = start + random.nextLong(degree);
+                long object = adjZ.get(z);
+                if (!isExcludeLiterals || !isLiteral(object)) {
+                    result[0] = adjY.get(adjZ.findListIndex(z));
+                    result[1] = object;
+                    return true;
+                }
+            }
+            // many literals: draw by position among the literal-free out-edges
+            long literalFreeDegree = getOutDegree(subjectId, true);
+            if (literalFreeDegree == 0) return false;
+            return getOutEdge(subjectId, random.nextLong(literalFreeDegree), true, result);
+        }
+        TripleID triple = drawFromIterator(new TripleID(subjectId, 0, 0), isExcludeLiterals);
+        if (triple == null) return false;
+        result[0] = triple.getPredicate();
+        result[1] = triple.getObject();
+        return true;
+    }
+
+    /**
+     * Obtain the out-edge of the given subject at the given position (in the order of
+     * {@link HdtAdjacencyIndex#forEachOutEdge(long, boolean, EdgeConsumer)}). With positional access, the edge is
+     * found in O(p log d) for p predicates and degree d.
+     *
+     * @param subjectId         The subject ID.
+     * @param position          The position in {@code [0, getOutDegree(subjectId, isExcludeLiterals))}.
+     * @param isExcludeLiterals True if edges to literals shall not be counted.
+     * @param result            Array of length 2 which receives the predicate ID and the object ID.
+     * @return False if there is no out-edge at the given position.
+     */
+    public boolean getOutEdge(long subjectId, long position, boolean isExcludeLiterals, long[] result) {
+        if (subjectId <= 0 || position < 0) return false;
+        if (adjZ != null) {
+            if (subjectId > adjY.countListsX()) return false;
+            long lastY = adjY.last(subjectId - 1);
+            for (long y = adjY.find(subjectId - 1); y <= lastY; y++) {
+                long start = adjZ.find(y);
+                long end = adjZ.last(y) + 1;
+                long literalStart = end;
+                long literalEnd = end;
+                if (isExcludeLiterals) {
+                    literalStart = findFirstObjectPosition(start, end, firstLiteralId + 1);
+                    literalEnd = findFirstObjectPosition(literalStart, end, lastLiteralId + 1);
+                }
+                long z = start + position;
+                if (z >= literalStart) z += literalEnd - literalStart;
+                if (z < end) {
+                    result[0] = adjY.get(y);
+                    result[1] = adjZ.get(z);
+                    return true;
+                }
+                position -= (end - start) - (literalEnd - literalStart);
+            }
+            return false;
+        }
+        IteratorTripleID iterator = triples.search(new TripleID(subjectId, 0, 0));
+        while (iterator.hasNext()) {
+            TripleID triple = iterator.next();
+            if (isExcludeLiterals && isLiteral(triple.getObject())) continue;
+            if (position-- == 0) {
+                result[0] = triple.getPredicate();
+                result[1] = triple.getObject();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Draw a random in-edge of the given object.
+     *
+     * @param objectId The object ID.
+     * @param result   Array of length 2 which receives the predicate ID and the subject ID.
+     * @return True if an edge was drawn, false if there is no in-edge.
+     */
+    public boolean drawInEdge(long objectId, long[] result) {
+        if (objectId <= 0) return false;
+        if (adjIndex != null) {
+            if (objectId > adjIndex.countListsX()) return false;
+            long start = adjIndex.find(objectId - 1);
+            long degree = adjIndex.last(objectId - 1) - start + 1;
+            long posY = adjIndex.get(start + ThreadLocalRandom.current().nextLong(degree));
+            result[0] = adjY.get(posY);
+            result[1] = adjY.findListIndex(posY) + 1;
+            return true;
+        }
+        TripleID triple = drawFromIterator(new TripleID(0, 0, objectId), false);
+        if (triple == null) return false;
+        result[0] = triple.getPredicate();
+        result[1] = triple.getSubject();
+        return true;
+    }
+
+    /**
+     * Visit all out-edges of the given subject in the order of the HDT file. No strings are decoded and no edge
+     * objects are allocated.
+     *
+     * @param subjectId         The subject ID.
+     * @param isExcludeLiterals True if edges to literals shall be skipped.
+     * @param consumer          Receives the predicate ID and the object ID of each edge.
+     */
+    public void forEachOutEdge(long subjectId, boolean isExcludeLiterals, EdgeConsumer consumer) {
+        if (subjectId <= 0) return;
+        if (adjZ != null) {
+            if (subjectId > adjY.countListsX()) return;
+            long lastY = adjY.last(subjectId - 1);
+            for (long y = adjY.find(subjectId - 1); y <= lastY; y++) {
+                long predicate = adjY.get(y);
+                long start = adjZ.find(y);
+                long end = adjZ.last(y) + 1;
+                long literalStart = end;
+                long literalEnd = end;
+                if (isExcludeLiterals) {
+                    literalStart = findFirstObjectPosition(start, end, firstLiteralId + 1);
+                    literalEnd = findFirstObjectPosition(literalStart, end, lastLiteralId + 1);
+                }
+                for (long z = start; z < literalStart; z++) {
+                    consumer.accept(predicate, adjZ.get(z));
+                }
+                for (long z = literalEnd; z < end; z++) {
+                    consumer.accept(predicate, adjZ.get(z));
+                }
+            }
+            return;
+        }
+        IteratorTripleID iterator = triples.search(new TripleID(subjectId, 0, 0));
+        while (iterator.hasNext()) {
+            TripleID triple = iterator.next();
+            if (isExcludeLiterals && isLiteral(triple.getObject())) continue;
+            consumer.accept(triple.getPredicate(), triple.getObject());
+        }
+    }
+
+    /**
+     * Draw a random object of the given subject among the out-edges labelled with one of the given predicates.
+     * With positional access, only the (few) predicate lists of the subject are scanned; the object is then drawn by
+     * position.
+     *
+     * @param subjectId    The subject ID.
+     * @param predicateIds The IDs of the admissible predicates.
+     * @return The object ID or 0 if there is no such edge.
+     */
+    public long drawObjectWithPredicates(long subjectId, long[] predicateIds) {
+        if (subjectId <= 0 || predicateIds.length == 0) return 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (adjZ != null) {
+            if (subjectId > adjY.countListsX()) return 0;
+            long lastY = adjY.last(subjectId - 1);
+            long count = 0;
+            long chosenY = -1;
+            // the predicates of one subject are distinct: draw the list proportional to its size
+            for (long y = adjY.find(subjectId - 1); y <= lastY; y++) {
+                if (!contains(predicateIds, adjY.get(y))) continue;
+                long size = adjZ.last(y) - adjZ.find(y) + 1;
+                count += size;
+                if (random.nextLong(count) < size) chosenY = y;
+            }
+            if (chosenY < 0) return 0;
+            long start = adjZ.find(chosenY);
+            return adjZ.get(start + random.nextLong(adjZ.last(chosenY) - start + 1));
+        }
+        long result = 0;
+        long count = 0;
+        for (long predicateId : predicateIds) {
+            IteratorTripleID iterator = triples.search(new TripleID(subjectId, predicateId, 0));
+            while (iterator.hasNext()) {
+                long object = iterator.next().getObject();
+                count++;
+                if (random.nextLong(count) == 0) result = object;
+            }
+        }
+        return result;
+    }
+
+    private static boolean contains(long[] array, long value) {
+        for (long element : array) {
+            if (element == value) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Binary search for the first position in {@code [from, to)} of Z whose object ID is at least the given one. The
+     * positions must belong to one (subject, predicate) list, i.e., their objects are sorted.
+     *
+     * @return The position or {@code to} if there is no such position.
+     */
+    private long findFirstObjectPosition(long from, long to, long objectId) {
+        long low = from;
+        long high = to;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (adjZ.get(middle) < objectId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long getOutEdgeStart(long subjectId) {
+        return adjZ.find(adjY.find(subjectId - 1));
+    }
+
+    private long getOutEdgeEnd(long subjectId) {
+        return adjZ.last(adjY.last(subjectId - 1));
+    }
+
+    /**
+     * Reservoir sampling over the HDT search iterator.
+     */
+    private TripleID drawFromIterator(TripleID pattern, boolean isExcludeLiterals) {
+        IteratorTripleID iterator = triples.search(pattern);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TripleID result = null;
+        long count = 0;
+        while (iterator.hasNext()) {
+            TripleID triple = iterator.next();
+            if (isExcludeLiterals && isLiteral(triple.getObject())) continue;
+            count++;
+            if (random.nextLong(count) == 0) result = new TripleID(triple);
+        }
+        return result;
+    }
+
+    private long count(TripleID pattern, boolean isExcludeLiterals) {
+        IteratorTripleID iterator = triples.search(pattern);
+        long result = 0;
+        while (iterator.hasNext()) {
+            TripleID triple = iterator.next();
+            if (isExcludeLiterals && isLiteral(triple.getObject())) continue;
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Receives the edges of a node on the level of dictionary IDs.
+     */
+    @FunctionalInterface
+    public interface EdgeConsumer {
+
+
+        /**
+         * Process one edge.
+         *
+         * @param predicateId The predicate ID.
+         * @param nodeId      The ID of the adjacent node.
+         */
+        void accept(long predicateId, long nodeId);
+    }
+}
@@ -1,6 +1,7 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
 
 import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.HdtHandle;
 import org.rdfhdt.hdt.exceptions.NotFoundException;
 import org.rdfhdt.hdt.hdt.HDT;
 import org.rdfhdt.hdt.hdt.HDTManager;
@@ -13,12 +14,15 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 /**
  * A parser for HDT files.
  */
 public class HdtWalkGenerator implements IWalkGenerator, IMidWalkCapability, IMidWalkDuplicateFreeCapability,
-IMidWalkWeightedCapability {
+IMidWalkWeightedCapability, IRandomWalkDuplicateFreeCapability, INodeWalksDuplicateFreeCapability,
+IMidEdgeWalkDuplicateFreeCapability, IMidTypeWalkDuplicateFreeCapability, INodeDegreeCapability,
+ICloseableWalkGenerator {
 
 
     /**
@@ -32,18 +36,61 @@ IMidWalkWeightedCapability {
     HDT hdtDataSet;
 
     /**
-     * Constructor
+     * The handle through which {@link HdtWalkGenerator#hdtDataSet} was opened (null if the data set was passed
+     * directly).
+     */
+    private HdtHandle hdtHandle;
+
+    /**
+     * ID-level access to the neighbours of a node.
+     */
+    private HdtAdjacencyIndex index;
+
+    /**
+     * The properties used to obtain the type of a node (type walks).
+     */
+    private static final String[] DEFAULT_TYPE_PROPERTIES = {"http://www.w3.org/1999/02/22-rdf-syntax-ns#type"};
+
+    private final Set<String> typeProperties = new HashSet<>(Arrays.asList(DEFAULT_TYPE_PROPERTIES));
+
+    /**
+     * Constructor. The file is opened via {@link HdtHandle} using the default loading mode.
      *
      * @param hdtFilePath Path to the HDT file.
      * @exception IOException IOException
      */
     public HdtWalkGenerator(String hdtFilePath) throws IOException {
         try {
-            hdtDataSet = HDTManager.loadHDT(hdtFilePath);
+            hdtHandle = HdtHandle.open(hdtFilePath);
         } catch (IOException e) {
             LOGGER.error("Failed to load HDT file: " + hdtFilePath + "\nProgram will fail.", e);
             throw e;
         }
+        hdtDataSet = hdtHandle.getHdt();
+        index = new HdtAdjacencyIndex(hdtDataSet);
+    }
+
+    /**
+     * Constructor. The walk generator takes over the given handle and closes it in
+     * {@link HdtWalkGenerator#close()}.
+     *
+     * @param hdtHandle The handle on the HDT data set.
+     */
+    public HdtWalkGenerator(HdtHandle hdtHandle) {
+        this.hdtHandle = hdtHandle;
+        this.hdtDataSet = hdtHandle.getHdt();
+        index = new HdtAdjacencyIndex(hdtDataSet);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param hdtDataSet The HDT data set to be used. If it was loaded with its index (e.g. via
+     *                   {@link HDTManager#loadIndexedHDT(String)}), predecessors are also drawn by position.
+     */
+    public HdtWalkGenerator(HDT hdtDataSet) {
+        this.hdtDataSet = hdtDataSet;
+        index = new HdtAdjacencyIndex(hdtDataSet);
     }
 
     /**
@@ -107,8 +154,10 @@ IMidWalkWeightedCapability {
     public List<String> generateMidWalkForEntity(String entity, int depth) {
         LinkedList<String> result = new LinkedList<>();
 
-        String nextElementPredecessor = entity;
-        String nextElementSuccessor = entity;
+        // the first node as object (to find predecessors) and the last node as subject (to find successors)
+        long nextElementPredecessor = index.getObjectId(entity);
+        long nextElementSuccessor = index.getSubjectId(entity);
+        long[] edge = new long[2];
 
         // initialize result
         result.add(entity);
@@ -124,55 +173,19 @@ IMidWalkWeightedCapability {
 
             if (randomPickZeroOne == 0) {
                 // predecessor
-                try {
-                    IteratorTripleString iterator = hdtDataSet.search("", "",
-                            nextElementPredecessor);
-                    HashSet<TripleString> candidates = new HashSet<>();
-
-                    TripleString ts;
-                    while (iterator.hasNext()) {
-                        ts = iterator.next();
-                        candidates.add(ts);
-                    }
-
-                    if (candidates.size() > 0) {
-                        TripleString drawnTriple = Util.randomDrawFromSet(candidates);
-
-                        // add walks from the front (walk started before entity)
-                        result.addFirst(drawnTriple.getPredicate().toString());
-                        result.addFirst(drawnTriple.getSubject().toString());
-                        nextElementPredecessor = drawnTriple.getSubject().toString();
-                    }
-
-                } catch (NotFoundException e) {
-                    LOGGER.error("Search exception while trying to find a predecessor.", e);
+                if (index.drawInEdge(nextElementPredecessor, edge)) {
+                    // add walks from the front (walk started before entity)
+                    result.addFirst(index.getPredicate(edge[0]));
+                    result.addFirst(index.getSubject(edge[1]));
+                    nextElementPredecessor = index.subjectToObjectId(edge[1]);
                 }
             } else {
                 // successor
-                try {
-                    IteratorTripleString iterator = hdtDataSet.search(nextElementSuccessor, "", "");
-                    HashSet<TripleString> candidates = new HashSet<>();
-
-                    TripleString ts;
-                    CharSequence objectCharSequence;
-                    while (iterator.hasNext()) {
-                        ts = iterator.next();
-                        objectCharSequence = ts.getObject();
-                        if (objectCharSequence.charAt(0) == '"') {
-                            continue;
-                        }
-                        candidates.add(ts);
-                    }
-                    if (candidates.size() > 0) {
-                        TripleString stringToAdd = Util.randomDrawFromSet(candidates);
-
-                        // add next walk iteration
-                        result.addLast(stringToAdd.getPredicate().toString());
-                        result.addLast(stringToAdd.getObject().toString());
-                        nextElementSuccessor = stringToAdd.getObject().toString();
-                    }
-                } catch (NotFoundException e) {
-                    LOGGER.error("Search exception while trying to find a successor.", e);
+                if (index.drawOutEdge(nextElementSuccessor, true, edge)) {
+                    // add next walk iteration
+                    result.addLast(index.getPredicate(edge[0]));
+                    result.addLast(index.getObject(edge[1]));
+                    nextElementSuccessor = index.objectToSubjectId(edge[1]);
                 }
             }
         }
@@ -248,8 +261,10 @@ IMidWalkWeightedCapability {
     public List<String> generateWeightedMidWalkForEntity(String entity, int depth) {
         LinkedList<String> result = new LinkedList<>();
 
-        String nextElementPredecessor = entity;
-        String nextElementSuccessor = entity;
+        // the first node as object (to find predecessors) and the last node as subject (to find successors)
+        long nextElementPredecessor = index.getObjectId(entity);
+        long nextElementSuccessor = index.getSubjectId(entity);
+        long[] edge = new long[2];
 
         // initialize result
         result.add(entity);
@@ -263,46 +278,8 @@ IMidWalkWeightedCapability {
             // randomly decide whether to use predecessors or successors
             double randomPickZeroOne = ThreadLocalRandom.current().nextDouble(0.0, 1.00000001);
 
-            // predecessor candidates
-            Set<TripleString> candidatesPredecessor = new HashSet<>();
-            try {
-                IteratorTripleString iterator = hdtDataSet.search("", "",
-                        nextElementPredecessor);
-                while (iterator.hasNext()){
-                    TripleString ts = iterator.next();
-                    CharSequence objectCharSequence = ts.getObject();
-                    if (objectCharSequence.charAt(0) == '"') {
-                        continue;
-                    }
-                    candidatesPredecessor.add(ts);
-                }
-            } catch (NotFoundException e) {
-                e.printStackTrace();
-            }
-
-
-            // successor candidates
-            Set<TripleString> candidatesSuccessor = new HashSet<>();
-            try {
-                IteratorTripleString iterator = hdtDataSet.search(nextElementSuccessor, "", "");
-                while (iterator.hasNext()){
-                    TripleString ts = iterator.next();
-                    CharSequence objectCharSequence = ts.getObject();
-                    if (objectCharSequence.charAt(0) == '"') {
-                        continue;
-                    }
-                    candidatesSuccessor.add(ts);
-                }
-            } catch (NotFoundException e) {
-                e.printStackTrace();
-            }
-
-
-            double numberOfPredecessors = 0.0;
-            double numberOfSuccessors = 0.0;
-
-            if (candidatesPredecessor != null) numberOfPredecessors = candidatesPredecessor.size();
-            if (candidatesSuccessor != null) numberOfSuccessors = candidatesSuccessor.size();
+            double numberOfPredecessors = index.getInDegree(nextElementPredecessor);
+            double numberOfSuccessors = index.getOutDegree(nextElementSuccessor, true);
 
             // if there are no successors and predecessors: return current walk
             if (numberOfPredecessors == 0 && numberOfSuccessors == 0) return result;
@@ -312,26 +289,208 @@ IMidWalkWeightedCapability {
 
             if (randomPickZeroOne <= cutOffPoint) {
                 // predecessor
-                if (candidatesPredecessor != null && candidatesPredecessor.size() > 0) {
-                    TripleString drawnTriple = Util.randomDrawFromSet(candidatesPredecessor);
-
+                if (index.drawInEdge(nextElementPredecessor, edge)) {
                     // add walks from the front (walk started before entity)
-                    result.addFirst(drawnTriple.getPredicate().toString());
-                    result.addFirst(drawnTriple.getSubject().toString());
-                    nextElementPredecessor = drawnTriple.getSubject().toString();
+                    result.addFirst(index.getPredicate(edge[0]));
+                    result.addFirst(index.getSubject(edge[1]));
+                    nextElementPredecessor = index.subjectToObjectId(edge[1]);
                 }
             } else {
                 // successor
-                if (candidatesSuccessor != null && candidatesSuccessor.size() > 0) {
-                    TripleString drawnTriple = Util.randomDrawFromSet(candidatesSuccessor);
-
+                if (index.drawOutEdge(nextElementSuccessor, true, edge)) {
                     // add next walk iteration
-                    result.addLast(drawnTriple.getPredicate().toString());
-                    result.addLast(drawnTriple.getObject().toString());
-                    nextElementSuccessor = drawnTriple.getObject().toString();
+                    result.addLast(index.getPredicate(edge[0]));
+                    result.addLast(index.getObject(edge[1]));
+                    nextElementSuccessor = index.objectToSubjectId(edge[1]);
                 }
             }
         }
         return result;
     }
+
+    /**
+     * Duplicate free random walks in breadth-first manner: In each iteration, every walk is extended by all out-edges
+     * of its last node; afterwards, {@code numberOfWalks} walks are kept at random. Walks whose last node has no
+     * out-edges are kept as they are.
+     * <p>
+     * The walks are held as dictionary IDs and the expansion is never materialized: The number of candidates per walk
+     * is obtained from the out-degree, the surviving candidates are sampled by index, and only those edges are
+     * accessed by position. Strings are decoded once at the end.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks The maximal number of walks.
+     * @param depth         The depth of each walk.
+     * @return List where every item is a walk separated by spaces.
+     */
+    @Override
+    public List<String> generateDuplicateFreeRandomWalksForEntity(String entity, int numberOfWalks, int depth) {
+        List<String> result = new ArrayList<>();
+        for (List<IdEdge> walk : generateDuplicateFreeRandomWalksAsIds(entity, numberOfWalks, depth)) {
+            StringBuilder builder = new StringBuilder(entity);
+            for (IdEdge edge : walk) {
+                builder.append(" ").append(index.getPredicate(edge.predicate)).append(" ")
+                        .append(index.getObject(edge.object));
+            }
+            result.add(builder.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Node walks are sampled like duplicate free random walks
+     * ({@link HdtWalkGenerator#generateDuplicateFreeRandomWalksForEntity(String, int, int)}) but the predicates are
+     * never decoded. Walks that visit the same nodes via different predicates are merged.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks The maximal number of walks.
+     * @param depth         The depth of each walk.
+     * @return List where every item is a walk of nodes separated by spaces.
+     */
+    @Override
+    public List<String> generateNodeWalksForEntity(String entity, int numberOfWalks, int depth) {
+        Set<String> result = new HashSet<>();
+        for (List<IdEdge> walk : generateDuplicateFreeRandomWalksAsIds(entity, numberOfWalks, depth)) {
+            StringBuilder builder = new StringBuilder(entity);
+            for (IdEdge edge : walk) {
+                builder.append(" ").append(index.getObject(edge.object));
+            }
+            result.add(builder.toString());
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Duplicate free random walks as dictionary IDs.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks The maximal number of walks.
+     * @param depth         The depth of each walk.
+     * @return Walks as lists of edges. Empty if the entity has no successors.
+     */
+    private List<List<IdEdge>> generateDuplicateFreeRandomWalksAsIds(String entity, int numberOfWalks, int depth) {
+        return DuplicateFreeWalkSampler.generateWalks(getOutEdges(index.getSubjectId(entity)), numberOfWalks, depth,
+                edge -> getOutEdges(index.objectToSubjectId(edge.object)));
+    }
+
+    /**
+     * Out-edges of a subject as candidates of the {@link DuplicateFreeWalkSampler}. The selected edges are accessed by
+     * position; no other edge is materialized.
+     *
+     * @param subjectId The subject ID.
+     * @return Candidates or null if the subject has no out-edges.
+     */
+    private DuplicateFreeWalkSampler.Candidates<IdEdge> getOutEdges(long subjectId) {
+        long degree = index.getOutDegree(subjectId, true);
+        if (degree == 0) return null;
+        return new DuplicateFreeWalkSampler.Candidates<IdEdge>() {
+            @Override
+            public long size() {
+                return degree;
+            }
+
+            @Override
+            public void forEach(long[] selected, int from, int to, long offset, Consumer<? super IdEdge> consumer) {
+                long[] edge = new long[2];
+                for (int k = from; k < to; k++) {
+                    if (index.getOutEdge(subjectId, selected[k] - offset, true, edge)) {
+                        consumer.accept(new IdEdge(edge[0], edge[1]));
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * An edge given by dictionary IDs.
+     */
+    private static class IdEdge {
+
+
+        private final long predicate;
+
+        private final long object;
+
+        IdEdge(long predicate, long object) {
+            this.predicate = predicate;
+            this.object = object;
+        }
+    }
+
+    @Override
+    public List<String> generateMidEdgeWalksForEntityDuplicateFree(String entity, int numberOfWalks, int depth) {
+        return MemoryWalkGenerator.toEdgeWalks(entity, generateMidWalkForEntityAsArray(entity, depth, numberOfWalks));
+    }
+
+    @Override
+    public List<String> generateMidTypeWalksForEntityDuplicateFree(String entity, int numberOfWalks, int depth) {
+        long[] typePropertyIds = getTypePropertyIds();
+        return MemoryWalkGenerator.toTypeWalks(entity, generateMidWalkForEntityAsArray(entity, depth, numberOfWalks),
+                node -> getRandomSupertypeOfEntity(node, typePropertyIds));
+    }
+
+    /**
+     * Draw a random supertype. Note that the predicates of {@link HdtWalkGenerator#typeProperties} are used.
+     *
+     * @param entity The entity for which the type shall be obtained.
+     * @return Type. Null if there is no type.
+     */
+    public String getRandomSupertypeOfEntity(String entity) {
+        return getRandomSupertypeOfEntity(entity, getTypePropertyIds());
+    }
+
+    private String getRandomSupertypeOfEntity(String entity, long[] typePropertyIds) {
+        if (entity == null) {
+            return null;
+        }
+        long type = index.drawObjectWithPredicates(index.getSubjectId(entity), typePropertyIds);
+        return type == 0 ? null : index.getObject(type);
+    }
+
+    /**
+     * Resolve the type properties to predicate IDs. Properties that do not appear in the data set are dropped.
+     *
+     * @return Array of predicate IDs.
+     */
+    private long[] getTypePropertyIds() {
+        return typeProperties.stream().mapToLong(index::getPredicateId).filter(id -> id > 0).toArray();
+    }
+
+    /**
+     * The out-degree is obtained from the positions of the out-edges in the bitmap triples (see
+     * {@link HdtAdjacencyIndex#getOutDegree(long, boolean)}).
+     *
+     * @param node The (shortened) node URI.
+     * @return The number of out-edges to non-literals; 0 if the node is unknown.
+     */
+    @Override
+    public int getOutDegree(String node) {
+        return (int) Math.min(Integer.MAX_VALUE, index.getOutDegree(index.getSubjectId(node), true));
+    }
+
+    /**
+     * The in-degree is obtained from the object index (see {@link HdtAdjacencyIndex#getInDegree(long)}).
+     *
+     * @param node The (shortened) node URI.
+     * @return The number of in-edges; 0 if the node is unknown.
+     */
+    @Override
+    public int getInDegree(String node) {
+        return (int) Math.min(Integer.MAX_VALUE, index.getInDegree(index.getObjectId(node)));
+    }
+
+    @Override
+    public Set<String> getTypeProperties() {
+        return typeProperties;
+    }
+
+    /**
+     * Releases the {@link HdtHandle} (if the data set was opened through one). A data set that was passed directly is
+     * not closed.
+     */
+    @Override
+    public void close() {
+        if (hdtHandle != null) {
+            hdtHandle.close();
+        }
+    }
 }
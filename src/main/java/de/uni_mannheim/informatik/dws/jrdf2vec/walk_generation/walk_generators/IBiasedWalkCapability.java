@@ -0,0 +1,44 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.EdgeWeightStrategy;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IEdgeWeightStrategy;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IEdgeWeightStrategyFactory;
+
+import java.util.List;
+
+/**
+ * Walk generators with this capability generate biased walks: edges are followed proportionally to the weight
+ * assigned by an {@link IEdgeWeightStrategy}. New biased walk flavours only require a new strategy.
+ */
+public interface IBiasedWalkCapability extends IWalkGenerationCapability {
+
+
+    /**
+     * Biased mid walks: the direction and the edge of each step are drawn proportionally to the edge weights.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks Number of walks to be performed per entity.
+     * @param depth         The depth of the walk. Depth is defined as hop to the next node. A walk of depth 1 will
+     *                      have three walk components.
+     * @return List of walks.
+     */
+    List<String> generateBiasedMidWalksForEntity(String entity, int numberOfWalks, int depth);
+
+    /**
+     * Biased random walks in forward direction: the edge of each step is drawn proportionally to the edge weights.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks Number of walks to be performed per entity.
+     * @param depth         The depth of the walk. Depth is defined as hop to the next node. A walk of depth 1 will
+     *                      have three walk components.
+     * @return List of walks.
+     */
+    List<String> generateBiasedRandomWalksForEntity(String entity, int numberOfWalks, int depth);
+
+    /**
+     * Set the edge weight strategy of the biased walks.
+     *
+     * @param edgeWeightStrategy The factory of the strategy (e.g. an {@link EdgeWeightStrategy}).
+     */
+    void setEdgeWeightStrategy(IEdgeWeightStrategyFactory edgeWeightStrategy);
+}
@@ -0,0 +1,29 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import java.util.List;
+
+/**
+ * Walk generators with this capability generate second-order (node2vec) walks: the next edge depends on the current
+ * and on the previous node (see {@link Node2VecParameters}).
+ */
+public interface INode2VecWalkCapability extends IWalkGenerationCapability {
+
+
+    /**
+     * Node2vec walks in forward direction.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks Number of walks to be performed per entity.
+     * @param depth         The depth of the walk. Depth is defined as hop to the next node. A walk of depth 1 will
+     *                      have three walk components.
+     * @return List of walks.
+     */
+    List<String> generateNode2VecWalksForEntity(String entity, int numberOfWalks, int depth);
+
+    /**
+     * Set the return and in-out parameters of the node2vec walks.
+     *
+     * @param parameters The parameters.
+     */
+    void setNode2VecParameters(Node2VecParameters parameters);
+}
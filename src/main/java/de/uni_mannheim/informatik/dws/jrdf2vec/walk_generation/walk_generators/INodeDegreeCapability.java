@@ -0,0 +1,38 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+/**
+ * Walk generators with this capability can cheaply report the degree of a node. The degree is used to estimate the
+ * cost of the walk generation for an entity (see
+ * {@link de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.EntityWalkScheduler}).
+ */
+public interface INodeDegreeCapability {
+
+
+    /**
+     * Obtain the number of outgoing (object) edges of the given node.
+     *
+     * @param node The (shortened) node URI.
+     * @return The out-degree; 0 if the node is unknown.
+     */
+    int getOutDegree(String node);
+
+    /**
+     * Obtain the number of incoming (object) edges of the given node. Like the out-degree, it is only requested within
+     * the walk threads if {@link INodeDegreeCapability#isConstantTimeOutDegree()} is false.
+     *
+     * @param node The (shortened) node URI.
+     * @return The in-degree; 0 if the node is unknown.
+     */
+    int getInDegree(String node);
+
+    /**
+     * Indicates whether {@link INodeDegreeCapability#getOutDegree(String)} is a constant-time lookup in memory. If it
+     * is not (e.g. if the neighbours have to be read from disk), the degree is only requested within the walk threads
+     * and never by the thread which streams the entities.
+     *
+     * @return True if the degree is a constant-time lookup.
+     */
+    default boolean isConstantTimeOutDegree() {
+        return true;
+    }
+}
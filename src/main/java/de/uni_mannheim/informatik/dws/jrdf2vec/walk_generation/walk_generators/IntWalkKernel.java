@@ -0,0 +1,429 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.CsrAdjacencyIndex;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.CsrAliasTables;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IUriDictionary;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.WalkHashSet;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Walk generation kernel which operates solely on the int IDs of a {@link CsrAdjacencyIndex}.
+ * <p>
+ * A walk is written into a reusable {@code int[]} buffer as alternating node and predicate IDs
+ * ({@code node predicate node predicate node ...}), i.e. tokens at an even distance from the start of the walk are
+ * node IDs and tokens at an odd distance are predicate IDs. No objects are allocated while a walk is generated;
+ * strings are only materialized when the walk is handed over to the output via
+ * {@link IntWalkKernel#getWalkAsString(IUriDictionary, IUriDictionary)}.
+ * <p>
+ * Instances are not thread-safe. Use one instance per thread (see {@link IntWalkKernel#get()}).
+ */
+public class IntWalkKernel {
+
+
+    /**
+     * One kernel per thread.
+     */
+    private static final ThreadLocal<IntWalkKernel> KERNELS = ThreadLocal.withInitial(IntWalkKernel::new);
+
+    /**
+     * The token buffer.
+     */
+    private int[] buffer = new int[64];
+
+    /**
+     * Position of the first token of the current walk in {@link IntWalkKernel#buffer} (inclusive).
+     */
+    private int start = 0;
+
+    /**
+     * Position of the last token of the current walk in {@link IntWalkKernel#buffer} (exclusive).
+     */
+    private int end = 0;
+
+    /**
+     * Reusable builder for the materialization of walks.
+     */
+    private final StringBuilder builder = new StringBuilder(256);
+
+    /**
+     * Walks of the current entity that were accepted by a duplicate-free generation.
+     */
+    private final WalkHashSet uniqueWalks = new WalkHashSet();
+
+    /**
+     * Tokens of the unique walks; walk i is located at
+     * {@code [uniqueWalkOffsets[i], uniqueWalkOffsets[i + 1])}.
+     */
+    private int[] uniqueWalkTokens = new int[256];
+
+    private int[] uniqueWalkOffsets = new int[16];
+
+    private int numberOfUniqueWalks = 0;
+
+    /**
+     * {@link IntWalkKernel#isCurrentWalk(int)} as predicate; created once so that the duplicate check does not
+     * allocate.
+     */
+    private final IntPredicate isCurrentWalkPredicate;
+
+    /**
+     * Constructor. Use {@link IntWalkKernel#get()} to obtain the kernel of the current thread.
+     */
+    public IntWalkKernel() {
+        isCurrentWalkPredicate = this::isCurrentWalk;
+    }
+
+    /**
+     * Obtain the kernel of the current thread.
+     *
+     * @return Thread-local kernel instance.
+     */
+    public static IntWalkKernel get() {
+        return KERNELS.get();
+    }
+
+    /**
+     * Generates a mid walk, i.e. a walk where the entity can appear anywhere in the walk. In every step, it is randomly
+     * decided whether the walk is extended at its start (predecessor) or at its end (successor).
+     *
+     * @param index      The adjacency index.
+     * @param entity     The node ID of the entity.
+     * @param depth      The depth of the walk. A walk of depth 1 will have three walk components.
+     * @param isWeighted If true, the direction is chosen with the probability given by the number of predecessors and
+     *                   successors. If false, both directions are equally likely.
+     * @return The number of tokens of the walk. 1 if the walk consists of the entity only.
+     */
+    public int generateMidWalk(CsrAdjacencyIndex index, int entity, int depth, boolean isWeighted) {
+        ensureCapacity(4 * depth + 1);
+        start = 2 * depth;
+        end = start + 1;
+        buffer[start] = entity;
+        int nextElementPredecessor = entity;
+        int nextElementSuccessor = entity;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
+            int inDegree = index.getInDegree(nextElementPredecessor);
+            int outDegree = index.getOutDegree(nextElementSuccessor);
+            boolean isPredecessor;
+            if (isWeighted) {
+                if (inDegree == 0 && outDegree == 0) break;
+                double cutOffPoint = (double) inDegree / (inDegree + outDegree);
+                isPredecessor = random.nextDouble(0.0, 1.00000001) <= cutOffPoint;
+            } else {
+                isPredecessor = random.nextInt(2) == 0;
+            }
+
+            if (isPredecessor) {
+                if (inDegree > 0) {
+                    int i = random.nextInt(inDegree);
+                    // add walks from the front (walk started before entity)
+                    buffer[--start] = index.getInPredicate(nextElementPredecessor, i);
+                    nextElementPredecessor = index.getInNeighbour(nextElementPredecessor, i);
+                    buffer[--start] = nextElementPredecessor;
+                }
+            } else if (outDegree > 0) {
+                int i = random.nextInt(outDegree);
+                buffer[end++] = index.getOutPredicate(nextElementSuccessor, i);
+                nextElementSuccessor = index.getOutNeighbour(nextElementSuccessor, i);
+                buffer[end++] = nextElementSuccessor;
+            }
+        }
+        return end - start;
+    }
+
+    /**
+     * Generates a random walk which starts at the given entity and follows outgoing edges only.
+     *
+     * @param index  The adjacency index.
+     * @param entity The node ID of the entity.
+     * @param depth  The depth of the walk. A walk of depth 1 will have three walk components.
+     * @return The number of tokens of the walk. 1 if the entity has no outgoing edges.
+     */
+    public int generateRandomWalk(CsrAdjacencyIndex index, int entity, int depth) {
+        ensureCapacity(2 * depth + 1);
+        start = 0;
+        end = 1;
+        buffer[0] = entity;
+        int current = entity;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
+            int outDegree = index.getOutDegree(current);
+            if (outDegree == 0) break;
+            int i = random.nextInt(outDegree);
+            buffer[end++] = index.getOutPredicate(current, i);
+            current = index.getOutNeighbour(current, i);
+            buffer[end++] = current;
+        }
+        return end - start;
+    }
+
+    /**
+     * Generates a biased mid walk. The direction is drawn proportionally to the total weight of the in-edges of the
+     * first node and the out-edges of the last node of the walk; the edge is drawn proportionally to its weight using
+     * the given alias tables. Hence, every step is O(1) regardless of the edge weight strategy.
+     *
+     * @param tables The alias tables of the adjacency index.
+     * @param entity The node ID of the entity.
+     * @param depth  The depth of the walk. A walk of depth 1 will have three walk components.
+     * @return The number of tokens of the walk. 1 if the walk consists of the entity only.
+     */
+    public int generateBiasedMidWalk(CsrAliasTables tables, int entity, int depth) {
+        CsrAdjacencyIndex index = tables.getIndex();
+        ensureCapacity(4 * depth + 1);
+        start = 2 * depth;
+        end = start + 1;
+        buffer[start] = entity;
+        int nextElementPredecessor = entity;
+        int nextElementSuccessor = entity;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
+            double inWeight = tables.getInWeight(nextElementPredecessor);
+            double outWeight = tables.getOutWeight(nextElementSuccessor);
+            if (inWeight <= 0 && outWeight <= 0) break;
+
+            if (random.nextDouble() * (inWeight + outWeight) < inWeight) {
+                int i = tables.drawInEdge(nextElementPredecessor, random);
+                // add walks from the front (walk started before entity)
+                buffer[--start] = index.getInPredicate(nextElementPredecessor, i);
+                nextElementPredecessor = index.getInNeighbour(nextElementPredecessor, i);
+                buffer[--start] = nextElementPredecessor;
+            } else {
+                int i = tables.drawOutEdge(nextElementSuccessor, random);
+                buffer[end++] = index.getOutPredicate(nextElementSuccessor, i);
+                nextElementSuccessor = index.getOutNeighbour(nextElementSuccessor, i);
+                buffer[end++] = nextElementSuccessor;
+            }
+        }
+        return end - start;
+    }
+
+    /**
+     * Generates a biased random walk which starts at the given entity and follows outgoing edges only. Each edge is
+     * drawn proportionally to its weight using the given alias tables.
+     *
+     * @param tables The alias tables of the adjacency index.
+     * @param entity The node ID of the entity.
+     * @param depth  The depth of the walk. A walk of depth 1 will have three walk components.
+     * @return The number of tokens of the walk. 1 if the entity has no outgoing edges.
+     */
+    public int generateBiasedRandomWalk(CsrAliasTables tables, int entity, int depth) {
+        CsrAdjacencyIndex index = tables.getIndex();
+        ensureCapacity(2 * depth + 1);
+        start = 0;
+        end = 1;
+        buffer[0] = entity;
+        int current = entity;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
+            int i = tables.drawOutEdge(current, random);
+            if (i < 0) break;
+            buffer[end++] = index.getOutPredicate(current, i);
+            current = index.getOutNeighbour(current, i);
+            buffer[end++] = current;
+        }
+        return end - start;
+    }
+
+    /**
+     * Generates a second-order (node2vec) random walk which starts at the given entity and follows outgoing edges only
+     * (see {@link Node2VecParameters} for the transition weights). The first step is uniform.
+     * <p>
+     * The next edge is drawn by rejection sampling on the adjacency index: an out-edge is drawn uniformly and accepted
+     * with probability {@code weight / bound}, where {@code bound} is the maximal weight of the current step. No
+     * transition tables are materialized, i.e., no memory beyond the index is required. The return weight only
+     * contributes to the bound if the previous node is a successor of the current node. Candidates whose random draw
+     * is below the smaller of {@code 1} and {@code 1/q} are accepted without checking the edge between the previous
+     * node and the candidate; otherwise, the check scans the edges of one of both nodes. The expected number of
+     * trials per step is at most {@code max(1/p, 1, 1/q) / min(1/p, 1, 1/q)}.
+     *
+     * @param index      The adjacency index.
+     * @param entity     The node ID of the entity.
+     * @param depth      The depth of the walk. A walk of depth 1 will have three walk components.
+     * @param parameters The return and in-out parameters.
+     * @return The number of tokens of the walk. 1 if the entity has no outgoing edges.
+     */
+    public int generateNode2VecWalk(CsrAdjacencyIndex index, int entity, int depth, Node2VecParameters parameters) {
+        double returnWeight = 1.0 / parameters.getReturnParameter();
+        double inOutWeight = 1.0 / parameters.getInOutParameter();
+        double minimalWeight = Math.min(1.0, inOutWeight);
+        double maximalWeight = Math.max(1.0, inOutWeight);
+
+        ensureCapacity(2 * depth + 1);
+        start = 0;
+        end = 1;
+        buffer[0] = entity;
+        int previous = -1;
+        int current = entity;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
+            int outDegree = index.getOutDegree(current);
+            if (outDegree == 0) break;
+            int i;
+            if (previous < 0) {
+                i = random.nextInt(outDegree);
+            } else {
+                double bound = maximalWeight;
+                if (returnWeight > bound && index.hasEdge(current, previous)) {
+                    bound = returnWeight;
+                }
+                while (true) {
+                    i = random.nextInt(outDegree);
+                    int candidate = index.getOutNeighbour(current, i);
+                    double draw = random.nextDouble() * bound;
+                    double weight;
+                    if (candidate == previous) {
+                        weight = returnWeight;
+                    } else if (draw < minimalWeight) {
+                        break;
+                    } else {
+                        weight = index.hasEdge(previous, candidate) || index.hasEdge(candidate, previous) ?
+                                1.0 : inOutWeight;
+                    }
+                    if (draw < weight) break;
+                }
+            }
+            buffer[end++] = index.getOutPredicate(current, i);
+            previous = current;
+            current = index.getOutNeighbour(current, i);
+            buffer[end++] = current;
+        }
+        return end - start;
+    }
+
+    /**
+     * Returns the number of tokens of the current walk.
+     *
+     * @return Walk length in tokens.
+     */
+    public int getWalkLength() {
+        return end - start;
+    }
+
+    /**
+     * Returns the i-th token ID of the current walk. Tokens at even positions are node IDs, tokens at odd positions
+     * are predicate IDs.
+     *
+     * @param i Position in the walk.
+     * @return Token ID.
+     */
+    public int getToken(int i) {
+        return buffer[start + i];
+    }
+
+    /**
+     * Materialize the current walk as space-separated string.
+     *
+     * @param nodes      The node dictionary.
+     * @param predicates The predicate dictionary.
+     * @return The walk.
+     */
+    public String getWalkAsString(IUriDictionary nodes, IUriDictionary predicates) {
+        builder.setLength(0);
+        builder.append(nodes.getString(buffer[start]));
+        for (int i = start + 1; i < end; i += 2) {
+            builder.append(' ').append(predicates.getString(buffer[i]))
+                    .append(' ').append(nodes.getString(buffer[i + 1]));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Materialize the current walk as list of walk components.
+     *
+     * @param nodes      The node dictionary.
+     * @param predicates The predicate dictionary.
+     * @return The walk.
+     */
+    public LinkedList<String> getWalkAsList(IUriDictionary nodes, IUriDictionary predicates) {
+        LinkedList<String> result = new LinkedList<>();
+        result.add(nodes.getString(buffer[start]));
+        for (int i = start + 1; i < end; i += 2) {
+            result.add(predicates.getString(buffer[i]));
+            result.add(nodes.getString(buffer[i + 1]));
+        }
+        return result;
+    }
+
+    /**
+     * Generates mid walks and appends their string representation to the given list.
+     * Walks of length 1, i.e., walks that contain only one node, are ignored.
+     *
+     * @param index           The adjacency index.
+     * @param nodes           The node dictionary.
+     * @param predicates      The predicate dictionary.
+     * @param entity          The entity.
+     * @param numberOfWalks   The number of walks to be performed.
+     * @param depth           The depth of each walk.
+     * @param isWeighted      See {@link IntWalkKernel#generateMidWalk(CsrAdjacencyIndex, int, int, boolean)}.
+     * @param isDuplicateFree If true, duplicates are removed on the token IDs before the walks are materialized.
+     * @param result          The list to which the walks are added.
+     */
+    void addMidWalks(CsrAdjacencyIndex index, IUriDictionary nodes, IUriDictionary predicates, String entity,
+                     int numberOfWalks, int depth, boolean isWeighted, boolean isDuplicateFree,
+                     List<String> result) {
+        int entityId = nodes.getId(entity);
+        if (entityId < 0) return;
+        if (isDuplicateFree) {
+            uniqueWalks.clear(numberOfWalks);
+            numberOfUniqueWalks = 0;
+        }
+        for (int i = 0; i < numberOfWalks; i++) {
+            if (generateMidWalk(index, entityId, depth, isWeighted) > 1
+                    && (!isDuplicateFree || addToUniqueWalks())) {
+                result.add(getWalkAsString(nodes, predicates));
+            }
+        }
+    }
+
+    /**
+     * Adds the current walk to {@link IntWalkKernel#uniqueWalks}; its tokens are copied to
+     * {@link IntWalkKernel#uniqueWalkTokens}.
+     *
+     * @return False if the current walk was added before.
+     */
+    private boolean addToUniqueWalks() {
+        int length = end - start;
+        if (!uniqueWalks.add(WalkHashSet.hash(buffer, start, end), numberOfUniqueWalks, isCurrentWalkPredicate)) {
+            return false;
+        }
+        if (uniqueWalkOffsets.length < numberOfUniqueWalks + 2) {
+            uniqueWalkOffsets = Arrays.copyOf(uniqueWalkOffsets, uniqueWalkOffsets.length * 2);
+        }
+        int offset = uniqueWalkOffsets[numberOfUniqueWalks];
+        if (uniqueWalkTokens.length < offset + length) {
+            uniqueWalkTokens = Arrays.copyOf(uniqueWalkTokens, Math.max(offset + length, uniqueWalkTokens.length * 2));
+        }
+        System.arraycopy(buffer, start, uniqueWalkTokens, offset, length);
+        uniqueWalkOffsets[++numberOfUniqueWalks] = offset + length;
+        return true;
+    }
+
+    /**
+     * Checks whether the given unique walk equals the current walk.
+     *
+     * @param walkNumber The number of the unique walk.
+     * @return True if the token sequences are equal.
+     */
+    private boolean isCurrentWalk(int walkNumber) {
+        int from = uniqueWalkOffsets[walkNumber];
+        int to = uniqueWalkOffsets[walkNumber + 1];
+        if (to - from != end - start) return false;
+        for (int i = 0; i < to - from; i++) {
+            if (uniqueWalkTokens[from + i] != buffer[start + i]) return false;
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int size) {
+        if (buffer.length < size) {
+            buffer = new int[Math.max(size, buffer.length * 2)];
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
 
 import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.CsrAdjacencyIndex;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.CsrAliasTables;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.EdgeWeightStrategy;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IEdgeWeightStrategyFactory;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IEncodedGraph;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IUriDictionary;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IntTripleDataSetMemory;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TripleDataSetMemory;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TypeIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
@@ -18,7 +27,8 @@ import java.util.stream.Collectors;
 public abstract class MemoryWalkGenerator implements IWalkGenerator,
         IMidWalkCapability, IMidWalkDuplicateFreeCapability, IRandomWalkDuplicateFreeCapability,
         IMidWalkWeightedCapability, IMidEdgeWalkDuplicateFreeCapability, IRandomWalkCapability,
-        IMidTypeWalkDuplicateFreeCapability, INodeWalksDuplicateFreeCapability {
+        IMidTypeWalkDuplicateFreeCapability, INodeWalksDuplicateFreeCapability, INodeDegreeCapability,
+        IBiasedWalkCapability, INode2VecWalkCapability {
 
 
     /**
@@ -59,6 +69,46 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
 
     private static final String[] DEFAULT_TYPE_PROPERTIES = {"http://www.w3.org/1999/02/22-rdf-syntax-ns#type"};
 
+    /**
+     * Index of the types of all entities. It is built on the first type lookup and rebuilt if the data or the
+     * {@link MemoryWalkGenerator#typeProperties} change.
+     */
+    private volatile TypeIndex typeIndex;
+
+    /**
+     * The type properties, data set, and data set size for which {@link MemoryWalkGenerator#typeIndex} was built.
+     */
+    private Set<String> typeIndexProperties;
+
+    private TripleDataSetMemory typeIndexData;
+
+    private long typeIndexDataSize;
+
+    /**
+     * Edge weight strategy of the biased walks.
+     */
+    private IEdgeWeightStrategyFactory edgeWeightStrategy = EdgeWeightStrategy.DEFAULT_STRATEGY;
+
+    /**
+     * Alias tables of the biased walks. They are built on the first biased walk.
+     */
+    private volatile CsrAliasTables aliasTables;
+
+    /**
+     * The dictionary-encoded graph on which the biased and node2vec walks are performed. It is created on the first
+     * such walk.
+     */
+    private volatile IEncodedGraph encodedGraph;
+
+    private TripleDataSetMemory encodedGraphData;
+
+    private long encodedGraphDataSize;
+
+    /**
+     * Parameters of the node2vec walks.
+     */
+    private Node2VecParameters node2VecParameters = Node2VecParameters.DEFAULT_PARAMETERS;
+
     /**
      * Constructor
      */
@@ -77,6 +127,10 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
      */
     @Override
     public List<String> generateWeightedMidWalksForEntity(String entity, int numberOfWalks, int depth) {
+        if (data instanceof IEncodedGraph) {
+            return generateMidWalksForEntityKernel((IEncodedGraph) data, entity, numberOfWalks, depth,
+                    true, true);
+        }
         return Util.convertToStringWalksDuplicateFree(generateWeightedMidWalkForEntityAsArray(entity, numberOfWalks,
                 depth));
     }
@@ -108,6 +162,9 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
      * @return One walk as list where each element is a walk component.
      */
     public List<String> generateWeightedMidWalkForEntity(String entity, int depth) {
+        if (data instanceof IEncodedGraph) {
+            return generateMidWalkForEntityCsr((IEncodedGraph) data, entity, depth, true);
+        }
         LinkedList<String> result = new LinkedList<>();
 
         String nextElementPredecessor = entity;
@@ -125,17 +182,8 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
             // randomly decide whether to use predecessors or successors
             double randomPickZeroOne = ThreadLocalRandom.current().nextDouble(0.0, 1.00000001);
 
-            // predecessor candidates
-            List<Triple> candidatesPredecessor = data.getObjectTriplesInvolvingObject(nextElementPredecessor);
-
-            // successor candidates
-            List<Triple> candidatesSuccessor = data.getObjectTriplesInvolvingSubject(nextElementSuccessor);
-
-            double numberOfPredecessors = 0.0;
-            double numberOfSuccessors = 0.0;
-
-            if (candidatesPredecessor != null) numberOfPredecessors = candidatesPredecessor.size();
-            if (candidatesSuccessor != null) numberOfSuccessors = candidatesSuccessor.size();
+            double numberOfPredecessors = data.getInDegree(nextElementPredecessor);
+            double numberOfSuccessors = data.getOutDegree(nextElementSuccessor);
 
             // if there are no successors and predecessors: return current walk
             if (numberOfPredecessors == 0 && numberOfSuccessors == 0) return result;
@@ -145,9 +193,8 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
 
             if (randomPickZeroOne <= cutOffPoint) {
                 // predecessor
-                if (candidatesPredecessor != null && candidatesPredecessor.size() > 0) {
-                    Triple drawnTriple = randomDrawFromList(candidatesPredecessor);
-
+                Triple drawnTriple = data.drawObjectTripleInvolvingObject(nextElementPredecessor);
+                if (drawnTriple != null) {
                     // add walks from the front (walk started before entity)
                     result.addFirst(drawnTriple.predicate);
                     result.addFirst(drawnTriple.subject);
@@ -155,9 +202,8 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
                 }
             } else {
                 // successor
-                if (candidatesSuccessor != null && candidatesSuccessor.size() > 0) {
-                    Triple tripleToAdd = randomDrawFromList(candidatesSuccessor);
-
+                Triple tripleToAdd = data.drawObjectTripleInvolvingSubject(nextElementSuccessor);
+                if (tripleToAdd != null) {
                     // add next walk iteration
                     result.addLast(tripleToAdd.predicate);
                     result.addLast(tripleToAdd.object);
@@ -168,27 +214,95 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
         return result;
     }
 
+    /**
+     * Node walks are sampled like duplicate free random walks (see {@link DuplicateFreeWalkSampler}) but only the
+     * nodes are written. Walks that visit the same nodes via different predicates are merged. On dictionary-encoded
+     * data, the walks are sampled and merged on the node IDs of the {@link CsrAdjacencyIndex}.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks The maximal number of walks.
+     * @param depth         The depth of each walk.
+     * @return List where every item is a walk of nodes separated by spaces.
+     */
     @Override
     public List<String> generateNodeWalksForEntity(String entity, int numberOfWalks, int depth){
-        List<String> fullWalks = generateDuplicateFreeRandomWalksForEntity(entity, numberOfWalks, depth);
-        Set<String> finalWalks = new HashSet<>();
-        for (String walk : fullWalks){
-            String[] walkComponents = walk.split(" ");
-            StringBuilder sb = new StringBuilder();
-            boolean isFirst = true;
-            for(int i = 0; i < walkComponents.length; i++){
-                if(i % 2 == 0){
-                    if(isFirst) {
-                        sb.append(walkComponents[i]);
-                        isFirst = false;
-                    } else {
-                        sb.append(" ").append(walkComponents[i]);
-                    }
+        if (data instanceof IEncodedGraph) {
+            return generateNodeWalksForEntity((IEncodedGraph) data, entity, numberOfWalks, depth);
+        }
+        List<List<Triple>> walks = DuplicateFreeWalkSampler.generateWalks(entity, numberOfWalks, depth,
+                data::getObjectTriplesInvolvingSubject);
+        Set<String> result = new HashSet<>();
+        for (List<Triple> walk : walks) {
+            StringBuilder builder = new StringBuilder(entity);
+            for (Triple triple : walk) {
+                String object = triple.object;
+                if (isUnifyAnonymousNodes() && Util.isAnonymousNode(object)) {
+                    object = "ANode";
+                }
+                builder.append(" ").append(object);
+            }
+            result.add(builder.toString());
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Node walk generation on the {@link CsrAdjacencyIndex} of the given data set. Only the walks that remain after
+     * merging walks with equal node IDs are decoded.
+     *
+     * @param graph         The dictionary-encoded data set.
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks The maximal number of walks.
+     * @param depth         The depth of each walk.
+     * @return List where every item is a walk of nodes separated by spaces.
+     */
+    private List<String> generateNodeWalksForEntity(IEncodedGraph graph, String entity, int numberOfWalks,
+                                                    int depth) {
+        List<String> result = new ArrayList<>();
+        IUriDictionary nodes = graph.getNodeDictionary();
+        int entityId = nodes.getId(entity);
+        if (entityId < 0) return result;
+        CsrAdjacencyIndex index = graph.getAdjacencyIndex();
+        Set<List<Integer>> walks = new LinkedHashSet<>(DuplicateFreeWalkSampler.generateWalks(
+                getOutNeighbours(index, entityId), numberOfWalks, depth, node -> getOutNeighbours(index, node)));
+        for (List<Integer> walk : walks) {
+            StringBuilder builder = new StringBuilder(entity);
+            for (int node : walk) {
+                String object = nodes.getString(node);
+                if (isUnifyAnonymousNodes() && Util.isAnonymousNode(object)) {
+                    object = "ANode";
                 }
+                builder.append(" ").append(object);
             }
-            finalWalks.add(sb.toString());
+            result.add(builder.toString());
         }
-        return new ArrayList<>(finalWalks);
+        // different anonymous nodes may be written equally
+        return isUnifyAnonymousNodes() ? new ArrayList<>(new LinkedHashSet<>(result)) : result;
+    }
+
+    /**
+     * Out-neighbours of a node as candidates of the {@link DuplicateFreeWalkSampler}. Every out-edge is one candidate.
+     *
+     * @param index The adjacency index.
+     * @param node  The node ID.
+     * @return Candidates or null if the node has no out-edges.
+     */
+    private static DuplicateFreeWalkSampler.Candidates<Integer> getOutNeighbours(CsrAdjacencyIndex index, int node) {
+        int degree = index.getOutDegree(node);
+        if (degree == 0) return null;
+        return new DuplicateFreeWalkSampler.Candidates<Integer>() {
+            @Override
+            public long size() {
+                return degree;
+            }
+
+            @Override
+            public void forEach(long[] selected, int from, int to, long offset, Consumer<? super Integer> consumer) {
+                for (int k = from; k < to; k++) {
+                    consumer.accept(index.getOutNeighbour(node, (int) (selected[k] - offset)));
+                }
+            }
+        };
     }
 
     /**
@@ -201,6 +315,10 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
      */
     @Override
     public List<String> generateMidWalksForEntity(String entity, int numberOfWalks, int depth) {
+        if (data instanceof IEncodedGraph) {
+            return generateMidWalksForEntityKernel((IEncodedGraph) data, entity, numberOfWalks, depth,
+                    false, false);
+        }
         return Util.convertToStringWalks(generateMidWalkForEntityAsArray(entity, numberOfWalks, depth));
     }
 
@@ -233,6 +351,10 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
      */
     @Override
     public List<String> generateMidWalksForEntityDuplicateFree(String entity, int numberOfWalks, int depth) {
+        if (data instanceof IEncodedGraph) {
+            return generateMidWalksForEntityKernel((IEncodedGraph) data, entity, numberOfWalks, depth,
+                    false, true);
+        }
         return Util.convertToStringWalksDuplicateFree(generateMidWalkForEntityAsArray(entity, numberOfWalks, depth));
     }
 
@@ -246,7 +368,18 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
      */
     @Override
     public List<String> generateMidEdgeWalksForEntityDuplicateFree(String entity, int numberOfWalks, int depth) {
-        List<List<String>> walksWithNodes = generateMidWalkForEntityAsArray(entity, numberOfWalks, depth);
+        return toEdgeWalks(entity, generateMidWalkForEntityAsArray(entity, numberOfWalks, depth));
+    }
+
+    /**
+     * Removes the nodes from the given walks except for one randomly chosen appearance of the entity. Duplicates are
+     * removed.
+     *
+     * @param entity         The entity for which the walks were generated.
+     * @param walksWithNodes Walks with nodes and edges.
+     * @return Edge walks (space-separated).
+     */
+    static List<String> toEdgeWalks(String entity, List<List<String>> walksWithNodes) {
         List<List<String>> result = new ArrayList<>();
         for (List<String> walkWithNodes : walksWithNodes) {
 
@@ -315,6 +448,9 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
      * @return One walk as list where each element is a walk component.
      */
     public List<String> generateMidWalkForEntity(String entity, int depth) {
+        if (data instanceof IEncodedGraph) {
+            return generateMidWalkForEntityCsr((IEncodedGraph) data, entity, depth, false);
+        }
         LinkedList<String> result = new LinkedList<>();
 
         String nextElementPredecessor = entity;
@@ -334,11 +470,8 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
 
             if (randomPickZeroOne == 0) {
                 // predecessor
-                List<Triple> candidates = data.getObjectTriplesInvolvingObject(nextElementPredecessor);
-
-                if (candidates != null && candidates.size() > 0) {
-                    Triple drawnTriple = randomDrawFromList(candidates);
-
+                Triple drawnTriple = data.drawObjectTripleInvolvingObject(nextElementPredecessor);
+                if (drawnTriple != null) {
                     // add walks from the front (walk started before entity)
                     result.addFirst(drawnTriple.predicate);
                     result.addFirst(drawnTriple.subject);
@@ -346,10 +479,8 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
                 }
             } else {
                 // successor
-                List<Triple> candidates = data.getObjectTriplesInvolvingSubject(nextElementSuccessor);
-                if (candidates != null && candidates.size() > 0) {
-                    Triple tripleToAdd = randomDrawFromList(candidates);
-
+                Triple tripleToAdd = data.drawObjectTripleInvolvingSubject(nextElementSuccessor);
+                if (tripleToAdd != null) {
                     // add next walk iteration
                     result.addLast(tripleToAdd.predicate);
                     result.addLast(tripleToAdd.object);
@@ -360,6 +491,51 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
         return result;
     }
 
+    /**
+     * Generates mid walks with the {@link IntWalkKernel} of the current thread. Walks are only materialized as
+     * strings once they are added to the result list.
+     *
+     * @param graph           The dictionary-encoded graph.
+     * @param entity          The entity for which walks shall be generated.
+     * @param numberOfWalks   The number of walks to be performed.
+     * @param depth           The depth of each walk.
+     * @param isWeighted      True for weighted mid walks.
+     * @param isDuplicateFree True if duplicates shall be removed.
+     * @return List where every item is a walk separated by spaces.
+     */
+    List<String> generateMidWalksForEntityKernel(IEncodedGraph graph, String entity, int numberOfWalks,
+                                                 int depth, boolean isWeighted, boolean isDuplicateFree) {
+        List<String> walks = new ArrayList<>();
+        IntWalkKernel.get().addMidWalks(graph.getAdjacencyIndex(), graph.getNodeDictionary(),
+                graph.getPredicateDictionary(), entity, numberOfWalks, depth, isWeighted, isDuplicateFree, walks);
+        return walks;
+    }
+
+    /**
+     * Mid walk generation on the {@link CsrAdjacencyIndex} of the given data set using the {@link IntWalkKernel}.
+     *
+     * @param graph      The dictionary-encoded graph.
+     * @param entity     The entity for which a walk shall be generated.
+     * @param depth      The depth of the walk.
+     * @param isWeighted If true, the direction is chosen with the probability given by the number of predecessors
+     *                   and successors (see {@link MemoryWalkGenerator#generateWeightedMidWalkForEntity(String, int)}).
+     *                   If false, both directions are equally likely.
+     * @return One walk as list where each element is a walk component.
+     */
+    List<String> generateMidWalkForEntityCsr(IEncodedGraph graph, String entity, int depth,
+                                             boolean isWeighted) {
+        IUriDictionary nodes = graph.getNodeDictionary();
+        int entityId = nodes.getId(entity);
+        if (entityId < 0) {
+            LinkedList<String> result = new LinkedList<>();
+            result.add(entity);
+            return result;
+        }
+        IntWalkKernel kernel = IntWalkKernel.get();
+        kernel.generateMidWalk(graph.getAdjacencyIndex(), entityId, depth, isWeighted);
+        return kernel.getWalkAsList(nodes, graph.getPredicateDictionary());
+    }
+
     /**
      * Draw a random value from a List. This method is thread-safe.
      *
@@ -380,15 +556,7 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
      * @return Drawn value of type T.
      */
     public static<T> T randomDrawFromSet(Set<T> setToDrawFrom) {
-        int randomNumber = ThreadLocalRandom.current().nextInt(setToDrawFrom.size());
-        int i = 0;
-        for(T t : setToDrawFrom){
-            if(i == randomNumber){
-                return t;
-            }
-            i++;
-        }
-        return null;
+        return Util.randomDrawFromSet(setToDrawFrom);
     }
 
     /**
@@ -400,14 +568,7 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
     public Triple getRandomTripleForSubject(String subject) {
         if (subject == null) return null;
         subject = uriShortenerFunction.apply(removeTags(subject));
-        List<Triple> queryResult = data.getObjectTriplesInvolvingSubject(subject);
-        if (queryResult == null) {
-            // no triple found
-            return null;
-        }
-        int randomNumber = ThreadLocalRandom.current().nextInt(queryResult.size());
-        LOGGER.info("(" + Thread.currentThread().getName() + ") " + randomNumber);
-        return queryResult.get(randomNumber);
+        return data.drawObjectTripleInvolvingSubject(subject);
     }
 
     /**
@@ -457,7 +618,9 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
     }
 
     /**
-     * Generates duplicate-free walks for the given entity.
+     * Generates duplicate-free walks for the given entity (see {@link DuplicateFreeWalkSampler}). On
+     * dictionary-encoded data, the walks are sampled on the edges of the {@link CsrAdjacencyIndex} and only decoded
+     * once they are written.
      *
      * @param entity        The entity for which walks shall be generated.
      * @param numberOfWalks The number of walks to be generated.
@@ -466,55 +629,94 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
      * spaces.
      */
     public List<String> generateDuplicateFreeRandomWalksForEntity(String entity, int numberOfWalks, int depth) {
-        List<List<Triple>> walks = new ArrayList<>();
-        boolean isFirstIteration = true;
-        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
-            // initialize with first node
-            if (isFirstIteration) {
-                List<Triple> neighbours = data.getObjectTriplesInvolvingSubject(entity);
-                if (neighbours == null || neighbours.size() == 0) {
-                    return new ArrayList<>();
-                }
-                for (Triple neighbour : neighbours) {
-                    ArrayList<Triple> individualWalk = new ArrayList<>();
-                    individualWalk.add(neighbour);
-                    walks.add(individualWalk);
+        if (data instanceof IEncodedGraph) {
+            return generateDuplicateFreeRandomWalksForEntity((IEncodedGraph) data, entity, numberOfWalks, depth);
+        }
+        List<List<Triple>> walks = DuplicateFreeWalkSampler.generateWalks(entity, numberOfWalks, depth,
+                data::getObjectTriplesInvolvingSubject);
+        return Util.convertToStringWalks(walks, entity, isUnifyAnonymousNodes());
+    }
+
+    /**
+     * Duplicate-free random walk generation on the {@link CsrAdjacencyIndex} of the given data set. An edge is
+     * represented by its predicate ID (upper 32 bits) and its object ID (lower 32 bits).
+     *
+     * @param graph         The dictionary-encoded data set.
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks The number of walks to be generated.
+     * @param depth         The number of hops to nodes (!).
+     * @return List where every item is a walk separated by spaces.
+     */
+    private List<String> generateDuplicateFreeRandomWalksForEntity(IEncodedGraph graph, String entity,
+                                                                   int numberOfWalks, int depth) {
+        List<String> result = new ArrayList<>();
+        IUriDictionary nodes = graph.getNodeDictionary();
+        int entityId = nodes.getId(entity);
+        if (entityId < 0) return result;
+        IUriDictionary predicates = graph.getPredicateDictionary();
+        CsrAdjacencyIndex index = graph.getAdjacencyIndex();
+        List<List<Long>> walks = DuplicateFreeWalkSampler.generateWalks(getOutEdges(index, entityId), numberOfWalks,
+                depth, edge -> getOutEdges(index, (int) (long) edge));
+        for (List<Long> walk : walks) {
+            StringBuilder builder = new StringBuilder(entity);
+            for (long edge : walk) {
+                String object = nodes.getString((int) edge);
+                if (isUnifyAnonymousNodes() && Util.isAnonymousNode(object)) {
+                    object = "ANode";
                 }
-                isFirstIteration = false;
-            } else {
-                // create a copy
-                List<List<Triple>> walks_tmp = new ArrayList<>(walks);
-
-                // loop over current walks
-                for (List<Triple> walk : walks_tmp) {
-                    // get last entity
-                    Triple lastTriple = walk.get(walk.size() - 1);
-                    List<Triple> nextIteration = data.getObjectTriplesInvolvingSubject(lastTriple.object);
-                    if (nextIteration != null) {
-                        walks.remove(walk); // check whether this works
-                        for (Triple nextStep : nextIteration) {
-                            List<Triple> newWalk = new ArrayList<>(walk);
-                            newWalk.add(nextStep);
-                            walks.add(newWalk);
-                        }
-                    }
-                } // loop over walks
+                builder.append(" ").append(predicates.getString((int) (edge >>> 32)))
+                        .append(" ").append(object);
             }
+            result.add(builder.toString());
+        }
+        return result;
+    }
 
-            // trim the list
-            while (walks.size() > numberOfWalks) {
-                int randomNumber = ThreadLocalRandom.current().nextInt(walks.size());
-                walks.remove(randomNumber);
+    /**
+     * Out-edges of a node as candidates of the {@link DuplicateFreeWalkSampler}. Every edge is packed into a long
+     * (predicate ID in the upper, object ID in the lower 32 bits).
+     *
+     * @param index The adjacency index.
+     * @param node  The node ID.
+     * @return Candidates or null if the node has no out-edges.
+     */
+    private static DuplicateFreeWalkSampler.Candidates<Long> getOutEdges(CsrAdjacencyIndex index, int node) {
+        int degree = index.getOutDegree(node);
+        if (degree == 0) return null;
+        return new DuplicateFreeWalkSampler.Candidates<Long>() {
+            @Override
+            public long size() {
+                return degree;
             }
-        } // depth loop
 
-        // now we need to translate our walks into strings
-        return Util.convertToStringWalks(walks, entity, isUnifyAnonymousNodes());
+            @Override
+            public void forEach(long[] selected, int from, int to, long offset, Consumer<? super Long> consumer) {
+                for (int k = from; k < to; k++) {
+                    int i = (int) (selected[k] - offset);
+                    consumer.accept(((long) index.getOutPredicate(node, i) << 32)
+                            | (index.getOutNeighbour(node, i) & 0xffffffffL));
+                }
+            }
+        };
     }
 
     @Override
     public List<String> generateMidTypeWalksForEntityDuplicateFree(String entity, int numberOfWalks, int depth){
-        List<List<String>> walksWithNodes = generateMidWalkForEntityAsArray(entity, numberOfWalks, depth);
+        return toTypeWalks(entity, generateMidWalkForEntityAsArray(entity, numberOfWalks, depth),
+                getTypeIndex()::drawRandomType);
+    }
+
+    /**
+     * Replaces the nodes of the given walks by a random type except for one randomly chosen appearance of the entity.
+     * Nodes without type are removed. Duplicates are removed.
+     *
+     * @param entity         The entity for which the walks were generated.
+     * @param walksWithNodes Walks with nodes and edges.
+     * @param typeFunction   Function which returns a random type of a node (or null if there is none).
+     * @return Type walks (space-separated).
+     */
+    static List<String> toTypeWalks(String entity, List<List<String>> walksWithNodes,
+                                    UnaryOperator<String> typeFunction) {
         List<List<String>> result = new ArrayList<>();
         for (List<String> walkWithNodes : walksWithNodes) {
 
@@ -536,7 +738,7 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
                             currentNodeOfInterestPosition++;
                         } else {
                             // -> we will not add the node of interest this time but instead its supertype
-                            String type = getRandomSupertypeOfEntity(node);
+                            String type = typeFunction.apply(node);
                             if(type != null){
                                 walk.add(type);
                             }
@@ -544,7 +746,7 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
                         }
                     } else {
                         // we have a normal node that is not a node of interest
-                        String type = getRandomSupertypeOfEntity(node);
+                        String type = typeFunction.apply(node);
                         if(type != null){
                             walk.add(type);
                         }
@@ -568,25 +770,60 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
         if(entity == null){
             return null;
         }
-        Set<String> candidates = new HashSet<>();
-        for(String property : getTypeProperties()) {
-            Set<Triple> triples = this.getData().getObjectTriplesWithSubjectPredicate(entity, property);
-            if(triples != null && triples.size() > 0){
-                for(Triple triple : triples){
-                    candidates.add(triple.object);
+        return getTypeIndex().drawRandomType(entity);
+    }
+
+    /**
+     * Obtain the type index. It is built if required, i.e., if it does not exist yet or if the data or the type
+     * properties changed since it was built.
+     *
+     * @return The type index.
+     */
+    TypeIndex getTypeIndex() {
+        TypeIndex result = typeIndex;
+        if (result == null || isTypeIndexOutdated()) {
+            synchronized (this) {
+                result = typeIndex;
+                if (result == null || isTypeIndexOutdated()) {
+                    typeIndexProperties = new HashSet<>(getTypeProperties());
+                    typeIndexData = data;
+                    typeIndexDataSize = getDataSize();
+                    result = data == null ? TypeIndex.build(new TripleDataSetMemory(), typeIndexProperties) :
+                            TypeIndex.build(data, typeIndexProperties);
+                    typeIndex = result;
                 }
             }
         }
-        if(candidates.size() == 0){
-            return null;
-        } else {
-            return randomDrawFromSet(candidates);
-        }
+        return result;
+    }
+
+    /**
+     * Must be called after {@link MemoryWalkGenerator#typeIndex} was read: the fields describing the index are written
+     * before the (volatile) index.
+     */
+    private boolean isTypeIndexOutdated() {
+        return typeIndexData != data || typeIndexDataSize != getDataSize()
+                || !typeIndexProperties.equals(getTypeProperties());
     }
 
     @Override
     public List<String> generateRandomWalksForEntity(String entity, int numberOfWalks, int depth){
         List<String> result = new ArrayList<>();
+        if (data instanceof IEncodedGraph) {
+            // URIs are already shortened when the triples are read
+            IEncodedGraph graph = (IEncodedGraph) data;
+            IUriDictionary nodes = graph.getNodeDictionary();
+            int entityId = nodes.getId(entity);
+            if (entityId < 0) return result;
+            CsrAdjacencyIndex index = graph.getAdjacencyIndex();
+            IntWalkKernel kernel = IntWalkKernel.get();
+            for (int i = 0; i < numberOfWalks; i++) {
+                if (kernel.generateRandomWalk(index, entityId, depth) > 1 || depth == 0) {
+                    result.add(kernel.getWalkAsString(nodes, graph.getPredicateDictionary()));
+                }
+            }
+            return result;
+        }
         int currentDepth;
         String currentWalk;
         int currentWalkNumber = 0;
@@ -624,14 +861,7 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
      */
     public Triple getRandomTripleForSubjectWithoutTags(String subject) {
         if (subject == null) return null;
-        List<Triple> queryResult = data.getObjectTriplesInvolvingSubject(subject);
-        if (queryResult == null) {
-            // no triple found
-            return null;
-        }
-        int randomNumber = ThreadLocalRandom.current().nextInt(queryResult.size());
-        //System.out.println("(" + Thread.currentThread().getName() + ") " + randomNumber + "[" + queryResult.size() + "]");
-        return queryResult.get(randomNumber);
+        return data.drawObjectTripleInvolvingSubject(subject);
     }
 
     /**
@@ -647,8 +877,145 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
         return stringToBeEdited;
     }
 
+    @Override
+    public List<String> generateBiasedMidWalksForEntity(String entity, int numberOfWalks, int depth) {
+        return generateBiasedWalksForEntity(entity, numberOfWalks, depth, true);
+    }
+
+    @Override
+    public List<String> generateBiasedRandomWalksForEntity(String entity, int numberOfWalks, int depth) {
+        return generateBiasedWalksForEntity(entity, numberOfWalks, depth, false);
+    }
+
+    /**
+     * Biased walk generation on the alias tables using the {@link IntWalkKernel}.
+     * Walks of length 1, i.e., walks that contain only one node, are ignored.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks The number of walks to be performed.
+     * @param depth         The depth of each walk.
+     * @param isMidWalk     True for mid walks, false for forward random walks.
+     * @return List where every item is a walk separated by spaces.
+     */
+    private List<String> generateBiasedWalksForEntity(String entity, int numberOfWalks, int depth,
+                                                      boolean isMidWalk) {
+        List<String> result = new ArrayList<>();
+        CsrAliasTables tables = getAliasTables();
+        IEncodedGraph graph = getEncodedGraph();
+        IUriDictionary nodes = graph.getNodeDictionary();
+        int entityId = nodes.getId(entity);
+        if (entityId < 0) return result;
+        IntWalkKernel kernel = IntWalkKernel.get();
+        for (int i = 0; i < numberOfWalks; i++) {
+            int length = isMidWalk ? kernel.generateBiasedMidWalk(tables, entityId, depth) :
+                    kernel.generateBiasedRandomWalk(tables, entityId, depth);
+            if (length > 1) {
+                result.add(kernel.getWalkAsString(nodes, graph.getPredicateDictionary()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Obtain the alias tables of the biased walks. They are built if required, i.e., if they do not exist yet or if
+     * the adjacency index of the encoded graph changed since they were built. If the data is not dictionary-encoded,
+     * an encoded copy of the object triples is created first (which requires additional memory).
+     *
+     * @return The alias tables.
+     */
+    CsrAliasTables getAliasTables() {
+        CsrAliasTables result = aliasTables;
+        CsrAdjacencyIndex index = getEncodedGraph().getAdjacencyIndex();
+        if (result == null || result.getIndex() != index) {
+            synchronized (this) {
+                result = aliasTables;
+                if (result == null || result.getIndex() != index) {
+                    result = CsrAliasTables.build(index, getEdgeWeightStrategy().create(index));
+                    aliasTables = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Obtain the dictionary-encoded graph of the biased and node2vec walks. If the data is not dictionary-encoded,
+     * an encoded copy of the object triples is created first (which requires additional memory). The copy is created
+     * again if the data changed since it was created.
+     *
+     * @return The encoded graph.
+     */
+    IEncodedGraph getEncodedGraph() {
+        IEncodedGraph result = encodedGraph;
+        if (result == null || isEncodedGraphOutdated()) {
+            synchronized (this) {
+                result = encodedGraph;
+                if (result == null || isEncodedGraphOutdated()) {
+                    encodedGraphData = data;
+                    encodedGraphDataSize = getDataSize();
+                    if (data instanceof IEncodedGraph) {
+                        result = (IEncodedGraph) data;
+                    } else {
+                        LOGGER.info("Encoding the object triples for biased and node2vec walks.");
+                        // datatype triples are not used by these walks
+                        IntTripleDataSetMemory encoded = new IntTripleDataSetMemory();
+                        encoded.addAllObjectTriples(data);
+                        result = encoded;
+                    }
+                    encodedGraph = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Must be called after {@link MemoryWalkGenerator#encodedGraph} was read: the fields describing the encoded graph
+     * are written before the (volatile) graph.
+     */
+    private boolean isEncodedGraphOutdated() {
+        return encodedGraphData != data || encodedGraphDataSize != getDataSize();
+    }
+
+    /**
+     * Node2vec walk generation on the adjacency index of the encoded graph using the {@link IntWalkKernel}.
+     * Walks of length 1, i.e., walks that contain only one node, are ignored.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks The number of walks to be performed.
+     * @param depth         The depth of each walk.
+     * @return List where every item is a walk separated by spaces.
+     */
+    @Override
+    public List<String> generateNode2VecWalksForEntity(String entity, int numberOfWalks, int depth) {
+        List<String> result = new ArrayList<>();
+        IEncodedGraph graph = getEncodedGraph();
+        IUriDictionary nodes = graph.getNodeDictionary();
+        int entityId = nodes.getId(entity);
+        if (entityId < 0) return result;
+        CsrAdjacencyIndex index = graph.getAdjacencyIndex();
+        Node2VecParameters parameters = getNode2VecParameters();
+        IntWalkKernel kernel = IntWalkKernel.get();
+        for (int i = 0; i < numberOfWalks; i++) {
+            if (kernel.generateNode2VecWalk(index, entityId, depth, parameters) > 1) {
+                result.add(kernel.getWalkAsString(nodes, graph.getPredicateDictionary()));
+            }
+        }
+        return result;
+    }
+
     // getters and setters below
 
+    @Override
+    public int getOutDegree(String node) {
+        return data.getOutDegree(node);
+    }
+
+    @Override
+    public int getInDegree(String node) {
+        return data.getInDegree(node);
+    }
+
     public boolean isUnifyAnonymousNodes() {
         return isUnifyAnonymousNodes;
     }
@@ -661,6 +1028,60 @@ public abstract class MemoryWalkGenerator implements IWalkGenerator,
         return data;
     }
 
+    /**
+     * Set the data structure to be used. The file-based generators load into a dictionary-encoded
+     * {@link de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IntTripleDataSetMemory} by
+     * default; a plain {@link TripleDataSetMemory} can be set here to use the object-based store instead.
+     * The data structure must be set before any triples are read.
+     *
+     * @param data The triple data structure.
+     */
+    public void setData(TripleDataSetMemory data) {
+        this.data = data;
+        this.aliasTables = null;
+        this.encodedGraph = null;
+    }
+
+    /**
+     * Obtain the edge weight strategy of the biased walks.
+     *
+     * @return The strategy.
+     */
+    public IEdgeWeightStrategyFactory getEdgeWeightStrategy() {
+        return edgeWeightStrategy;
+    }
+
+    /**
+     * Set the edge weight strategy of the biased walks. Already built alias tables are discarded.
+     *
+     * @param edgeWeightStrategy The strategy. If null, {@link EdgeWeightStrategy#DEFAULT_STRATEGY} is used.
+     */
+    @Override
+    public synchronized void setEdgeWeightStrategy(IEdgeWeightStrategyFactory edgeWeightStrategy) {
+        this.edgeWeightStrategy = edgeWeightStrategy == null ? EdgeWeightStrategy.DEFAULT_STRATEGY : edgeWeightStrategy;
+        this.aliasTables = null;
+    }
+
+    /**
+     * Obtain the parameters of the node2vec walks.
+     *
+     * @return The parameters.
+     */
+    public Node2VecParameters getNode2VecParameters() {
+        return node2VecParameters;
+    }
+
+    /**
+     * Set the parameters of the node2vec walks.
+     *
+     * @param node2VecParameters The parameters. If null, {@link Node2VecParameters#DEFAULT_PARAMETERS} are used.
+     */
+    @Override
+    public void setNode2VecParameters(Node2VecParameters node2VecParameters) {
+        this.node2VecParameters = node2VecParameters == null ? Node2VecParameters.DEFAULT_PARAMETERS :
+                node2VecParameters;
+    }
+
     public boolean isParseDatatypeProperties() {
         return isParseDatatypeProperties;
     }
@@ -0,0 +1,65 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The parameters of second-order (node2vec) walks (see Grover and Leskovec: node2vec: Scalable Feature Learning for
+ * Networks, KDD 2016). After a step from node {@code t} to node {@code v}, the next node {@code x} is weighted with
+ * {@code 1/p} if {@code x = t} (return), with {@code 1} if {@code x} and {@code t} are connected by an edge (in
+ * either direction), and with {@code 1/q} otherwise (in-out). Instances are immutable.
+ */
+public class Node2VecParameters {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Node2VecParameters.class);
+
+    /**
+     * The parameters that are used if no parameters are specified. With p = q = 1, node2vec walks are uniform random
+     * walks.
+     */
+    public static final Node2VecParameters DEFAULT_PARAMETERS = new Node2VecParameters(1.0, 1.0);
+
+    /**
+     * Return parameter p. A low value keeps the walk local.
+     */
+    private final double returnParameter;
+
+    /**
+     * In-out parameter q. A low value lets the walk move outwards (depth-first-like), a high value keeps it close to
+     * the previous node (breadth-first-like).
+     */
+    private final double inOutParameter;
+
+    /**
+     * Constructor
+     *
+     * @param returnParameter Return parameter p (&gt; 0). Invalid values are replaced by 1.
+     * @param inOutParameter  In-out parameter q (&gt; 0). Invalid values are replaced by 1.
+     */
+    public Node2VecParameters(double returnParameter, double inOutParameter) {
+        this.returnParameter = getValidParameter(returnParameter, "return parameter");
+        this.inOutParameter = getValidParameter(inOutParameter, "in-out parameter");
+    }
+
+    private static double getValidParameter(double parameter, String name) {
+        if (!(parameter > 0) || Double.isInfinite(parameter)) {
+            LOGGER.error("The " + name + " must be a positive number but was " + parameter + ". Using 1.0.");
+            return 1.0;
+        }
+        return parameter;
+    }
+
+    public double getReturnParameter() {
+        return returnParameter;
+    }
+
+    public double getInOutParameter() {
+        return inOutParameter;
+    }
+
+    @Override
+    public String toString() {
+        return "p=" + returnParameter + ", q=" + inOutParameter;
+    }
+}
@@ -1,16 +1,22 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
 
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IntTripleDataSetMemory;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TripleDataSetMemory;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.ISearchCondition;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.jena.ontology.OntModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.*;
 import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -40,6 +46,40 @@ public class NtMemoryWalkGenerator extends MemoryWalkGenerator {
      */
     boolean isWriteOptimizedFile = false;
 
+    /**
+     * True if the skip condition was set by the user. The default skip conditions are directly implemented by the
+     * {@link NtTokenizer}.
+     */
+    private boolean isCustomSkipCondition = false;
+
+    /**
+     * If true, the legacy regex-based line parser is used instead of the {@link NtTokenizer}.
+     */
+    private boolean isUseLegacyParser = false;
+
+    /**
+     * The number of chunks per thread when a single file is parsed in parallel. Having more chunks than threads
+     * balances the load if the parsing effort differs among the chunks.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Minimal size of a chunk in bytes when a single file is parsed in parallel
+     * (see {@link NtMemoryWalkGenerator#readNTriplesParallel(File, int)}).
+     */
+    long minimumChunkSize = 16L * 1024 * 1024;
+
+    /**
+     * Size of the decompressed blocks in bytes that are handed from the decompression thread to the parser threads
+     * when a gzipped file is parsed in parallel.
+     */
+    int gzipBlockSize = 4 * 1024 * 1024;
+
+    /**
+     * Marks the end of the gzip pipeline.
+     */
+    private static final ByteBuffer END_OF_STREAM = ByteBuffer.allocate(0);
+
     /**
      * Default Constructor
      */
@@ -52,7 +92,7 @@ public class NtMemoryWalkGenerator extends MemoryWalkGenerator {
      * @param isParseDatatypeTriples True if datatype triples shall be parsed.
      */
     public NtMemoryWalkGenerator(boolean isParseDatatypeTriples) {
-        data = new TripleDataSetMemory();
+        data = new IntTripleDataSetMemory();
 
         // set parsing option:
         setParseDatatypePropertiesNoCheck(isParseDatatypeTriples);
@@ -216,7 +256,8 @@ public class NtMemoryWalkGenerator extends MemoryWalkGenerator {
             }
         }
 
-        ArrayList<Thread> allThreads = new ArrayList<>();
+        long startTime = System.currentTimeMillis();
+        ArrayList<FileReaderThread> allThreads = new ArrayList<>();
         for (File fileOriginal : directoryOfDataSets.listFiles()) {
             if (optimizedFiles.containsKey(fileOriginal.getName())) {
                 LOGGER.info("Found optimized file for " + fileOriginal.getName() + ", will use that one.");
@@ -237,19 +278,27 @@ public class NtMemoryWalkGenerator extends MemoryWalkGenerator {
         }
 
         // wait for thread completion
+        ArrayList<TripleDataSetMemory> partitions = new ArrayList<>();
         try {
-            for (Thread thread : allThreads) {
+            for (FileReaderThread thread : allThreads) {
                 thread.join();
+                partitions.add(thread.getPartition());
             }
         } catch (InterruptedException ie) {
             LOGGER.error("Problem waiting for thread...", ie);
         }
-        LOGGER.info("Data read.");
+        long parsingTime = System.currentTimeMillis() - startTime;
+
+        // merge the partitions into the actual data structure
+        data.addAllPartitions(partitions);
+        LOGGER.info("Data read. Parsing: " + parsingTime + " ms, merging: "
+                + (System.currentTimeMillis() - startTime - parsingTime) + " ms.");
     }
 
     /**
      * Thread that allows concurrent file parsing (used for data sets that consist of multiple, potentially zipped
-     * files).
+     * files). Each thread reads into its own partition so that the threads do not compete for the lock of the
+     * shared data structure. The partitions are merged once all threads completed.
      */
     static class FileReaderThread extends Thread {
 
@@ -259,6 +308,7 @@ public class NtMemoryWalkGenerator extends MemoryWalkGenerator {
             this.parser = parser;
             this.isGzipped = gzipped;
             this.isOptimizedFile = optimized;
+            this.partition = parser.getData().createEmptyPartition();
         }
 
         private final boolean isOptimizedFile;
@@ -266,17 +316,26 @@ public class NtMemoryWalkGenerator extends MemoryWalkGenerator {
         private final File fileToRead;
         private final boolean isGzipped;
 
+        /**
+         * The data structure into which this thread reads.
+         */
+        private final TripleDataSetMemory partition;
+
         @Override
         public void run() {
             if (!isOptimizedFile) {
                 LOGGER.info("STARTED thread for file " + fileToRead.getName());
-                parser.readNTriples(fileToRead, isGzipped);
+                parser.readNTriples(fileToRead, isGzipped, partition);
             } else {
                 LOGGER.info("STARTED (optimized) thread for file " + fileToRead.getName());
-                parser.readNTriplesOptimized(fileToRead);
+                parser.readNTriplesOptimized(fileToRead, partition);
             }
             LOGGER.info("Thread for file " + fileToRead.getName() + " completed.");
         }
+
+        public TripleDataSetMemory getPartition() {
+            return partition;
+        }
     }
 
     /**
@@ -296,6 +355,16 @@ public class NtMemoryWalkGenerator extends MemoryWalkGenerator {
      * @param fileToReadFrom Optimized file.
      */
     public void readNTriplesOptimized(File fileToReadFrom) {
+        readNTriplesOptimized(fileToReadFrom, data);
+    }
+
+    /**
+     * Read from an optimized file into the given data structure.
+     *
+     * @param fileToReadFrom Optimized file.
+     * @param target         The data structure to which the triples are added.
+     */
+    void readNTriplesOptimized(File fileToReadFrom, TripleDataSetMemory target) {
         if (!fileToReadFrom.exists()) {
             LOGGER.error("File does not exist. Cannot parse.");
             return;
@@ -315,7 +384,7 @@ public class NtMemoryWalkGenerator extends MemoryWalkGenerator {
                     String subject = parsed[0];
                     String predicate = parsed[1];
                     String object = parsed[2];
-                    data.addObjectTriple(subject, predicate, object);
+                    target.addObjectTriple(subject, predicate, object);
                 }
             }
         } catch (IOException ioe) {
@@ -330,111 +399,412 @@ public class NtMemoryWalkGenerator extends MemoryWalkGenerator {
      * @param isGzippedFile  Indicator whether the given file is gzipped.
      */
     public void readNTriples(File fileToReadFrom, boolean isGzippedFile) {
+        readNTriples(fileToReadFrom, isGzippedFile, data);
+    }
+
+    /**
+     * Read the given nt file into the given data structure.
+     *
+     * @param fileToReadFrom the file.
+     * @param isGzippedFile  Indicator whether the given file is gzipped.
+     * @param target         The data structure to which the triples are added.
+     * @return True if the file was read completely, false in case of an error.
+     */
+    boolean readNTriples(File fileToReadFrom, boolean isGzippedFile, TripleDataSetMemory target) {
         if (!fileToReadFrom.exists()) {
             LOGGER.error("File does not exist. Cannot parse.");
-            return;
+            return false;
         }
-        BufferedWriter writer = null; // the writer used to write the optimized file
-        if (isWriteOptimizedFile) {
+        // the writer used to write the optimized file (null if no optimized file is written)
+        try (BufferedWriter writer = isWriteOptimizedFile ? createOptimizedFileWriter(fileToReadFrom) : null;
+             FileInputStream fileInputStream = new FileInputStream(fileToReadFrom);
+             InputStream inputStream = isGzippedFile ? new GZIPInputStream(fileInputStream, 1 << 16) :
+                     fileInputStream) {
+            if (isUseLegacyParser) {
+                readNTriplesLegacy(inputStream, fileToReadFrom.getName(), writer, target);
+            } else {
+                createTokenizer(writer, isGzippedFile ? -1 : fileToReadFrom.length()).parse(inputStream, target,
+                        fileToReadFrom.getName());
+            }
+            LOGGER.info("File " + fileToReadFrom.getName() + " successfully read. " + target.getObjectTripleSize() + " triples loaded.");
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Error while parsing file.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Creates the writer for the optimized file of the given file (written in ./optimized/).
+     *
+     * @param fileToReadFrom The file that is parsed.
+     * @return Writer or null if the writer cannot be initialized.
+     */
+    private static BufferedWriter createOptimizedFileWriter(File fileToReadFrom) {
+        File fileToWrite = new File("./optimized/" + fileToReadFrom.getName());
+        fileToWrite.getParentFile().mkdirs();
+        FileOutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(fileToWrite);
+            GZIPOutputStream gzip = new GZIPOutputStream(outputStream);
+            LOGGER.info("Writer initialized.");
+            return new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+        } catch (FileNotFoundException fnfe) {
+            LOGGER.error("Could not initialize gzip output stream.", fnfe);
+        } catch (IOException e) {
+            LOGGER.error("Problem initializing gzip output stream.", e);
             try {
-                File fileToWrite = new File("./optimized/" + fileToReadFrom.getName());
-                fileToWrite.getParentFile().mkdirs();
-                GZIPOutputStream gzip = new GZIPOutputStream(new FileOutputStream(fileToWrite));
-                writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
-                LOGGER.info("Writer initialized.");
-            } catch (FileNotFoundException fnfe) {
-                LOGGER.error("Could not initialize gzip output stream.", fnfe);
-            } catch (IOException e) {
-                LOGGER.error("Problem initializing gzip output stream.", e);
+                outputStream.close();
+            } catch (IOException ioe) {
+                LOGGER.error("Could not close the output stream.", ioe);
             }
         }
+        return null;
+    }
 
+    /**
+     * Read a single nt file (optionally gzipped) in parallel. This method will add the data in the file to the
+     * existing {@link NtMemoryWalkGenerator#data} store.
+     * <p>
+     * Uncompressed files are split into byte ranges which are aligned on line breaks; each range is parsed
+     * independently. Gzipped files cannot be split: Here, the calling thread decompresses the file and hands
+     * line-aligned blocks to the parser threads via a bounded queue. In both cases, each parser thread writes into its
+     * own partition; the partitions are merged once all chunks are parsed. If a single chunk cannot be parsed, no
+     * triples are added at all. Optimized files are not written by this method.
+     * <p>
+     * With one thread or a file that is too small to be split into several chunks (or gzip blocks), the file is read
+     * sequentially into a single partition: the parallel pipeline would only add overhead.
+     *
+     * @param fileToReadFrom  The file. If the file name ends with ".gz", the file is treated as gzipped file.
+     * @param numberOfThreads The number of parser threads.
+     * @return True if the file was read completely, false in case of an error.
+     */
+    public boolean readNTriplesParallel(File fileToReadFrom, int numberOfThreads) {
+        if (!fileToReadFrom.exists()) {
+            LOGGER.error("File does not exist. Cannot parse.");
+            return false;
+        }
+        if (numberOfThreads < 1) {
+            LOGGER.error("The number of threads must be > 0. Using one thread.");
+            numberOfThreads = 1;
+        }
+        boolean isGzippedFile = fileToReadFrom.getName().endsWith(".gz");
+        long minimumParallelSize = isGzippedFile ? gzipBlockSize : 2 * minimumChunkSize;
+        if (numberOfThreads == 1 || fileToReadFrom.length() < minimumParallelSize) {
+            // the file is parsed into a partition as well so that a failed load does not leave partial data behind
+            TripleDataSetMemory partition = data.createEmptyPartition();
+            if (!readNTriples(fileToReadFrom, isGzippedFile, partition)) {
+                LOGGER.error("No triples of the file " + fileToReadFrom.getName() + " are loaded.");
+                return false;
+            }
+            data.addAllPartitions(Collections.singletonList(partition));
+            return true;
+        }
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        List<TripleDataSetMemory> partitions = new ArrayList<>();
         try {
-            BufferedReader reader;
+            List<Future<TripleDataSetMemory>> futures;
             if (isGzippedFile) {
-                GZIPInputStream gzip = new GZIPInputStream(new FileInputStream(fileToReadFrom));
-                reader = new BufferedReader(new InputStreamReader(gzip, StandardCharsets.UTF_8));
+                futures = parseGzipBlocks(fileToReadFrom, numberOfThreads, executor);
             } else {
-                reader = new BufferedReader(new InputStreamReader(new FileInputStream(fileToReadFrom), StandardCharsets.UTF_8));
+                futures = parseChunks(fileToReadFrom, numberOfThreads, executor);
             }
-            String readLine;
-            long lineNumber = 0;
-            Matcher datatypeMatcher; // only required if datatype properties shall be included
-            nextLine:
-            while ((readLine = reader.readLine()) != null) {
-                try {
-                    lineNumber++;
-                    if (skipCondition.isHit(readLine)) {
-                        continue nextLine;
-                    }
+            for (Future<TripleDataSetMemory> future : futures) {
+                partitions.add(future.get());
+            }
+        } catch (IOException | ExecutionException e) {
+            LOGGER.error("Error while parsing file " + fileToReadFrom.getName() + " in parallel. No triples of the file "
+                    + "are loaded.", e);
+            return false;
+        } catch (InterruptedException ie) {
+            LOGGER.error("Interrupted while parsing file " + fileToReadFrom.getName() + " in parallel. No triples of "
+                    + "the file are loaded.", ie);
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            executor.shutdownNow();
+            // the remaining chunks of a failed load must not be parsed after this method has returned
+            try {
+                executor.awaitTermination(1, TimeUnit.DAYS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long parsingTime = System.currentTimeMillis() - startTime;
+        data.addAllPartitions(partitions);
+        LOGGER.info("File " + fileToReadFrom.getName() + " read with " + numberOfThreads + " threads. Parsing: "
+                + parsingTime + " ms, merging: " + (System.currentTimeMillis() - startTime - parsingTime) + " ms. "
+                + data.getObjectTripleSize() + " triples loaded.");
+        return true;
+    }
 
-                    // remove the dot at the end of a statement
-                    readLine = readLine.replaceAll("(?<=>)*[ ]*.[ ]*$", "");
-
-                    // legacy function:
-                    /*
-                    if (isIncludeDatatypeProperties) {
-                        datatypeMatcher = datatypePattern.matcher(readLine);
-                        if (datatypeMatcher.find()) {
-                            String datatypeValue = datatypeMatcher.group(0);
-                            String newDatatypeValue = datatypeValue.replaceAll(" ", "_");
-                            readLine = readLine.replace(datatypeValue, newDatatypeValue);
+    /**
+     * Splits the given (uncompressed) file into line-aligned byte ranges and submits one parsing task per range.
+     *
+     * @param file            The file.
+     * @param numberOfThreads The number of threads.
+     * @param executor        The executor to be used.
+     * @return One future per chunk which delivers the partition that holds the triples of the chunk.
+     * @throws IOException If the file cannot be read.
+     */
+    private List<Future<TripleDataSetMemory>> parseChunks(File file, int numberOfThreads, ExecutorService executor)
+            throws IOException {
+        long numberOfChunks = Math.min((long) numberOfThreads * CHUNKS_PER_THREAD,
+                file.length() / Math.max(1, minimumChunkSize));
+        long[] boundaries = computeChunkBoundaries(file, (int) Math.max(1, numberOfChunks));
+        List<Future<TripleDataSetMemory>> futures = new ArrayList<>();
+        for (int i = 0; i < boundaries.length - 1; i++) {
+            final long from = boundaries[i];
+            final long to = boundaries[i + 1];
+            if (from == to) continue;
+            futures.add(executor.submit(() -> {
+                TripleDataSetMemory partition = data.createEmptyPartition();
+                try (FileInputStream inputStream = new FileInputStream(file)) {
+                    inputStream.getChannel().position(from);
+                    createTokenizer(null, to - from).parse(new BoundedInputStream(inputStream, to - from), partition,
+                            file.getName() + " [bytes " + from + "-" + to + "]");
+                }
+                return partition;
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Determines the boundaries of the chunks of the given file. Every chunk (except for the first one) starts
+     * directly after a line break.
+     *
+     * @param file           The file.
+     * @param numberOfChunks The desired number of chunks.
+     * @return Array of length {@code numberOfChunks + 1}. Chunk {@code i} ranges from {@code boundaries[i]}
+     * (inclusive) to {@code boundaries[i + 1]} (exclusive). Chunks may be empty.
+     * @throws IOException If the file cannot be read.
+     */
+    static long[] computeChunkBoundaries(File file, int numberOfChunks) throws IOException {
+        long length = file.length();
+        long[] boundaries = new long[numberOfChunks + 1];
+        boundaries[numberOfChunks] = length;
+        byte[] buffer = new byte[8192];
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            for (int i = 1; i < numberOfChunks; i++) {
+                long position = Math.max(length * i / numberOfChunks, boundaries[i - 1]);
+                if (position == 0) continue;
+                // the chunk starts after the first line break at or after position - 1
+                randomAccessFile.seek(position - 1);
+                boundaries[i] = length;
+                long offset = position - 1;
+                int read;
+                searchLineBreak:
+                while ((read = randomAccessFile.read(buffer)) > 0) {
+                    for (int j = 0; j < read; j++) {
+                        if (buffer[j] == '\n') {
+                            boundaries[i] = offset + j + 1;
+                            break searchLineBreak;
                         }
                     }
-                    */
-
-                    String[] spo = readLine.split(" ");
-                    if (isParseDatatypeProperties && spo[2].startsWith("\"")) {
-                        String subject = uriShortenerFunction.apply(removeTags(spo[0])).intern();
-                        String predicate = uriShortenerFunction.apply(removeTags(spo[1]).intern());
-                        String[]  objectTokens = Arrays.copyOfRange(spo, 2, spo.length);
-                        String object = textProcessingFunction.apply(String.join(" ", objectTokens));
-                        if (isWriteOptimizedFile) {
-                            writer.write(subject + " " + predicate + " " + object + "\n");
-                        }
-                        data.addDatatypeTriple(subject, predicate, object);
-
-                    } else {
-                        if (spo.length != 3) {
-                            LOGGER.error("Error in file " + fileToReadFrom.getName() + " in line " + lineNumber + " while parsing the following line:\n" + readLine + "\n Required tokens: 3\nActual tokens: " + spo.length);
-                            int i = 1;
-                            for (String token : spo) {
-                                LOGGER.error("Token " + i++ + ": " + token);
-                            }
-                            LOGGER.error("Line is ignored. Parsing continues.");
-                            continue nextLine;
-                        }
-                        String subject = uriShortenerFunction.apply(removeTags(spo[0])).intern();
-                        String predicate = uriShortenerFunction.apply(removeTags(spo[1]).intern());
-                        String object = uriShortenerFunction.apply(removeTags(spo[2])).intern();
-                        data.addObjectTriple(subject, predicate, object);
-                        if (isWriteOptimizedFile) {
-                            writer.write(subject + " " + predicate + " " + object + "\n");
+                    offset += read;
+                }
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Decompresses the given file in the calling thread and hands line-aligned blocks to the parser threads via a
+     * bounded queue.
+     *
+     * @param file            The gzipped file.
+     * @param numberOfThreads The number of parser threads.
+     * @param executor        The executor to be used.
+     * @return One future per parser thread which delivers the partition that holds the triples parsed by the thread.
+     * @throws IOException          If the file cannot be read.
+     * @throws InterruptedException If interrupted while waiting for the parser threads.
+     */
+    private List<Future<TripleDataSetMemory>> parseGzipBlocks(File file, int numberOfThreads,
+                                                              ExecutorService executor)
+            throws IOException, InterruptedException {
+        BlockingQueue<ByteBuffer> queue = new ArrayBlockingQueue<>(2 * numberOfThreads);
+        List<Future<TripleDataSetMemory>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            futures.add(executor.submit(() -> {
+                TripleDataSetMemory partition = data.createEmptyPartition();
+                NtTokenizer tokenizer = createTokenizer(null, -1);
+                long blockNumber = 0;
+                ByteBuffer block;
+                while ((block = queue.take()) != END_OF_STREAM) {
+                    blockNumber++;
+                    tokenizer.parse(new ByteArrayInputStream(block.array(), 0, block.limit()), partition,
+                            file.getName() + " [" + Thread.currentThread().getName() + ", block " + blockNumber + "]");
+                }
+                return partition;
+            }));
+        }
+
+        try (InputStream inputStream = new GZIPInputStream(new FileInputStream(file), 1 << 16)) {
+            byte[] block = new byte[gzipBlockSize];
+            int length = 0;
+            while (true) {
+                int read = inputStream.read(block, length, block.length - length);
+                if (read < 0) break;
+                length += read;
+                if (length < block.length) continue;
+
+                // the block is full: hand over everything up to the last line break
+                int lastLineBreak = length - 1;
+                while (lastLineBreak >= 0 && block[lastLineBreak] != '\n') lastLineBreak--;
+                if (lastLineBreak < 0) {
+                    // a single line is larger than the block
+                    block = Arrays.copyOf(block, block.length * 2);
+                    continue;
+                }
+                int remaining = length - lastLineBreak - 1;
+                byte[] nextBlock = new byte[Math.max(gzipBlockSize, 2 * remaining)];
+                System.arraycopy(block, lastLineBreak + 1, nextBlock, 0, remaining);
+                putBlock(queue, ByteBuffer.wrap(block, 0, lastLineBreak + 1), futures);
+                block = nextBlock;
+                length = remaining;
+            }
+            if (length > 0) {
+                putBlock(queue, ByteBuffer.wrap(block, 0, length), futures);
+            }
+        } finally {
+            for (int i = 0; i < numberOfThreads; i++) {
+                putBlock(queue, END_OF_STREAM, futures);
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * Puts the given block into the queue. Blocks while the queue is full unless all consumers terminated.
+     *
+     * @param queue     The queue.
+     * @param block     The block.
+     * @param consumers The consumers of the queue.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static void putBlock(BlockingQueue<ByteBuffer> queue, ByteBuffer block,
+                                 List<Future<TripleDataSetMemory>> consumers) throws InterruptedException {
+        while (!queue.offer(block, 100, TimeUnit.MILLISECONDS)) {
+            boolean isAnyConsumerAlive = false;
+            for (Future<TripleDataSetMemory> consumer : consumers) {
+                if (!consumer.isDone()) {
+                    isAnyConsumerAlive = true;
+                    break;
+                }
+            }
+            if (!isAnyConsumerAlive) return;
+        }
+    }
+
+    /**
+     * Creates a tokenizer which is configured according to the settings of this generator.
+     *
+     * @param writer         Writer for the optimized file (may be null).
+     * @param expectedLength The expected number of bytes that are parsed (negative if unknown, e.g. for a stream
+     *                       of gzipped blocks). The term cache of the tokenizer is sized accordingly.
+     * @return Tokenizer instance.
+     */
+    private NtTokenizer createTokenizer(Writer writer, long expectedLength) {
+        NtTokenizer tokenizer = new NtTokenizer(uriShortenerFunction, textProcessingFunction,
+                isParseDatatypeProperties, expectedLength);
+        if (isCustomSkipCondition) {
+            tokenizer.setSkipCondition(skipCondition);
+        }
+        tokenizer.setOptimizedFileWriter(writer);
+        return tokenizer;
+    }
+
+    /**
+     * Legacy line-based parser which uses regular expressions and splits every line. It is only used if
+     * {@link NtMemoryWalkGenerator#isUseLegacyParser()} is true.
+     *
+     * @param inputStream The stream to read from (not closed).
+     * @param fileName    The name of the file (for logging).
+     * @param writer      Writer for the optimized file (may be null).
+     * @param target      The data structure to which the triples are added.
+     * @throws IOException If the stream cannot be read.
+     */
+    private void readNTriplesLegacy(InputStream inputStream, String fileName, BufferedWriter writer,
+                                    TripleDataSetMemory target) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String readLine;
+        long lineNumber = 0;
+        nextLine:
+        while ((readLine = reader.readLine()) != null) {
+            try {
+                lineNumber++;
+                if (skipCondition.isHit(readLine)) {
+                    continue nextLine;
+                }
+
+                // remove the dot at the end of a statement
+                readLine = readLine.replaceAll("(?<=>)*[ ]*.[ ]*$", "");
+
+                String[] spo = readLine.split(" ");
+                if (isParseDatatypeProperties && spo[2].startsWith("\"")) {
+                    String subject = uriShortenerFunction.apply(removeTags(spo[0])).intern();
+                    String predicate = uriShortenerFunction.apply(removeTags(spo[1]).intern());
+                    String[]  objectTokens = Arrays.copyOfRange(spo, 2, spo.length);
+                    String object = textProcessingFunction.apply(String.join(" ", objectTokens));
+                    if (writer != null) {
+                        writer.write(subject + " " + predicate + " " + object + "\n");
+                    }
+                    target.addDatatypeTriple(subject, predicate, object);
+
+                } else {
+                    if (spo.length != 3) {
+                        LOGGER.error("Error in file " + fileName + " in line " + lineNumber + " while parsing the following line:\n" + readLine + "\n Required tokens: 3\nActual tokens: " + spo.length);
+                        int i = 1;
+                        for (String token : spo) {
+                            LOGGER.error("Token " + i++ + ": " + token);
                         }
+                        LOGGER.error("Line is ignored. Parsing continues.");
+                        continue nextLine;
+                    }
+                    String subject = uriShortenerFunction.apply(removeTags(spo[0])).intern();
+                    String predicate = uriShortenerFunction.apply(removeTags(spo[1]).intern());
+                    String object = uriShortenerFunction.apply(removeTags(spo[2])).intern();
+                    target.addObjectTriple(subject, predicate, object);
+                    if (writer != null) {
+                        writer.write(subject + " " + predicate + " " + object + "\n");
                     }
-                } catch (Exception e) {
-                    // it is important that the parsing continues no matter what happens
-                    LOGGER.error("A problem occurred while parsing line number " + lineNumber + " of file " + fileToReadFrom.getName(), e);
-                    LOGGER.error("The problem occurred in the following line:\n" + readLine);
                 }
-            } // end of while loop
-            LOGGER.info("File " + fileToReadFrom.getName() + " successfully read. " + data.getObjectTripleSize() + " subjects loaded.");
-            if (isWriteOptimizedFile) {
-                writer.flush();
-                writer.close();
+            } catch (Exception e) {
+                // it is important that the parsing continues no matter what happens
+                LOGGER.error("A problem occurred while parsing line number " + lineNumber + " of file " + fileName, e);
+                LOGGER.error("The problem occurred in the following line:\n" + readLine);
             }
-            reader.close();
-        } catch (Exception e) {
-            LOGGER.error("Error while parsing file.", e);
-        }
+        } // end of while loop
     }
 
     public ISearchCondition getSkipCondition() {
         return skipCondition;
     }
 
+    /**
+     * Set a custom skip condition. Note that a custom skip condition slows down the default parser since every line
+     * has to be decoded as string in order to evaluate the condition.
+     *
+     * @param skipCondition The skip condition.
+     */
     public void setSkipCondition(ISearchCondition skipCondition) {
         this.skipCondition = skipCondition;
+        this.isCustomSkipCondition = true;
+    }
+
+    public boolean isUseLegacyParser() {
+        return isUseLegacyParser;
+    }
+
+    /**
+     * Switch between the streaming {@link NtTokenizer} (default) and the legacy regex-based line parser.
+     *
+     * @param useLegacyParser True if the legacy parser shall be used.
+     */
+    public void setUseLegacyParser(boolean useLegacyParser) {
+        isUseLegacyParser = useLegacyParser;
     }
 
     /**
@@ -0,0 +1,415 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.ISearchCondition;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TripleDataSetMemory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * A streaming, byte-level N-Triples tokenizer. The input is processed in large byte blocks without regular expressions;
+ * no string is created per line and no intermediate token arrays are allocated. The triples are directly written
+ * into a {@link TripleDataSetMemory}.
+ * <p>
+ * Supported terms: IRIs ({@code <...>}), blank nodes ({@code _:...}), and literals (including escaped characters,
+ * language tags, and datatypes). IRIs are returned without tags; literals are handed over to the text processing
+ * function in their lexical form as written in the file (including quotes and annotations) which corresponds to
+ * the behavior of the legacy line-based parser of {@link NtMemoryWalkGenerator}.
+ * <p>
+ * Repeated terms are resolved through a small cache which is keyed by the raw bytes so that frequent terms (e.g.
+ * predicates or the subject of consecutive lines) are neither decoded nor interned more than once. The cache is sized
+ * according to the expected input length so that the many tokenizers of a parallel parse of small chunks do not
+ * allocate the full cache each.
+ * <p>
+ * Instances are not thread-safe. Use one instance per thread.
+ */
+public class NtTokenizer {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NtTokenizer.class);
+
+    /**
+     * Size of the read buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Maximal number of entries in the term cache (power of two).
+     */
+    private static final int MAXIMAL_CACHE_SIZE = 1 << 18;
+
+    /**
+     * Minimal number of entries in the term cache (power of two).
+     */
+    private static final int MINIMAL_CACHE_SIZE = 1 << 10;
+
+    /**
+     * Expected number of input bytes per cache entry. An N-Triples line has roughly 100 to 200 bytes and three terms;
+     * not every term needs its own entry since predicates and subjects repeat.
+     */
+    private static final int BYTES_PER_CACHE_ENTRY = 64;
+
+    private final UnaryOperator<String> uriShortenerFunction;
+
+    private final UnaryOperator<String> textProcessingFunction;
+
+    private final boolean isParseDatatypeProperties;
+
+    /**
+     * Optional line-based skip condition. If set, a string is created for every line in order to evaluate it.
+     */
+    private ISearchCondition skipCondition;
+
+    /**
+     * Optional writer for optimized files (see {@link NtMemoryWalkGenerator#readNTriplesOptimized(java.io.File)}).
+     */
+    private Writer optimizedFileWriter;
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+
+    private final int cacheMask;
+
+    private final byte[][] cacheKeys;
+
+    private final int[] cacheHashes;
+
+    private final String[] cacheValues;
+
+    // the terms of the current line
+    private String subject;
+    private String predicate;
+    private String object;
+    private boolean isLiteral;
+
+    /**
+     * Constructor
+     *
+     * @param uriShortenerFunction      Function applied to IRIs and blank nodes.
+     * @param textProcessingFunction    Function applied to literals.
+     * @param isParseDatatypeProperties True if triples with a literal object shall be parsed (as datatype triples).
+     *                                  If false, they are skipped.
+     */
+    public NtTokenizer(UnaryOperator<String> uriShortenerFunction, UnaryOperator<String> textProcessingFunction,
+                       boolean isParseDatatypeProperties) {
+        this(uriShortenerFunction, textProcessingFunction, isParseDatatypeProperties, -1);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param uriShortenerFunction      Function applied to IRIs and blank nodes.
+     * @param textProcessingFunction    Function applied to literals.
+     * @param isParseDatatypeProperties True if triples with a literal object shall be parsed (as datatype triples).
+     *                                  If false, they are skipped.
+     * @param expectedLength            The expected number of bytes that are parsed by this instance. The term cache is
+     *                                  sized accordingly. If the length is unknown (negative), the maximal cache size
+     *                                  is used.
+     */
+    public NtTokenizer(UnaryOperator<String> uriShortenerFunction, UnaryOperator<String> textProcessingFunction,
+                       boolean isParseDatatypeProperties, long expectedLength) {
+        this.uriShortenerFunction = uriShortenerFunction;
+        this.textProcessingFunction = textProcessingFunction;
+        this.isParseDatatypeProperties = isParseDatatypeProperties;
+        int cacheSize = getCacheSize(expectedLength);
+        this.cacheMask = cacheSize - 1;
+        this.cacheKeys = new byte[cacheSize][];
+        this.cacheHashes = new int[cacheSize];
+        this.cacheValues = new String[cacheSize];
+    }
+
+    /**
+     * Obtain the number of term cache entries for the given input length.
+     *
+     * @param expectedLength The expected number of bytes (negative if unknown).
+     * @return Number of entries (power of two).
+     */
+    static int getCacheSize(long expectedLength) {
+        if (expectedLength < 0) return MAXIMAL_CACHE_SIZE;
+        long entries = Math.min(Math.max(expectedLength / BYTES_PER_CACHE_ENTRY, MINIMAL_CACHE_SIZE),
+                MAXIMAL_CACHE_SIZE);
+        return Integer.highestOneBit((int) entries - 1) << 1;
+    }
+
+    /**
+     * Parses the given stream and adds all triples to the given data structure. The stream is not closed.
+     *
+     * @param inputStream The N-Triples stream (UTF-8).
+     * @param target      The data structure to which the triples are added.
+     * @param sourceName  Name of the source (used for logging).
+     * @return The number of lines read.
+     * @throws IOException If the stream cannot be read.
+     */
+    public long parse(InputStream inputStream, TripleDataSetMemory target, String sourceName) throws IOException {
+        long lineNumber = 0;
+        int start = 0; // start of the unprocessed data in the buffer
+        int end = 0; // end of the valid data in the buffer
+        boolean isEndOfStream = false;
+        while (true) {
+            // find the next line break
+            int lineEnd = indexOf(buffer, start, end, (byte) '\n');
+            if (lineEnd < 0) {
+                if (isEndOfStream) {
+                    if (start < end) {
+                        lineNumber++;
+                        processLine(start, end, target, lineNumber, sourceName);
+                    }
+                    return lineNumber;
+                }
+                // compact the buffer and read more data
+                int remaining = end - start;
+                if (remaining == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                } else if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, remaining);
+                }
+                start = 0;
+                end = remaining;
+                int read = inputStream.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    isEndOfStream = true;
+                } else {
+                    end += read;
+                }
+                continue;
+            }
+            lineNumber++;
+            processLine(start, lineEnd, target, lineNumber, sourceName);
+            start = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Tokenizes a single line and adds the triple to the target.
+     *
+     * @param start      Start of the line in the buffer (inclusive).
+     * @param end        End of the line in the buffer (exclusive).
+     * @param target     The data structure to which the triple is added.
+     * @param lineNumber The line number (for logging).
+     * @param sourceName The name of the source (for logging).
+     */
+    private void processLine(int start, int end, TripleDataSetMemory target, long lineNumber, String sourceName) {
+        if (end > start && buffer[end - 1] == '\r') end--;
+        if (skipCondition != null && skipCondition.isHit(new String(buffer, start, end - start,
+                StandardCharsets.UTF_8))) {
+            return;
+        }
+        int position = skipWhitespace(start, end);
+        if (position == end || buffer[position] == '#') {
+            // empty line or comment
+            return;
+        }
+        try {
+            position = readSubject(position, end);
+            position = readPredicate(skipWhitespace(position, end), end);
+            position = readObject(skipWhitespace(position, end), end);
+            if (position < 0) {
+                // literal which shall not be parsed
+                return;
+            }
+            position = skipWhitespace(position, end);
+            if (position < end && buffer[position] == '.') {
+                position = skipWhitespace(position + 1, end);
+            }
+            if (position < end && buffer[position] != '#') {
+                throw new IllegalArgumentException("Unexpected content after object at position " + (position - start));
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            // it is important that the parsing continues no matter what happens
+            LOGGER.error("Error in file " + sourceName + " in line " + lineNumber + " (" + e.getMessage()
+                    + ") while parsing the following line:\n" + new String(buffer, start, end - start,
+                    StandardCharsets.UTF_8) + "\nLine is ignored. Parsing continues.");
+            return;
+        }
+        if (isLiteral) {
+            target.addDatatypeTriple(subject, predicate, object);
+        } else {
+            target.addObjectTriple(subject, predicate, object);
+        }
+        if (optimizedFileWriter != null) {
+            try {
+                optimizedFileWriter.write(subject + " " + predicate + " " + object + "\n");
+            } catch (IOException ioe) {
+                LOGGER.error("Could not write to optimized file.", ioe);
+            }
+        }
+    }
+
+    private int readSubject(int position, int end) {
+        if (buffer[position] == '<') {
+            int close = indexOf(buffer, position + 1, end, (byte) '>');
+            if (close < 0) throw new IllegalArgumentException("Unterminated IRI");
+            subject = getTerm(position + 1, close);
+            return close + 1;
+        } else if (isBlankNode(position, end)) {
+            int close = findWhitespace(position, end);
+            subject = getTerm(position, close);
+            return close;
+        }
+        throw new IllegalArgumentException("Subject must be an IRI or a blank node");
+    }
+
+    private int readPredicate(int position, int end) {
+        if (position < end && buffer[position] == '<') {
+            int close = indexOf(buffer, position + 1, end, (byte) '>');
+            if (close < 0) throw new IllegalArgumentException("Unterminated IRI");
+            predicate = getTerm(position + 1, close);
+            return close + 1;
+        }
+        throw new IllegalArgumentException("Predicate must be an IRI");
+    }
+
+    /**
+     * Reads the object.
+     *
+     * @param position Start position.
+     * @param end      End of the line.
+     * @return Position after the object. -1 if the object is a literal and literals shall not be parsed.
+     */
+    private int readObject(int position, int end) {
+        if (position >= end) throw new IllegalArgumentException("Missing object");
+        byte first = buffer[position];
+        if (first == '<') {
+            int close = indexOf(buffer, position + 1, end, (byte) '>');
+            if (close < 0) throw new IllegalArgumentException("Unterminated IRI");
+            object = getTerm(position + 1, close);
+            isLiteral = false;
+            return close + 1;
+        } else if (isBlankNode(position, end)) {
+            int close = findWhitespace(position, end);
+            // a blank node label must not end with a dot (statement without whitespace before the final dot)
+            if (buffer[close - 1] == '.') close--;
+            object = getTerm(position, close);
+            isLiteral = false;
+            return close;
+        } else if (first == '"') {
+            if (!isParseDatatypeProperties) return -1;
+            int literalEnd = findLiteralEnd(position, end);
+            object = textProcessingFunction.apply(new String(buffer, position, literalEnd - position,
+                    StandardCharsets.UTF_8));
+            isLiteral = true;
+            return literalEnd;
+        }
+        throw new IllegalArgumentException("Object must be an IRI, a blank node, or a literal");
+    }
+
+    /**
+     * Finds the end of the literal which starts at the given position (including language tag or datatype).
+     *
+     * @param position Position of the opening quote.
+     * @param end      End of the line.
+     * @return Position after the literal.
+     */
+    private int findLiteralEnd(int position, int end) {
+        int i = position + 1;
+        while (i < end) {
+            byte b = buffer[i];
+            if (b == '\\') {
+                // escaped character: skip the next byte
+                i += 2;
+                continue;
+            }
+            if (b == '"') break;
+            i++;
+        }
+        if (i >= end) throw new IllegalArgumentException("Unterminated literal");
+        i++; // closing quote
+        if (i < end && buffer[i] == '@') {
+            // language tag
+            i++;
+            while (i < end && (isLetterOrDigit(buffer[i]) || buffer[i] == '-')) i++;
+        } else if (i + 1 < end && buffer[i] == '^' && buffer[i + 1] == '^') {
+            // datatype
+            if (i + 2 >= end || buffer[i + 2] != '<') throw new IllegalArgumentException("Invalid datatype");
+            int close = indexOf(buffer, i + 3, end, (byte) '>');
+            if (close < 0) throw new IllegalArgumentException("Unterminated datatype IRI");
+            i = close + 1;
+        }
+        return i;
+    }
+
+    /**
+     * Obtain the (shortened and interned) string for the given term bytes. The term cache is consulted first.
+     *
+     * @param start Start of the term (inclusive).
+     * @param end   End of the term (exclusive).
+     * @return The term.
+     */
+    private String getTerm(int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & cacheMask;
+        byte[] key = cacheKeys[slot];
+        if (key != null && cacheHashes[slot] == hash && isEqual(key, start, end)) {
+            return cacheValues[slot];
+        }
+        String term = uriShortenerFunction.apply(new String(buffer, start, end - start, StandardCharsets.UTF_8))
+                .intern();
+        cacheKeys[slot] = Arrays.copyOfRange(buffer, start, end);
+        cacheHashes[slot] = hash;
+        cacheValues[slot] = term;
+        return term;
+    }
+
+    private boolean isEqual(byte[] key, int start, int end) {
+        if (key.length != end - start) return false;
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer[start + i]) return false;
+        }
+        return true;
+    }
+
+    private boolean isBlankNode(int position, int end) {
+        return buffer[position] == '_' && position + 1 < end && buffer[position + 1] == ':';
+    }
+
+    private int skipWhitespace(int position, int end) {
+        while (position < end && (buffer[position] == ' ' || buffer[position] == '\t')) position++;
+        return position;
+    }
+
+    private int findWhitespace(int position, int end) {
+        while (position < end && buffer[position] != ' ' && buffer[position] != '\t') position++;
+        return position;
+    }
+
+    private static boolean isLetterOrDigit(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9');
+    }
+
+    private static int indexOf(byte[] array, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (array[i] == value) return i;
+        }
+        return -1;
+    }
+
+    public ISearchCondition getSkipCondition() {
+        return skipCondition;
+    }
+
+    /**
+     * Set an additional line-based skip condition. Note that this slows down the parsing since every line has to be
+     * decoded as string.
+     *
+     * @param skipCondition The skip condition (may be null).
+     */
+    public void setSkipCondition(ISearchCondition skipCondition) {
+        this.skipCondition = skipCondition;
+    }
+
+    public Writer getOptimizedFileWriter() {
+        return optimizedFileWriter;
+    }
+
+    public void setOptimizedFileWriter(Writer optimizedFileWriter) {
+        this.optimizedFileWriter = optimizedFileWriter;
+    }
+}
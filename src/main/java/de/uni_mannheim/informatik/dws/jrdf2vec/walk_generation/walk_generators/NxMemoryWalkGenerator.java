@@ -1,6 +1,6 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
 
-import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TripleDataSetMemory;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IntTripleDataSetMemory;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.LineIterator;
 import org.semanticweb.yars.nx.Node;
@@ -42,7 +42,7 @@ public class NxMemoryWalkGenerator extends MemoryWalkGenerator {
      * Constructor
      */
     public NxMemoryWalkGenerator() {
-        data = new TripleDataSetMemory();
+        data = new IntTripleDataSetMemory();
         uriShortenerFunction = s -> s;
     }
 
@@ -0,0 +1,187 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IntTripleDataSetMemory;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.EntitySelector;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.MemoryEntitySelector;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.UnaryOperator;
+import java.util.stream.StreamSupport;
+
+/**
+ * A memory walk generator which streams an RDF file in any syntax supported by Jena RIOT (e.g. Turtle or RDF/XML)
+ * directly into the in-memory data structure. In contrast to loading the file into an
+ * {@link org.apache.jena.ontology.OntModel} first, no second in-memory representation of the graph is created.
+ * <p>
+ * The entities (all IRIs that appear in a parsed triple) are streamed from the node dictionary of the data store (see
+ * {@link RdfStreamMemoryWalkGenerator#getEntitySpliterator()}), i.e., no second copy of the entity strings is kept.
+ */
+public class RdfStreamMemoryWalkGenerator extends MemoryWalkGenerator {
+
+
+    /**
+     * Default logger
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(RdfStreamMemoryWalkGenerator.class);
+
+    /**
+     * Prefix of blank node labels (see {@link RdfStreamMemoryWalkGenerator#getResource(Node)}).
+     */
+    private static final String BLANK_NODE_PREFIX = "_:";
+
+    /**
+     * Constructor
+     */
+    public RdfStreamMemoryWalkGenerator() {
+        data = new IntTripleDataSetMemory();
+        uriShortenerFunction = s -> s;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param fileToReadFrom         The file to be read. The syntax is determined by the file extension.
+     * @param isParseDatatypeTriples True if datatype triples shall also be parsed.
+     */
+    public RdfStreamMemoryWalkGenerator(File fileToReadFrom, boolean isParseDatatypeTriples) {
+        this();
+        setParseDatatypeProperties(isParseDatatypeTriples);
+        readFile(fileToReadFrom);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param fileToReadFrom       The file to be read. The syntax is determined by the file extension.
+     * @param uriShortenerFunction The URI shortener function which maps from String to String.
+     */
+    public RdfStreamMemoryWalkGenerator(File fileToReadFrom, UnaryOperator<String> uriShortenerFunction) {
+        this();
+        this.uriShortenerFunction = uriShortenerFunction;
+        readFile(fileToReadFrom);
+    }
+
+    /**
+     * Read the given file. The syntax is determined by the file extension.
+     *
+     * @param fileToReadFrom The file to be read.
+     */
+    public void readFile(File fileToReadFrom) {
+        readFile(fileToReadFrom, RDFLanguages.filenameToLang(fileToReadFrom.getName()));
+    }
+
+    /**
+     * Read the given file. This method will add the data in the file to the existing
+     * {@link MemoryWalkGenerator#data} store.
+     *
+     * @param fileToReadFrom The file to be read.
+     * @param language       The syntax of the file.
+     */
+    public void readFile(File fileToReadFrom, Lang language) {
+        if (!fileToReadFrom.exists()) {
+            LOGGER.error("File does not exist. Cannot parse.");
+            return;
+        }
+        if (language == null) {
+            LOGGER.error("Could not determine the syntax of file " + fileToReadFrom.getName() + ". Cannot parse.");
+            return;
+        }
+        try {
+            RDFParser.source(fileToReadFrom.getAbsolutePath()).lang(language).parse(new DataSetSink());
+            LOGGER.info("File " + fileToReadFrom.getName() + " successfully read. " + data.getObjectTripleSize()
+                    + " triples loaded.");
+        } catch (RiotException re) {
+            LOGGER.error("Could not parse: " + fileToReadFrom.getAbsolutePath() + "\nin jena.", re);
+        }
+    }
+
+    /**
+     * Obtain the entities, i.e., all IRIs that appear as subject or as non-literal object of a parsed triple.
+     *
+     * @return Set of entities.
+     */
+    public Set<String> getEntities() {
+        Set<String> result = new HashSet<>();
+        getEntitySpliterator().forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Streams the entities from the data store (see {@link MemoryEntitySelector#getEntitySpliterator()}); blank nodes
+     * are skipped.
+     *
+     * @return The entities.
+     */
+    public Spliterator<String> getEntitySpliterator() {
+        return StreamSupport.stream(new MemoryEntitySelector(data).getEntitySpliterator(), false)
+                .filter(entity -> !entity.startsWith(BLANK_NODE_PREFIX))
+                .spliterator();
+    }
+
+    /**
+     * Obtain an entity selector which streams the entities of this generator.
+     *
+     * @return Entity selector.
+     */
+    public EntitySelector getEntitySelector() {
+        return new EntitySelector() {
+            @Override
+            public Set<String> getEntities() {
+                return RdfStreamMemoryWalkGenerator.this.getEntities();
+            }
+
+            @Override
+            public Spliterator<String> getEntitySpliterator() {
+                return RdfStreamMemoryWalkGenerator.this.getEntitySpliterator();
+            }
+        };
+    }
+
+    /**
+     * Obtain the string representation of a resource node.
+     *
+     * @param node The node (IRI or blank node).
+     * @return The (shortened) IRI or the blank node label prefixed with {@code _:}.
+     */
+    private String getResource(Node node) {
+        if (node.isBlank()) {
+            return BLANK_NODE_PREFIX + node.getBlankNodeLabel();
+        }
+        return uriShortenerFunction.apply(node.getURI());
+    }
+
+    /**
+     * Receives the parsed triples and writes them into {@link MemoryWalkGenerator#data}.
+     */
+    private class DataSetSink extends StreamRDFBase {
+
+
+        @Override
+        public void triple(Triple triple) {
+            Node objectNode = triple.getObject();
+            String subject = getResource(triple.getSubject());
+            if (objectNode.isLiteral()) {
+                if (!isParseDatatypeProperties) return;
+                String predicate = uriShortenerFunction.apply(triple.getPredicate().getURI());
+                String object = textProcessingFunction.apply(objectNode.getLiteralLexicalForm());
+                data.addDatatypeTriple(subject, predicate, object);
+                return;
+            }
+            String predicate = uriShortenerFunction.apply(triple.getPredicate().getURI());
+            String object = getResource(objectNode);
+            data.addObjectTriple(subject, predicate, object);
+        }
+    }
+}
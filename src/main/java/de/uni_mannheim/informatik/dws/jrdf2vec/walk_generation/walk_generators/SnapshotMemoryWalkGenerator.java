@@ -0,0 +1,43 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.GraphSnapshot;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.SnapshotTripleDataSet;
+
+import java.io.File;
+
+/**
+ * Walk generator for graph snapshots (see {@link GraphSnapshot}). The snapshot is memory-mapped; nothing has to be
+ * parsed or indexed before the walk generation can start.
+ */
+public class SnapshotMemoryWalkGenerator extends MemoryWalkGenerator {
+
+
+    /**
+     * Constructor
+     *
+     * @param snapshotFile The snapshot file.
+     * @throws IllegalArgumentException If the snapshot cannot be loaded.
+     */
+    public SnapshotMemoryWalkGenerator(File snapshotFile) {
+        data = GraphSnapshot.load(snapshotFile);
+        if (data == null) {
+            throw new IllegalArgumentException("Could not load the graph snapshot " + snapshotFile + ".");
+        }
+        uriShortenerFunction = s -> s;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param pathToSnapshotFile Path to the snapshot file.
+     * @throws IllegalArgumentException If the snapshot cannot be loaded.
+     */
+    public SnapshotMemoryWalkGenerator(String pathToSnapshotFile) {
+        this(new File(pathToSnapshotFile));
+    }
+
+    @Override
+    public SnapshotTripleDataSet getData() {
+        return (SnapshotTripleDataSet) data;
+    }
+}
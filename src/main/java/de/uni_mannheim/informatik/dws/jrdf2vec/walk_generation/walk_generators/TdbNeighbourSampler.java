@@ -0,0 +1,210 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import org.apache.jena.atlas.lib.tuple.Tuple;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.tdb.store.DatasetGraphTDB;
+import org.apache.jena.tdb.store.NodeId;
+import org.apache.jena.tdb.store.nodetable.NodeTable;
+import org.apache.jena.tdb.store.nodetupletable.NodeTupleTable;
+import org.apache.jena.tdb.sys.TDBInternal;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws random neighbours of a node in a (TDB) dataset without materializing the neighbour set. The neighbours are
+ * drawn via reservoir sampling over the index iterator; only the drawn edge is kept.
+ * <p>
+ * For TDB1 datasets, the sampling runs on the level of the triple index and node table: the iterator only yields
+ * {@link NodeId}s and only the drawn edge (and non-inlined objects in order to recognize literals) is decoded. TDB
+ * B+Trees do not provide positional (rank) access, hence, a draw is linear in the degree but does not allocate a
+ * neighbour set. For all other datasets, the sampling runs on the level of the {@link Graph}. Since a draw scans the
+ * index, the sampler is only meant for nodes whose neighbours are too many to be cached (see
+ * {@link TdbWalkGenerator#setHubCacheSize(long)}) and for counting the degree of hubs once.
+ * <p>
+ * All methods must be called within a read transaction of the dataset (if the dataset supports transactions).
+ */
+public class TdbNeighbourSampler {
+
+
+    private final Dataset dataset;
+
+    /**
+     * Constructor
+     *
+     * @param dataset The dataset whose default graph is sampled.
+     */
+    public TdbNeighbourSampler(Dataset dataset) {
+        this.dataset = dataset;
+    }
+
+    /**
+     * Draw a random successor of the given node. Datatype triples are not considered.
+     *
+     * @param subject The node.
+     * @param result  Array of length 2 that receives the predicate (position 0) and the object (position 1).
+     * @return False if the node has no successor (the result array is not changed in that case).
+     */
+    public boolean drawForward(String subject, String[] result) {
+        return draw(NodeFactory.createURI(subject), true, result);
+    }
+
+    /**
+     * Draw a random predecessor of the given node.
+     *
+     * @param object The node.
+     * @param result Array of length 2 that receives the predicate (position 0) and the subject (position 1).
+     * @return False if the node has no predecessor (the result array is not changed in that case).
+     */
+    public boolean drawBackward(String object, String[] result) {
+        return draw(NodeFactory.createURI(object), false, result);
+    }
+
+    /**
+     * Count the successors of the given node. Datatype triples are not considered.
+     *
+     * @param subject The node.
+     * @param limit   Counting stops once the limit is reached.
+     * @return The number of successors (at most {@code limit}).
+     */
+    public long countForward(String subject, long limit) {
+        return count(NodeFactory.createURI(subject), true, limit);
+    }
+
+    /**
+     * Count the predecessors of the given node.
+     *
+     * @param object The node.
+     * @param limit  Counting stops once the limit is reached.
+     * @return The number of predecessors (at most {@code limit}).
+     */
+    public long countBackward(String object, long limit) {
+        return count(NodeFactory.createURI(object), false, limit);
+    }
+
+    /**
+     * Checks whether the sampling runs on the level of the TDB1 triple index.
+     *
+     * @return True if the dataset is a TDB1 dataset.
+     */
+    public boolean isNodeIdLevel() {
+        return TDBInternal.isTDB1(dataset.asDatasetGraph());
+    }
+
+    /**
+     * Reservoir sampling over the edges of the given node.
+     *
+     * @param isForward True if the node is the subject (literal objects are skipped), false if it is the object.
+     */
+    private boolean draw(Node node, boolean isForward, String[] result) {
+        DatasetGraph datasetGraph = dataset.asDatasetGraph();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long count = 0;
+        if (TDBInternal.isTDB1(datasetGraph)) {
+            NodeTupleTable tupleTable = getNodeTupleTable(datasetGraph);
+            NodeTable nodeTable = tupleTable.getNodeTable();
+            NodeId nodeId = nodeTable.getNodeIdForNode(node);
+            if (NodeId.isDoesNotExist(nodeId)) return false;
+            NodeId drawnPredicate = null;
+            NodeId drawnNeighbour = null;
+            Iterator<Tuple<NodeId>> iterator = find(tupleTable, nodeId, isForward);
+            while (iterator.hasNext()) {
+                Tuple<NodeId> tuple = iterator.next();
+                NodeId neighbour = isForward ? tuple.get(2) : tuple.get(0);
+                if (isForward && isLiteral(nodeTable, neighbour)) continue;
+                count++;
+                if (random.nextLong(count) == 0) {
+                    drawnPredicate = tuple.get(1);
+                    drawnNeighbour = neighbour;
+                }
+            }
+            if (count == 0) return false;
+            result[0] = nodeTable.getNodeForNodeId(drawnPredicate).getURI();
+            result[1] = toString(nodeTable.getNodeForNodeId(drawnNeighbour));
+            return true;
+        }
+
+        Triple drawn = null;
+        ExtendedIterator<Triple> iterator = find(datasetGraph.getDefaultGraph(), node, isForward);
+        try {
+            while (iterator.hasNext()) {
+                Triple triple = iterator.next();
+                if (isForward && triple.getObject().isLiteral()) continue;
+                count++;
+                if (random.nextLong(count) == 0) drawn = triple;
+            }
+        } finally {
+            iterator.close();
+        }
+        if (drawn == null) return false;
+        result[0] = drawn.getPredicate().getURI();
+        result[1] = toString(isForward ? drawn.getObject() : drawn.getSubject());
+        return true;
+    }
+
+    private long count(Node node, boolean isForward, long limit) {
+        DatasetGraph datasetGraph = dataset.asDatasetGraph();
+        long count = 0;
+        if (TDBInternal.isTDB1(datasetGraph)) {
+            NodeTupleTable tupleTable = getNodeTupleTable(datasetGraph);
+            NodeTable nodeTable = tupleTable.getNodeTable();
+            NodeId nodeId = nodeTable.getNodeIdForNode(node);
+            if (NodeId.isDoesNotExist(nodeId)) return 0;
+            Iterator<Tuple<NodeId>> iterator = find(tupleTable, nodeId, isForward);
+            while (count < limit && iterator.hasNext()) {
+                Tuple<NodeId> tuple = iterator.next();
+                if (isForward && isLiteral(nodeTable, tuple.get(2))) continue;
+                count++;
+            }
+            return count;
+        }
+
+        ExtendedIterator<Triple> iterator = find(datasetGraph.getDefaultGraph(), node, isForward);
+        try {
+            while (count < limit && iterator.hasNext()) {
+                Triple triple = iterator.next();
+                if (isForward && triple.getObject().isLiteral()) continue;
+                count++;
+            }
+        } finally {
+            iterator.close();
+        }
+        return count;
+    }
+
+    private static NodeTupleTable getNodeTupleTable(DatasetGraph datasetGraph) {
+        // within a transaction, the transaction view of the dataset is returned
+        DatasetGraphTDB datasetGraphTdb = TDBInternal.getDatasetGraphTDB(datasetGraph);
+        return datasetGraphTdb.getTripleTable().getNodeTupleTable();
+    }
+
+    private static Iterator<Tuple<NodeId>> find(NodeTupleTable tupleTable, NodeId nodeId, boolean isForward) {
+        return isForward ? tupleTable.find(nodeId, NodeId.NodeIdAny, NodeId.NodeIdAny) :
+                tupleTable.find(NodeId.NodeIdAny, NodeId.NodeIdAny, nodeId);
+    }
+
+    private static ExtendedIterator<Triple> find(Graph graph, Node node, boolean isForward) {
+        return isForward ? graph.find(node, Node.ANY, Node.ANY) : graph.find(Node.ANY, Node.ANY, node);
+    }
+
+    /**
+     * Inlined node IDs are always literals (numbers, dates, booleans); all other IDs are decoded via the (cached)
+     * node table.
+     */
+    private static boolean isLiteral(NodeTable nodeTable, NodeId nodeId) {
+        return NodeId.isInline(nodeId) || nodeTable.getNodeForNodeId(nodeId).isLiteral();
+    }
+
+    private static String toString(Node node) {
+        if (node.isBlank()) {
+            return node.getBlankNodeLabel();
+        }
+        return node.getURI();
+    }
+}
@@ -1,20 +1,41 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
 
 import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.NeighbourCache;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.*;
+import org.apache.jena.system.Txn;
 import org.apache.jena.tdb.TDBFactory;
+import org.apache.jena.tdb2.TDB2Factory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
-
+import java.util.function.Supplier;
+
+/**
+ * Walk generator for TDB datasets. TDB1 directories are opened via {@link TDBFactory}. TDB2 directories (see
+ * {@link Util#isTdb2Directory(File)}) are opened via {@link TDB2Factory} which requires
+ * {@code org.apache.jena:jena-tdb2} on the classpath (an optional dependency); alternatively, any {@link Dataset} can
+ * be passed directly.
+ * <p>
+ * The dataset is only read within read transactions. Since transactions are bound to the current thread, each walk
+ * thread reads within its own transaction; hence, one instance can be shared by all walk threads.
+ * <p>
+ * The neighbours of a node are read once and kept in a {@link NeighbourCache} so that a walk step is a constant-time
+ * array access. Nodes with more than {@link TdbWalkGenerator#getMaximalCachedDegree()} neighbours (hubs) are kept in
+ * separate hub caches with their own bound since a single hub could displace large parts of the regular cache. Hence,
+ * a walk step on a hub is an array access, too. Only hubs whose neighbour array exceeds the bound of the hub cache are
+ * drawn from the triple index via {@link TdbNeighbourSampler} in each step.
+ */
 public class TdbWalkGenerator implements IWalkGenerator, IMidWalkCapability, IMidWalkDuplicateFreeCapability,
-        IRandomWalkDuplicateFreeCapability, IMidWalkWeightedCapability, ICloseableWalkGenerator {
+        IRandomWalkDuplicateFreeCapability, IMidWalkWeightedCapability, INodeDegreeCapability,
+        ICloseableWalkGenerator {
 
 
     /**
@@ -22,18 +43,97 @@ public class TdbWalkGenerator implements IWalkGenerator, IMidWalkCapability, IMi
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(TdbWalkGenerator.class);
 
+    /**
+     * Default maximal number of neighbours of a node that are cached.
+     */
+    public static final int DEFAULT_MAXIMAL_CACHED_DEGREE = 10_000;
+
+    /**
+     * Default maximal number of cached references per direction in the hub caches.
+     */
+    public static final long DEFAULT_HUB_CACHE_WEIGHT = 1L << 25;
+
+    /**
+     * Cache entry of nodes whose neighbours are not cached (compared by identity).
+     */
+    private static final String[] TOO_MANY_NEIGHBOURS = new String[0];
+
     private Dataset tdbDataset;
     private Model tdbModel;
 
+    /**
+     * Cache for the successors (forward direction) as {@code [predicate_0, object_0, predicate_1, object_1, ...]}.
+     */
+    private NeighbourCache forwardCache = new NeighbourCache();
+
+    /**
+     * Cache for the predecessors (backward direction) as {@code [predicate_0, subject_0, predicate_1, subject_1, ...]}.
+     */
+    private NeighbourCache backwardCache = new NeighbourCache();
+
+    /**
+     * Cache for the successors of hubs. There are only few hubs, hence, a concurrency level of 1 is used so that a hub
+     * may use the full bound.
+     */
+    private NeighbourCache forwardHubCache = new NeighbourCache(DEFAULT_HUB_CACHE_WEIGHT, 1);
+
+    /**
+     * Cache for the predecessors of hubs.
+     */
+    private NeighbourCache backwardHubCache = new NeighbourCache(DEFAULT_HUB_CACHE_WEIGHT, 1);
+
+    /**
+     * Nodes with more successors than {@link TdbWalkGenerator#maximalCachedDegree} together with their number of
+     * successors.
+     */
+    private final Map<String, Long> forwardHubDegrees = new ConcurrentHashMap<>();
+
+    /**
+     * Nodes with more predecessors than {@link TdbWalkGenerator#maximalCachedDegree} together with their number of
+     * predecessors.
+     */
+    private final Map<String, Long> backwardHubDegrees = new ConcurrentHashMap<>();
+
+    private int maximalCachedDegree = DEFAULT_MAXIMAL_CACHED_DEGREE;
+
+    private final TdbNeighbourSampler sampler;
+
     /**
      * Main Constructor
      *
-     * @param pathToTdbDataset File path to the TDB dataset.
+     * @param pathToTdbDataset File path to the TDB (or TDB2) dataset.
      */
     public TdbWalkGenerator(String pathToTdbDataset) {
-        tdbDataset = TDBFactory.createDataset(pathToTdbDataset);
-        //tdbDataset.begin(ReadWrite.READ);
-        tdbModel = tdbDataset.getDefaultModel();
+        this(Util.isTdb2Directory(new File(pathToTdbDataset)) ? connectTdb2Dataset(pathToTdbDataset) :
+                TDBFactory.createDataset(pathToTdbDataset));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tdbDataset The dataset to be used (e.g. a TDB2 dataset). It is closed in {@link TdbWalkGenerator#close()}.
+     */
+    public TdbWalkGenerator(Dataset tdbDataset) {
+        this.tdbDataset = tdbDataset;
+        this.tdbModel = tdbDataset.getDefaultModel();
+        this.sampler = new TdbNeighbourSampler(tdbDataset);
+    }
+
+    /**
+     * Opens a TDB2 dataset. TDB2 is an optional dependency: it is only loaded when a TDB2 dataset is opened.
+     *
+     * @param pathToTdb2Dataset File path to the TDB2 dataset.
+     * @return The dataset.
+     */
+    static Dataset connectTdb2Dataset(String pathToTdb2Dataset) {
+        LOGGER.info("TDB2 directory recognized.");
+        try {
+            return TDB2Factory.connectDataset(pathToTdb2Dataset);
+        } catch (NoClassDefFoundError e) {
+            LOGGER.error("Could not open the TDB2 dataset. Make sure that org.apache.jena:jena-tdb2 is on the " +
+                    "classpath.", e);
+            throw new IllegalStateException("Could not open TDB2 dataset " + pathToTdb2Dataset + ".", e);
+        }
     }
 
     /**
@@ -109,23 +209,19 @@ public class TdbWalkGenerator implements IWalkGenerator, IMidWalkCapability, IMi
 
             if (randomPickZeroOne == 0) {
                 // predecessor
-                Set<Triple> triples = getBackwardTriples(nextElementPredecessor);
-                if (triples.size() > 0) {
-                    // now we need to draw randomly...
-                    Triple triple = Util.randomDrawFromSet(triples);
-                    result.addFirst(triple.predicate);
-                    result.addFirst(triple.subject);
-                    nextElementPredecessor = triple.subject;
+                String[] edge = drawBackwardEdge(nextElementPredecessor);
+                if (edge != null) {
+                    result.addFirst(edge[0]);
+                    result.addFirst(edge[1]);
+                    nextElementPredecessor = edge[1];
                 }
             } else {
                 // successor
-                Set<Triple> triples = getForwardTriples(nextElementSuccessor);
-                if (triples.size() > 0) {
-                    Triple triple = Util.randomDrawFromSet(triples);
-
-                    result.addLast(triple.predicate);
-                    result.addLast(triple.object);
-                    nextElementSuccessor = triple.object;
+                String[] edge = drawForwardEdge(nextElementSuccessor);
+                if (edge != null) {
+                    result.addLast(edge[0]);
+                    result.addLast(edge[1]);
+                    nextElementSuccessor = edge[1];
                 }
             }
         }
@@ -139,18 +235,15 @@ public class TdbWalkGenerator implements IWalkGenerator, IMidWalkCapability, IMi
      */
     public Set<Triple> getBackwardTriples(String object) {
         Set<Triple> result = new HashSet<>();
-        Set<Statement> tdbStatements =  tdbModel.listStatements(null, null, tdbModel.createResource(object)).toSet();
-
-        for (Statement statement : tdbStatements) {
-            String subjectUri;
-            RDFNode subject = statement.getSubject();
-            if (subject.isAnon()) {
-                subjectUri = subject.asResource().getId().getLabelString();
-            } else {
-                subjectUri = subject.asResource().getURI();
-            }
-            Triple t = new Triple(subjectUri, statement.getPredicate().getURI(), object);
-            result.add(t);
+        String[] predecessors = getBackwardNeighbours(object);
+        if (predecessors == TOO_MANY_NEIGHBOURS) {
+            predecessors = getBackwardHubNeighbours(object);
+        }
+        if (predecessors == TOO_MANY_NEIGHBOURS) {
+            predecessors = read(() -> readBackwardNeighboursInTransaction(object, Integer.MAX_VALUE));
+        }
+        for (int i = 0; i < predecessors.length; i += 2) {
+            result.add(new Triple(predecessors[i + 1], predecessors[i], object));
         }
         return result;
     }
@@ -162,76 +255,291 @@ public class TdbWalkGenerator implements IWalkGenerator, IMidWalkCapability, IMi
      */
     public Set<Triple> getForwardTriples(String subject) {
         Set<Triple> result = new HashSet<>();
-        Set<Statement> tdbStatements =  tdbModel.createResource(subject)
-                .listProperties()
-                .filterKeep(x -> x.getObject().isResource())
-                .toSet();
-
-        for (Statement statement : tdbStatements) {
-            String objectUri;
-            RDFNode object = statement.getObject();
-            if (object.isAnon()) {
-                objectUri = object.asResource().getId().getLabelString();
-            } else {
-                objectUri = object.asResource().getURI();
-            }
-            Triple t = new Triple(subject, statement.getPredicate().getURI(), objectUri);
-            result.add(t);
+        String[] successors = getForwardNeighbours(subject);
+        if (successors == TOO_MANY_NEIGHBOURS) {
+            successors = getForwardHubNeighbours(subject);
+        }
+        if (successors == TOO_MANY_NEIGHBOURS) {
+            successors = read(() -> readForwardNeighboursInTransaction(subject, Integer.MAX_VALUE));
+        }
+        for (int i = 0; i < successors.length; i += 2) {
+            result.add(new Triple(subject, successors[i], successors[i + 1]));
         }
         return result;
     }
 
-    public void close() {
-        tdbDataset.close();
+    /**
+     * Obtain the predecessors of the given node (cached).
+     * @param object The node.
+     * @return Array in the form {@code [predicate_0, subject_0, predicate_1, subject_1, ...]}. Must not be modified.
+     * For nodes with more than {@link TdbWalkGenerator#getMaximalCachedDegree()} predecessors, an empty marker array
+     * is returned which is identical to {@link TdbWalkGenerator#TOO_MANY_NEIGHBOURS}.
+     */
+    String[] getBackwardNeighbours(String object) {
+        return backwardCache.get(object, this::readBackwardNeighbours);
+    }
+
+    /**
+     * Obtain the successors of the given node (cached). Datatype triples are not included.
+     * @param subject The node.
+     * @return Array in the form {@code [predicate_0, object_0, predicate_1, object_1, ...]}. Must not be modified.
+     * For nodes with more than {@link TdbWalkGenerator#getMaximalCachedDegree()} successors, an empty marker array
+     * is returned which is identical to {@link TdbWalkGenerator#TOO_MANY_NEIGHBOURS}.
+     */
+    String[] getForwardNeighbours(String subject) {
+        return forwardCache.get(subject, this::readForwardNeighbours);
+    }
+
+    /**
+     * Obtain the predecessors of a hub from the hub cache.
+     * @param object The hub.
+     * @return Array in the form {@code [predicate_0, subject_0, predicate_1, subject_1, ...]}. Must not be modified.
+     * If the predecessors exceed the bound of the hub cache, {@link TdbWalkGenerator#TOO_MANY_NEIGHBOURS} is returned.
+     */
+    String[] getBackwardHubNeighbours(String object) {
+        return backwardHubCache.get(object, this::readBackwardHubNeighbours);
+    }
+
+    /**
+     * Obtain the successors of a hub from the hub cache. Datatype triples are not included.
+     * @param subject The hub.
+     * @return Array in the form {@code [predicate_0, object_0, predicate_1, object_1, ...]}. Must not be modified.
+     * If the successors exceed the bound of the hub cache, {@link TdbWalkGenerator#TOO_MANY_NEIGHBOURS} is returned.
+     */
+    String[] getForwardHubNeighbours(String subject) {
+        return forwardHubCache.get(subject, this::readForwardHubNeighbours);
+    }
+
+    /**
+     * Draw a random predecessor of the given node.
+     * @param object The node.
+     * @return Array {@code [predicate, subject]} or null if there is no predecessor.
+     */
+    String[] drawBackwardEdge(String object) {
+        String[] predecessors = getBackwardNeighbours(object);
+        if (predecessors == TOO_MANY_NEIGHBOURS) {
+            predecessors = getBackwardHubNeighbours(object);
+        }
+        if (predecessors == TOO_MANY_NEIGHBOURS) {
+            return read(() -> {
+                String[] edge = new String[2];
+                return sampler.drawBackward(object, edge) ? edge : null;
+            });
+        }
+        return drawEdge(predecessors);
+    }
+
+    /**
+     * Draw a random successor of the given node. Datatype triples are not considered.
+     * @param subject The node.
+     * @return Array {@code [predicate, object]} or null if there is no successor.
+     */
+    String[] drawForwardEdge(String subject) {
+        String[] successors = getForwardNeighbours(subject);
+        if (successors == TOO_MANY_NEIGHBOURS) {
+            successors = getForwardHubNeighbours(subject);
+        }
+        if (successors == TOO_MANY_NEIGHBOURS) {
+            return read(() -> {
+                String[] edge = new String[2];
+                return sampler.drawForward(subject, edge) ? edge : null;
+            });
+        }
+        return drawEdge(successors);
+    }
+
+    /**
+     * Returns the number of predecessors of the given node.
+     * @param object The node.
+     * @return Number of predecessors.
+     */
+    long getBackwardDegree(String object) {
+        String[] predecessors = getBackwardNeighbours(object);
+        if (predecessors == TOO_MANY_NEIGHBOURS) {
+            return backwardHubDegrees.getOrDefault(object, 0L);
+        }
+        return predecessors.length / 2;
     }
 
+    /**
+     * Returns the number of successors of the given node. Datatype triples are not considered.
+     * @param subject The node.
+     * @return Number of successors.
+     */
+    long getForwardDegree(String subject) {
+        String[] successors = getForwardNeighbours(subject);
+        if (successors == TOO_MANY_NEIGHBOURS) {
+            return forwardHubDegrees.getOrDefault(subject, 0L);
+        }
+        return successors.length / 2;
+    }
+
+    /**
+     * The successors are read into the neighbour cache (or, for hubs, counted once) so that the walks of the node hit
+     * the cache afterwards.
+     *
+     * @param node The node.
+     * @return The number of successors (datatype triples are not considered); 0 if the node is unknown.
+     */
     @Override
-    public List<String> generateDuplicateFreeRandomWalksForEntity(String entity, int numberOfWalks, int depth) {
+    public int getOutDegree(String node) {
+        return (int) Math.min(Integer.MAX_VALUE, getForwardDegree(node));
+    }
+
+    /**
+     * The predecessors are read into the neighbour cache (or, for hubs, counted once) so that the walks of the node hit
+     * the cache afterwards.
+     *
+     * @param node The node.
+     * @return The number of predecessors; 0 if the node is unknown.
+     */
+    @Override
+    public int getInDegree(String node) {
+        return (int) Math.min(Integer.MAX_VALUE, getBackwardDegree(node));
+    }
+
+    /**
+     * The degree requires a read of the node's successors on a cache miss.
+     *
+     * @return False.
+     */
+    @Override
+    public boolean isConstantTimeOutDegree() {
+        return false;
+    }
+
+    /**
+     * Runs the given read operation in a read transaction (unless the current thread is already in a transaction).
+     * Due to the neighbour caches, this is only required on cache misses.
+     */
+    private String[] read(Supplier<String[]> operation) {
+        if (!tdbDataset.supportsTransactions()) return operation.get();
+        return Txn.calculateRead(tdbDataset, operation);
+    }
+
+    private String[] readBackwardNeighbours(String object) {
+        return read(() -> {
+            String[] result = readBackwardNeighboursInTransaction(object, maximalCachedDegree);
+            if (result == TOO_MANY_NEIGHBOURS) {
+                backwardHubDegrees.computeIfAbsent(object, node -> sampler.countBackward(node, Long.MAX_VALUE));
+            }
+            return result;
+        });
+    }
+
+    private String[] readBackwardHubNeighbours(String object) {
+        return read(() -> {
+            long degree = backwardHubDegrees.computeIfAbsent(object,
+                    node -> sampler.countBackward(node, Long.MAX_VALUE));
+            if (2 * degree + 1 > backwardHubCache.getMaximalWeight()) return TOO_MANY_NEIGHBOURS;
+            return readBackwardNeighboursInTransaction(object, Integer.MAX_VALUE);
+        });
+    }
+
+    private String[] readForwardNeighbours(String subject) {
+        return read(() -> {
+            String[] result = readForwardNeighboursInTransaction(subject, maximalCachedDegree);
+            if (result == TOO_MANY_NEIGHBOURS) {
+                forwardHubDegrees.computeIfAbsent(subject, node -> sampler.countForward(node, Long.MAX_VALUE));
+            }
+            return result;
+        });
+    }
+
+    private String[] readForwardHubNeighbours(String subject) {
+        return read(() -> {
+            long degree = forwardHubDegrees.computeIfAbsent(subject,
+                    node -> sampler.countForward(node, Long.MAX_VALUE));
+            if (2 * degree + 1 > forwardHubCache.getMaximalWeight()) return TOO_MANY_NEIGHBOURS;
+            return readForwardNeighboursInTransaction(subject, Integer.MAX_VALUE);
+        });
+    }
+
+    /**
+     * Read the predecessors of the given node.
+     * @param object The node.
+     * @param maximalDegree Reading stops if the node has more predecessors.
+     * @return The predecessors or {@link TdbWalkGenerator#TOO_MANY_NEIGHBOURS}.
+     */
+    private String[] readBackwardNeighboursInTransaction(String object, int maximalDegree) {
         List<String> result = new ArrayList<>();
-        List<List<Triple>> walks = new ArrayList();
-        boolean isFirstIteration = true;
-        for (int currentDepth = 0; currentDepth < depth; currentDepth++) {
-            // initialize with first node
-            if (isFirstIteration) {
-                Set<Triple> neighbours = getForwardTriples(entity);
-                if (neighbours == null || neighbours.size() == 0) {
-                    return result;
-                }
-                for (Triple neighbour : neighbours) {
-                    ArrayList<Triple> individualWalk = new ArrayList<>();
-                    individualWalk.add(neighbour);
-                    walks.add(individualWalk);
-                }
-                isFirstIteration = false;
-            } else {
-                // create a copy
-                List<List<Triple>> walks_tmp = new ArrayList<>();
-                walks_tmp.addAll(walks);
-
-                // loop over current walks
-                for (List<Triple> walk : walks_tmp) {
-                    // get last entity
-                    Triple lastTriple = walk.get(walk.size() - 1);
-                    Set<Triple> nextIteration = getForwardTriples(lastTriple.object);
-                    if (nextIteration != null) {
-                        walks.remove(walk); // check whether this works
-                        for (Triple nextStep : nextIteration) {
-                            List<Triple> newWalk = new ArrayList<>(walk);
-                            newWalk.add(nextStep);
-                            walks.add(newWalk);
-                        }
-                    }
-                } // loop over walks
+        StmtIterator iterator = tdbModel.listStatements(null, null, tdbModel.createResource(object));
+        try {
+            while (iterator.hasNext()) {
+                if (result.size() / 2 >= maximalDegree) return TOO_MANY_NEIGHBOURS;
+                Statement statement = iterator.next();
+                result.add(statement.getPredicate().getURI());
+                result.add(getUri(statement.getSubject()));
             }
-            // trim the list
-            while (walks.size() > numberOfWalks) {
-                int randomNumber = ThreadLocalRandom.current().nextInt(walks.size());
-                walks.remove(randomNumber);
+        } finally {
+            iterator.close();
+        }
+        return result.isEmpty() ? NeighbourCache.NO_NEIGHBOURS : result.toArray(new String[0]);
+    }
+
+    /**
+     * Read the successors of the given node. Datatype triples are not included.
+     * @param subject The node.
+     * @param maximalDegree Reading stops if the node has more successors.
+     * @return The successors or {@link TdbWalkGenerator#TOO_MANY_NEIGHBOURS}.
+     */
+    private String[] readForwardNeighboursInTransaction(String subject, int maximalDegree) {
+        List<String> result = new ArrayList<>();
+        StmtIterator iterator = tdbModel.createResource(subject).listProperties();
+        try {
+            while (iterator.hasNext()) {
+                Statement statement = iterator.next();
+                if (!statement.getObject().isResource()) continue;
+                if (result.size() / 2 >= maximalDegree) return TOO_MANY_NEIGHBOURS;
+                result.add(statement.getPredicate().getURI());
+                result.add(getUri(statement.getObject()));
             }
-        } // depth loop
+        } finally {
+            iterator.close();
+        }
+        return result.isEmpty() ? NeighbourCache.NO_NEIGHBOURS : result.toArray(new String[0]);
+    }
 
-        return Util.convertToStringWalks(walks, entity, false);
+    private static String getUri(RDFNode node) {
+        if (node.isAnon()) {
+            return node.asResource().getId().getLabelString();
+        }
+        return node.asResource().getURI();
+    }
+
+    /**
+     * Draw a random neighbour from a neighbour array.
+     * @param neighbours Array in the form {@code [edge_0, node_0, edge_1, node_1, ...]}.
+     * @return Array {@code [edge, node]} or null if the array is empty.
+     */
+    private static String[] drawEdge(String[] neighbours) {
+        if (neighbours.length == 0) return null;
+        int position = 2 * ThreadLocalRandom.current().nextInt(neighbours.length / 2);
+        return new String[]{neighbours[position], neighbours[position + 1]};
+    }
+
+    public void close() {
+        LOGGER.info("Forward neighbour cache: " + forwardCache);
+        LOGGER.info("Backward neighbour cache: " + backwardCache);
+        LOGGER.info("Forward hub cache: " + forwardHubCache);
+        LOGGER.info("Backward hub cache: " + backwardHubCache);
+        tdbDataset.close();
+    }
 
+    /**
+     * Duplicate free random walks (see {@link DuplicateFreeWalkSampler}). Walks that reach a node without successors
+     * are discarded.
+     *
+     * @param entity        The entity for which walks shall be generated.
+     * @param numberOfWalks The maximal number of walks.
+     * @param depth         The depth of each walk.
+     * @return List where every item is a walk separated by spaces.
+     */
+    @Override
+    public List<String> generateDuplicateFreeRandomWalksForEntity(String entity, int numberOfWalks, int depth) {
+        List<List<Triple>> walks = DuplicateFreeWalkSampler.generateWalks(entity, numberOfWalks, depth,
+                this::getForwardTriples);
+        return Util.convertToStringWalks(walks, entity, false);
     }
 
     @Override
@@ -283,17 +591,8 @@ public class TdbWalkGenerator implements IWalkGenerator, IMidWalkCapability, IMi
             // randomly decide whether to use predecessors or successors
             double randomPickZeroOne = ThreadLocalRandom.current().nextDouble(0.0, 1.00000001);
 
-            // predecessor candidates
-            Set<Triple> candidatesPredecessor = getBackwardTriples(nextElementPredecessor);
-
-            // successor candidates
-            Set<Triple> candidatesSuccessor = getForwardTriples(nextElementSuccessor);
-
-            double numberOfPredecessors = 0.0;
-            double numberOfSuccessors = 0.0;
-
-            if (candidatesPredecessor != null) numberOfPredecessors = candidatesPredecessor.size();
-            if (candidatesSuccessor != null) numberOfSuccessors = candidatesSuccessor.size();
+            double numberOfPredecessors = getBackwardDegree(nextElementPredecessor);
+            double numberOfSuccessors = getForwardDegree(nextElementSuccessor);
 
             // if there are no successors and predecessors: return current walk
             if (numberOfPredecessors == 0 && numberOfSuccessors == 0) return result;
@@ -303,30 +602,100 @@ public class TdbWalkGenerator implements IWalkGenerator, IMidWalkCapability, IMi
 
             if (randomPickZeroOne <= cutOffPoint) {
                 // predecessor
-                if (candidatesPredecessor != null && candidatesPredecessor.size() > 0) {
-                    Triple drawnTriple = Util.randomDrawFromSet(candidatesPredecessor);
-
+                String[] edge = drawBackwardEdge(nextElementPredecessor);
+                if (edge != null) {
                     // add walks from the front (walk started before entity)
-                    result.addFirst(drawnTriple.predicate);
-                    result.addFirst(drawnTriple.subject);
-                    nextElementPredecessor = drawnTriple.subject;
+                    result.addFirst(edge[0]);
+                    result.addFirst(edge[1]);
+                    nextElementPredecessor = edge[1];
                 }
             } else {
                 // successor
-                if (candidatesSuccessor != null && candidatesSuccessor.size() > 0) {
-                    Triple tripleToAdd = Util.randomDrawFromSet(candidatesSuccessor);
-
+                String[] edge = drawForwardEdge(nextElementSuccessor);
+                if (edge != null) {
                     // add next walk iteration
-                    result.addLast(tripleToAdd.predicate);
-                    result.addLast(tripleToAdd.object);
-                    nextElementSuccessor = tripleToAdd.object;
+                    result.addLast(edge[0]);
+                    result.addLast(edge[1]);
+                    nextElementSuccessor = edge[1];
                 }
             }
         }
         return result;
     }
 
+    /**
+     * Note that the model must only be read within a read transaction of {@link TdbWalkGenerator#getTdbDataset()}.
+     *
+     * @return The default model of the dataset.
+     */
     public Model getTdbModel() {
         return tdbModel;
     }
+
+    public Dataset getTdbDataset() {
+        return tdbDataset;
+    }
+
+    public NeighbourCache getForwardCache() {
+        return forwardCache;
+    }
+
+    public NeighbourCache getBackwardCache() {
+        return backwardCache;
+    }
+
+    public NeighbourCache getForwardHubCache() {
+        return forwardHubCache;
+    }
+
+    public NeighbourCache getBackwardHubCache() {
+        return backwardHubCache;
+    }
+
+    /**
+     * Set the size of the neighbour caches. The cached neighbours are discarded.
+     *
+     * @param maximalWeight The maximal number of cached references per direction. If 0, nothing is cached.
+     */
+    public void setNeighbourCacheSize(long maximalWeight) {
+        this.forwardCache = new NeighbourCache(maximalWeight);
+        this.backwardCache = new NeighbourCache(maximalWeight);
+        this.forwardHubDegrees.clear();
+        this.backwardHubDegrees.clear();
+    }
+
+    /**
+     * Set the size of the hub caches. The cached hub neighbours are discarded. The neighbours of hubs that exceed the
+     * bound are drawn from the triple index in each step.
+     *
+     * @param maximalWeight The maximal number of cached references per direction. If 0, no hub is cached.
+     */
+    public void setHubCacheSize(long maximalWeight) {
+        this.forwardHubCache = new NeighbourCache(maximalWeight, 1);
+        this.backwardHubCache = new NeighbourCache(maximalWeight, 1);
+    }
+
+    public int getMaximalCachedDegree() {
+        return maximalCachedDegree;
+    }
+
+    /**
+     * Set the maximal number of neighbours of a node that are kept in the regular neighbour cache. The neighbours of
+     * nodes with a higher degree (hubs) are kept in the hub caches. All cached neighbours are discarded.
+     *
+     * @param maximalCachedDegree The maximal degree (&gt;= 0).
+     */
+    public void setMaximalCachedDegree(int maximalCachedDegree) {
+        if (maximalCachedDegree < 0) {
+            LOGGER.error("The maximal cached degree must be >= 0. Ignoring the call.");
+            return;
+        }
+        this.maximalCachedDegree = maximalCachedDegree;
+        setNeighbourCacheSize(forwardCache.getMaximalWeight());
+        setHubCacheSize(forwardHubCache.getMaximalWeight());
+    }
+
+    public TdbNeighbourSampler getSampler() {
+        return sampler;
+    }
 }
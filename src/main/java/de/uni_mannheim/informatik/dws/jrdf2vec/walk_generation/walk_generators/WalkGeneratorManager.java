@@ -1,10 +1,10 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
 
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.GraphSnapshot;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.HdtHandle;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.EntitySelector;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.HdtEntitySelector;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.MemoryEntitySelector;
-import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.OntModelEntitySelector;
-import org.apache.jena.ontology.OntModel;
 import org.apache.jena.riot.Lang;
 import org.javatuples.Pair;
 import org.slf4j.Logger;
@@ -12,9 +12,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
-
-import static de.uni_mannheim.informatik.dws.jrdf2vec.util.Util.readOntology;
 
 /**
  * This class provides management (utility) functions for different walk generators, for example when it comes to
@@ -51,55 +48,105 @@ public class WalkGeneratorManager {
      * @return Pair with parser and entity selector.
      */
     public static Pair<IWalkGenerator, EntitySelector> parseSingleFile(File tripleFile, boolean isParseDatatypeTriples){
+        return parseSingleFile(tripleFile, isParseDatatypeTriples, 1);
+    }
+
+    /**
+     * Given a triple file, this method determines the appropriate parser and entity selector.
+     * @param tripleFile The triple file to be processed.
+     * @param isParseDatatypeTriples True if datatype properties shall also be parsed.
+     * @param numberOfThreads The number of threads that may be used to parse an N-Triples file. With more than one
+     *                        thread, ".nt" files are parsed in parallel by the {@link NtTokenizer}; otherwise, the
+     *                        NxParser is used. Gzipped ".nt.gz" files are always read by the {@link NtTokenizer}.
+     * @return Pair with parser and entity selector. Both are null if the file could not be parsed.
+     */
+    public static Pair<IWalkGenerator, EntitySelector> parseSingleFile(File tripleFile, boolean isParseDatatypeTriples,
+                                                                       int numberOfThreads){
+        return parseSingleFile(tripleFile, isParseDatatypeTriples, numberOfThreads, HdtHandle.DEFAULT_LOADING_MODE);
+    }
+
+    /**
+     * Given a triple file, this method determines the appropriate parser and entity selector.
+     * @param tripleFile The triple file to be processed.
+     * @param isParseDatatypeTriples True if datatype properties shall also be parsed.
+     * @param numberOfThreads The number of threads that may be used to parse an N-Triples file. With more than one
+     *                        thread, ".nt" files are parsed in parallel by the {@link NtTokenizer}; otherwise, the
+     *                        NxParser is used. Gzipped ".nt.gz" files are always read by the {@link NtTokenizer}.
+     * @param hdtLoadingMode The mode in which HDT files are opened. Ignored for other file types.
+     * @return Pair with parser and entity selector. Both are null if the file could not be parsed.
+     */
+    public static Pair<IWalkGenerator, EntitySelector> parseSingleFile(File tripleFile, boolean isParseDatatypeTriples,
+                                                                       int numberOfThreads,
+                                                                       HdtHandle.LoadingMode hdtLoadingMode){
         IWalkGenerator parser = null;
         EntitySelector entitySelector = null;
-        try {
-            String pathToTripleFile = tripleFile.getAbsolutePath();
-            String fileName = tripleFile.getName();
-            if (fileName.toLowerCase().endsWith(".nt") | fileName.toLowerCase().endsWith(".nq")) {
-                if(fileName.toLowerCase().endsWith(".nq")){
-                    LOGGER.info("NQ File detected: Please note that the graph information will be skipped.");
-                }
-                try {
-                    LOGGER.info("Using NxParser.");
-                    parser = new NxMemoryWalkGenerator(pathToTripleFile, isParseDatatypeTriples);
-                    entitySelector = new MemoryEntitySelector(((NxMemoryWalkGenerator) parser).getData());
-                } catch (Exception e) {
-                    LOGGER.error("There was a problem using the default NxParser. Retry with slower NtParser.");
-                    parser = new NtMemoryWalkGenerator(pathToTripleFile, isParseDatatypeTriples);
-                    entitySelector = new MemoryEntitySelector(((NtMemoryWalkGenerator) parser).getData());
-                }
-                if (((MemoryWalkGenerator) parser).getDataSize() == 0L) {
-                    LOGGER.error("There was a problem using the default NxParser. Retry with slower NtParser.");
-                    parser = new NtMemoryWalkGenerator(pathToTripleFile, isParseDatatypeTriples);
-                    entitySelector = new MemoryEntitySelector(((NtMemoryWalkGenerator) parser).getData());
-                }
-            } else if (fileName.toLowerCase().endsWith(".ttl")) {
-                OntModel model = readOntology(pathToTripleFile, Lang.TTL);
-                entitySelector = new OntModelEntitySelector(model);
-                File newResourceFile = new File(tripleFile.getParent(), fileName.substring(0, fileName.length() - 3) + "nt");
-                NtMemoryWalkGenerator.saveAsNt(model, newResourceFile);
-                parser = new NtMemoryWalkGenerator(newResourceFile, isParseDatatypeTriples);
-            } else if (fileName.toLowerCase().endsWith(".xml") || fileName.toLowerCase().endsWith(".rdf")) {
-                OntModel model = readOntology(pathToTripleFile, Lang.RDFXML);
-                entitySelector = new OntModelEntitySelector(model);
-                File newResourceFile = new File(tripleFile.getParent(), fileName.substring(0, fileName.length() - 3) + "nt");
-                //this.parser = new JenaOntModelMemoryParser(this.model, this);
-                NtMemoryWalkGenerator.saveAsNt(model, newResourceFile);
-                parser = new NtMemoryWalkGenerator(newResourceFile, isParseDatatypeTriples);
-            } else if (fileName.toLowerCase().endsWith(".hdt") || fileName.toLowerCase().endsWith(".hdt.index.v1-1")) {
-                LOGGER.info("HDT file detected. Using HDT parser.");
-                try {
-                    parser = new HdtWalkGenerator(pathToTripleFile);
-                    entitySelector = new HdtEntitySelector(pathToTripleFile);
-                } catch (IOException ioe) {
-                    LOGGER.error("Propagated HDT Initializer Exception", ioe);
-                }
+        String pathToTripleFile = tripleFile.getAbsolutePath();
+        String fileName = tripleFile.getName();
+        if (GraphSnapshot.isSnapshotFile(tripleFile)) {
+            LOGGER.info("Graph snapshot detected. Using memory-mapped snapshot.");
+            try {
+                parser = new SnapshotMemoryWalkGenerator(tripleFile);
+                entitySelector = new MemoryEntitySelector(((SnapshotMemoryWalkGenerator) parser).getData());
+            } catch (IllegalArgumentException iae) {
+                LOGGER.error("The graph snapshot is corrupt. Recreate it from the original triple files.", iae);
+            }
+        } else if ((fileName.toLowerCase().endsWith(".nt") && numberOfThreads > 1)
+                || fileName.toLowerCase().endsWith(".nt.gz")) {
+            LOGGER.info("Using NtParser.");
+            NtMemoryWalkGenerator ntParser = new NtMemoryWalkGenerator(isParseDatatypeTriples);
+            boolean isComplete = ntParser.readNTriplesParallel(tripleFile, numberOfThreads);
+            parser = ntParser;
+            entitySelector = new MemoryEntitySelector(ntParser.getData());
+            if ((!isComplete || ntParser.getDataSize() == 0L) && fileName.toLowerCase().endsWith(".nt")) {
+                LOGGER.error("There was a problem using the NtParser. Retry with NxParser.");
+                parser = new NxMemoryWalkGenerator(pathToTripleFile, isParseDatatypeTriples);
+                entitySelector = new MemoryEntitySelector(((NxMemoryWalkGenerator) parser).getData());
+            } else if (!isComplete) {
+                // there is no fallback parser for gzipped files: walks must not be generated over a partial graph
+                LOGGER.error("The file " + fileName + " could not be parsed. No walk generator is created.");
+                parser = null;
+                entitySelector = null;
+            }
+        } else if (fileName.toLowerCase().endsWith(".nt") || fileName.toLowerCase().endsWith(".nq")) {
+            if (fileName.toLowerCase().endsWith(".nq")) {
+                LOGGER.info("NQ File detected: Please note that the graph information will be skipped.");
+            }
+            try {
+                LOGGER.info("Using NxParser.");
+                parser = new NxMemoryWalkGenerator(pathToTripleFile, isParseDatatypeTriples);
+                entitySelector = new MemoryEntitySelector(((NxMemoryWalkGenerator) parser).getData());
+            } catch (Exception e) {
+                LOGGER.error("There was a problem using the default NxParser. Retry with slower NtParser.");
+                parser = new NtMemoryWalkGenerator(pathToTripleFile, isParseDatatypeTriples);
+                entitySelector = new MemoryEntitySelector(((NtMemoryWalkGenerator) parser).getData());
+            }
+            if (((MemoryWalkGenerator) parser).getDataSize() == 0L) {
+                LOGGER.error("There was a problem using the default NxParser. Retry with slower NtParser.");
+                parser = new NtMemoryWalkGenerator(pathToTripleFile, isParseDatatypeTriples);
+                entitySelector = new MemoryEntitySelector(((NtMemoryWalkGenerator) parser).getData());
+            }
+        } else if (fileName.toLowerCase().endsWith(".ttl") || fileName.toLowerCase().endsWith(".xml")
+                || fileName.toLowerCase().endsWith(".rdf")) {
+            Lang language = fileName.toLowerCase().endsWith(".ttl") ? Lang.TTL : Lang.RDFXML;
+            LOGGER.info("Streaming " + language.getName() + " file into memory.");
+            RdfStreamMemoryWalkGenerator streamParser = new RdfStreamMemoryWalkGenerator();
+            streamParser.setParseDatatypeProperties(isParseDatatypeTriples);
+            streamParser.readFile(tripleFile, language);
+            parser = streamParser;
+            entitySelector = streamParser.getEntitySelector();
+        } else if (fileName.toLowerCase().endsWith(".hdt") || fileName.toLowerCase().endsWith(".hdt.index.v1-1")) {
+            LOGGER.info("HDT file detected. Using HDT parser.");
+            try {
+                // one HDT instance is shared by the walk generator and the entity selector
+                HdtWalkGenerator hdtParser = new HdtWalkGenerator(HdtHandle.open(pathToTripleFile,
+                        hdtLoadingMode));
+                parser = hdtParser;
+                entitySelector = new HdtEntitySelector(hdtParser.hdtDataSet);
+            } catch (IOException ioe) {
+                LOGGER.error("Propagated HDT Initializer Exception", ioe);
             }
-            LOGGER.info("Model read into memory.");
-        } catch (MalformedURLException mue) {
-            LOGGER.error("Path seems to be invalid. Generator not functional.", mue);
         }
+        LOGGER.info("Model read into memory.");
         return new Pair<>(parser, entitySelector);
     }
 }
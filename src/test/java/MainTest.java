@@ -19,10 +19,14 @@ import de.uni_mannheim.informatik.dws.jrdf2vec.training.Word2VecConfiguration;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.HdtWalkGenerator;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.WalkGenerationMode;
 import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.GraphSnapshot;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.SnapshotTripleDataSet;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.NtMemoryWalkGenerator;
 
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -637,6 +641,51 @@ class MainTest {
         }
     }
 
+    @Test
+    public void walkGenerationShardedOutput() {
+        File pizzaOntology = loadFile("pizza.ttl");
+        String directoryName = "./shardedWalks/";
+        File walkDirectory = new File(directoryName);
+        try {
+            Main.main(new String[]{"-graph", pizzaOntology.getAbsolutePath(), "-onlyWalks", "-walkDir", directoryName,
+                    "-writerThreads", "2", "-shardedOutput"});
+            Set<String> files = Sets.newHashSet(walkDirectory.list());
+            assertTrue(files.contains("walk_file_0_0.txt.gz"));
+            assertTrue(files.contains("walk_file_1_0.txt.gz"));
+            assertFalse(files.contains("walk_file_0.txt.gz"));
+            List<String> walks = new ArrayList<>();
+            for (String file : files) {
+                walks.addAll(Util.readLinesFromGzippedFile(new File(walkDirectory, file)));
+            }
+            assertTrue(walks.stream().anyMatch(walk ->
+                    walk.startsWith("http://www.co-ode.org/ontologies/pizza/pizza.owl#AmericanHot ")));
+        } finally {
+            try {
+                FileUtils.deleteDirectory(walkDirectory);
+            } catch (IOException ioe) {
+                LOGGER.error("Error while trying to delete ./shardedWalks/");
+            }
+        }
+    }
+
+    @Test
+    public void createSnapshotFromDirectory() {
+        File directory = loadFile("nt_directory_type_walks");
+        File snapshotFile = new File("./main_directory_snapshot" + GraphSnapshot.FILE_ENDING);
+        try {
+            Main.main(new String[]{"-createSnapshot", directory.getAbsolutePath(), snapshotFile.getPath()});
+            assertTrue(snapshotFile.exists());
+            NtMemoryWalkGenerator generator = new NtMemoryWalkGenerator();
+            generator.readNtTriplesFromDirectoryMultiThreaded(directory, false);
+            SnapshotTripleDataSet snapshot = GraphSnapshot.load(snapshotFile);
+            assertNotNull(snapshot);
+            assertEquals(generator.getData().getObjectTripleSize(), snapshot.getObjectTripleSize());
+            assertTrue(snapshot.getObjectTripleSize() > 0);
+        } finally {
+            snapshotFile.delete();
+        }
+    }
+
     @Test
     public void trainLight() {
         File lightWalks = new File("./mainLightWalks/");
@@ -1,10 +1,12 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.util;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -190,4 +192,21 @@ class UtilTest {
         assertEquals("http://www.w3.org/ns/lemon/ontolex#LexicalEntry", Util.removeTags("http://www.w3" +
                 ".org/ns/lemon/ontolex#LexicalEntry"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void isTdb2Directory() throws IOException {
+        File directory = new File("./is_tdb2_directory_test");
+        try {
+            File generation = new File(directory, "Data-0001");
+            FileUtils.writeStringToFile(new File(generation, "SPO.dat"), "", "UTF-8");
+            assertTrue(Util.isTdb2Directory(directory));
+            assertFalse(Util.isTdbDirectory(directory));
+            assertTrue(Util.isTdbDirectory(generation));
+            assertFalse(Util.isTdb2Directory(generation));
+            assertFalse(Util.isTdb2Directory(null));
+            assertFalse(Util.isTdb2Directory(new File("./does_not_exist")));
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.TdbWalkGenerator;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.tdb.TDBFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityWalkSchedulerTest {
+
+
+    private static final File GRAPH_FILE = new File("./entity_walk_scheduler_test.nt");
+
+    private static final File WALK_DIRECTORY = new File("./entity_walk_scheduler_test_walks");
+
+    private static final String HUB = "http://example.org/hub";
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            builder.append("<").append(HUB).append("> <http://example.org/p> <http://example.org/n").append(i)
+                    .append("> .\n");
+            builder.append("<http://example.org/n").append(i).append("> <http://example.org/q> <http://example.org/e")
+                    .append(i).append("> .\n");
+        }
+        FileUtils.writeStringToFile(GRAPH_FILE, builder.toString(), StandardCharsets.UTF_8);
+    }
+
+    @AfterAll
+    static void cleanUp() {
+        GRAPH_FILE.delete();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileUtils.deleteDirectory(WALK_DIRECTORY);
+    }
+
+    @Test
+    void generateWalks() {
+        WalkGenerationManager manager = new WalkGenerationManager(GRAPH_FILE);
+        manager.walkDirectory = WALK_DIRECTORY;
+        manager.setOutputFileWriter();
+        Set<String> entities = manager.entitySelector.getEntities();
+
+        EntityWalkScheduler scheduler = new EntityWalkScheduler(manager, 3);
+        scheduler.setTargetChunkCost(50);
+        scheduler.setHubDegreeThreshold(100);
+        scheduler.generateWalks(entities, 10, 2, WalkGenerationMode.RANDOM_WALKS);
+        manager.close();
+
+        // the hub is split into one task per thread
+        assertEquals(1, scheduler.getNumberOfSplitEntities());
+        assertTrue(scheduler.getNumberOfChunks() > 3);
+        assertTrue(scheduler.getNumberOfChunks() < entities.size());
+
+        Map<String, Integer> walksPerEntity = countWalksPerEntity();
+        assertEquals(10, walksPerEntity.get(HUB));
+        for (int i = 0; i < 300; i++) {
+            assertEquals(10, walksPerEntity.get("http://example.org/n" + i));
+        }
+    }
+
+    @Test
+    void hubsAreSplitWithinTasksForDiskBasedDegrees() throws IOException {
+        File tdbDirectory = new File("./entity_walk_scheduler_test_tdb");
+        Dataset dataset = TDBFactory.createDataset(tdbDirectory.getAbsolutePath());
+        RDFDataMgr.read(dataset.getDefaultModel(), GRAPH_FILE.getAbsolutePath());
+        TDBFactory.release(dataset);
+        try {
+            WalkGenerationManager manager = new WalkGenerationManager(tdbDirectory);
+            assertTrue(manager.getWalkGenerator() instanceof TdbWalkGenerator);
+            manager.walkDirectory = WALK_DIRECTORY;
+            manager.setOutputFileWriter();
+
+            EntityWalkScheduler scheduler = new EntityWalkScheduler(manager, 3);
+            scheduler.setMaximalChunkSize(50);
+            scheduler.setHubDegreeThreshold(100);
+            scheduler.generateWalks(manager.entitySelector.getEntitySpliterator(), 10, 2,
+                    WalkGenerationMode.MID_WALKS);
+            manager.close();
+
+            // the degree is not requested while the entities are streamed: chunks are closed by count
+            assertEquals(1, scheduler.getNumberOfSplitEntities());
+            assertTrue(scheduler.getNumberOfChunks() >= 601 / 50);
+            List<String> walks = readWalks();
+            assertTrue(walks.stream().filter(walk -> walk.contains(HUB)).count() >= 10);
+            for (int i = 0; i < 300; i++) {
+                String node = "http://example.org/n" + i + " ";
+                assertTrue(walks.stream().anyMatch(walk -> walk.contains(node)));
+            }
+        } finally {
+            FileUtils.deleteDirectory(tdbDirectory);
+        }
+    }
+
+    @Test
+    void failingEntitiesAreClosed() {
+        WalkGenerationManager manager = new WalkGenerationManager(GRAPH_FILE);
+        manager.walkDirectory = WALK_DIRECTORY;
+        manager.setOutputFileWriter();
+        FailingSpliterator entities = new FailingSpliterator(HUB);
+
+        EntityWalkScheduler scheduler = new EntityWalkScheduler(manager, 2);
+        assertThrows(IllegalStateException.class, () -> scheduler.generateWalks(entities, 5, 2,
+                WalkGenerationMode.RANDOM_WALKS));
+        manager.close();
+
+        // the scheduling stopped, the spliterator was closed, the pool was shut down, and the failure was propagated
+        assertTrue(entities.isClosed);
+        assertEquals(0, scheduler.getNumberOfChunks());
+    }
+
+    @Test
+    void midWalkHubsAreDeterminedByInAndOutDegree() throws IOException {
+        File sinkGraphFile = new File("./entity_walk_scheduler_sink_test.nt");
+        String sink = "http://example.org/sink";
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            builder.append("<http://example.org/s").append(i).append("> <http://example.org/p> <").append(sink)
+                    .append("> .\n");
+        }
+        FileUtils.writeStringToFile(sinkGraphFile, builder.toString(), StandardCharsets.UTF_8);
+        try {
+            Set<String> entities = new HashSet<>();
+            entities.add(sink);
+            for (WalkGenerationMode mode : new WalkGenerationMode[]{WalkGenerationMode.RANDOM_WALKS,
+                    WalkGenerationMode.MID_WALKS}) {
+                WalkGenerationManager manager = new WalkGenerationManager(sinkGraphFile);
+                manager.walkDirectory = WALK_DIRECTORY;
+                manager.setOutputFileWriter();
+                EntityWalkScheduler scheduler = new EntityWalkScheduler(manager, 3);
+                scheduler.setHubDegreeThreshold(100);
+                scheduler.generateWalks(entities, 10, 2, mode);
+                manager.close();
+
+                // the sink has no out-edges: it is only a hub for mid walks
+                assertEquals(mode == WalkGenerationMode.MID_WALKS ? 1 : 0, scheduler.getNumberOfSplitEntities(),
+                        mode.toString());
+                FileUtils.deleteDirectory(WALK_DIRECTORY);
+            }
+        } finally {
+            sinkGraphFile.delete();
+        }
+    }
+
+    @Test
+    void duplicateFreeModesAreNotSplit() {
+        WalkGenerationManager manager = new WalkGenerationManager(GRAPH_FILE);
+        manager.walkDirectory = WALK_DIRECTORY;
+        manager.setOutputFileWriter();
+        Set<String> entities = new HashSet<>();
+        entities.add(HUB);
+
+        EntityWalkScheduler scheduler = new EntityWalkScheduler(manager, 3);
+        scheduler.setHubDegreeThreshold(100);
+        scheduler.generateWalks(entities, 20, 2, WalkGenerationMode.RANDOM_WALKS_DUPLICATE_FREE);
+        manager.close();
+
+        assertEquals(0, scheduler.getNumberOfSplitEntities());
+        assertEquals(1, scheduler.getNumberOfChunks());
+        assertEquals(20, countWalksPerEntity().get(HUB));
+    }
+
+    @Test
+    void weightedMidWalksOfHubsAreDuplicateFree() {
+        WalkGenerationManager manager = new WalkGenerationManager(GRAPH_FILE);
+        manager.walkDirectory = WALK_DIRECTORY;
+        manager.setOutputFileWriter();
+        Set<String> entities = new HashSet<>();
+        entities.add(HUB);
+
+        EntityWalkScheduler scheduler = new EntityWalkScheduler(manager, 3);
+        scheduler.setHubDegreeThreshold(100);
+        scheduler.generateWalks(entities, 2000, 2, WalkGenerationMode.MID_WALKS_WEIGHTED);
+        manager.close();
+
+        assertEquals(0, scheduler.getNumberOfSplitEntities());
+        List<String> lines = readWalks();
+        assertFalse(lines.isEmpty());
+        assertEquals(new HashSet<>(lines).size(), lines.size());
+    }
+
+    @Test
+    void generateTextWalks() throws IOException {
+        File textGraphFile = new File("./entity_walk_scheduler_text_test.nt");
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            builder.append("<http://example.org/t").append(i).append("> <http://example.org/p> <http://example.org/t")
+                    .append(i + 1).append("> .\n");
+            builder.append("<http://example.org/t").append(i).append("> <http://example.org/label> \"alpha beta\" .\n");
+        }
+        FileUtils.writeStringToFile(textGraphFile, builder.toString(), StandardCharsets.UTF_8);
+        try {
+            WalkGenerationManager manager = new WalkGenerationManager(textGraphFile.toURI(), true, true, null, null);
+            manager.walkDirectory = WALK_DIRECTORY;
+            manager.setOutputFileWriter();
+
+            EntityWalkScheduler scheduler = new EntityWalkScheduler(manager, 3);
+            scheduler.setMaximalChunkSize(10);
+            scheduler.generateTextWalks(manager.entitySelector.getEntitySpliterator(), 8);
+            manager.close();
+
+            assertTrue(scheduler.getNumberOfChunks() >= 5);
+            Map<String, Integer> walksPerEntity = countWalksPerEntity();
+            for (int i = 0; i < 50; i++) {
+                assertEquals(1, walksPerEntity.get("http://example.org/t" + i));
+            }
+        } finally {
+            textGraphFile.delete();
+        }
+    }
+
+    @Test
+    void isSplittable() {
+        assertTrue(EntityWalkScheduler.isSplittable(WalkGenerationMode.RANDOM_WALKS));
+        assertTrue(EntityWalkScheduler.isSplittable(WalkGenerationMode.MID_WALKS));
+        assertFalse(EntityWalkScheduler.isSplittable(WalkGenerationMode.MID_WALKS_DUPLICATE_FREE));
+        assertFalse(EntityWalkScheduler.isSplittable(WalkGenerationMode.RANDOM_WALKS_DUPLICATE_FREE));
+        assertFalse(EntityWalkScheduler.isSplittable(WalkGenerationMode.MID_WALKS_WEIGHTED));
+    }
+
+    @Test
+    void isMidWalkMode() {
+        assertTrue(EntityWalkScheduler.isMidWalkMode(WalkGenerationMode.MID_WALKS));
+        assertTrue(EntityWalkScheduler.isMidWalkMode(WalkGenerationMode.EXPERIMENTAL_BIASED_MID_WALKS));
+        assertFalse(EntityWalkScheduler.isMidWalkMode(WalkGenerationMode.RANDOM_WALKS));
+        assertFalse(EntityWalkScheduler.isMidWalkMode(WalkGenerationMode.EXPERIMENTAL_NODE2VEC_WALKS));
+    }
+
+    /**
+     * Delivers one entity and fails afterwards.
+     */
+    private static class FailingSpliterator extends Spliterators.AbstractSpliterator<String> implements AutoCloseable {
+
+
+        private final String entity;
+
+        private boolean isDelivered = false;
+
+        private boolean isClosed = false;
+
+        FailingSpliterator(String entity) {
+            super(Long.MAX_VALUE, Spliterator.NONNULL);
+            this.entity = entity;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (isDelivered) throw new IllegalStateException("Failure while reading the entities.");
+            isDelivered = true;
+            action.accept(entity);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+        }
+    }
+
+    private static List<String> readWalks() {
+        File[] files = WALK_DIRECTORY.listFiles();
+        assertNotNull(files);
+        List<String> lines = new ArrayList<>();
+        for (File file : files) {
+            lines.addAll(Util.readLinesFromGzippedFile(file));
+        }
+        return lines;
+    }
+
+    private static Map<String, Integer> countWalksPerEntity() {
+        Map<String, Integer> result = new HashMap<>();
+        for (String line : readWalks()) {
+            result.merge(line.split(" ")[0], 1, Integer::sum);
+        }
+        return result;
+    }
+}
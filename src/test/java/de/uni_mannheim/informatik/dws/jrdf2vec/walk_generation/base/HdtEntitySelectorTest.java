@@ -3,10 +3,18 @@ package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.HdtEntitySelector;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
+import org.rdfhdt.hdt.enums.RDFNotation;
+import org.rdfhdt.hdt.hdt.HDT;
+import org.rdfhdt.hdt.hdt.HDTManager;
+import org.rdfhdt.hdt.options.HDTSpecification;
 
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -17,8 +25,7 @@ class HdtEntitySelectorTest {
     void getEntities() {
         String hdtPath = loadFile("swdf-2012-11-28.hdt").getAbsolutePath();
         assertNotNull(hdtPath, "Cannot find test resource.");
-        try {
-            HdtEntitySelector selector = new HdtEntitySelector(hdtPath);
+        try (HdtEntitySelector selector = new HdtEntitySelector(hdtPath)) {
             Set<String> result = selector.getEntities();
             assertNotNull(result, "The result should not be null.");
             assertTrue(result.size() > 10, "The result does not contain enough data.");
@@ -28,6 +35,33 @@ class HdtEntitySelectorTest {
         }
     }
 
+    @Test
+    void getEntitySpliterator() throws Exception {
+        File hdtFile = new File("./hdt_entity_selector_test.hdt");
+        try {
+            HDT hdt = HDTManager.generateHDT(loadFile("sample_dbpedia_nt_file.nt").getAbsolutePath(), "http://example.org/",
+                    RDFNotation.NTRIPLES, new HDTSpecification(), null);
+            hdt.saveToHDT(hdtFile.getAbsolutePath(), null);
+            hdt.close();
+
+            Set<String> expected = new HashSet<>();
+            for (String line : FileUtils.readLines(loadFile("sample_dbpedia_nt_file.nt"), StandardCharsets.UTF_8)) {
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                String subject = line.split(" ")[0];
+                expected.add(subject.substring(1, subject.length() - 1));
+            }
+            try (HdtEntitySelector selector = new HdtEntitySelector(hdtFile.getAbsolutePath())) {
+                List<String> streamed = new ArrayList<>();
+                selector.getEntitySpliterator().forEachRemaining(streamed::add);
+                assertEquals(expected.size(), streamed.size());
+                assertEquals(expected, new HashSet<>(streamed));
+                assertEquals(expected, selector.getEntities());
+            }
+        } finally {
+            hdtFile.delete();
+        }
+    }
+
     /**
      * Helper function to load files in class path that contain spaces.
      * @param fileName Name of the file.
@@ -0,0 +1,135 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.util.WalkMerger;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalkWriterTest {
+
+
+    private static final File WALK_DIRECTORY = new File("./walk_writer_test");
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileUtils.deleteDirectory(WALK_DIRECTORY);
+    }
+
+    @Test
+    void write() throws Exception {
+        WalkWriter writer = new WalkWriter(WALK_DIRECTORY, 3, 2);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Set<String> expected = new HashSet<>();
+        for (int entity = 0; entity < 200; entity++) {
+            List<String> walks = new ArrayList<>();
+            for (int walk = 0; walk < 10; walk++) {
+                walks.add("E" + entity + " p W" + walk + " ä");
+            }
+            expected.addAll(walks);
+            pool.execute(() -> writer.write(walks));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+        writer.write(null);
+        writer.write(new ArrayList<>());
+        writer.flush();
+        assertEquals(2000, writer.getNumberOfWrittenWalks());
+        assertEquals(200, writer.getNumberOfWrittenBatches());
+        assertEquals(0, writer.getQueueSize());
+        assertTrue(writer.getNumberOfWrittenBytes() > 2000);
+        assertTrue(writer.getWalksPerSecond() > 0);
+        writer.close();
+
+        File[] files = WALK_DIRECTORY.listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        assertEquals("walk_file_0.txt.gz", files[0].getName());
+        List<String> lines = Util.readLinesFromGzippedFile(files[0]);
+        assertEquals(2000, lines.size());
+        assertEquals(expected, new HashSet<>(lines));
+
+        // writing after close is not possible
+        writer.write(Arrays.asList("A B C"));
+        assertEquals(2000, writer.getNumberOfWrittenWalks());
+    }
+
+    @Test
+    void asWriter() throws Exception {
+        WalkWriter walkWriter = new WalkWriter(WALK_DIRECTORY, 2, 2);
+        Writer writer = walkWriter.asWriter();
+        for (int walk = 0; walk < 2500; walk++) {
+            writer.write("E p W" + walk + "\n");
+        }
+        writer.write("E p ");
+        writer.flush();
+        assertEquals(2500, walkWriter.getNumberOfWrittenWalks());
+        writer.write("last");
+        writer.close();
+        walkWriter.close();
+        assertEquals(2501, walkWriter.getNumberOfWrittenWalks());
+
+        List<String> lines = Util.readLinesFromGzippedFile(new File(WALK_DIRECTORY, "walk_file_0.txt.gz"));
+        assertEquals(2501, lines.size());
+        assertTrue(lines.contains("E p W2499"));
+        assertTrue(lines.contains("E p last"));
+    }
+
+    @Test
+    void writeSharded() throws Exception {
+        WalkWriter writer = new WalkWriter(WALK_DIRECTORY, 3, 2, true);
+        assertTrue(writer.isShardedOutput());
+        writer.maxLinesPerFile = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Set<String> expected = new HashSet<>();
+        for (int entity = 0; entity < 200; entity++) {
+            List<String> walks = new ArrayList<>();
+            for (int walk = 0; walk < 10; walk++) {
+                walks.add("E" + entity + " p W" + walk);
+            }
+            expected.addAll(walks);
+            pool.execute(() -> writer.write(walks));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+        writer.close();
+        assertEquals(2000, writer.getNumberOfWrittenWalks());
+
+        File[] files = WALK_DIRECTORY.listFiles();
+        assertNotNull(files);
+        List<String> lines = new ArrayList<>();
+        for (File file : files) {
+            assertTrue(file.getName().matches("walk_file_[0-2]_[0-9]+\\.txt\\.gz"), file.getName());
+            List<String> fileLines = Util.readLinesFromGzippedFile(file);
+            // each shard rotates on its own
+            assertTrue(fileLines.size() <= 60, file.getName() + " has " + fileLines.size() + " lines");
+            lines.addAll(fileLines);
+        }
+        assertTrue(files.length > 3);
+        assertEquals(2000, lines.size());
+        assertEquals(expected, new HashSet<>(lines));
+
+        // the shards can be merged like regular walk files
+        File mergedFile = new File("./walk_writer_test_merged.txt");
+        try {
+            WalkMerger.mergeWalks(WALK_DIRECTORY, mergedFile);
+            assertEquals(expected, new HashSet<>(FileUtils.readLines(mergedFile, "UTF-8")));
+        } finally {
+            mergedFile.delete();
+        }
+    }
+}
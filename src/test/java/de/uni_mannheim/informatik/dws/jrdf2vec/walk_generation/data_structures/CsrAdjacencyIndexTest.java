@@ -0,0 +1,157 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.NtMemoryWalkGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsrAdjacencyIndexTest {
+
+
+    @Test
+    void build() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "P1", "B");
+        ds.addObjectTriple("A", "P2", "C");
+        ds.addObjectTriple("B", "P1", "C");
+        CsrAdjacencyIndex index = ds.freeze();
+
+        UriDictionary nodes = ds.getNodeDictionary();
+        UriDictionary predicates = ds.getPredicateDictionary();
+        int a = nodes.getId("A");
+        int c = nodes.getId("C");
+
+        assertEquals(3, index.getNumberOfNodes());
+        assertEquals(3, index.getNumberOfEdges());
+        assertEquals(2, index.getOutDegree(a));
+        assertEquals(0, index.getInDegree(a));
+        assertEquals(0, index.getOutDegree(c));
+        assertEquals(2, index.getInDegree(c));
+
+        Set<String> outEdges = new HashSet<>();
+        for (int i = 0; i < index.getOutDegree(a); i++) {
+            outEdges.add(predicates.getString(index.getOutPredicate(a, i)) + " " +
+                    nodes.getString(index.getOutNeighbour(a, i)));
+        }
+        assertTrue(outEdges.contains("P1 B"));
+        assertTrue(outEdges.contains("P2 C"));
+
+        Set<String> inEdges = new HashSet<>();
+        for (int i = 0; i < index.getInDegree(c); i++) {
+            inEdges.add(nodes.getString(index.getInNeighbour(c, i)) + " " +
+                    predicates.getString(index.getInPredicate(c, i)));
+        }
+        assertTrue(inEdges.contains("A P2"));
+        assertTrue(inEdges.contains("B P1"));
+
+        // unknown nodes
+        assertEquals(0, index.getOutDegree(-1));
+        assertEquals(0, index.getInDegree(100));
+    }
+
+    @Test
+    void hasEdge() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "P1", "B");
+        ds.addObjectTriple("A", "P2", "C");
+        ds.addObjectTriple("B", "P1", "C");
+        ds.addObjectTriple("D", "P1", "C");
+        CsrAdjacencyIndex index = ds.freeze();
+        UriDictionary nodes = ds.getNodeDictionary();
+
+        assertTrue(index.hasEdge(nodes.getId("A"), nodes.getId("B")));
+        assertTrue(index.hasEdge(nodes.getId("A"), nodes.getId("C")));
+        assertTrue(index.hasEdge(nodes.getId("D"), nodes.getId("C")));
+        assertFalse(index.hasEdge(nodes.getId("B"), nodes.getId("A")));
+        assertFalse(index.hasEdge(nodes.getId("A"), nodes.getId("D")));
+        assertFalse(index.hasEdge(nodes.getId("C"), nodes.getId("C")));
+        assertFalse(index.hasEdge(-1, nodes.getId("C")));
+    }
+
+    @Test
+    void sortedEdges() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        for (int i = 0; i < 20; i++) {
+            ds.addObjectTriple("X", "P" + (i % 3), "N" + (19 - i));
+        }
+        ds.addObjectTriple("X", "P0", "N5");
+        for (int i = 0; i < 30; i++) {
+            ds.addObjectTriple("Y" + i, "P0", "N5");
+        }
+        CsrAdjacencyIndex index = ds.freeze();
+        UriDictionary nodes = ds.getNodeDictionary();
+        int x = nodes.getId("X");
+        int n5 = nodes.getId("N5");
+
+        for (int i = 1; i < index.getOutDegree(x); i++) {
+            assertTrue(index.getOutNeighbour(x, i - 1) <= index.getOutNeighbour(x, i));
+        }
+        for (int i = 1; i < index.getInDegree(n5); i++) {
+            assertTrue(index.getInNeighbour(n5, i - 1) <= index.getInNeighbour(n5, i));
+        }
+
+        // edges to the same neighbour are sorted by predicate
+        UriDictionary predicates = ds.getPredicateDictionary();
+        List<Integer> predicatesToN5 = new ArrayList<>();
+        for (int i = 0; i < index.getOutDegree(x); i++) {
+            if (index.getOutNeighbour(x, i) == n5) predicatesToN5.add(index.getOutPredicate(x, i));
+        }
+        assertEquals(2, predicatesToN5.size());
+        assertTrue(predicatesToN5.get(0) < predicatesToN5.get(1));
+        assertEquals(new HashSet<>(Arrays.asList(predicates.getId("P0"), predicates.getId("P2"))),
+                new HashSet<>(predicatesToN5));
+
+        for (int i = 0; i < 20; i++) {
+            // searched in the in-edges of the object
+            assertTrue(index.hasEdge(x, nodes.getId("N" + i)));
+            assertFalse(index.hasEdge(nodes.getId("N" + i), x));
+        }
+        // searched in the out-edges of the subject
+        assertTrue(index.hasEdge(nodes.getId("Y7"), n5));
+        assertFalse(index.hasEdge(nodes.getId("Y7"), nodes.getId("N6")));
+        assertFalse(index.hasEdge(x, nodes.getId("Y7")));
+    }
+
+    @Test
+    void invalidation() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "P1", "B");
+        CsrAdjacencyIndex index = ds.getAdjacencyIndex();
+        assertSame(index, ds.getAdjacencyIndex());
+        assertEquals(1, index.getNumberOfEdges());
+
+        ds.addObjectTriple("B", "P1", "C");
+        assertNotSame(index, ds.getAdjacencyIndex());
+        assertEquals(2, ds.getAdjacencyIndex().getNumberOfEdges());
+
+        ds.removeObjectTriple(new Triple("A", "P1", "B"));
+        assertEquals(1, ds.getAdjacencyIndex().getNumberOfEdges());
+        assertEquals(0, ds.getAdjacencyIndex().getOutDegree(ds.getNodeDictionary().getId("A")));
+    }
+
+    @Test
+    void midWalks() {
+        NtMemoryWalkGenerator generator = new NtMemoryWalkGenerator();
+        generator.setData(new IntTripleDataSetMemory());
+        generator.readNTriples(Util.loadFile("dummyGraph.nt"));
+        for (int i = 0; i < 50; i++) {
+            List<String> walk = generator.generateMidWalkForEntity("A", 4);
+            assertTrue(walk.contains("A"));
+            assertEquals(1, walk.size() % 2);
+            assertTrue(walk.size() <= 9);
+            walk = generator.generateWeightedMidWalkForEntity("A", 4);
+            assertTrue(walk.contains("A"));
+            assertEquals(1, walk.size() % 2);
+        }
+        assertEquals(1, generator.generateMidWalkForEntity("unknown", 4).size());
+        assertNull(generator.getRandomTripleForSubjectWithoutTags("D"));
+        assertEquals("A", generator.getRandomTripleForSubjectWithoutTags("A").subject);
+    }
+}
@@ -0,0 +1,106 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsrAliasTablesTest {
+
+
+    /**
+     * A -P1-> B, A -P1-> C, A -P2-> D, E -P1-> D
+     */
+    private static IntTripleDataSetMemory createGraph() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "P1", "B");
+        ds.addObjectTriple("A", "P1", "C");
+        ds.addObjectTriple("A", "P2", "D");
+        ds.addObjectTriple("E", "P1", "D");
+        return ds;
+    }
+
+    @Test
+    void drawProportionally() {
+        IntTripleDataSetMemory ds = createGraph();
+        CsrAdjacencyIndex index = ds.freeze();
+        UriDictionary nodes = ds.getNodeDictionary();
+        int a = nodes.getId("A");
+        int b = nodes.getId("B");
+        int c = nodes.getId("C");
+        int d = nodes.getId("D");
+
+        // weights: B -> 1, C -> 0, D -> 3
+        CsrAliasTables tables = CsrAliasTables.build(index, (i, node, predicate, neighbour) ->
+                neighbour == b ? 1 : neighbour == c ? 0 : 3);
+        assertEquals(4.0, tables.getOutWeight(a), 0.0001);
+        assertEquals(0.0, tables.getOutWeight(b), 0.0001);
+        assertEquals(0.0, tables.getOutWeight(-1), 0.0001);
+        assertSame(index, tables.getIndex());
+
+        int[] counts = new int[nodes.size()];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int numberOfDraws = 40000;
+        for (int i = 0; i < numberOfDraws; i++) {
+            counts[index.getOutNeighbour(a, tables.drawOutEdge(a, random))]++;
+        }
+        assertEquals(0, counts[c]);
+        assertEquals(0.25, (double) counts[b] / numberOfDraws, 0.02);
+        assertEquals(0.75, (double) counts[d] / numberOfDraws, 0.02);
+
+        assertEquals(-1, tables.drawOutEdge(b, random));
+        assertEquals(-1, tables.drawInEdge(a, random));
+        int inNeighbour = index.getInNeighbour(d, tables.drawInEdge(d, random));
+        assertTrue(inNeighbour == a || inNeighbour == nodes.getId("E"));
+    }
+
+    @Test
+    void zeroWeights() {
+        IntTripleDataSetMemory ds = createGraph();
+        CsrAliasTables tables = CsrAliasTables.build(ds.freeze(), (i, node, predicate, neighbour) -> -1);
+        int a = ds.getNodeDictionary().getId("A");
+        assertEquals(0.0, tables.getOutWeight(a), 0.0001);
+        assertEquals(-1, tables.drawOutEdge(a, ThreadLocalRandom.current()));
+    }
+
+    @Test
+    void edgeWeightStrategies() {
+        IntTripleDataSetMemory ds = createGraph();
+        CsrAdjacencyIndex index = ds.freeze();
+        UriDictionary nodes = ds.getNodeDictionary();
+        UriDictionary predicates = ds.getPredicateDictionary();
+        int a = nodes.getId("A");
+        int d = nodes.getId("D");
+        int p1 = predicates.getId("P1");
+        int p2 = predicates.getId("P2");
+
+        int[] frequencies = EdgeWeightStrategy.getPredicateFrequencies(index);
+        assertEquals(3, frequencies[p1]);
+        assertEquals(1, frequencies[p2]);
+        assertEquals(3.0, EdgeWeightStrategy.PREDICATE_FREQUENCY.create(index).getWeight(index, a, p1, d),
+                0.0001);
+        assertEquals(1.0 / 3, EdgeWeightStrategy.INVERSE_PREDICATE_FREQUENCY.create(index).getWeight(index, a, p1,
+                d), 0.0001);
+        assertEquals(1.0, EdgeWeightStrategy.UNIFORM.create(index).getWeight(index, a, p1, d), 0.0001);
+        assertEquals(0.5, EdgeWeightStrategy.INVERSE_DEGREE.create(index).getWeight(index, a, p2, d), 0.0001);
+
+        double[] pageRank = EdgeWeightStrategy.getPageRank(index);
+        double sum = 0.0;
+        for (double rank : pageRank) sum += rank;
+        assertEquals(1.0, sum, 0.0001);
+        // D has two predecessors, A and E have none
+        assertTrue(pageRank[d] > pageRank[a]);
+        assertEquals(pageRank[a], pageRank[nodes.getId("E")], 0.0001);
+
+        for (EdgeWeightStrategy strategy : EdgeWeightStrategy.values()) {
+            CsrAliasTables tables = CsrAliasTables.build(index, strategy.create(index));
+            assertTrue(tables.getOutWeight(a) > 0, strategy.name());
+            assertTrue(tables.drawOutEdge(a, ThreadLocalRandom.current()) >= 0);
+            assertEquals(strategy, EdgeWeightStrategy.fromString(" " + strategy.name().toLowerCase() + " "));
+        }
+        assertNull(EdgeWeightStrategy.fromString("unknown"));
+        assertNull(EdgeWeightStrategy.fromString(null));
+        assertTrue(EdgeWeightStrategy.getOptions().contains("pagerank"));
+    }
+}
@@ -0,0 +1,206 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.EntitySelector;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.IWalkGenerator;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.NtMemoryWalkGenerator;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.SnapshotMemoryWalkGenerator;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.WalkGeneratorManager;
+import org.javatuples.Pair;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphSnapshotTest {
+
+
+    private static final File SNAPSHOT_FILE = new File("./graph_snapshot_test" + GraphSnapshot.FILE_ENDING);
+
+    @Test
+    void writeAndLoad() {
+        NtMemoryWalkGenerator generator = new NtMemoryWalkGenerator(Util.loadFile("dummyGraph.nt"));
+        TripleDataSetMemory original = generator.getData();
+        assertTrue(GraphSnapshot.write(original, SNAPSHOT_FILE));
+        assertTrue(SNAPSHOT_FILE.exists());
+        assertTrue(GraphSnapshot.isSnapshotFile(SNAPSHOT_FILE));
+
+        SnapshotTripleDataSet snapshot = GraphSnapshot.load(SNAPSHOT_FILE);
+        assertNotNull(snapshot);
+        assertEquals(original.getObjectTripleSize(), snapshot.getObjectTripleSize());
+        assertEquals(original.getAllObjectTriples(), snapshot.getAllObjectTriples());
+        assertEquals(original.getObjectNodes(), snapshot.getObjectNodes());
+        assertEquals(original.getUniqueObjectTripleSubjects(), snapshot.getUniqueObjectTripleSubjects());
+        assertEquals(original.getUniqueObjectTripleObjects(), snapshot.getUniqueObjectTripleObjects());
+        assertEquals(original.getUniqueObjectTriplePredicates(), snapshot.getUniqueObjectTriplePredicates());
+        assertEquals(original.getObjectTriplesInvolvingPredicate("P7").size(),
+                snapshot.getObjectTriplesInvolvingPredicate("P7").size());
+        assertEquals(2, snapshot.getObjectTriplesInvolvingSubject("A").size());
+        assertEquals(2, snapshot.getObjectTriplesInvolvingObject("D").size());
+        assertEquals(5, snapshot.getObjectTriplesWithSubjectPredicate("Z", "P7").size());
+        assertEquals(1, snapshot.getObjectTriplesWithPredicateObject("P8", "X1").size());
+        assertNull(snapshot.getObjectTriplesInvolvingSubject("D"));
+        assertNull(snapshot.getObjectTriplesInvolvingSubject("unknown"));
+        assertNull(snapshot.getObjectTriplesWithSubjectPredicate("Z", "P8"));
+        assertNull(snapshot.getObjectTriplesInvolvingPredicate("unknown"));
+
+        // dictionary
+        assertEquals(-1, snapshot.getNodeDictionary().getId("unknown"));
+        assertEquals(-1, snapshot.getNodeDictionary().getId(null));
+        int a = snapshot.getNodeDictionary().getId("A");
+        assertEquals("A", snapshot.getNodeDictionary().getString(a));
+
+        // read-only
+        snapshot.addObjectTriple("A", "B", "C");
+        assertEquals(original.getObjectTripleSize(), snapshot.getObjectTripleSize());
+    }
+
+    @Test
+    void loadEdgesInWindows() {
+        NtMemoryWalkGenerator generator = new NtMemoryWalkGenerator(Util.loadFile("dummyGraph.nt"));
+        TripleDataSetMemory original = generator.getData();
+        assertTrue(GraphSnapshot.write(original, SNAPSHOT_FILE));
+
+        // windows of 4 ints: the edges of a node may span several windows
+        SnapshotTripleDataSet snapshot = GraphSnapshot.load(SNAPSHOT_FILE, 2);
+        assertNotNull(snapshot);
+        assertTrue(snapshot.getAdjacencyIndex().getOutEdges().getNumberOfSegments() > 1);
+        assertEquals(original.getAllObjectTriples(), snapshot.getAllObjectTriples());
+        CsrAdjacencyIndex index = snapshot.getAdjacencyIndex();
+        CsrAdjacencyIndex reference = GraphSnapshot.load(SNAPSHOT_FILE).getAdjacencyIndex();
+        for (int node = 0; node < index.getNumberOfNodes(); node++) {
+            assertEquals(reference.getOutDegree(node), index.getOutDegree(node));
+            for (int i = 0; i < index.getOutDegree(node); i++) {
+                assertEquals(reference.getOutPredicate(node, i), index.getOutPredicate(node, i));
+                assertEquals(reference.getOutNeighbour(node, i), index.getOutNeighbour(node, i));
+                assertTrue(index.hasEdge(node, index.getOutNeighbour(node, i)));
+            }
+            for (int i = 0; i < index.getInDegree(node); i++) {
+                assertEquals(reference.getInNeighbour(node, i), index.getInNeighbour(node, i));
+            }
+        }
+
+        // a snapshot which is mapped in windows can be written again
+        File copy = new File("./graph_snapshot_test_copy" + GraphSnapshot.FILE_ENDING);
+        try {
+            assertTrue(GraphSnapshot.write(snapshot, copy));
+            assertEquals(original.getAllObjectTriples(), GraphSnapshot.load(copy).getAllObjectTriples());
+        } finally {
+            copy.delete();
+        }
+    }
+
+    @Test
+    void loadOversizedHeader() throws IOException {
+        IntTripleDataSetMemory data = new IntTripleDataSetMemory();
+        data.addObjectTriple("A", "P", "B");
+        for (int numberOfEdges : new int[]{1 << 29, Integer.MAX_VALUE, -1}) {
+            assertTrue(GraphSnapshot.write(data, SNAPSHOT_FILE));
+            try (RandomAccessFile file = new RandomAccessFile(SNAPSHOT_FILE, "rw")) {
+                // the number of edges is the fifth int of the header
+                file.seek(4 * 4);
+                file.writeInt(numberOfEdges);
+            }
+            // the edge arrays do not fit into the file: the snapshot is rejected without an exception
+            assertNull(GraphSnapshot.load(SNAPSHOT_FILE));
+        }
+    }
+
+    @Test
+    void walkGeneration() {
+        IntTripleDataSetMemory data = new IntTripleDataSetMemory();
+        NtMemoryWalkGenerator generator = new NtMemoryWalkGenerator();
+        generator.setData(data);
+        generator.readNTriples(Util.loadFile("dummyGraph.nt"));
+        data.addObjectTriple("Ä", "ü", "ß");
+        assertTrue(GraphSnapshot.write(data, SNAPSHOT_FILE));
+
+        Pair<IWalkGenerator, EntitySelector> pair = WalkGeneratorManager.parseSingleFile(SNAPSHOT_FILE, false);
+        assertTrue(pair.getValue0() instanceof SnapshotMemoryWalkGenerator);
+        assertTrue(pair.getValue1().getEntities().contains("A"));
+        assertTrue(pair.getValue1().getEntities().contains("ß"));
+
+        SnapshotMemoryWalkGenerator snapshotGenerator = (SnapshotMemoryWalkGenerator) pair.getValue0();
+        List<String> walks = snapshotGenerator.generateDuplicateFreeRandomWalksForEntity("A", 100, 8);
+        assertEquals(3, walks.size());
+        for (String walk : walks) {
+            assertTrue(walk.equals("A P4 E P5 D") || walk.equals("A P4 E P6 F") || walk.equals("A P1 B P2 C P3 D"));
+        }
+        assertEquals(10, snapshotGenerator.generateMidWalksForEntity("E", 10, 3).size());
+        assertEquals("Ä ü ß", snapshotGenerator.generateRandomWalksForEntity("Ä", 1, 3).get(0));
+
+        // random triples are drawn on the index
+        Triple triple = snapshotGenerator.getRandomTripleForSubject("<A>");
+        assertEquals("A", triple.subject);
+        assertTrue(triple.predicate.equals("P1") || triple.predicate.equals("P4"));
+        assertNull(snapshotGenerator.getRandomTripleForSubject("D"));
+        assertNull(snapshotGenerator.getRandomTripleForSubject("unknown"));
+        SnapshotTripleDataSet snapshot = snapshotGenerator.getData();
+        assertEquals(2, snapshot.getInDegree("D"));
+        assertEquals(0, snapshot.getInDegree("unknown"));
+        assertEquals("D", snapshot.drawObjectTripleInvolvingObject("D").object);
+        assertNull(snapshot.drawObjectTripleInvolvingObject("A"));
+        assertEquals("A", snapshot.drawObjectTripleInvolvingSubject("A").subject);
+        assertEquals(2, data.getInDegree("D"));
+        assertEquals("D", data.drawObjectTripleInvolvingObject("D").object);
+        assertEquals("ß", data.drawObjectTripleInvolvingSubject("Ä").object);
+        assertNull(data.drawObjectTripleInvolvingSubject("D"));
+    }
+
+    @Test
+    void writeOverwritesAtomically() {
+        IntTripleDataSetMemory data = new IntTripleDataSetMemory();
+        data.addObjectTriple("A", "P", "B");
+        assertTrue(GraphSnapshot.write(data, SNAPSHOT_FILE));
+        data.addObjectTriple("B", "P", "C");
+        assertTrue(GraphSnapshot.write(data, SNAPSHOT_FILE));
+        SnapshotTripleDataSet snapshot = GraphSnapshot.load(SNAPSHOT_FILE);
+        assertNotNull(snapshot);
+        assertEquals(2, snapshot.getObjectTripleSize());
+        assertNoTemporaryFiles(SNAPSHOT_FILE.getAbsoluteFile().getParentFile());
+    }
+
+    @Test
+    void writeFailure() {
+        IntTripleDataSetMemory data = new IntTripleDataSetMemory();
+        data.addObjectTriple("A", "P", "B");
+        assertFalse(GraphSnapshot.write(null, SNAPSHOT_FILE));
+        assertFalse(GraphSnapshot.write(data, null));
+
+        // the target is an existing directory: the rename fails and nothing is left behind
+        File directory = new File("./graph_snapshot_test_directory" + GraphSnapshot.FILE_ENDING);
+        directory.mkdir();
+        try {
+            assertFalse(GraphSnapshot.write(data, directory));
+            assertTrue(directory.isDirectory());
+            assertNoTemporaryFiles(directory.getAbsoluteFile().getParentFile());
+        } finally {
+            directory.delete();
+        }
+    }
+
+    private static void assertNoTemporaryFiles(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("graph_snapshot_test") &&
+                name.endsWith(".tmp"));
+        assertNotNull(files);
+        assertEquals(0, files.length);
+    }
+
+    @Test
+    void loadInvalidFile() {
+        assertNull(GraphSnapshot.load(new File("./does_not_exist" + GraphSnapshot.FILE_ENDING)));
+        assertNull(GraphSnapshot.load(Util.loadFile("dummyGraph.nt")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnapshotMemoryWalkGenerator(Util.loadFile("dummyGraph.nt")));
+    }
+
+    @AfterAll
+    static void cleanUp() {
+        SNAPSHOT_FILE.delete();
+    }
+}
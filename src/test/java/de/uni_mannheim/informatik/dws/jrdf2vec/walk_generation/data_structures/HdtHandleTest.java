@@ -0,0 +1,140 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.EntitySelector;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.HdtEntitySelector;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.HdtWalkGenerator;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.IWalkGenerator;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.WalkGeneratorManager;
+import org.apache.commons.io.FileUtils;
+import org.javatuples.Pair;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rdfhdt.hdt.enums.RDFNotation;
+import org.rdfhdt.hdt.hdt.HDT;
+import org.rdfhdt.hdt.hdt.HDTManager;
+import org.rdfhdt.hdt.options.HDTSpecification;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HdtHandleTest {
+
+
+    private static final File DIRECTORY = new File("./hdt_handle_test");
+
+    private static final File HDT_FILE = new File(DIRECTORY, "graph.hdt");
+
+    private static final File INDEX_FILE = new File(DIRECTORY, "graph.hdt" + HdtHandle.INDEX_FILE_ENDING);
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        File ntFile = new File(DIRECTORY, "graph.nt");
+        FileUtils.writeStringToFile(ntFile, "<http://example.org/A> <http://example.org/p> <http://example.org/B> .\n" +
+                "<http://example.org/B> <http://example.org/p> <http://example.org/C> .\n" +
+                "<http://example.org/C> <http://example.org/p> <http://example.org/A> .\n", StandardCharsets.UTF_8);
+        HDT hdt = HDTManager.generateHDT(ntFile.getAbsolutePath(), "http://example.org/", RDFNotation.NTRIPLES,
+                new HDTSpecification(), null);
+        hdt.saveToHDT(HDT_FILE.getAbsolutePath(), null);
+        hdt.close();
+    }
+
+    @AfterAll
+    static void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(DIRECTORY);
+    }
+
+    @Test
+    void generateIndex() {
+        INDEX_FILE.delete();
+        assertFalse(HdtHandle.isIndexAvailable(HDT_FILE));
+        assertTrue(HdtHandle.generateIndex(HDT_FILE));
+        assertTrue(INDEX_FILE.isFile());
+        assertTrue(HdtHandle.isIndexAvailable(HDT_FILE));
+
+        // calling it again does not fail
+        assertTrue(HdtHandle.generateIndex(HDT_FILE));
+        assertFalse(HdtHandle.generateIndex(new File(DIRECTORY, "does_not_exist.hdt")));
+    }
+
+    @Test
+    void openShared() throws Exception {
+        for (HdtHandle.LoadingMode mode : HdtHandle.LoadingMode.values()) {
+            HdtHandle handle1 = HdtHandle.open(HDT_FILE.getAbsolutePath(), mode);
+            assertEquals(mode, handle1.getLoadingMode());
+            assertEquals(3, handle1.getHdt().getTriples().getNumberOfElements());
+            assertTrue(HdtHandle.isIndexAvailable(HDT_FILE));
+
+            // the same file (also via the index file or in another mode) is shared
+            HdtHandle.LoadingMode otherMode = mode == HdtHandle.LoadingMode.MAPPED ? HdtHandle.LoadingMode.LOADED :
+                    HdtHandle.LoadingMode.MAPPED;
+            HdtHandle handle2 = HdtHandle.open(INDEX_FILE.getPath(), otherMode);
+            assertSame(handle1.getHdt(), handle2.getHdt());
+            assertEquals(mode, handle2.getLoadingMode());
+            assertEquals(2, HdtHandle.getNumberOfHandles(HDT_FILE));
+
+            handle1.close();
+            handle1.close();
+            assertEquals(1, HdtHandle.getNumberOfHandles(HDT_FILE));
+            assertEquals(3, handle2.getHdt().getTriples().getNumberOfElements());
+            handle2.close();
+            assertEquals(0, HdtHandle.getNumberOfHandles(HDT_FILE));
+        }
+    }
+
+    @Test
+    void loadingModeFromString() {
+        assertEquals(HdtHandle.LoadingMode.MAPPED, HdtHandle.LoadingMode.fromString("mapped"));
+        assertEquals(HdtHandle.LoadingMode.LOADED, HdtHandle.LoadingMode.fromString(" LOADED "));
+        assertNull(HdtHandle.LoadingMode.fromString("mmap"));
+        assertNull(HdtHandle.LoadingMode.fromString(null));
+    }
+
+    @Test
+    void openDefaultLoadingMode() throws Exception {
+        try (HdtHandle handle = HdtHandle.open(HDT_FILE.getAbsolutePath())) {
+            assertEquals(HdtHandle.DEFAULT_LOADING_MODE, handle.getLoadingMode());
+        }
+        try (HdtHandle handle = HdtHandle.open(HDT_FILE.getAbsolutePath(), null)) {
+            assertEquals(HdtHandle.DEFAULT_LOADING_MODE, handle.getLoadingMode());
+        }
+    }
+
+    @Test
+    void parseSingleFileLoadingMode() throws Exception {
+        for (HdtHandle.LoadingMode mode : HdtHandle.LoadingMode.values()) {
+            Pair<IWalkGenerator, EntitySelector> pair = WalkGeneratorManager.parseSingleFile(HDT_FILE, false, 1, mode);
+            try (HdtHandle handle = HdtHandle.open(HDT_FILE.getAbsolutePath())) {
+                assertEquals(mode, handle.getLoadingMode());
+            }
+            ((HdtWalkGenerator) pair.getValue0()).close();
+            assertEquals(0, HdtHandle.getNumberOfHandles(HDT_FILE));
+        }
+    }
+
+    @Test
+    void parseSingleFileSharesHdt() throws Exception {
+        Pair<IWalkGenerator, EntitySelector> pair = WalkGeneratorManager.parseSingleFile(HDT_FILE.getAbsolutePath());
+        assertTrue(pair.getValue0() instanceof HdtWalkGenerator);
+        assertEquals(1, HdtHandle.getNumberOfHandles(HDT_FILE));
+        assertEquals(3, pair.getValue1().getEntities().size());
+        ((HdtWalkGenerator) pair.getValue0()).close();
+        assertEquals(0, HdtHandle.getNumberOfHandles(HDT_FILE));
+    }
+
+    @Test
+    void entitySelectorReleasesHandle() throws Exception {
+        HdtWalkGenerator generator = new HdtWalkGenerator(HDT_FILE.getAbsolutePath());
+        HdtEntitySelector selector = new HdtEntitySelector(HDT_FILE.getAbsolutePath());
+        assertEquals(2, HdtHandle.getNumberOfHandles(HDT_FILE));
+        assertEquals(3, selector.getEntities().size());
+        selector.close();
+        selector.close();
+        assertEquals(1, HdtHandle.getNumberOfHandles(HDT_FILE));
+        generator.close();
+        assertEquals(0, HdtHandle.getNumberOfHandles(HDT_FILE));
+    }
+}
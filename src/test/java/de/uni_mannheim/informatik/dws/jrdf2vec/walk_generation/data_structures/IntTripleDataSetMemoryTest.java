@@ -0,0 +1,204 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators.NtMemoryWalkGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntTripleDataSetMemoryTest {
+
+
+    @Test
+    void addDatatypeTriple() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addDatatypeTriple("A", "B", "My String");
+        assertEquals(1, ds.getNumberOfObjectNodes());
+        assertTrue(ds.getObjectNodes().contains("A"));
+
+        assertEquals(0, ds.getObjectTripleSize());
+        ds.addDatatypeTriple("A", "C", "My String");
+        ds.addDatatypeTriple("A", "C", "My String 2");
+        ds.addDatatypeTriple("A", "C", "My String 2");
+        assertEquals(0, ds.getObjectTripleSize());
+        assertEquals(3, ds.getDatatypeTripleSize());
+        assertEquals(1, ds.getNumberOfObjectNodes());
+
+        Map<String, Set<String>> datatypeTuples = ds.getDatatypeTuplesForSubject("A");
+        assertEquals(2, datatypeTuples.size());
+        assertEquals(1, datatypeTuples.get("B").size());
+        assertEquals(2, datatypeTuples.get("C").size());
+
+        Set<String> subjects = ds.getUniqueSubjects();
+        assertEquals(1, subjects.size());
+        assertTrue(subjects.contains("A"));
+    }
+
+    @Test
+    void addObjectTriple() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "B", "C");
+        ds.addObjectTriple("A", "B", "C");
+        assertEquals(1, ds.getObjectTripleSize());
+        assertEquals("A", ds.getObjectTriplesInvolvingObject("C").get(0).subject);
+        assertEquals("A", ds.getObjectTriplesInvolvingPredicate("B").get(0).subject);
+        assertEquals("C", ds.getObjectTriplesInvolvingSubject("A").get(0).object);
+        assertNull(ds.getObjectTriplesInvolvingSubject("C"));
+        assertNull(ds.getObjectTriplesInvolvingObject("A"));
+        assertNull(ds.getObjectTriplesInvolvingSubject("Z"));
+        assertEquals(2, ds.getNumberOfObjectNodes());
+        assertTrue(ds.getObjectNodes().contains("A"));
+        assertTrue(ds.getObjectNodes().contains("C"));
+        assertFalse(ds.getObjectNodes().contains("B"));
+
+        Set<String> subjects = ds.getUniqueObjectTripleSubjects();
+        assertEquals(1, subjects.size());
+        assertTrue(subjects.contains("A"));
+        assertTrue(ds.getUniqueObjectTripleObjects().contains("C"));
+        assertEquals(2, ds.getUniqueObjectTripleSubjectsAndObjects().size());
+        assertEquals(1, ds.getUniqueObjectTriplePredicates().size());
+        assertEquals(1, ds.getAllObjectTriples().size());
+        assertTrue(ds.getAllObjectTriples().contains(new Triple("A", "B", "C")));
+    }
+
+    @Test
+    void manyTriples() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory(4, 4);
+        for (int i = 0; i < 10000; i++) {
+            ds.addObjectTriple("S" + (i % 100), "P" + (i % 7), "O" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            ds.addObjectTriple("S" + (i % 100), "P" + (i % 7), "O" + i);
+        }
+        assertEquals(10000, ds.getObjectTripleSize());
+        assertEquals(100, ds.getObjectTriplesInvolvingSubject("S5").size());
+        assertEquals(1, ds.getObjectTriplesInvolvingObject("O5").size());
+        assertEquals(100, ds.getUniqueObjectTripleSubjects().size());
+        assertEquals(7, ds.getUniqueObjectTriplePredicates().size());
+    }
+
+    @Test
+    void getTriplesWithPredicateObject() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "B", "C");
+        ds.addObjectTriple("D", "B", "C");
+        ds.addObjectTriple("D", "E", "C");
+        Set<Triple> result = ds.getObjectTriplesWithPredicateObject("B", "C");
+        assertEquals(2, result.size());
+        assertTrue(result.contains(new Triple("A", "B", "C")));
+        assertTrue(result.contains(new Triple("D", "B", "C")));
+
+        assertNull(ds.getObjectTriplesWithPredicateObject(null, "B"));
+        assertNull(ds.getObjectTriplesWithPredicateObject("A", null));
+        assertNull(ds.getObjectTriplesWithPredicateObject("A", "Z"));
+        assertNull(ds.getObjectTriplesWithPredicateObject("Z", "A"));
+    }
+
+    @Test
+    void getTriplesWithSubjectPredicate() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "B", "C");
+        ds.addObjectTriple("A", "X", "C");
+
+        Set<Triple> result = ds.getObjectTriplesWithSubjectPredicate("A", "B");
+        assertEquals(1, result.size());
+        assertEquals(new Triple("A", "B", "C"), result.iterator().next());
+
+        assertNull(ds.getObjectTriplesWithSubjectPredicate(null, "B"));
+        assertNull(ds.getObjectTriplesWithSubjectPredicate("A", null));
+        assertNull(ds.getObjectTriplesWithSubjectPredicate("C", "B"));
+        assertNull(ds.getObjectTriplesWithSubjectPredicate("Z", "A"));
+    }
+
+    @Test
+    void removeObjectTriple() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "B", "C");
+        ds.addObjectTriple("A", "B", "D");
+        assertEquals(2, ds.getObjectTripleSize());
+
+        ds.removeObjectTriple(new Triple("A", "B", "D"));
+        assertEquals(1, ds.getObjectTripleSize());
+        assertNull(ds.getObjectTriplesInvolvingObject("D"));
+        assertTrue(ds.getObjectTriplesInvolvingSubject("A").contains(new Triple("A", "B", "C")));
+        assertEquals(1, ds.getObjectTriplesInvolvingSubject("A").size());
+        assertFalse(ds.getAllObjectTriples().contains(new Triple("A", "B", "D")));
+
+        // negative tests
+        ds.removeObjectTriple(null);
+        ds.removeObjectTriple(new Triple("A1", "B", "C"));
+        assertEquals(1, ds.getObjectTripleSize());
+
+        // re-add
+        ds.addObjectTriple("A", "B", "D");
+        assertEquals(2, ds.getObjectTripleSize());
+        assertEquals(2, ds.getObjectTriplesInvolvingSubject("A").size());
+    }
+
+    @Test
+    void addAllObjectTriples() {
+        TripleDataSetMemory ds = new TripleDataSetMemory();
+        ds.addObjectTriple("A", "B", "C");
+        IntTripleDataSetMemory ds2 = new IntTripleDataSetMemory();
+        ds2.addObjectTriple("A", "B", "C");
+        ds2.addObjectTriple("D", "E", "G");
+
+        ds.addAllObjectTriples(ds2);
+        assertEquals(2, ds.getObjectTripleSize());
+        ds2.addAllObjectTriples(ds);
+        assertEquals(2, ds2.getObjectTripleSize());
+    }
+
+    @Test
+    void addAllPartitions() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "B", "C");
+        TripleDataSetMemory partition1 = ds.createEmptyPartition();
+        assertTrue(partition1 instanceof IntTripleDataSetMemory);
+        partition1.addObjectTriple("D", "E", "A");
+        partition1.addObjectTriple("A", "B", "C");
+        partition1.addDatatypeTriple("D", "label", "my label");
+        TripleDataSetMemory partition2 = new TripleDataSetMemory();
+        partition2.addObjectTriple("C", "E", "G");
+
+        ds.addAllPartitions(Arrays.asList(partition1, partition2));
+        assertEquals(3, ds.getObjectTripleSize());
+        assertEquals(1, ds.getDatatypeTripleSize());
+        assertEquals(2, ds.getObjectTriplesInvolvingPredicate("E").size());
+        assertEquals("D", ds.getObjectTriplesInvolvingObject("A").get(0).subject);
+        assertEquals(2, ds.getAdjacencyIndex().getInDegree(ds.getNodeDictionary().getId("A"))
+                + ds.getAdjacencyIndex().getOutDegree(ds.getNodeDictionary().getId("A")));
+        assertTrue(ds.getDatatypeTuplesForSubject("D").get("label").contains("my label"));
+    }
+
+    @Test
+    void memoryWalkGenerator() {
+        NtMemoryWalkGenerator generator = new NtMemoryWalkGenerator();
+        generator.setData(new IntTripleDataSetMemory());
+        generator.readNTriples(Util.loadFile("dummyGraph.nt"));
+        List<String> walks = generator.generateDuplicateFreeRandomWalksForEntity("A", 100, 8);
+        assertEquals(3, walks.size());
+        for (String walk : walks) {
+            assertTrue(walk.equals("A P4 E P5 D") || walk.equals("A P4 E P6 F") || walk.equals("A P1 B P2 C P3 D"));
+        }
+        assertTrue(generator.generateMidWalksForEntity("A", 10, 4).size() > 0);
+    }
+
+    @Test
+    void growDoesNotOverflow() {
+        int largeLength = (1 << 30) + 1;
+        assertEquals(UriDictionary.MAX_ARRAY_SIZE, UriDictionary.grow(largeLength + 1L, largeLength * 2L));
+        assertEquals(20, UriDictionary.grow(11, 20));
+        assertEquals(12, UriDictionary.grow(12, 8));
+        assertThrows(IllegalStateException.class,
+                () -> UriDictionary.grow(UriDictionary.MAX_ARRAY_SIZE + 1L, Integer.MAX_VALUE * 2L));
+        assertThrows(IllegalStateException.class, () -> UriDictionary.checkArrayLength(Integer.MAX_VALUE * 2L));
+        assertThrows(IllegalStateException.class, () -> UriDictionary.tableSizeFor(UriDictionary.MAX_TABLE_SIZE + 1));
+        assertEquals(UriDictionary.MAX_TABLE_SIZE, UriDictionary.tableSizeFor(UriDictionary.MAX_TABLE_SIZE));
+    }
+}
@@ -0,0 +1,74 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NeighbourCacheTest {
+
+
+    @Test
+    void get() {
+        NeighbourCache cache = new NeighbourCache(100);
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            String[] neighbours = cache.get("A", node -> {
+                loads.incrementAndGet();
+                return new String[]{"p", node + "1", "q", node + "2"};
+            });
+            assertArrayEquals(new String[]{"p", "A1", "q", "A2"}, neighbours);
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.size());
+        assertEquals(9, cache.getStatistics().hitCount());
+        assertEquals(1, cache.getStatistics().missCount());
+        assertEquals(0.9, cache.getHitRate(), 0.0001);
+        assertNotNull(cache.toString());
+    }
+
+    @Test
+    void evictionByWeight() {
+        NeighbourCache cache = new NeighbourCache(50);
+        for (int i = 0; i < 20; i++) {
+            // weight 11 each
+            cache.get("node" + i, node -> new String[10]);
+        }
+        assertTrue(cache.size() <= 4, "Size: " + cache.size());
+        assertTrue(cache.getStatistics().evictionCount() >= 16);
+
+        // entries heavier than the cache are not kept
+        cache.invalidateAll();
+        cache.get("hub", node -> new String[100]);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void singleSegment() {
+        // with one segment, an entry may use the full bound
+        NeighbourCache cache = new NeighbourCache(1000, 1);
+        cache.get("hub", node -> new String[900]);
+        assertEquals(1, cache.size());
+        cache.get("hub", node -> new String[900]);
+        assertEquals(1, cache.getStatistics().hitCount());
+    }
+
+    @Test
+    void loaderFails() {
+        NeighbourCache cache = new NeighbourCache();
+        assertSame(NeighbourCache.NO_NEIGHBOURS, cache.get("A", node -> {
+            throw new IllegalStateException("test");
+        }));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void noCaching() {
+        NeighbourCache cache = new NeighbourCache(0);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("A", node -> new String[]{String.valueOf(loads.incrementAndGet())});
+        cache.get("A", node -> new String[]{String.valueOf(loads.incrementAndGet())});
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,73 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomAccessSetTest {
+
+
+    @Test
+    void addRemoveContains() {
+        RandomAccessSet<String> set = new RandomAccessSet<>();
+        assertNull(set.drawRandom());
+        assertTrue(set.add("A"));
+        assertTrue(set.add("B"));
+        assertTrue(set.add("C"));
+        assertFalse(set.add("B"));
+        assertEquals(3, set.size());
+
+        assertTrue(set.remove("A"));
+        assertFalse(set.remove("A"));
+        assertFalse(set.contains("A"));
+        assertEquals(new HashSet<>(Arrays.asList("B", "C")), set);
+        for (int i = 0; i < set.size(); i++) {
+            assertTrue(set.contains(set.get(i)));
+        }
+
+        // removing the last element
+        assertTrue(set.remove(set.get(1)));
+        assertEquals(1, set.size());
+        assertEquals(set.get(0), set.drawRandom());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add("A"));
+        assertEquals("A", set.get(0));
+    }
+
+    @Test
+    void iteratorRemove() {
+        RandomAccessSet<Integer> set = new RandomAccessSet<>();
+        for (int i = 0; i < 100; i++) {
+            set.add(i);
+        }
+        set.removeIf(i -> i % 3 == 0);
+        assertEquals(66, set.size());
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            if (i % 3 != 0) expected.add(i);
+        }
+        assertEquals(expected, set);
+        for (int i = 0; i < set.size(); i++) {
+            assertTrue(set.contains(set.get(i)));
+        }
+
+        Iterator<Integer> iterator = set.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+    }
+
+    @Test
+    void drawRandom() {
+        RandomAccessSet<String> set = new RandomAccessSet<>(Arrays.asList("A", "B", "C", "D"));
+        Set<String> drawn = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            drawn.add(set.drawRandom());
+            drawn.add(Util.randomDrawFromSet(set));
+        }
+        assertEquals(set, drawn);
+    }
+}
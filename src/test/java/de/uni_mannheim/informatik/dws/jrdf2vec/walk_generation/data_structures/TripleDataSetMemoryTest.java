@@ -4,9 +4,7 @@ import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -214,4 +212,68 @@ class TripleDataSetMemoryTest {
         assertEquals(20, tds.getObjectNodes().size());
         assertEquals(9, tds.getUniqueObjectTriplePredicates().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void addAllPartitions(){
+        TripleDataSetMemory tds = new TripleDataSetMemory();
+        tds.addObjectTriple("A", "B", "C");
+        TripleDataSetMemory partition1 = tds.createEmptyPartition();
+        partition1.addObjectTriple("A", "B", "C");
+        partition1.addObjectTriple("C", "B", "D");
+        partition1.addDatatypeTriple("A", "label", "my label");
+        TripleDataSetMemory partition2 = tds.createEmptyPartition();
+        partition2.addObjectTriple("C", "B", "D");
+        partition2.addObjectTriple("D", "E", "F");
+
+        tds.addAllPartitions(Arrays.asList(partition1, partition2));
+        assertEquals(3, tds.getObjectTripleSize());
+        assertEquals(1, tds.getDatatypeTripleSize());
+        assertEquals(2, tds.getObjectTriplesInvolvingPredicate("B").size());
+        assertEquals(2, tds.getObjectTriplesInvolvingSubject("C").size() + tds.getObjectTriplesInvolvingObject("C").size());
+        assertEquals(4, tds.getObjectNodes().size());
+        assertTrue(tds.getDatatypeTuplesForSubject("A").get("label").contains("my label"));
+
+        // large partitions are merged in parallel
+        List<TripleDataSetMemory> partitions = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            TripleDataSetMemory partition = tds.createEmptyPartition();
+            for (int i = 0; i < 40000; i++) {
+                partition.addObjectTriple("S" + (i % 1000), "P" + p, "O" + i);
+            }
+            partitions.add(partition);
+        }
+        tds.addAllPartitions(partitions);
+        assertEquals(160003, tds.getObjectTripleSize());
+        assertEquals(40000, tds.getObjectTriplesInvolvingPredicate("P1").size());
+        assertEquals(160, tds.getObjectTriplesInvolvingSubject("S5").size());
+        assertEquals(4, tds.getObjectTriplesInvolvingObject("O5").size());
+    }
+
+    @Test
+    void drawObjectTriples() {
+        TripleDataSetMemory ds = new TripleDataSetMemory();
+        ds.addObjectTriple("A", "P", "B");
+        ds.addObjectTriple("A", "P", "C");
+        ds.addObjectTriple("A", "Q", "C");
+        ds.addObjectTriple("D", "Q", "C");
+        assertEquals(3, ds.getOutDegree("A"));
+        assertEquals(3, ds.getInDegree("C"));
+        assertEquals(0, ds.getInDegree("A"));
+
+        Set<Triple> drawn = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            drawn.add(ds.drawObjectTripleInvolvingSubject("A"));
+        }
+        assertEquals(new HashSet<>(ds.getObjectTriplesInvolvingSubject("A")), drawn);
+
+        drawn.clear();
+        for (int i = 0; i < 300; i++) {
+            drawn.add(ds.drawObjectTripleInvolvingObject("C"));
+        }
+        assertEquals(new HashSet<>(ds.getObjectTriplesInvolvingObject("C")), drawn);
+
+        assertNull(ds.drawObjectTripleInvolvingSubject("C"));
+        assertNull(ds.drawObjectTripleInvolvingObject("A"));
+        assertNull(ds.drawObjectTripleInvolvingSubject("unknown"));
+    }
+}
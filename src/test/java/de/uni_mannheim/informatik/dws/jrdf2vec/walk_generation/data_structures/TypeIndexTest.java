@@ -0,0 +1,50 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeIndexTest {
+
+
+    private static final String TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+
+    private static final String SUBCLASS = "http://www.w3.org/2000/01/rdf-schema#subClassOf";
+
+    @Test
+    void build() {
+        for (TripleDataSetMemory data : Arrays.asList(new TripleDataSetMemory(), new IntTripleDataSetMemory())) {
+            data.addObjectTriple("A", TYPE, "T1");
+            data.addObjectTriple("A", TYPE, "T2");
+            data.addObjectTriple("A", SUBCLASS, "T3");
+            data.addObjectTriple("B", TYPE, "T1");
+            data.addObjectTriple("B", "P", "C");
+            data.addObjectTriple("B", SUBCLASS, "T1");
+
+            TypeIndex index = TypeIndex.build(data, Collections.singleton(TYPE));
+            assertEquals(2, index.getNumberOfTypedEntities());
+            assertEquals(2, index.getNumberOfTypes());
+            assertEquals(new HashSet<>(Arrays.asList("T1", "T2")), index.getTypes("A"));
+            assertEquals(Collections.singleton("T1"), index.getTypes("B"));
+            assertTrue(index.getTypes("C").isEmpty());
+            assertEquals("T1", index.drawRandomType("B"));
+            assertNull(index.drawRandomType("C"));
+            assertNull(index.drawRandomType(null));
+
+            Set<String> drawn = new HashSet<>();
+            for (int i = 0; i < 100; i++) drawn.add(index.drawRandomType("A"));
+            assertEquals(new HashSet<>(Arrays.asList("T1", "T2")), drawn);
+
+            index = TypeIndex.build(data, Arrays.asList(TYPE, SUBCLASS));
+            assertEquals(new HashSet<>(Arrays.asList("T1", "T2", "T3")), index.getTypes("A"));
+            assertEquals(Collections.singleton("T1"), index.getTypes("B"));
+            assertEquals(3, index.getNumberOfTypes());
+            assertEquals(0, TypeIndex.build(data, Collections.singleton("unknown")).getNumberOfTypedEntities());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalkHashSetTest {
+
+
+    @Test
+    void add() {
+        WalkHashSet set = new WalkHashSet();
+        List<int[]> walks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // every walk appears twice
+            int[] walk = {i / 2, 7, 3};
+            boolean isAdded = set.add(WalkHashSet.hash(walk, 0, walk.length), walks.size(),
+                    other -> Arrays.equals(walks.get(other), walk));
+            assertEquals(i % 2 == 0, isAdded);
+            if (isAdded) walks.add(walk);
+        }
+        assertEquals(500, set.size());
+
+        set.clear(10);
+        assertEquals(0, set.size());
+        assertTrue(set.add(42L, 0, other -> true));
+        // equal hashes of different walks are resolved via the callback
+        assertTrue(set.add(42L, 1, other -> false));
+        assertFalse(set.add(42L, 2, other -> other == 1));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void hash() {
+        int[] tokens = {5, 1, 2, 3, 9};
+        assertEquals(WalkHashSet.hash(new int[]{1, 2, 3}, 0, 3), WalkHashSet.hash(tokens, 1, 4));
+        assertNotEquals(WalkHashSet.hash(new int[]{1, 2, 3}, 0, 3), WalkHashSet.hash(new int[]{3, 2, 1}, 0, 3));
+        assertNotEquals(WalkHashSet.hash(new int[]{0}, 0, 1), WalkHashSet.hash(new int[]{0, 0}, 0, 2));
+        assertEquals(WalkHashSet.hash(Arrays.asList("A", "P", "B")), WalkHashSet.hash(Arrays.asList("A", "P", "B")));
+        assertNotEquals(WalkHashSet.hash(Arrays.asList("A", "P", "B")), WalkHashSet.hash(Arrays.asList("B", "P", "A")));
+    }
+
+    @Test
+    void convertToStringWalksDuplicateFree() {
+        List<List<String>> walks = new ArrayList<>();
+        walks.add(Arrays.asList("A", "P", "B"));
+        walks.add(Arrays.asList("B", "P", "A"));
+        walks.add(Arrays.asList("A", "P", "B"));
+        walks.add(Arrays.asList("A"));
+        List<String> result = Util.convertToStringWalksDuplicateFree(walks);
+        assertEquals(3, result.size());
+        assertEquals(new HashSet<>(Arrays.asList("A P B", "B P A", "A")), new HashSet<>(result));
+    }
+}
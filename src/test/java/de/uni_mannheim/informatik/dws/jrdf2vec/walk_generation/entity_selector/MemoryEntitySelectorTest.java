@@ -0,0 +1,55 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IntTripleDataSetMemory;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TripleDataSetMemory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryEntitySelectorTest {
+
+
+    @Test
+    void getEntitySpliterator() {
+        assertEntitySpliterator(new TripleDataSetMemory());
+    }
+
+    @Test
+    void getEntitySpliteratorEncoded() {
+        IntTripleDataSetMemory data = new IntTripleDataSetMemory();
+        assertEntitySpliterator(data);
+
+        // removed nodes stay in the dictionary but are no entities
+        data.removeObjectTriple(new Triple("E", "p", "D"));
+        List<String> streamed = new ArrayList<>();
+        new MemoryEntitySelector(data).getEntitySpliterator().forEachRemaining(streamed::add);
+        assertEquals(4, streamed.size());
+        assertFalse(streamed.contains("E"));
+        assertTrue(streamed.contains("D"));
+    }
+
+    private static void assertEntitySpliterator(TripleDataSetMemory data) {
+        data.addObjectTriple("A", "p", "B");
+        data.addObjectTriple("B", "p", "C");
+        data.addObjectTriple("A", "q", "C");
+        data.addDatatypeTriple("D", "label", "d");
+        data.addDatatypeTriple("A", "label", "a");
+        data.addObjectTriple("E", "p", "D");
+        MemoryEntitySelector selector = new MemoryEntitySelector(data);
+
+        Set<String> expected = selector.getEntities();
+        assertEquals(5, expected.size());
+
+        List<String> streamed = new ArrayList<>();
+        selector.getEntitySpliterator().forEachRemaining(streamed::add);
+        // every entity is returned exactly once
+        assertEquals(5, streamed.size());
+        assertEquals(expected, new HashSet<>(streamed));
+    }
+}
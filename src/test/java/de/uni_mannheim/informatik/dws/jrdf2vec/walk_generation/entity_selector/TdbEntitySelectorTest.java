@@ -2,15 +2,25 @@ package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.query.ReadWrite;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.system.Txn;
 import org.apache.jena.tdb.TDBFactory;
+import org.apache.jena.tdb2.TDB2Factory;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,6 +41,141 @@ class TdbEntitySelectorTest {
         tdbDataset.close();
     }
 
+    @Test
+    void getEntitySpliterator() throws IOException {
+        File tdbDirectory = new File("./tdb_entity_selector_test");
+        Dataset tdbDataset = TDBFactory.createDataset(tdbDirectory.getAbsolutePath());
+        try {
+            Model tdbModel = tdbDataset.getDefaultModel();
+            RDFDataMgr.read(tdbModel, loadFile("pizza.ttl").getAbsolutePath());
+            TdbEntitySelector selector = new TdbEntitySelector(tdbModel);
+
+            List<String> streamed = new ArrayList<>();
+            selector.getEntitySpliterator().forEachRemaining(streamed::add);
+            Set<String> expected = selector.getEntities();
+            assertTrue(expected.contains("http://www.co-ode.org/ontologies/pizza/pizza.owl#Siciliana"));
+            // every entity is returned exactly once
+            assertEquals(expected.size(), streamed.size());
+            assertEquals(expected, new HashSet<>(streamed));
+        } finally {
+            TDBFactory.release(tdbDataset);
+            FileUtils.deleteDirectory(tdbDirectory);
+        }
+    }
+
+    @Test
+    void getEntitySpliteratorInReadTransaction() throws IOException {
+        File tdbDirectory = new File("./tdb_entity_selector_transaction_test");
+        Dataset tdbDataset = TDBFactory.createDataset(tdbDirectory.getAbsolutePath());
+        try {
+            Txn.executeWrite(tdbDataset, () -> RDFDataMgr.read(tdbDataset.getDefaultModel(),
+                    loadFile("pizza.ttl").getAbsolutePath()));
+            TdbEntitySelector selector = new TdbEntitySelector(tdbDataset);
+
+            // the dataset was used transactionally: reading requires a transaction
+            List<String> streamed = new ArrayList<>();
+            selector.getEntitySpliterator().forEachRemaining(streamed::add);
+            assertFalse(tdbDataset.isInTransaction());
+            Set<String> expected = selector.getEntities();
+            assertTrue(expected.contains("http://www.co-ode.org/ontologies/pizza/pizza.owl#Siciliana"));
+            assertEquals(expected.size(), streamed.size());
+            assertEquals(expected, new HashSet<>(streamed));
+
+            // an outer transaction is reused and not ended
+            tdbDataset.begin(ReadWrite.READ);
+            assertEquals(expected.size(), countEntities(selector));
+            assertTrue(tdbDataset.isInTransaction());
+            tdbDataset.end();
+        } finally {
+            TDBFactory.release(tdbDataset);
+            FileUtils.deleteDirectory(tdbDirectory);
+        }
+    }
+
+    private static int countEntities(EntitySelector selector) {
+        int[] count = {0};
+        selector.getEntitySpliterator().forEachRemaining(entity -> count[0]++);
+        return count[0];
+    }
+
+    @Test
+    void getEntitySpliteratorNonTdbModel() {
+        Model model = ModelFactory.createDefaultModel();
+        RDFDataMgr.read(model, loadFile("pizza.ttl").getAbsolutePath());
+        TdbEntitySelector selector = new TdbEntitySelector(model);
+        List<String> streamed = new ArrayList<>();
+        selector.getEntitySpliterator().forEachRemaining(streamed::add);
+        Set<String> expected = selector.getEntities();
+        assertEquals(expected.size(), streamed.size());
+        assertEquals(expected, new HashSet<>(streamed));
+    }
+
+    @Test
+    void getEntitySpliteratorTdb2() throws IOException {
+        File tdb2Directory = new File("./tdb2_entity_selector_test");
+        Dataset tdb2Dataset = TDB2Factory.connectDataset(tdb2Directory.getAbsolutePath());
+        try {
+            Txn.executeWrite(tdb2Dataset, () -> RDFDataMgr.read(tdb2Dataset.getDefaultModel(),
+                    loadFile("pizza.ttl").getAbsolutePath()));
+            TdbEntitySelector selector = new TdbEntitySelector(tdb2Dataset);
+
+            List<String> streamed = new ArrayList<>();
+            selector.getEntitySpliterator().forEachRemaining(streamed::add);
+            assertFalse(tdb2Dataset.isInTransaction());
+            Set<String> expected = selector.getEntities();
+            assertTrue(expected.contains("http://www.co-ode.org/ontologies/pizza/pizza.owl#Siciliana"));
+            assertEquals(expected.size(), streamed.size());
+            assertEquals(expected, new HashSet<>(streamed));
+        } finally {
+            tdb2Dataset.close();
+            FileUtils.deleteDirectory(tdb2Directory);
+        }
+    }
+
+    @Test
+    void getEntitySpliteratorTransactionalInMemoryDataset() {
+        Dataset dataset = DatasetFactory.createTxnMem();
+        Txn.executeWrite(dataset, () -> RDFDataMgr.read(dataset.getDefaultModel(),
+                loadFile("pizza.ttl").getAbsolutePath()));
+        TdbEntitySelector selector = new TdbEntitySelector(dataset);
+
+        // neither TDB nor TDB2: the entities are not subject-ordered but still returned exactly once
+        List<String> streamed = new ArrayList<>();
+        selector.getEntitySpliterator().forEachRemaining(streamed::add);
+        assertFalse(dataset.isInTransaction());
+        Set<String> expected = selector.getEntities();
+        assertTrue(expected.contains("http://www.co-ode.org/ontologies/pizza/pizza.owl#Siciliana"));
+        assertEquals(expected.size(), streamed.size());
+        assertEquals(expected, new HashSet<>(streamed));
+        dataset.close();
+    }
+
+    @Test
+    void continuationSpliteratorEndsReadTransaction() throws Exception {
+        File tdbDirectory = new File("./tdb_entity_selector_continuation_test");
+        File newWalkDirectory = new File("./new_walk_directory_tdb_continuation");
+        Dataset tdbDataset = TDBFactory.createDataset(tdbDirectory.getAbsolutePath());
+        try {
+            Txn.executeWrite(tdbDataset, () -> RDFDataMgr.read(tdbDataset.getDefaultModel(),
+                    loadFile("pizza.ttl").getAbsolutePath()));
+            ContinuationEntitySelector selector = new ContinuationEntitySelector(loadFile("existing_walk_directory"),
+                    newWalkDirectory, new TdbEntitySelector(tdbDataset));
+
+            // stop after the first entity: closing the spliterator must end the read transaction
+            Spliterator<String> entities = selector.getEntitySpliterator();
+            assertTrue(entities.tryAdvance(entity -> assertNotNull(entity)));
+            assertTrue(tdbDataset.isInTransaction());
+            assertTrue(entities instanceof AutoCloseable);
+            ((AutoCloseable) entities).close();
+            assertFalse(tdbDataset.isInTransaction());
+            assertFalse(entities.tryAdvance(entity -> fail("The spliterator is closed.")));
+        } finally {
+            TDBFactory.release(tdbDataset);
+            FileUtils.deleteDirectory(tdbDirectory);
+            FileUtils.deleteDirectory(newWalkDirectory);
+        }
+    }
+
     /**
      * Helper function to load files in class path that contain spaces.
      * @param fileName Name of the file.
@@ -0,0 +1,144 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateFreeWalkSamplerTest {
+
+
+    /**
+     * A hub with 1000 successors, each of which has 10 successors.
+     */
+    private static Collection<Triple> getSuccessors(String node) {
+        if (node.equals("hub")) {
+            List<Triple> result = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) result.add(new Triple(node, "p", "n" + i));
+            return result;
+        }
+        if (node.startsWith("n")) {
+            // a set in order to test collections without positional access
+            Set<Triple> result = new HashSet<>();
+            for (int i = 0; i < 10; i++) result.add(new Triple(node, "q", "leaf_" + node + "_" + i));
+            return result;
+        }
+        if (node.equals("dead_end")) return Collections.emptyList();
+        return null;
+    }
+
+    @Test
+    void generateWalks() {
+        List<List<Triple>> walks = DuplicateFreeWalkSampler.generateWalks("hub", 50, 4,
+                DuplicateFreeWalkSamplerTest::getSuccessors);
+        assertEquals(50, walks.size());
+        Set<List<Triple>> uniqueWalks = new HashSet<>(walks);
+        assertEquals(50, uniqueWalks.size());
+        for (List<Triple> walk : walks) {
+            // leaves cannot be extended and are kept
+            assertEquals(2, walk.size());
+            assertTrue(walk.get(1).object.startsWith("leaf_"));
+            assertEquals("hub", walk.get(0).subject);
+            assertEquals(walk.get(0).object, walk.get(1).subject);
+        }
+
+        // fewer candidates than walks: the full expansion is returned
+        assertEquals(10, DuplicateFreeWalkSampler.generateWalks("n1", 50, 3,
+                DuplicateFreeWalkSamplerTest::getSuccessors).size());
+
+        assertTrue(DuplicateFreeWalkSampler.generateWalks("leaf", 10, 3,
+                DuplicateFreeWalkSamplerTest::getSuccessors).isEmpty());
+        assertTrue(DuplicateFreeWalkSampler.generateWalks("dead_end", 10, 3,
+                DuplicateFreeWalkSamplerTest::getSuccessors).isEmpty());
+        assertTrue(DuplicateFreeWalkSampler.generateWalks("hub", 0, 3,
+                DuplicateFreeWalkSamplerTest::getSuccessors).isEmpty());
+    }
+
+    @Test
+    void generateWalksDiscardsDeadEnds() {
+        Map<String, List<Triple>> graph = new HashMap<>();
+        graph.put("A", Arrays.asList(new Triple("A", "p", "B"), new Triple("A", "p", "C")));
+        graph.put("B", Collections.singletonList(new Triple("B", "p", "D")));
+        graph.put("C", Collections.emptyList());
+        List<List<Triple>> walks = DuplicateFreeWalkSampler.generateWalks("A", 10, 3, graph::get);
+        assertEquals(1, walks.size());
+        assertEquals(2, walks.get(0).size());
+        assertEquals("D", walks.get(0).get(1).object);
+    }
+
+    /**
+     * Node n has the successors 2n and 2n + 1 (binary tree); nodes above 100 are leaves.
+     */
+    private static DuplicateFreeWalkSampler.Candidates<Integer> getChildren(int node) {
+        if (node > 100) return null;
+        return new DuplicateFreeWalkSampler.Candidates<Integer>() {
+            @Override
+            public long size() {
+                return 2;
+            }
+
+            @Override
+            public void forEach(long[] selected, int from, int to, long offset, Consumer<? super Integer> consumer) {
+                for (int k = from; k < to; k++) consumer.accept(2 * node + (int) (selected[k] - offset));
+            }
+        };
+    }
+
+    @Test
+    void generateWalksOnIds() {
+        List<List<Integer>> walks = DuplicateFreeWalkSampler.generateWalks(getChildren(1), 5, 3,
+                DuplicateFreeWalkSamplerTest::getChildren);
+        assertEquals(5, walks.size());
+        assertEquals(5, new HashSet<>(walks).size());
+        for (List<Integer> walk : walks) {
+            assertEquals(3, walk.size());
+            assertTrue(walk.get(0) == 2 || walk.get(0) == 3);
+            assertEquals(walk.get(0), walk.get(1) / 2);
+            assertEquals(walk.get(1), walk.get(2) / 2);
+        }
+
+        // all 8 paths of depth 3; leaves are kept
+        assertEquals(8, DuplicateFreeWalkSampler.generateWalks(getChildren(1), 100, 3,
+                DuplicateFreeWalkSamplerTest::getChildren).size());
+        assertEquals(2, DuplicateFreeWalkSampler.generateWalks(getChildren(100), 100, 3,
+                DuplicateFreeWalkSamplerTest::getChildren).size());
+        assertTrue(DuplicateFreeWalkSampler.generateWalks(getChildren(101), 100, 3,
+                DuplicateFreeWalkSamplerTest::getChildren).isEmpty());
+    }
+
+    @Test
+    void generateWalksIsUniform() {
+        // A has 4 successors; keeping one walk must pick each of them equally likely
+        Map<String, List<Triple>> graph = new HashMap<>();
+        List<Triple> successors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) successors.add(new Triple("A", "p", "B" + i));
+        graph.put("A", successors);
+        Map<String, Integer> counts = new HashMap<>();
+        int numberOfDraws = 20000;
+        for (int i = 0; i < numberOfDraws; i++) {
+            List<List<Triple>> walks = DuplicateFreeWalkSampler.generateWalks("A", 1, 1, graph::get);
+            assertEquals(1, walks.size());
+            counts.merge(walks.get(0).get(0).object, 1, Integer::sum);
+        }
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(0.25, (double) count / numberOfDraws, 0.02);
+        }
+    }
+
+    @Test
+    void drawDistinctSortedIndices() {
+        assertArrayEquals(new long[]{0, 1, 2}, DuplicateFreeWalkSampler.drawDistinctSortedIndices(3, 5));
+        for (int i = 0; i < 100; i++) {
+            long[] indices = DuplicateFreeWalkSampler.drawDistinctSortedIndices(20, 7);
+            assertEquals(7, indices.length);
+            for (int j = 0; j < indices.length; j++) {
+                assertTrue(indices[j] >= 0 && indices[j] < 20);
+                if (j > 0) assertTrue(indices[j - 1] < indices[j]);
+            }
+        }
+    }
+}
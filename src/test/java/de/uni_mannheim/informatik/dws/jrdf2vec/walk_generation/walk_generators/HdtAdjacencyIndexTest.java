@@ -0,0 +1,194 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rdfhdt.hdt.enums.RDFNotation;
+import org.rdfhdt.hdt.enums.TripleComponentRole;
+import org.rdfhdt.hdt.hdt.HDT;
+import org.rdfhdt.hdt.hdt.HDTManager;
+import org.rdfhdt.hdt.options.HDTSpecification;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HdtAdjacencyIndexTest {
+
+
+    private static final File DIRECTORY = new File("./hdt_adjacency_index_test");
+
+    private static final File HDT_FILE = new File(DIRECTORY, "graph.hdt");
+
+    private static final String NS = "http://example.org/";
+
+    /**
+     * The object triples of the test graph in the form {@code subject predicate object}.
+     */
+    static final Set<String> OBJECT_TRIPLES = new HashSet<>();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        StringBuilder nt = new StringBuilder();
+        addObjectTriple(nt, "A", "p", "B");
+        addObjectTriple(nt, "A", "p", "C");
+        addObjectTriple(nt, "B", "q", "C");
+        addObjectTriple(nt, "C", "r", "A");
+        addObjectTriple(nt, "D", "p", "A");
+        addObjectTriple(nt, "L", "p", "A");
+        addObjectTriple(nt, "M", "p", "B");
+        addObjectTriple(nt, "M", "p", "C");
+        nt.append("<" + NS + "M> <" + NS + "p> \"m\" .\n");
+        nt.append("<" + NS + "A> <" + NS + "label> \"a\" .\n");
+        nt.append("<" + NS + "A> <" + NS + "label> \"b\"@en .\n");
+        nt.append("<" + NS + "E> <" + NS + "label> \"e\" .\n");
+        for (int i = 0; i < 50; i++) {
+            nt.append("<" + NS + "L> <" + NS + "label> \"l" + i + "\" .\n");
+        }
+        createHdt(nt.toString(), HDT_FILE);
+    }
+
+    private static void addObjectTriple(StringBuilder nt, String subject, String predicate, String object) {
+        nt.append("<" + NS + subject + "> <" + NS + predicate + "> <" + NS + object + "> .\n");
+        OBJECT_TRIPLES.add(NS + subject + " " + NS + predicate + " " + NS + object);
+    }
+
+    /**
+     * Writes the given N-Triples as HDT file.
+     *
+     * @param nt      The triples.
+     * @param hdtFile The file to be written.
+     * @throws Exception If the file cannot be created.
+     */
+    static void createHdt(String nt, File hdtFile) throws Exception {
+        File ntFile = new File(hdtFile.getParentFile(), hdtFile.getName() + ".nt");
+        FileUtils.writeStringToFile(ntFile, nt, StandardCharsets.UTF_8);
+        HDT hdt = HDTManager.generateHDT(ntFile.getAbsolutePath(), NS, RDFNotation.NTRIPLES,
+                new HDTSpecification(), null);
+        hdt.saveToHDT(hdtFile.getAbsolutePath(), null);
+        hdt.close();
+    }
+
+    @AfterAll
+    static void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(DIRECTORY);
+    }
+
+    @Test
+    void withoutObjectIndex() throws Exception {
+        try (HDT hdt = HDTManager.loadHDT(HDT_FILE.getAbsolutePath())) {
+            HdtAdjacencyIndex index = new HdtAdjacencyIndex(hdt);
+            assertTrue(index.isPositionalAccess());
+            assertFalse(index.isObjectIndexAvailable());
+            assertIndex(hdt, index);
+        }
+    }
+
+    @Test
+    void withObjectIndex() throws Exception {
+        try (HDT hdt = HDTManager.loadIndexedHDT(HDT_FILE.getAbsolutePath())) {
+            HdtAdjacencyIndex index = new HdtAdjacencyIndex(hdt);
+            assertTrue(index.isObjectIndexAvailable());
+            assertIndex(hdt, index);
+        }
+    }
+
+    private static void assertIndex(HDT hdt, HdtAdjacencyIndex index) {
+        for (long id = 1; id <= hdt.getDictionary().getNobjects(); id++) {
+            String object = hdt.getDictionary().idToString(id, TripleComponentRole.OBJECT).toString();
+            assertEquals(object.startsWith("\""), index.isLiteral(id), object);
+        }
+
+        long a = index.getSubjectId(NS + "A");
+        assertTrue(a > 0);
+        assertEquals(4, index.getOutDegree(a, false));
+        assertEquals(2, index.getOutDegree(a, true));
+        assertEquals(3, index.getInDegree(index.getObjectId(NS + "A")));
+        assertEquals(0, index.getSubjectId(NS + "unknown"));
+        assertEquals(0, index.getOutDegree(0, false));
+
+        // only object triples are drawn
+        long[] edge = new long[2];
+        Set<String> drawn = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(index.drawOutEdge(a, true, edge));
+            drawn.add(NS + "A " + index.getPredicate(edge[0]) + " " + index.getObject(edge[1]));
+        }
+        assertEquals(2, drawn.size());
+        assertTrue(OBJECT_TRIPLES.containsAll(drawn));
+
+        // mostly literals
+        long l = index.getSubjectId(NS + "L");
+        for (int i = 0; i < 20; i++) {
+            assertTrue(index.drawOutEdge(l, true, edge));
+            assertEquals(NS + "A", index.getObject(edge[1]));
+        }
+        assertFalse(index.drawOutEdge(index.getSubjectId(NS + "E"), true, edge));
+        assertTrue(index.drawOutEdge(index.getSubjectId(NS + "E"), false, edge));
+
+        // access by position agrees with the iteration order
+        for (String subject : new String[]{"A", "L", "M"}) {
+            long subjectId = index.getSubjectId(NS + subject);
+            for (boolean isExcludeLiterals : new boolean[]{true, false}) {
+                List<String> iterated = new ArrayList<>();
+                index.forEachOutEdge(subjectId, isExcludeLiterals, (predicate, object) ->
+                        iterated.add(predicate + " " + object));
+                assertEquals(iterated.size(), index.getOutDegree(subjectId, isExcludeLiterals));
+                for (int position = 0; position < iterated.size(); position++) {
+                    assertTrue(index.getOutEdge(subjectId, position, isExcludeLiterals, edge));
+                    assertEquals(iterated.get(position), edge[0] + " " + edge[1]);
+                }
+                assertFalse(index.getOutEdge(subjectId, iterated.size(), isExcludeLiterals, edge));
+            }
+        }
+        assertEquals(2, index.getOutDegree(index.getSubjectId(NS + "M"), true));
+        assertEquals(51, index.getOutDegree(index.getSubjectId(NS + "L"), false));
+
+        // in-edges
+        drawn.clear();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(index.drawInEdge(index.getObjectId(NS + "A"), edge));
+            drawn.add(index.getSubject(edge[1]) + " " + index.getPredicate(edge[0]) + " " + NS + "A");
+        }
+        assertEquals(3, drawn.size());
+        assertTrue(OBJECT_TRIPLES.containsAll(drawn));
+        assertFalse(index.drawInEdge(index.getObjectId(NS + "D"), edge));
+
+        // role conversion
+        long c = index.getObjectId(NS + "C");
+        assertEquals(NS + "C", index.getSubject(index.objectToSubjectId(c)));
+        assertEquals(0, index.subjectToObjectId(index.getSubjectId(NS + "D")));
+    }
+
+    @Test
+    void generateMidWalks() throws Exception {
+        for (boolean isIndexed : new boolean[]{false, true}) {
+            HDT hdt = isIndexed ? HDTManager.loadIndexedHDT(HDT_FILE.getAbsolutePath()) :
+                    HDTManager.loadHDT(HDT_FILE.getAbsolutePath());
+            HdtWalkGenerator generator = new HdtWalkGenerator(hdt);
+            for (int i = 0; i < 50; i++) {
+                assertValidWalk(generator.generateMidWalkForEntity(NS + "A", 4));
+                assertValidWalk(generator.generateWeightedMidWalkForEntity(NS + "A", 4));
+            }
+            List<String> walks = generator.generateMidWalksForEntity(NS + "B", 10, 3);
+            assertEquals(10, walks.size());
+            assertTrue(generator.generateMidWalksForEntity(NS + "unknown", 10, 3).isEmpty());
+            hdt.close();
+        }
+    }
+
+    private static void assertValidWalk(List<String> walk) {
+        assertEquals(1, walk.size() % 2);
+        for (int i = 0; i + 2 < walk.size(); i += 2) {
+            String triple = walk.get(i) + " " + walk.get(i + 1) + " " + walk.get(i + 2);
+            assertTrue(OBJECT_TRIPLES.contains(triple), triple);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
 
 import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.rdfhdt.hdt.exceptions.NotFoundException;
 import org.rdfhdt.hdt.hdt.HDT;
@@ -27,6 +29,43 @@ class HdtWalkGeneratorTest {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(HdtWalkGenerator.class);
 
+    private static final File TREE_DIRECTORY = new File("./hdt_walk_generator_test");
+
+    private static final File TREE_HDT_FILE = new File(TREE_DIRECTORY, "tree.hdt");
+
+    private static final String NS = "http://example.org/";
+
+    private static final String TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+
+    /**
+     * Tree: R -p-> X1..X5, Xi -q-> Yi1, Yi2. Types: R a TR, X1 a T1, Y11 a T2. R has a literal, L only literals.
+     */
+    @BeforeAll
+    static void setUp() throws Exception {
+        StringBuilder nt = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            nt.append(triple("R", "p", "X" + i));
+            for (int j = 1; j <= 2; j++) {
+                nt.append(triple("X" + i, "q", "Y" + i + j));
+            }
+        }
+        nt.append("<" + NS + "R> <" + TYPE + "> <" + NS + "TR> .\n");
+        nt.append("<" + NS + "X1> <" + TYPE + "> <" + NS + "T1> .\n");
+        nt.append("<" + NS + "Y11> <" + TYPE + "> <" + NS + "T2> .\n");
+        nt.append("<" + NS + "R> <" + NS + "label> \"r\" .\n");
+        nt.append("<" + NS + "L> <" + NS + "label> \"l\" .\n");
+        HdtAdjacencyIndexTest.createHdt(nt.toString(), TREE_HDT_FILE);
+    }
+
+    private static String triple(String subject, String predicate, String object) {
+        return "<" + NS + subject + "> <" + NS + predicate + "> <" + NS + object + "> .\n";
+    }
+
+    @AfterAll
+    static void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(TREE_DIRECTORY);
+    }
+
     /**
      * Just making sure that the method behaves as assumed.
      */
@@ -240,4 +279,95 @@ class HdtWalkGeneratorTest {
         assertTrue(list_1.equals(list_2));
         assertFalse(list_1.equals(list_3));
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateDuplicateFreeRandomWalksForEntity() throws Exception {
+        for (boolean isIndexed : new boolean[]{false, true}) {
+            HDT hdt = isIndexed ? HDTManager.loadIndexedHDT(TREE_HDT_FILE.getAbsolutePath()) :
+                    HDTManager.loadHDT(TREE_HDT_FILE.getAbsolutePath());
+            HdtWalkGenerator generator = new HdtWalkGenerator(hdt);
+
+            // all 12 candidates: X1 has 3 successors, X2 to X5 have 2 successors, TR is a dead end
+            List<String> walks = generator.generateDuplicateFreeRandomWalksForEntity(NS + "R", 100, 2);
+            assertEquals(12, walks.size());
+            assertEquals(12, new HashSet<>(walks).size());
+            assertTrue(walks.contains(NS + "R " + TYPE + " " + NS + "TR"));
+            assertTrue(walks.contains(NS + "R " + NS + "p " + NS + "X1 " + TYPE + " " + NS + "T1"));
+            assertTrue(walks.contains(NS + "R " + NS + "p " + NS + "X3 " + NS + "q " + NS + "Y32"));
+            assertFalse(walks.stream().anyMatch(w -> w.contains("\"")));
+
+            // dead ends are kept, only the walk to Y11 is extended
+            walks = generator.generateDuplicateFreeRandomWalksForEntity(NS + "R", 100, 3);
+            assertEquals(12, walks.size());
+            assertTrue(walks.contains(NS + "R " + NS + "p " + NS + "X1 " + NS + "q " + NS + "Y11 " + TYPE + " " +
+                    NS + "T2"));
+            assertTrue(walks.contains(NS + "R " + TYPE + " " + NS + "TR"));
+
+            for (int i = 0; i < 20; i++) {
+                walks = generator.generateDuplicateFreeRandomWalksForEntity(NS + "R", 4, 2);
+                assertEquals(4, walks.size());
+                assertEquals(4, new HashSet<>(walks).size());
+            }
+
+            assertTrue(generator.generateDuplicateFreeRandomWalksForEntity(NS + "L", 10, 2).isEmpty());
+            assertTrue(generator.generateDuplicateFreeRandomWalksForEntity(NS + "unknown", 10, 2).isEmpty());
+            hdt.close();
+        }
+    }
+
+    @Test
+    void generateNodeWalksForEntity() throws Exception {
+        try (HDT hdt = HDTManager.loadHDT(TREE_HDT_FILE.getAbsolutePath())) {
+            HdtWalkGenerator generator = new HdtWalkGenerator(hdt);
+            List<String> walks = generator.generateNodeWalksForEntity(NS + "R", 100, 2);
+            assertEquals(12, walks.size());
+            assertTrue(walks.contains(NS + "R " + NS + "X2 " + NS + "Y21"));
+            assertTrue(walks.contains(NS + "R " + NS + "TR"));
+        }
+    }
+
+    @Test
+    void getOutDegree() throws Exception {
+        try (HDT hdt = HDTManager.loadHDT(TREE_HDT_FILE.getAbsolutePath())) {
+            HdtWalkGenerator generator = new HdtWalkGenerator(hdt);
+            // five children and one type, the literal is not counted
+            assertEquals(6, generator.getOutDegree(NS + "R"));
+            assertEquals(0, generator.getOutDegree(NS + "L"));
+            assertEquals(0, generator.getOutDegree(NS + "unknown"));
+        }
+    }
+
+    @Test
+    void generateMidEdgeAndTypeWalksForEntityDuplicateFree() throws Exception {
+        try (HDT hdt = HDTManager.loadIndexedHDT(TREE_HDT_FILE.getAbsolutePath())) {
+            HdtWalkGenerator generator = new HdtWalkGenerator(hdt);
+            assertEquals(NS + "T1", generator.getRandomSupertypeOfEntity(NS + "X1"));
+            assertEquals(NS + "TR", generator.getRandomSupertypeOfEntity(NS + "R"));
+            assertNull(generator.getRandomSupertypeOfEntity(NS + "X2"));
+            assertNull(generator.getRandomSupertypeOfEntity(NS + "unknown"));
+
+            Set<String> predicates = new HashSet<>(Arrays.asList(NS + "p", NS + "q", TYPE));
+            Set<String> types = new HashSet<>(Arrays.asList(NS + "TR", NS + "T1", NS + "T2"));
+
+            List<String> edgeWalks = generator.generateMidEdgeWalksForEntityDuplicateFree(NS + "X1", 20, 2);
+            assertFalse(edgeWalks.isEmpty());
+            for (String walk : edgeWalks) {
+                List<String> tokens = Arrays.asList(walk.split(" "));
+                assertEquals(1, tokens.stream().filter(t -> t.equals(NS + "X1")).count(), walk);
+                assertTrue(tokens.stream().allMatch(t -> t.equals(NS + "X1") || predicates.contains(t)), walk);
+            }
+
+            List<String> typeWalks = generator.generateMidTypeWalksForEntityDuplicateFree(NS + "X1", 20, 2);
+            assertFalse(typeWalks.isEmpty());
+            boolean isPredecessorTypeFound = false;
+            for (String walk : typeWalks) {
+                List<String> tokens = Arrays.asList(walk.split(" "));
+                assertTrue(tokens.stream().allMatch(t -> t.equals(NS + "X1") || predicates.contains(t) ||
+                        types.contains(t)), walk);
+                isPredecessorTypeFound |= tokens.contains(NS + "TR");
+            }
+            assertTrue(isPredecessorTypeFound);
+            assertTrue(generator.getTypeProperties().contains(TYPE));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.CsrAdjacencyIndex;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IntTripleDataSetMemory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntWalkKernelTest {
+
+
+    @Test
+    void generateMidWalk() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "P1", "B");
+        ds.addObjectTriple("B", "P2", "C");
+        CsrAdjacencyIndex index = ds.freeze();
+        int b = ds.getNodeDictionary().getId("B");
+
+        IntWalkKernel kernel = IntWalkKernel.get();
+        assertSame(kernel, IntWalkKernel.get());
+        for (int i = 0; i < 50; i++) {
+            int length = kernel.generateMidWalk(index, b, 5, false);
+            assertEquals(length, kernel.getWalkLength());
+            String walk = kernel.getWalkAsString(ds.getNodeDictionary(), ds.getPredicateDictionary());
+            assertTrue(walk.equals("B") || walk.equals("A P1 B") || walk.equals("B P2 C")
+                    || walk.equals("A P1 B P2 C"), "Unexpected walk: " + walk);
+            assertEquals(walk, String.join(" ",
+                    kernel.getWalkAsList(ds.getNodeDictionary(), ds.getPredicateDictionary())));
+        }
+
+        // weighted walks: all options are exhausted after two steps
+        assertEquals(5, kernel.generateMidWalk(index, b, 10, true));
+        assertEquals("A P1 B P2 C", kernel.getWalkAsString(ds.getNodeDictionary(), ds.getPredicateDictionary()));
+        assertEquals(ds.getNodeDictionary().getId("A"), kernel.getToken(0));
+        assertEquals(ds.getPredicateDictionary().getId("P1"), kernel.getToken(1));
+    }
+
+    @Test
+    void generateRandomWalk() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "P1", "B");
+        ds.addObjectTriple("B", "P2", "C");
+        CsrAdjacencyIndex index = ds.freeze();
+        IntWalkKernel kernel = IntWalkKernel.get();
+
+        assertEquals(5, kernel.generateRandomWalk(index, ds.getNodeDictionary().getId("A"), 100));
+        assertEquals("A P1 B P2 C", kernel.getWalkAsString(ds.getNodeDictionary(), ds.getPredicateDictionary()));
+        assertEquals(3, kernel.generateRandomWalk(index, ds.getNodeDictionary().getId("A"), 1));
+        assertEquals(1, kernel.generateRandomWalk(index, ds.getNodeDictionary().getId("C"), 3));
+    }
+
+    @Test
+    void addMidWalksDuplicateFree() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "P1", "B");
+        ds.addObjectTriple("A", "P2", "B");
+        CsrAdjacencyIndex index = ds.freeze();
+        IntWalkKernel kernel = IntWalkKernel.get();
+
+        List<String> walks = new ArrayList<>();
+        kernel.addMidWalks(index, ds.getNodeDictionary(), ds.getPredicateDictionary(), "A", 100, 1, false, true,
+                walks);
+        assertEquals(new HashSet<>(Arrays.asList("A P1 B", "A P2 B")), new HashSet<>(walks));
+        assertEquals(2, walks.size());
+
+        // the unique walks are reset for every call
+        walks.clear();
+        kernel.addMidWalks(index, ds.getNodeDictionary(), ds.getPredicateDictionary(), "B", 100, 1, false, true,
+                walks);
+        assertEquals(2, walks.size());
+
+        walks.clear();
+        kernel.addMidWalks(index, ds.getNodeDictionary(), ds.getPredicateDictionary(), "A", 100, 1, false, false,
+                walks);
+        // walks which cannot be extended in the drawn direction are ignored
+        assertTrue(walks.size() > 2);
+    }
+
+    @Test
+    void generateNode2VecWalk() {
+        IntTripleDataSetMemory ds = new IntTripleDataSetMemory();
+        ds.addObjectTriple("A", "P1", "B");
+        ds.addObjectTriple("A", "P1", "D");
+        ds.addObjectTriple("B", "P2", "A");
+        ds.addObjectTriple("B", "P2", "C");
+        ds.addObjectTriple("B", "P2", "D");
+        CsrAdjacencyIndex index = ds.freeze();
+        int a = ds.getNodeDictionary().getId("A");
+        IntWalkKernel kernel = IntWalkKernel.get();
+
+        assertEquals(1, kernel.generateNode2VecWalk(index, ds.getNodeDictionary().getId("C"), 3,
+                Node2VecParameters.DEFAULT_PARAMETERS));
+        for (int i = 0; i < 50; i++) {
+            int length = kernel.generateNode2VecWalk(index, a, 4, Node2VecParameters.DEFAULT_PARAMETERS);
+            assertEquals(1, length % 2);
+            assertTrue(length <= 9);
+            String walk = kernel.getWalkAsString(ds.getNodeDictionary(), ds.getPredicateDictionary());
+            assertTrue(walk.equals("A P1 D") || walk.startsWith("A P1 B P2 "), walk);
+        }
+
+        // after A -> B, the weights are: A (return) 1/p, D (neighbour of A) 1, C (distant) 1/q
+        assertTrue(countSecondSteps(kernel, ds, index, new Node2VecParameters(0.01, 1.0), "A") > 900);
+        assertTrue(countSecondSteps(kernel, ds, index, new Node2VecParameters(100.0, 1.0), "A") < 100);
+        assertTrue(countSecondSteps(kernel, ds, index, new Node2VecParameters(1.0, 0.01), "C") > 900);
+        assertTrue(countSecondSteps(kernel, ds, index, new Node2VecParameters(1.0, 100.0), "C") < 100);
+        assertTrue(countSecondSteps(kernel, ds, index, new Node2VecParameters(100.0, 100.0), "D") > 900);
+    }
+
+    /**
+     * Counts in how many of 1000 node2vec walks of depth 2 that start with A P1 B the second step leads to the given
+     * node.
+     */
+    private static int countSecondSteps(IntWalkKernel kernel, IntTripleDataSetMemory ds, CsrAdjacencyIndex index,
+                                        Node2VecParameters parameters, String node) {
+        int a = ds.getNodeDictionary().getId("A");
+        int b = ds.getNodeDictionary().getId("B");
+        int target = ds.getNodeDictionary().getId(node);
+        int walks = 0;
+        int result = 0;
+        while (walks < 1000) {
+            if (kernel.generateNode2VecWalk(index, a, 2, parameters) != 5 || kernel.getToken(2) != b) continue;
+            walks++;
+            if (kernel.getToken(4) == target) result++;
+        }
+        return result;
+    }
+
+    @Test
+    void memoryWalkGenerator() {
+        NtMemoryWalkGenerator generator = new NtMemoryWalkGenerator();
+        generator.setData(new IntTripleDataSetMemory());
+        generator.readNTriples(Util.loadFile("dummyGraph.nt"));
+
+        List<String> walks = generator.generateRandomWalksForEntity("A", 20, 8);
+        assertEquals(20, walks.size());
+        for (String walk : walks) {
+            assertTrue(walk.equals("A P4 E P5 D") || walk.equals("A P4 E P6 F") || walk.equals("A P1 B P2 C P3 D"));
+        }
+        assertEquals(0, generator.generateRandomWalksForEntity("F", 20, 8).size());
+
+        walks = generator.generateMidWalksForEntity("E", 20, 3);
+        assertEquals(20, walks.size());
+        walks = generator.generateMidWalksForEntityDuplicateFree("E", 100, 3);
+        assertEquals(walks.size(), new HashSet<>(walks).size());
+        for (String walk : walks) {
+            assertTrue(walk.contains("E"));
+        }
+        walks = generator.generateWeightedMidWalksForEntity("E", 100, 3);
+        assertEquals(walks.size(), new HashSet<>(walks).size());
+        assertEquals(0, generator.generateMidWalksForEntity("unknown", 10, 3).size());
+    }
+}
@@ -1,8 +1,15 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
 
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.EdgeWeightStrategy;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IEdgeWeightStrategyFactory;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.IntTripleDataSetMemory;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TripleDataSetMemory;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.EntitySelector;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.javatuples.Pair;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 import org.rdfhdt.hdt.hdt.HDT;
 import org.rdfhdt.hdt.hdt.HDTManager;
@@ -11,13 +18,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,6 +41,13 @@ class NtMemoryWalkGeneratorTest {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NtMemoryWalkGeneratorTest.class);
 
+    private static final File GZIP_FILE = new File("./nt_parallel_test.nt.gz");
+
+    @AfterAll
+    static void tearDown() {
+        GZIP_FILE.delete();
+    }
+
     @Test
     void removeTags() {
         assertEquals("http://www.w3.org/ns/lemon/ontolex#LexicalEntry", NtMemoryWalkGenerator.removeTags("<http://www.w3.org/ns/lemon/ontolex#LexicalEntry>"));
@@ -40,6 +62,25 @@ class NtMemoryWalkGeneratorTest {
         testWalkForEntity(loadFile("dummyGraph_2.nt").getAbsolutePath());
     }
 
+    @Test
+    void readNtTriplesFromDirectoryMultiThreaded() {
+        File directory = loadFile("nt_directory_type_walks");
+        assertNotNull(directory);
+
+        NtMemoryWalkGenerator sequential = new NtMemoryWalkGenerator();
+        sequential.readNTriplesFilesFromDirectory(directory.getAbsolutePath());
+
+        NtMemoryWalkGenerator parallel = new NtMemoryWalkGenerator();
+        parallel.readNtTriplesFromDirectoryMultiThreaded(directory, false);
+        assertEquals(sequential.getData().getAllObjectTriples(), parallel.getData().getAllObjectTriples());
+
+        NtMemoryWalkGenerator parallelObjects = new NtMemoryWalkGenerator();
+        parallelObjects.setData(new TripleDataSetMemory());
+        parallelObjects.readNtTriplesFromDirectoryMultiThreaded(directory, false);
+        assertEquals(sequential.getData().getAllObjectTriples(), parallelObjects.getData().getAllObjectTriples());
+        assertTrue(sequential.getDataSize() > 0);
+    }
+
     @Test
     void generateNodeWalksForEntity() {
         File dummyGraphFile = loadFile("dummyGraph.nt");
@@ -52,6 +93,148 @@ class NtMemoryWalkGeneratorTest {
         for (String sentence : result) {
             assertFalse(sentence.toLowerCase().contains("p"));
         }
+
+        // walks that differ only in their predicates are merged
+        NtMemoryWalkGenerator generator = new NtMemoryWalkGenerator();
+        generator.setData(new TripleDataSetMemory());
+        generator.getData().addObjectTriple("A", "P1", "B");
+        generator.getData().addObjectTriple("A", "P2", "B");
+        generator.getData().addObjectTriple("B", "P1", "C");
+        result = generator.generateNodeWalksForEntity("A", 10, 2);
+        assertEquals(1, result.size());
+        assertEquals("A B C", result.get(0));
+
+        // the same on the adjacency index of encoded data
+        generator = new NtMemoryWalkGenerator();
+        generator.setData(new IntTripleDataSetMemory());
+        generator.getData().addObjectTriple("A", "P1", "B");
+        generator.getData().addObjectTriple("A", "P2", "B");
+        generator.getData().addObjectTriple("B", "P1", "C");
+        generator.getData().addObjectTriple("B", "P1", "_:x");
+        generator.getData().addObjectTriple("B", "P1", "_:y");
+        result = generator.generateNodeWalksForEntity("A", 10, 2);
+        assertEquals(new HashSet<>(Arrays.asList("A B C", "A B _:x", "A B _:y")), new HashSet<>(result));
+        generator.setUnifyAnonymousNodes(true);
+        result = generator.generateNodeWalksForEntity("A", 10, 2);
+        assertEquals(new HashSet<>(Arrays.asList("A B C", "A B ANode")), new HashSet<>(result));
+        assertEquals(2, result.size());
+        assertEquals(0, generator.generateNodeWalksForEntity("unknown", 10, 2).size());
+    }
+
+    @Test
+    void parseSingleFileLoadsEncodedGraph() {
+        Pair<IWalkGenerator, EntitySelector> pair = WalkGeneratorManager.parseSingleFile(loadFile("pizza.owl.nt"),
+                false, 2);
+        assertTrue(pair.getValue0() instanceof NtMemoryWalkGenerator);
+        NtMemoryWalkGenerator generator = (NtMemoryWalkGenerator) pair.getValue0();
+        assertTrue(generator.getData() instanceof IntTripleDataSetMemory);
+
+        // the walks run on the loaded store, no second (encoded) copy is created
+        assertSame(generator.getData(), generator.getEncodedGraph());
+        String entity = "http://www.co-ode.org/ontologies/pizza/pizza.owl#American";
+        assertFalse(generator.generateMidWalksForEntity(entity, 10, 4).isEmpty());
+        assertFalse(generator.generateDuplicateFreeRandomWalksForEntity(entity, 10, 4).isEmpty());
+        assertSame(generator.getData(), generator.getEncodedGraph());
+    }
+
+    @Test
+    void generateDuplicateFreeRandomWalksForEntity() {
+        NtMemoryWalkGenerator objects = new NtMemoryWalkGenerator();
+        objects.setData(new TripleDataSetMemory());
+        NtMemoryWalkGenerator encoded = new NtMemoryWalkGenerator();
+        for (NtMemoryWalkGenerator generator : Arrays.asList(objects, encoded)) {
+            generator.getData().addObjectTriple("A", "P1", "B");
+            generator.getData().addObjectTriple("A", "P2", "B");
+            generator.getData().addObjectTriple("B", "P1", "C");
+            generator.getData().addObjectTriple("B", "P2", "_:x");
+            generator.getData().addObjectTriple("A", "P3", "D");
+        }
+
+        // all walks fit: both stores return the same walks
+        List<String> expected = Arrays.asList("A P1 B P1 C", "A P1 B P2 _:x", "A P2 B P1 C", "A P2 B P2 _:x",
+                "A P3 D");
+        List<String> result = encoded.generateDuplicateFreeRandomWalksForEntity("A", 100, 2);
+        assertEquals(new HashSet<>(expected), new HashSet<>(result));
+        assertEquals(expected.size(), result.size());
+        assertEquals(new HashSet<>(objects.generateDuplicateFreeRandomWalksForEntity("A", 100, 2)),
+                new HashSet<>(result));
+
+        result = encoded.generateDuplicateFreeRandomWalksForEntity("A", 3, 2);
+        assertEquals(3, result.size());
+        assertEquals(3, new HashSet<>(result).size());
+        assertTrue(expected.containsAll(result));
+
+        encoded.setUnifyAnonymousNodes(true);
+        assertTrue(encoded.generateDuplicateFreeRandomWalksForEntity("A", 100, 2).contains("A P1 B P2 ANode"));
+        assertEquals(0, encoded.generateDuplicateFreeRandomWalksForEntity("unknown", 10, 2).size());
+    }
+
+    @Test
+    void generateBiasedWalksForEntity() {
+        NtMemoryWalkGenerator parser = new NtMemoryWalkGenerator(loadFile("dummyGraph.nt").getAbsolutePath());
+        assertEquals(EdgeWeightStrategy.DEFAULT_STRATEGY, parser.getEdgeWeightStrategy());
+        parser.setEdgeWeightStrategy(EdgeWeightStrategy.PREDICATE_FREQUENCY);
+        List<String> randomWalks = parser.generateBiasedRandomWalksForEntity("A", 50, 8);
+        assertEquals(50, randomWalks.size());
+        for (String walk : randomWalks) {
+            assertTrue(walk.equals("A P4 E P5 D") || walk.equals("A P4 E P6 F") || walk.equals("A P1 B P2 C P3 D"),
+                    walk);
+        }
+
+        List<String> midWalks = parser.generateBiasedMidWalksForEntity("D", 50, 4);
+        assertEquals(50, midWalks.size());
+        for (String walk : midWalks) {
+            assertTrue(walk.contains("D"));
+            assertTrue(walk.split(" ").length <= 9);
+        }
+
+        // the encoded copy of the data and the alias tables are rebuilt after the data changed
+        assertEquals(0, parser.generateBiasedRandomWalksForEntity("F", 10, 8).size());
+        parser.getData().addObjectTriple("F", "P7", "G");
+        assertEquals(Collections.nCopies(10, "F P7 G"), parser.generateBiasedRandomWalksForEntity("F", 10, 8));
+
+        // edges with weight 0 are never followed
+        parser.setEdgeWeightStrategy(IEdgeWeightStrategyFactory.of((index, node, predicate, neighbour) -> 0));
+        assertEquals(0, parser.generateBiasedRandomWalksForEntity("A", 10, 8).size());
+        assertEquals(0, parser.generateBiasedRandomWalksForEntity("unknown", 10, 8).size());
+        parser.setEdgeWeightStrategy(null);
+        assertEquals(EdgeWeightStrategy.DEFAULT_STRATEGY, parser.getEdgeWeightStrategy());
+    }
+
+    @Test
+    void generateNode2VecWalksForEntity() {
+        NtMemoryWalkGenerator parser = new NtMemoryWalkGenerator(loadFile("dummyGraph.nt").getAbsolutePath());
+        assertEquals(Node2VecParameters.DEFAULT_PARAMETERS, parser.getNode2VecParameters());
+        parser.setNode2VecParameters(new Node2VecParameters(0.5, 2.0));
+        assertEquals(0.5, parser.getNode2VecParameters().getReturnParameter());
+        List<String> walks = parser.generateNode2VecWalksForEntity("A", 50, 8);
+        assertEquals(50, walks.size());
+        for (String walk : walks) {
+            assertTrue(walk.equals("A P4 E P5 D") || walk.equals("A P4 E P6 F") || walk.equals("A P1 B P2 C P3 D"),
+                    walk);
+        }
+        assertEquals(0, parser.generateNode2VecWalksForEntity("F", 10, 8).size());
+        parser.getData().addObjectTriple("F", "P7", "G");
+        assertEquals(Collections.nCopies(10, "F P7 G"), parser.generateNode2VecWalksForEntity("F", 10, 8));
+        assertEquals(0, parser.generateNode2VecWalksForEntity("unknown", 10, 8).size());
+        parser.setNode2VecParameters(null);
+        assertEquals(Node2VecParameters.DEFAULT_PARAMETERS, parser.getNode2VecParameters());
+    }
+
+    @Test
+    void getRandomSupertypeOfEntity() {
+        NtMemoryWalkGenerator parser = new NtMemoryWalkGenerator(loadFile("type_file.nt").getAbsolutePath());
+        String ns = "http://www.jan-portisch.eu/";
+        assertEquals(ns + "C_human", parser.getRandomSupertypeOfEntity(ns + "I_Jan"));
+        assertNull(parser.getRandomSupertypeOfEntity(ns + "unknown"));
+        assertNull(parser.getRandomSupertypeOfEntity(null));
+
+        // the type index is rebuilt if the type properties or the data change
+        parser.getTypeProperties().add(ns + "P_knows");
+        assertTrue(parser.getTypeIndex().getTypes(ns + "I_Jan").contains(ns + "I_Heiko"));
+        parser.getData().addObjectTriple(ns + "I_New", "http://www.w3.org/1999/02/22-rdf-syntax-ns#type",
+                ns + "C_human");
+        assertEquals(ns + "C_human", parser.getRandomSupertypeOfEntity(ns + "I_New"));
     }
 
     /**
@@ -391,4 +574,105 @@ class NtMemoryWalkGeneratorTest {
         assertTrue(result.contains("W rdf:Description wer reitet"));
         assertFalse(result.contains("W rdf:Description wer reitet so spät durch nacht"));
     }
+
+    @Test
+    void computeChunkBoundaries() throws IOException {
+        File file = loadFile("pizza.owl.nt");
+        byte[] content = FileUtils.readFileToByteArray(file);
+        for (int numberOfChunks : new int[]{1, 2, 7, 100}) {
+            long[] boundaries = NtMemoryWalkGenerator.computeChunkBoundaries(file, numberOfChunks);
+            assertEquals(numberOfChunks + 1, boundaries.length);
+            assertEquals(0, boundaries[0]);
+            assertEquals(file.length(), boundaries[numberOfChunks]);
+            for (int i = 1; i < boundaries.length; i++) {
+                assertTrue(boundaries[i] >= boundaries[i - 1]);
+                if (boundaries[i] < file.length()) {
+                    assertEquals('\n', content[(int) boundaries[i] - 1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void readNTriplesParallel() throws IOException {
+        File file = loadFile("pizza.owl.nt");
+        NtMemoryWalkGenerator sequential = new NtMemoryWalkGenerator();
+        sequential.readNTriples(file);
+        assertTrue(sequential.getDataSize() > 0);
+        assertTrue(sequential.getData() instanceof IntTripleDataSetMemory);
+
+        // uncompressed file, many small chunks
+        NtMemoryWalkGenerator parallel = new NtMemoryWalkGenerator();
+        parallel.minimumChunkSize = 1024;
+        parallel.readNTriplesParallel(file, 4);
+        assertEquals(sequential.getData().getAllObjectTriples(), parallel.getData().getAllObjectTriples());
+
+        NtMemoryWalkGenerator parallelObjects = new NtMemoryWalkGenerator();
+        parallelObjects.setData(new TripleDataSetMemory());
+        parallelObjects.minimumChunkSize = 1024;
+        parallelObjects.readNTriplesParallel(file, 3);
+        assertEquals(sequential.getData().getAllObjectTriples(), parallelObjects.getData().getAllObjectTriples());
+
+        // gzipped file, small blocks
+        try (InputStream in = new FileInputStream(file);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(GZIP_FILE))) {
+            IOUtils.copy(in, out);
+        }
+        NtMemoryWalkGenerator parallelGzip = new NtMemoryWalkGenerator();
+        parallelGzip.gzipBlockSize = 2048;
+        parallelGzip.readNTriplesParallel(GZIP_FILE, 4);
+        assertEquals(sequential.getData().getAllObjectTriples(), parallelGzip.getData().getAllObjectTriples());
+
+        // block smaller than a line
+        parallelGzip = new NtMemoryWalkGenerator();
+        parallelGzip.gzipBlockSize = 16;
+        parallelGzip.readNTriplesParallel(GZIP_FILE, 2);
+        assertEquals(sequential.getData().getAllObjectTriples(), parallelGzip.getData().getAllObjectTriples());
+    }
+
+    @Test
+    void readNTriplesParallelFailure() {
+        File file = loadFile("pizza.owl.nt");
+        NtMemoryWalkGenerator parser = new NtMemoryWalkGenerator();
+        AtomicInteger numberOfPartitions = new AtomicInteger();
+        parser.setData(new TripleDataSetMemory() {
+            @Override
+            public TripleDataSetMemory createEmptyPartition() {
+                if (numberOfPartitions.incrementAndGet() != 2) return new TripleDataSetMemory();
+                return new TripleDataSetMemory() {
+                    @Override
+                    public void addObjectTriple(String subject, String predicate, String object) {
+                        throw new IllegalStateException("Failing partition.");
+                    }
+                };
+            }
+        });
+        parser.minimumChunkSize = 1024;
+
+        // the triples of the other chunks are discarded as well
+        assertFalse(parser.readNTriplesParallel(file, 4));
+        assertEquals(0, parser.getDataSize());
+
+        // one thread: the file is read sequentially into a single partition which is discarded on failure
+        numberOfPartitions.set(1);
+        assertFalse(parser.readNTriplesParallel(file, 1));
+        assertEquals(0, parser.getDataSize());
+
+        numberOfPartitions.set(10);
+        assertTrue(parser.readNTriplesParallel(file, 1));
+        assertTrue(parser.getDataSize() > 0);
+        assertEquals(1, numberOfPartitions.get() - 10);
+        assertFalse(parser.readNTriplesParallel(new File("./does_not_exist.nt"), 4));
+    }
+
+    @Test
+    void readNTriplesParallelDatatypeTriples() {
+        NtMemoryWalkGenerator parser = new NtMemoryWalkGenerator(true);
+        parser.minimumChunkSize = 64;
+        parser.readNTriplesParallel(loadFile("dummyGraph_with_labels.nt"), 2);
+        Map<String, Set<String>> datatypeTuplesForW = parser.getData().getDatatypeTuplesForSubject("W");
+        assertEquals(2, datatypeTuplesForW.size());
+        assertTrue(datatypeTuplesForW.get("rdfs:label").contains("gedichte"));
+        assertTrue(parser.getData().getAllObjectTriples().contains(new Triple("W", "P7", "V2")));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TripleDataSetMemory;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NtTokenizerTest {
+
+
+    @Test
+    void parseTerms() throws IOException {
+        String nt = "# comment\n" +
+                "\n" +
+                "<http://example.org/A> <http://example.org/p> <http://example.org/B> .\n" +
+                "_:b1 <http://example.org/p> _:b2.\n" +
+                "   <http://example.org/Ä>\t<http://example.org/p>   <http://example.org/C>   .   # trailing comment\r\n" +
+                "<http://example.org/A> <http://example.org/label> \"Hello \\\"quoted\\\" World\"@en .\n" +
+                "<http://example.org/A> <http://example.org/number> \"42\"^^<http://www.w3.org/2001/XMLSchema#int> .\n" +
+                "<http://example.org/B> <http://example.org/p> <http://example.org/D>";
+        TripleDataSetMemory data = new TripleDataSetMemory();
+        long lines = new NtTokenizer(s -> s, new TextProcessor(), true)
+                .parse(new ByteArrayInputStream(nt.getBytes(StandardCharsets.UTF_8)), data, "test");
+        assertEquals(8, lines);
+        assertEquals(4, data.getObjectTripleSize());
+        assertTrue(data.getAllObjectTriples().contains(new Triple("http://example.org/A", "http://example.org/p", "http://example.org/B")));
+        assertTrue(data.getAllObjectTriples().contains(new Triple("_:b1", "http://example.org/p", "_:b2")));
+        assertTrue(data.getAllObjectTriples().contains(new Triple("http://example.org/Ä", "http://example.org/p", "http://example.org/C")));
+        assertTrue(data.getAllObjectTriples().contains(new Triple("http://example.org/B", "http://example.org/p", "http://example.org/D")));
+
+        Map<String, Set<String>> datatypeTuples = data.getDatatypeTuplesForSubject("http://example.org/A");
+        assertTrue(datatypeTuples.get("http://example.org/label").contains("hello quoted world"));
+        assertTrue(datatypeTuples.get("http://example.org/number").contains("42"));
+    }
+
+    @Test
+    void getCacheSize() throws IOException {
+        assertEquals(1 << 18, NtTokenizer.getCacheSize(-1));
+        assertEquals(1 << 10, NtTokenizer.getCacheSize(0));
+        assertEquals(1 << 10, NtTokenizer.getCacheSize(1000));
+        assertEquals(1 << 11, NtTokenizer.getCacheSize(1025 * 64));
+        assertEquals(1 << 18, NtTokenizer.getCacheSize(16L * 1024 * 1024));
+        assertEquals(1 << 18, NtTokenizer.getCacheSize(Long.MAX_VALUE));
+
+        // a tokenizer with a small cache parses files that contain more terms than cache entries
+        TripleDataSetMemory data = new TripleDataSetMemory();
+        StringBuilder nt = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            nt.append("<S").append(i).append("> <p> <O").append(i).append("> .\n");
+        }
+        new NtTokenizer(s -> s, new TextProcessor(), false, 0)
+                .parse(new ByteArrayInputStream(nt.toString().getBytes(StandardCharsets.UTF_8)), data, "test");
+        assertEquals(5000, data.getObjectTripleSize());
+        assertTrue(data.getAllObjectTriples().contains(new Triple("S4999", "p", "O4999")));
+    }
+
+    @Test
+    void parseWithoutDatatypeProperties() throws IOException {
+        String nt = "<A> <p> \"literal\"@en .\n<A> <p> <B> .\n";
+        TripleDataSetMemory data = new TripleDataSetMemory();
+        new NtTokenizer(s -> s, new TextProcessor(), false)
+                .parse(new ByteArrayInputStream(nt.getBytes(StandardCharsets.UTF_8)), data, "test");
+        assertEquals(1, data.getObjectTripleSize());
+        assertEquals(0, data.getDatatypeTripleSize());
+    }
+
+    @Test
+    void malformedLinesAreSkipped() throws IOException {
+        String nt = "<A> <p> <B .\n" +
+                "\"A\" <p> <B> .\n" +
+                "<A> _:p <B> .\n" +
+                "<A> <p> \"unterminated .\n" +
+                "<A> <p> <B> <C> .\n" +
+                "<A> <p> <B> .\n";
+        TripleDataSetMemory data = new TripleDataSetMemory();
+        new NtTokenizer(s -> s, new TextProcessor(), true)
+                .parse(new ByteArrayInputStream(nt.getBytes(StandardCharsets.UTF_8)), data, "test");
+        assertEquals(1, data.getObjectTripleSize());
+        assertTrue(data.getAllObjectTriples().contains(new Triple("A", "p", "B")));
+    }
+
+    @Test
+    void uriShortenerFunction() throws IOException {
+        String nt = "<http://example.org/A> <http://example.org/p> <http://example.org/B> .\n";
+        TripleDataSetMemory data = new TripleDataSetMemory();
+        new NtTokenizer(s -> s.replace("http://example.org/", "ex:"), new TextProcessor(), false)
+                .parse(new ByteArrayInputStream(nt.getBytes(StandardCharsets.UTF_8)), data, "test");
+        assertTrue(data.getAllObjectTriples().contains(new Triple("ex:A", "ex:p", "ex:B")));
+    }
+
+    @Test
+    void equivalenceWithLegacyParser() {
+        for (String fileName : new String[]{"dummyGraph.nt", "dummyGraph_with_labels.nt", "pizza.owl.nt",
+                "sample_dbpedia_nt_file.nt"}) {
+            for (boolean isParseDatatypeProperties : new boolean[]{false, true}) {
+                NtMemoryWalkGenerator legacy = new NtMemoryWalkGenerator(isParseDatatypeProperties);
+                legacy.setUseLegacyParser(true);
+                legacy.readNTriples(loadFile(fileName));
+
+                NtMemoryWalkGenerator tokenizer = new NtMemoryWalkGenerator(isParseDatatypeProperties);
+                assertFalse(tokenizer.isUseLegacyParser());
+                tokenizer.readNTriples(loadFile(fileName));
+
+                assertTrue(legacy.getDataSize() > 0);
+                assertEquals(legacy.getData().getAllObjectTriples(), tokenizer.getData().getAllObjectTriples(),
+                        "Object triples differ for " + fileName);
+                assertEquals(legacy.getData().getDatatypeTripleSize(), tokenizer.getData().getDatatypeTripleSize(),
+                        "Datatype triples differ for " + fileName);
+                for (String subject : legacy.getData().getUniqueDatatypeTripleSubjects()) {
+                    assertEquals(legacy.getData().getDatatypeTuplesForSubject(subject),
+                            tokenizer.getData().getDatatypeTuplesForSubject(subject));
+                }
+            }
+        }
+    }
+
+    private File loadFile(String fileName) {
+        try {
+            File result = FileUtils.toFile(this.getClass().getClassLoader().getResource(fileName).toURI().toURL());
+            assertTrue(result.exists(), "Required resource not available.");
+            return result;
+        } catch (URISyntaxException | MalformedURLException exception) {
+            exception.printStackTrace();
+            fail("Could not load file.");
+            return null;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
 
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.TripleDataSetMemory;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.EntitySelector;
+import org.javatuples.Pair;
 import org.junit.jupiter.api.Test;
 
 import org.rdfhdt.hdt.exceptions.NotFoundException;
@@ -116,6 +118,21 @@ class NxMemoryWalkGeneratorTest {
         assertEquals(NxMemoryWalkGenerator.DEFAULT_CHECK_LINES, parser.getLinesToCheck());
     }
 
+    @Test
+    void parseSingleFile() {
+        // the NxParser is the default for NT files
+        Pair<IWalkGenerator, EntitySelector> pair = WalkGeneratorManager.parseSingleFile(loadFile("pizza.owl.nt"),
+                false);
+        assertTrue(pair.getValue0() instanceof NxMemoryWalkGenerator);
+        long size = ((NxMemoryWalkGenerator) pair.getValue0()).getDataSize();
+        assertTrue(size > 0);
+
+        // parallel parsing is opt-in
+        pair = WalkGeneratorManager.parseSingleFile(loadFile("pizza.owl.nt"), false, 2);
+        assertTrue(pair.getValue0() instanceof NtMemoryWalkGenerator);
+        assertEquals(size, ((NtMemoryWalkGenerator) pair.getValue0()).getDataSize());
+    }
+
     @Test
     public void generateMidWalkForEntity() {
         try {
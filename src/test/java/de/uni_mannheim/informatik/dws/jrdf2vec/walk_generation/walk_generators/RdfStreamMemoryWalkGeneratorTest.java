@@ -0,0 +1,99 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.EntitySelector;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.entity_selector.OntModelEntitySelector;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.riot.Lang;
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static de.uni_mannheim.informatik.dws.jrdf2vec.util.Util.loadFile;
+import static de.uni_mannheim.informatik.dws.jrdf2vec.util.Util.readOntology;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RdfStreamMemoryWalkGeneratorTest {
+
+
+    @Test
+    void readFile() throws MalformedURLException {
+        assertSameAsOntModel(loadFile("pizza.ttl"), Lang.TTL);
+        assertSameAsOntModel(loadFile("pizza.owl.xml"), Lang.RDFXML);
+    }
+
+    private static void assertSameAsOntModel(File file, Lang language) throws MalformedURLException {
+        RdfStreamMemoryWalkGenerator generator = new RdfStreamMemoryWalkGenerator();
+        generator.readFile(file, language);
+        assertTrue(generator.getDataSize() > 0);
+
+        OntModel model = readOntology(file, language);
+        // relative IRIs are resolved against the working directory by the OntModel but against the file by RIOT
+        assertEquals(getEntitiesWithoutFileIris(new OntModelEntitySelector(model).getEntities()),
+                getEntitiesWithoutFileIris(generator.getEntities()));
+
+        // compare all triples without blank nodes
+        JenaOntModelMemoryWalkGenerator ontModelGenerator = new JenaOntModelMemoryWalkGenerator(model);
+        assertEquals(getTriplesWithoutBlankNodes(ontModelGenerator.getData().getAllObjectTriples()),
+                getTriplesWithoutBlankNodes(generator.getData().getAllObjectTriples()));
+        assertEquals(ontModelGenerator.getDataSize(), generator.getDataSize());
+    }
+
+    private static Set<String> getEntitiesWithoutFileIris(Set<String> entities) {
+        Set<String> result = new HashSet<>();
+        for (String entity : entities) {
+            if (!entity.startsWith("file:")) result.add(entity);
+        }
+        return result;
+    }
+
+    private static Set<Triple> getTriplesWithoutBlankNodes(Set<Triple> triples) {
+        Set<Triple> result = new HashSet<>();
+        for (Triple triple : triples) {
+            if (triple.subject.startsWith("http") && triple.object.startsWith("http")) {
+                result.add(triple);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void readFileWithDatatypeTriples() {
+        RdfStreamMemoryWalkGenerator generator = new RdfStreamMemoryWalkGenerator(loadFile("pizza.ttl"), true);
+        assertTrue(generator.isParseDatatypeProperties());
+        assertTrue(generator.getData().getDatatypeTripleSize() > 0);
+
+        generator = new RdfStreamMemoryWalkGenerator(loadFile("pizza.ttl"), false);
+        assertEquals(0, generator.getData().getDatatypeTripleSize());
+    }
+
+    @Test
+    void parseSingleFile() {
+        Pair<IWalkGenerator, EntitySelector> pair = WalkGeneratorManager.parseSingleFile(loadFile("pizza.ttl"), false);
+        assertTrue(pair.getValue0() instanceof RdfStreamMemoryWalkGenerator);
+        Set<String> entities = pair.getValue1().getEntities();
+        assertTrue(entities.contains("http://www.co-ode.org/ontologies/pizza/pizza.owl#AmericanHot"));
+
+        // the entities are streamed from the data store; blank nodes are skipped
+        Set<String> streamed = new HashSet<>();
+        pair.getValue1().getEntitySpliterator().forEachRemaining(streamed::add);
+        assertEquals(entities, streamed);
+        assertTrue(streamed.stream().noneMatch(entity -> entity.startsWith("_:")));
+        List<String> walks = ((RdfStreamMemoryWalkGenerator) pair.getValue0())
+                .generateRandomWalksForEntity("http://www.co-ode.org/ontologies/pizza/pizza.owl#AmericanHot", 10, 4);
+        assertTrue(walks.size() > 0);
+    }
+
+    @Test
+    void readNonExistingFile() {
+        RdfStreamMemoryWalkGenerator generator = new RdfStreamMemoryWalkGenerator();
+        generator.readFile(new File("./does_not_exist.ttl"));
+        assertEquals(0, generator.getDataSize());
+        assertTrue(generator.getEntities().isEmpty());
+    }
+}
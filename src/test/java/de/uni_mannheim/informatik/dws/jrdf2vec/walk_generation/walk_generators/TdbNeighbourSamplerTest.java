@@ -0,0 +1,98 @@
+package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb.TDBFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TdbNeighbourSamplerTest {
+
+
+    private static final File TDB_DIRECTORY = new File("./tdb_neighbour_sampler_test");
+
+    private static final String NS = "http://example.org/";
+
+    @AfterAll
+    static void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(TDB_DIRECTORY);
+    }
+
+    /**
+     * Hub H with 20 successors (and 30 literals) and 10 predecessors.
+     */
+    private static void writeGraph(Model model) {
+        Resource hub = model.createResource(NS + "H");
+        for (int i = 0; i < 20; i++) {
+            hub.addProperty(model.createProperty(NS + "p" + (i % 2)), model.createResource(NS + "O" + i));
+        }
+        for (int i = 0; i < 30; i++) {
+            hub.addProperty(model.createProperty(NS + "label"), "label " + i);
+            hub.addLiteral(model.createProperty(NS + "number"), i);
+        }
+        for (int i = 0; i < 10; i++) {
+            model.createResource(NS + "S" + i).addProperty(model.createProperty(NS + "q"), hub);
+        }
+        model.createResource(NS + "L").addProperty(model.createProperty(NS + "label"), "only a literal");
+    }
+
+    @Test
+    void tdb() {
+        Dataset dataset = TDBFactory.createDataset(TDB_DIRECTORY.getAbsolutePath());
+        Txn.executeWrite(dataset, () -> writeGraph(dataset.getDefaultModel()));
+        TdbNeighbourSampler sampler = new TdbNeighbourSampler(dataset);
+        assertTrue(sampler.isNodeIdLevel());
+        Txn.executeRead(dataset, () -> assertSampler(sampler));
+        TDBFactory.release(dataset);
+    }
+
+    @Test
+    void inMemory() {
+        Dataset dataset = DatasetFactory.createTxnMem();
+        Txn.executeWrite(dataset, () -> writeGraph(dataset.getDefaultModel()));
+        TdbNeighbourSampler sampler = new TdbNeighbourSampler(dataset);
+        assertFalse(sampler.isNodeIdLevel());
+        Txn.executeRead(dataset, () -> assertSampler(sampler));
+    }
+
+    private static void assertSampler(TdbNeighbourSampler sampler) {
+        assertEquals(20, sampler.countForward(NS + "H", Long.MAX_VALUE));
+        assertEquals(5, sampler.countForward(NS + "H", 5));
+        assertEquals(10, sampler.countBackward(NS + "H", Long.MAX_VALUE));
+        assertEquals(0, sampler.countForward(NS + "L", Long.MAX_VALUE));
+        assertEquals(0, sampler.countForward(NS + "unknown", Long.MAX_VALUE));
+
+        String[] edge = new String[2];
+        Set<String> drawn = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            assertTrue(sampler.drawForward(NS + "H", edge));
+            int number = Integer.parseInt(edge[1].substring((NS + "O").length()));
+            assertEquals(NS + "p" + (number % 2), edge[0]);
+            drawn.add(edge[1]);
+        }
+        assertEquals(20, drawn.size());
+
+        drawn.clear();
+        for (int i = 0; i < 300; i++) {
+            assertTrue(sampler.drawBackward(NS + "H", edge));
+            assertEquals(NS + "q", edge[0]);
+            drawn.add(edge[1]);
+        }
+        assertEquals(10, drawn.size());
+
+        assertFalse(sampler.drawForward(NS + "L", edge));
+        assertFalse(sampler.drawBackward(NS + "L", edge));
+        assertFalse(sampler.drawForward(NS + "unknown", edge));
+    }
+}
@@ -1,10 +1,22 @@
 package de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.walk_generators;
 
 import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.data_structures.Triple;
+import de.uni_mannheim.informatik.dws.jrdf2vec.util.Util;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.WalkGenerationManager;
+import de.uni_mannheim.informatik.dws.jrdf2vec.walk_generation.base.WalkGenerationMode;
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb.TDBFactory;
+import org.apache.jena.tdb2.TDB2Factory;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -100,4 +112,156 @@ class TdbWalkGeneratorTest {
         // test error case
         assertNotNull(walkGenerator.getForwardTriples("ERROR_URL"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void neighbourCache() throws Exception {
+        File tdbDirectory = new File("./tdb_walk_generator_test");
+        Dataset tdbDataset = TDBFactory.createDataset(tdbDirectory.getAbsolutePath());
+        RDFDataMgr.read(tdbDataset.getDefaultModel(), loadFile("pizza.ttl").getAbsolutePath());
+        TDBFactory.release(tdbDataset);
+        try {
+            TdbWalkGenerator generator = new TdbWalkGenerator(tdbDirectory.getAbsolutePath());
+            String entity = "http://www.co-ode.org/ontologies/pizza/pizza.owl#VegetableTopping";
+
+            Set<Triple> backward = generator.getBackwardTriples(entity);
+            assertTrue(backward.contains(new Triple("http://www.co-ode.org/ontologies/pizza/pizza.owl#PetitPoisTopping",
+                    "http://www.w3.org/2000/01/rdf-schema#subClassOf", entity)));
+            assertEquals(backward, generator.getBackwardTriples(entity));
+            assertEquals(1, generator.getBackwardCache().getStatistics().hitCount());
+
+            for (int i = 0; i < 20; i++) {
+                for (String walk : generator.generateMidWalksForEntity(entity, 10, 3)) {
+                    assertTrue(walk.contains(entity));
+                }
+                generator.generateWeightedMidWalksForEntity(entity, 10, 3);
+            }
+            assertTrue(generator.getForwardCache().getHitRate() > 0.5);
+            assertTrue(generator.getBackwardCache().getHitRate() > 0.5);
+
+            // without caching, the results are the same
+            generator.setNeighbourCacheSize(0);
+            assertEquals(backward, generator.getBackwardTriples(entity));
+            assertEquals(0, generator.getBackwardCache().size());
+            generator.close();
+        } finally {
+            FileUtils.deleteDirectory(tdbDirectory);
+        }
+    }
+
+    @Test
+    void hubsAreCachedSeparately() {
+        Dataset dataset = DatasetFactory.createTxnMem();
+        Txn.executeWrite(dataset, () -> RDFDataMgr.read(dataset.getDefaultModel(),
+                loadFile("pizza.ttl").getAbsolutePath()));
+        TdbWalkGenerator generator = new TdbWalkGenerator(dataset);
+        String entity = "http://www.co-ode.org/ontologies/pizza/pizza.owl#VegetableTopping";
+        Set<Triple> backward = generator.getBackwardTriples(entity);
+        Set<Triple> forward = generator.getForwardTriples(entity);
+        long cachedNodes = generator.getBackwardCache().size();
+
+        generator.setMaximalCachedDegree(1);
+        assertEquals(1, generator.getMaximalCachedDegree());
+        assertEquals(0, generator.getBackwardCache().size());
+        assertEquals(backward, generator.getBackwardTriples(entity));
+        assertEquals(forward, generator.getForwardTriples(entity));
+        assertEquals(backward.size(), generator.getBackwardDegree(entity));
+        assertEquals(forward.size(), generator.getForwardDegree(entity));
+        assertEquals(forward.size(), generator.getOutDegree(entity));
+        assertTrue(cachedNodes > 0);
+
+        for (int i = 0; i < 100; i++) {
+            String[] edge = generator.drawBackwardEdge(entity);
+            assertTrue(backward.contains(new Triple(edge[1], edge[0], entity)));
+            edge = generator.drawForwardEdge(entity);
+            assertTrue(forward.contains(new Triple(entity, edge[0], edge[1])));
+        }
+        for (int i = 0; i < 20; i++) {
+            for (String walk : generator.generateWeightedMidWalksForEntity(entity, 10, 3)) {
+                assertTrue(walk.contains(entity));
+            }
+            assertFalse(generator.generateMidWalksForEntity(entity, 10, 3).isEmpty());
+        }
+        assertNull(generator.drawForwardEdge("http://example.org/unknown"));
+
+        // hubs are read once and drawn from the hub caches afterwards
+        assertTrue(generator.getBackwardHubCache().size() > 0);
+        assertTrue(generator.getBackwardHubCache().getHitRate() > 0.5);
+        assertTrue(generator.getForwardHubCache().getHitRate() > 0.5);
+
+        // hubs exceeding the hub caches are drawn from the index
+        generator.setHubCacheSize(0);
+        assertEquals(backward, generator.getBackwardTriples(entity));
+        for (int i = 0; i < 100; i++) {
+            String[] edge = generator.drawBackwardEdge(entity);
+            assertTrue(backward.contains(new Triple(edge[1], edge[0], entity)));
+        }
+        assertEquals(0, generator.getBackwardHubCache().size());
+        generator.close();
+    }
+
+    @Test
+    void concurrentWalkGeneration() throws Exception {
+        File tdbDirectory = new File("./tdb_walk_generator_concurrency_test");
+        File walkDirectory = new File("./tdb_walk_generator_concurrency_test_walks");
+        Dataset tdbDataset = TDBFactory.createDataset(tdbDirectory.getAbsolutePath());
+        RDFDataMgr.read(tdbDataset.getDefaultModel(), loadFile("pizza.ttl").getAbsolutePath());
+        TDBFactory.release(tdbDataset);
+        try {
+            for (WalkGenerationMode mode : new WalkGenerationMode[]{WalkGenerationMode.MID_WALKS,
+                    WalkGenerationMode.RANDOM_WALKS_DUPLICATE_FREE}) {
+                WalkGenerationManager manager = new WalkGenerationManager(tdbDirectory);
+                assertTrue(manager.getWalkGenerator() instanceof TdbWalkGenerator);
+                manager.generateWalks(mode, 4, 5, 3, walkDirectory);
+                manager.close();
+
+                File[] walkFiles = walkDirectory.listFiles();
+                assertNotNull(walkFiles);
+                List<String> walks = new ArrayList<>();
+                for (File walkFile : walkFiles) {
+                    walks.addAll(Util.readLinesFromGzippedFile(walkFile));
+                }
+                assertTrue(walks.size() > 100, "Only " + walks.size() + " walks for " + mode + ".");
+                FileUtils.deleteDirectory(walkDirectory);
+            }
+        } finally {
+            FileUtils.deleteDirectory(walkDirectory);
+            FileUtils.deleteDirectory(tdbDirectory);
+        }
+    }
+
+    @Test
+    void tdb2Dataset() throws Exception {
+        File tdb2Directory = new File("./tdb2_walk_generator_test");
+        Dataset tdb2Dataset = TDB2Factory.connectDataset(tdb2Directory.getAbsolutePath());
+        Txn.executeWrite(tdb2Dataset, () -> RDFDataMgr.read(tdb2Dataset.getDefaultModel(),
+                loadFile("pizza.ttl").getAbsolutePath()));
+        tdb2Dataset.close();
+        try {
+            assertTrue(Util.isTdb2Directory(tdb2Directory));
+            TdbWalkGenerator generator = new TdbWalkGenerator(tdb2Directory.getAbsolutePath());
+            String entity = "http://www.co-ode.org/ontologies/pizza/pizza.owl#VegetableTopping";
+            assertFalse(generator.getBackwardTriples(entity).isEmpty());
+            List<String> walks = generator.generateMidWalksForEntity(entity, 10, 3);
+            assertFalse(walks.isEmpty());
+            for (String walk : walks) {
+                assertTrue(walk.contains(entity));
+            }
+            generator.close();
+        } finally {
+            FileUtils.deleteDirectory(tdb2Directory);
+        }
+    }
+
+    @Test
+    void transactionalDataset() {
+        Dataset dataset = DatasetFactory.createTxnMem();
+        Txn.executeWrite(dataset, () -> RDFDataMgr.read(dataset.getDefaultModel(),
+                loadFile("pizza.ttl").getAbsolutePath()));
+        TdbWalkGenerator generator = new TdbWalkGenerator(dataset);
+        String entity = "http://www.co-ode.org/ontologies/pizza/pizza.owl#VegetableTopping";
+        assertFalse(generator.getBackwardTriples(entity).isEmpty());
+        assertFalse(generator.generateMidWalksForEntity(entity, 10, 3).isEmpty());
+        assertFalse(dataset.isInTransaction());
+        generator.close();
+    }
+}